@@ -1,5 +1,8 @@
 package ver3;
 
+import java.util.List;
+import javax.xml.parsers.ParserConfigurationException;
+import org.xml.sax.SAXException;
 import ver3.project_exceptions.IllegalSimulationException;
 
 
@@ -8,8 +11,15 @@ import ver3.project_exceptions.IllegalSimulationException;
  * main() which will execute code to use the project.  The driver is responsible for
  * invoking the run method of the simulation singleton and then running its
  * chart building methods. It stores the results of those methods and then runs
- * the same process again (with different IMPL classes. It then prints out the 
- * strings it has accumulated in order to compare the two runs
+ * the same process again (with different IMPL classes) in a simulation context
+ * of its own. Headless runs are run side by side. It then prints out the 
+ * strings it has accumulated in order to compare the two runs. The second run
+ * uses the New algorithms unless another version, such as Destination, is 
+ * given after the mode, so that the charts of a destination dispatch run can
+ * be set beside those of the up/down buttons. Given Sweep it
+ * instead runs the parameter sweep described in programData.xml and prints
+ * its ranked table. Given Replicate it repeats each version until its average
+ * wait is known to within the interval asked for in programData.xml
  * 
  * 
  * @author Ben McFerren
@@ -18,34 +28,91 @@ import ver3.project_exceptions.IllegalSimulationException;
  */
 public class Driver {
 
+    /**
+     * The argument that runs a parameter sweep instead of the two runs
+     * 
+     * @since Version 1.0
+     * @see Entity_SweepRunner
+     */
+    private static final String SWEEP = "Sweep";
+
+    /**
+     * The argument that runs replications of each version instead of the two runs
+     * 
+     * @since Version 1.0
+     * @see Entity_ReplicationRunner
+     */
+    private static final String REPLICATE = "Replicate";
+
     /**
      * This is the main method for Driver.  This method is automatically run by
      * Java.
      * @since Version 1.0
-     * @param args 
+     * @param args an optional run mode, RealTime (the default), EventDriven,
+     *        Headless or Lockstep, or Sweep or Replicate, followed by an 
+     *        optional version to compare with the Original one, New by default
      */
     public static void main(String[] args) {
         
-        System.out.println("FIRST RUN WITH ORIGINAL ALGORITHMS\n");
-        try {
-            Singl_WorkingSimulation.getInstance().run("Original");
-        } catch (IllegalSimulationException ex) {
-            ex.printStackTrace();
+        final String mode = (args.length > 0 ? args[0] : Singl_WorkingSimulation.REAL_TIME);
+        final String version = (args.length > 1 ? args[1] : "New");
+        
+        for(String ignored : Entity_DispatchStrategyRegistry.getIgnoredStrategies())
+            System.out.println("Ignoring dispatch strategy " + ignored 
+                    + " because it has no name or its name is already taken");
+        
+        if(SWEEP.equals(mode))
+        {
+            runSweep();
+            return;
         }
-        String originalReportA = Singl_WorkingSimulation.getInstance().buildChartA();
-        String originalReportB = Singl_WorkingSimulation.getInstance().buildChartB();
-        String originalReportC = Singl_WorkingSimulation.getInstance().buildChartC();
-
-
-        System.out.println("\n\n\n\nSECOND RUN WITH NEW ALGORITHMS\n");
-        try {
-            Singl_WorkingSimulation.getInstance().run("New");
-        } catch (IllegalSimulationException ex) {
-            ex.printStackTrace();
+        
+        if(REPLICATE.equals(mode))
+        {
+            runReplications();
+            return;
+        }
+        
+        // each run gets a simulation context of its own, so neither run
+        // sees the other's building, controller or people
+        final Entity_SimulationContext originalContext = new Entity_SimulationContext();
+        final Entity_SimulationContext newContext = new Entity_SimulationContext();
+        
+        if(Singl_WorkingSimulation.HEADLESS.equals(mode))
+        {
+            // nothing is printed while a headless run goes, so the two runs
+            // can share the machine without their commentary interleaving
+            Thread originalRun = new Thread(new Runnable() {
+                public void run() {
+                    runVersion(originalContext, "Original", mode);
+                }
+            });
+            originalRun.start();
+            runVersion(newContext, version, mode);
+            
+            try {
+                originalRun.join();
+            } catch (InterruptedException ex) {
+                ex.printStackTrace();
+            }
+        }
+        else
+        {
+            System.out.println("FIRST RUN WITH ORIGINAL ALGORITHMS\n");
+            runVersion(originalContext, "Original", mode);
+            
+            System.out.println("\n\n\n\nSECOND RUN WITH " + version.toUpperCase() 
+                                                            + " ALGORITHMS\n");
+            runVersion(newContext, version, mode);
         }
-        String newReportA = Singl_WorkingSimulation.getInstance().buildChartA();
-        String newReportB = Singl_WorkingSimulation.getInstance().buildChartB();
-        String newReportC = Singl_WorkingSimulation.getInstance().buildChartC();
+        
+        String originalReportA = originalContext.getSimulation().buildChartA();
+        String originalReportB = originalContext.getSimulation().buildChartB();
+        String originalReportC = originalContext.getSimulation().buildChartC();
+        
+        String newReportA = newContext.getSimulation().buildChartA();
+        String newReportB = newContext.getSimulation().buildChartB();
+        String newReportC = newContext.getSimulation().buildChartC();
 
 
         System.out.println("\n\n\n\nPRINTING REPORTS\n");
@@ -57,4 +124,81 @@ public class Driver {
         System.out.println(newReportC);
     }
     
+    /**
+     * Runs the parameter sweep described in programData.xml and prints its
+     * ranked table
+     * 
+     * @since Version 1.0
+     * @see Entity_SweepRunner#readXML(String)
+     */
+    private static void runSweep() {
+        try {
+            Entity_SweepRunner runner 
+                    = Entity_SweepRunner.readXML("src/ver3/programData.xml");
+            
+            long start = System.currentTimeMillis();
+            
+            List<Entity_SweepResult> results = runner.run();
+            
+            System.out.println(Entity_SweepRunner.buildTable(results, 
+                                        runner.getFailedConfigurations()));
+            System.out.println("Sweep finished in " 
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (SAXException ex) {
+            ex.printStackTrace();
+        } catch (ParserConfigurationException ex) {
+            ex.printStackTrace();
+        } catch (IllegalSimulationException ex) {
+            ex.printStackTrace();
+        }
+    }
+    
+    /**
+     * Runs replications of each version with the settings in programData.xml
+     * and prints their reports
+     * 
+     * @since Version 1.0
+     * @see Entity_ReplicationRunner#readXML(String)
+     */
+    private static void runReplications() {
+        try {
+            Entity_ReplicationRunner runner 
+                    = Entity_ReplicationRunner.readXML("src/ver3/programData.xml");
+            
+            for(String version : Entity_DispatchStrategyRegistry.getNames())
+            {
+                long start = System.currentTimeMillis();
+                
+                runner.setVersion(version);
+                runner.run();
+                
+                System.out.println(runner.buildReport() + "Replications finished in "
+                        + (System.currentTimeMillis() - start) + " ms\n\n");
+            }
+        } catch (SAXException ex) {
+            ex.printStackTrace();
+        } catch (ParserConfigurationException ex) {
+            ex.printStackTrace();
+        } catch (IllegalSimulationException ex) {
+            ex.printStackTrace();
+        }
+    }
+    
+    /**
+     * Runs one version of the simulation in the given context
+     * 
+     * @since Version 1.0
+     * @param context the simulation context to run in
+     * @param version the version of the IMPL's to use
+     * @param mode the run mode
+     */
+    private static void runVersion(Entity_SimulationContext context, 
+                                        String version, String mode) {
+        try {
+            context.getSimulation().run(version, mode);
+        } catch (IllegalSimulationException ex) {
+            ex.printStackTrace();
+        }
+    }
+    
 }
@@ -0,0 +1,164 @@
+package ver3;
+
+import java.util.Arrays;
+
+/**
+ * This class solves the assignment problem: given what it costs to give each
+ * of a number of jobs to each of a number of workers, it finds the way of
+ * giving every job to a different worker that costs the least in total. The
+ * hall call batcher uses it to hand a window of hall calls to the elevators,
+ * where a job is a call and a worker is an elevator.
+ *
+ * It is the Hungarian method in its O(n^3) form, which keeps a potential for
+ * every row and column and grows the matching one row at a time along the
+ * cheapest augmenting path. A rectangular problem is padded out to a square
+ * one with rows or columns that cost nothing, so when there are more jobs
+ * than workers some jobs are left without one
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_HallCallBatcher
+ */
+public class Entity_AssignmentSolver {
+
+    /**
+     * The cost used for a job that a worker cannot take. It is far larger
+     * than any real cost but small enough that adding up a whole row of them
+     * does not overflow
+     *
+     * @since Version 1.0
+     * @see #solve(long[][])
+     */
+    public static final long INFEASIBLE = 1L << 40;
+
+    /**
+     * This is a private constructor, as the class only has static methods
+     *
+     * @since Version 1.0
+     */
+    private Entity_AssignmentSolver() {
+    }
+
+    /**
+     * Finds the assignment of jobs to workers with the lowest total cost.
+     * Costs of INFEASIBLE or more are treated as INFEASIBLE, and a job is
+     * never given to a worker that cannot take it
+     *
+     * @since Version 1.0
+     * @see #INFEASIBLE
+     * @param cost the cost of each job (row) for each worker (column); every
+     *        row must be the same length
+     * @return an int array with the worker given to each job, or -1 for a job
+     *         that was not given to anyone
+     */
+    public static int[] solve(long[][] cost) {
+
+        int jobs = cost.length;
+        int workers = (jobs == 0 ? 0 : cost[0].length);
+        int n = Math.max(jobs, workers);
+
+        int[] assignment = new int[jobs];
+        Arrays.fill(assignment, -1);
+
+        if(jobs == 0 || workers == 0)
+            return assignment;
+
+        // rows and columns are counted from one, column zero holds the row
+        // currently being added to the matching
+        long[] rowPotential = new long[n + 1];
+        long[] columnPotential = new long[n + 1];
+        int[] rowOfColumn = new int[n + 1];
+        int[] previousColumn = new int[n + 1];
+        long[] slack = new long[n + 1];
+        boolean[] used = new boolean[n + 1];
+
+        for(int row = 1; row <= n; ++row)
+        {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(slack, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+
+            do
+            {
+                used[column] = true;
+                int currentRow = rowOfColumn[column];
+                long delta = Long.MAX_VALUE;
+                int nextColumn = 0;
+
+                for(int j = 1; j <= n; ++j)
+                {
+                    if(used[j])
+                        continue;
+
+                    long reduced = cellCost(cost, currentRow - 1, j - 1)
+                                    - rowPotential[currentRow] - columnPotential[j];
+
+                    if(reduced < slack[j])
+                    {
+                        slack[j] = reduced;
+                        previousColumn[j] = column;
+                    }
+
+                    if(slack[j] < delta)
+                    {
+                        delta = slack[j];
+                        nextColumn = j;
+                    }
+                }
+
+                for(int j = 0; j <= n; ++j)
+                {
+                    if(used[j])
+                    {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    }
+                    else
+                        slack[j] -= delta;
+                }
+
+                column = nextColumn;
+            }
+            while(rowOfColumn[column] != 0);
+
+            // flip the augmenting path back to the start
+            do
+            {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            }
+            while(column != 0);
+        }
+
+        for(int j = 1; j <= workers; ++j)
+        {
+            int row = rowOfColumn[j] - 1;
+
+            if(row >= 0 && row < jobs && cost[row][j - 1] < INFEASIBLE)
+                assignment[row] = j - 1;
+        }
+
+        return assignment;
+    }
+
+    /**
+     * Returns the cost of a cell of the padded, square problem
+     *
+     * @since Version 1.0
+     * @param cost the costs of the real jobs and workers
+     * @param job the job, counted from zero
+     * @param worker the worker, counted from zero
+     * @return the cost, capped at INFEASIBLE, or zero for a padding cell
+     */
+    private static long cellCost(long[][] cost, int job, int worker) {
+
+        if(job >= cost.length || worker >= cost[job].length)
+            return 0;
+
+        return Math.min(cost[job][worker], INFEASIBLE);
+    }
+
+}
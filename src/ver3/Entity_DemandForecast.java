@@ -0,0 +1,286 @@
+package ver3;
+
+import ver3.project_exceptions.IllegalFloorException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class keeps a running forecast of how often people arrive on each
+ * floor, so idle elevators can be parked where the next calls are expected.
+ * Every arrival counts for one at first, and then for half as much each
+ * time the half life goes by, so the forecast follows the demand as it
+ * shifts during a run.
+ *
+ * Instead of decaying every floor's count each time someone arrives, a new
+ * arrival is counted with a weight that grows with the time since a fixed
+ * reference time, and the counts are only brought back down to that
+ * reference when asked for. An arrival is recorded in constant time. When
+ * the weights grow too large the reference time is moved up to the present,
+ * which touches every floor but only happens once in many half lives.
+ *
+ * A floor's rate is the decayed count of its arrivals divided by the mean
+ * age of a decaying arrival, and is given in people per minute. The
+ * forecast is built for every run and is fed by every floor whatever the
+ * version; only a picker that parks elevators reads it
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Interface_Floor#addPersonToFloor(Interface_Person)
+ * @see IMPL_ElevatorPicker_FORECAST
+ */
+public class Entity_DemandForecast {
+
+    /**
+     * How large the growth exponent of a new arrival's weight may get before
+     * the reference time is moved up to the present
+     *
+     * @since Version 1.0
+     * @see #recordArrival(int)
+     */
+    private static final double MAX_EXPONENT = 40.0;
+
+    /**
+     * The simulation context whose arrivals are counted
+     *
+     * @since Version 1.0
+     */
+    private final Entity_SimulationContext context;
+
+    /**
+     * The fraction of an arrival's count that is lost each simulated
+     * millisecond, the natural logarithm of two over the half life
+     *
+     * @since Version 1.0
+     */
+    private final double decayPerMilli;
+
+    /**
+     * The half life of an arrival's count, in simulated milliseconds
+     *
+     * @since Version 1.0
+     * @see #getHalfLife()
+     */
+    private final long halfLife;
+
+    /**
+     * The weighted count of arrivals on each floor, as of the reference time,
+     * with floor one at index zero
+     *
+     * @since Version 1.0
+     */
+    private final double[] weights;
+
+    /**
+     * The weighted count of arrivals on every floor, as of the reference time
+     *
+     * @since Version 1.0
+     */
+    private double totalWeight = 0;
+
+    /**
+     * The simulated time the weights are counted as of
+     *
+     * @since Version 1.0
+     */
+    private long referenceTime = 0;
+
+    /**
+     * The number of arrivals recorded
+     *
+     * @since Version 1.0
+     * @see #getArrivals()
+     */
+    private long arrivals = 0;
+
+    /**
+     * The number of times an idle elevator was parked somewhere other than
+     * its default floor
+     *
+     * @since Version 1.0
+     * @see #getParkings()
+     */
+    private long parkings = 0;
+
+    /**
+     * Constructs a new forecast that has seen no arrivals
+     *
+     * @since Version 1.0
+     * @param c the simulation context whose arrivals are counted
+     * @param nOF the number of floors in the building
+     * @param hL the half life of an arrival's count, in simulated milliseconds
+     * @throws IllegalSimulationException if the half life is not positive
+     */
+    public Entity_DemandForecast(Entity_SimulationContext c, int nOF, long hL)
+                                            throws IllegalSimulationException {
+
+        if(hL <= 0)
+            throw new IllegalSimulationException("Forecast half life must be "
+                                        + "positive, encountered: " + hL);
+
+        context = c;
+        halfLife = hL;
+        decayPerMilli = Math.log(2) / hL;
+        weights = new double[Math.max(nOF, 0)];
+    }
+
+    /**
+     * Counts a person arriving on a floor at the present simulated time
+     *
+     * @since Version 1.0
+     * @param floor the floor the person arrived on
+     * @throws IllegalFloorException if the floor is not in the building
+     */
+    public synchronized void recordArrival(int floor) throws IllegalFloorException {
+
+        if(floor < 1 || floor > weights.length)
+            throw new IllegalFloorException("Floor does not exist: " + floor);
+
+        long now = context.getSimulation().getCurrentTime();
+        double exponent = decayPerMilli * (now - referenceTime);
+
+        if(exponent > MAX_EXPONENT)
+        {
+            rebase(now);
+            exponent = 0;
+        }
+
+        double weight = Math.exp(exponent);
+
+        weights[floor - 1] += weight;
+        totalWeight += weight;
+        ++arrivals;
+    }
+
+    /**
+     * Moves the reference time up to a later time, bringing every floor's
+     * weight down to what it is worth then
+     *
+     * @since Version 1.0
+     * @param now the new reference time, in simulated milliseconds
+     */
+    private void rebase(long now) {
+
+        double factor = Math.exp(-decayPerMilli * (now - referenceTime));
+
+        for(int i = 0; i < weights.length; ++i)
+            weights[i] *= factor;
+
+        totalWeight *= factor;
+        referenceTime = now;
+    }
+
+    /**
+     * Returns the forecast rate of arrivals on each floor at the present
+     * simulated time, in people per minute
+     *
+     * @since Version 1.0
+     * @return a double array with floor one at index zero
+     */
+    public synchronized double[] getRates() {
+
+        long now = context.getSimulation().getCurrentTime();
+        double scale = Math.exp(-decayPerMilli * (now - referenceTime))
+                                                * decayPerMilli * 60000;
+        double[] rates = new double[weights.length];
+
+        for(int i = 0; i < weights.length; ++i)
+            rates[i] = weights[i] * scale;
+
+        return rates;
+    }
+
+    /**
+     * Returns the forecast rate of arrivals on a floor at the present
+     * simulated time
+     *
+     * @since Version 1.0
+     * @param floor the floor number
+     * @return a double representing people per minute
+     * @throws IllegalFloorException if the floor is not in the building
+     */
+    public synchronized double getRate(int floor) throws IllegalFloorException {
+
+        if(floor < 1 || floor > weights.length)
+            throw new IllegalFloorException("Floor does not exist: " + floor);
+
+        return getRates()[floor - 1];
+    }
+
+    /**
+     * Returns whether any arrival has been counted yet
+     *
+     * @since Version 1.0
+     * @return a boolean that is true once there is a forecast to go by
+     */
+    public synchronized boolean hasDemand() {
+        return totalWeight > 0;
+    }
+
+    /**
+     * Notes that an idle elevator was parked somewhere other than its
+     * default floor
+     *
+     * @since Version 1.0
+     * @see #getParkings()
+     */
+    public synchronized void recordParking() {
+        ++parkings;
+    }
+
+    /**
+     * Returns the half life of an arrival's count
+     *
+     * @since Version 1.0
+     * @return a long representing simulated milliseconds
+     */
+    public long getHalfLife() {
+        return halfLife;
+    }
+
+    /**
+     * Returns the number of arrivals recorded
+     *
+     * @since Version 1.0
+     * @return a long count of people
+     */
+    public synchronized long getArrivals() {
+        return arrivals;
+    }
+
+    /**
+     * Returns the number of times an idle elevator was parked somewhere other
+     * than its default floor
+     *
+     * @since Version 1.0
+     * @return a long count of parkings
+     */
+    public synchronized long getParkings() {
+        return parkings;
+    }
+
+    /**
+     * Builds the line the simulation prints about the forecast when the run
+     * is over
+     *
+     * @since Version 1.0
+     * @return a String report
+     */
+    public synchronized String buildReport() {
+
+        double[] rates = getRates();
+        int busiest = 0;
+
+        for(int i = 1; i < rates.length; ++i)
+        {
+            if(rates[i] > rates[busiest])
+                busiest = i;
+        }
+
+        return "Demand forecast counted " + arrivals + " arrivals and parked idle "
+                + "elevators away from their default floors " + parkings
+                + " times; busiest floor at the end: #"
+                + (busiest + 1) + " at " + (Math.round(rates.length > 0
+                    ? rates[busiest] * 100 : 0) / 100.0) + " people per minute";
+    }
+
+}
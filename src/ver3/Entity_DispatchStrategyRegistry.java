@@ -0,0 +1,244 @@
+package ver3;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * This class is the registry of dispatch strategies, keyed by the version
+ * name a simulation is given. It holds the built in versions, Original, New,
+ * ETA, Batch, Destination and Forecast, followed by any strategies the java.util.ServiceLoader finds
+ * on the class path, in the order it finds them. The registry is filled the
+ * first time it is used
+ *
+ * A strategy found by the ServiceLoader with the name of one already
+ * registered is ignored, so the built in versions cannot be replaced. The
+ * registry prints nothing itself; the ignored strategies are kept for the
+ * Driver to report
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Interface_DispatchStrategy
+ * @see Fact_IMPL_ElevatorPicker
+ * @see Fact_IMPL_PendingProcessor
+ */
+public class Entity_DispatchStrategyRegistry {
+
+    /**
+     * The registered strategies by name, in the order they were registered
+     *
+     * @since Version 1.0
+     * @see #getStrategies()
+     */
+    private static Map<String, Interface_DispatchStrategy> strategies;
+
+    /**
+     * The class names of the strategies that were ignored because their name
+     * was missing or already taken, in the order they were found
+     *
+     * @since Version 1.0
+     * @see #getIgnoredStrategies()
+     */
+    private static List<String> ignored;
+
+    /**
+     * This is a private constructor, as the class only has static methods
+     *
+     * @since Version 1.0
+     */
+    private Entity_DispatchStrategyRegistry() {
+    }
+
+    /**
+     * Returns the registered strategies, filling the registry the first time
+     *
+     * @since Version 1.0
+     * @see #strategies
+     * @return the Map of strategies by name
+     */
+    private static synchronized Map<String, Interface_DispatchStrategy> getStrategies() {
+
+        if(strategies != null)
+            return strategies;
+
+        Map<String, Interface_DispatchStrategy> found
+                = new LinkedHashMap<String, Interface_DispatchStrategy>();
+        List<String> rejected = new ArrayList<String>();
+
+        // Original uses the provided delegates
+        register(found, rejected, new Interface_DispatchStrategy() {
+            public String getName() {
+                return "Original";
+            }
+            public Interface_IMPL_ElevatorPicker buildPicker(Entity_SimulationContext c) {
+                return new IMPL_ElevatorPicker_PROVIDED(c);
+            }
+            public Interface_IMPL_PendingProcessor buildPendingProcessor(Entity_SimulationContext c) {
+                return new IMPL_PendingProcessor_PROVIDED(c);
+            }
+        });
+
+        // New uses the improved ones
+        register(found, rejected, new Interface_DispatchStrategy() {
+            public String getName() {
+                return "New";
+            }
+            public Interface_IMPL_ElevatorPicker buildPicker(Entity_SimulationContext c) {
+                return new IMPL_ElevatorPicker_IMPROVED(c);
+            }
+            public Interface_IMPL_PendingProcessor buildPendingProcessor(Entity_SimulationContext c) {
+                return new IMPL_PendingProcessor_IMPROVED(c);
+            }
+        });
+
+        // ETA picks elevators by their estimated time to arrival
+        register(found, rejected, new Interface_DispatchStrategy() {
+            public String getName() {
+                return "ETA";
+            }
+            public Interface_IMPL_ElevatorPicker buildPicker(Entity_SimulationContext c) {
+                return new IMPL_ElevatorPicker_ETA(c);
+            }
+            public Interface_IMPL_PendingProcessor buildPendingProcessor(Entity_SimulationContext c) {
+                return new IMPL_PendingProcessor_IMPROVED(c);
+            }
+        });
+
+        // Batch hands the hall calls of a short window out together
+        register(found, rejected, new Interface_DispatchStrategy() {
+            public String getName() {
+                return "Batch";
+            }
+            public Interface_IMPL_ElevatorPicker buildPicker(Entity_SimulationContext c) {
+                return new IMPL_ElevatorPicker_BATCH(c);
+            }
+            public Interface_IMPL_PendingProcessor buildPendingProcessor(Entity_SimulationContext c) {
+                return new IMPL_PendingProcessor_IMPROVED(c);
+            }
+        });
+
+        // Destination tells people at kiosks which elevator to take
+        register(found, rejected, new Interface_DispatchStrategy() {
+            public String getName() {
+                return "Destination";
+            }
+            public Interface_IMPL_ElevatorPicker buildPicker(Entity_SimulationContext c) {
+                return new IMPL_ElevatorPicker_DESTINATION(c);
+            }
+            public Interface_IMPL_PendingProcessor buildPendingProcessor(Entity_SimulationContext c) {
+                return new IMPL_PendingProcessor_IMPROVED(c);
+            }
+        });
+
+        // Forecast picks like ETA and parks idle elevators where calls are expected
+        register(found, rejected, new Interface_DispatchStrategy() {
+            public String getName() {
+                return "Forecast";
+            }
+            public Interface_IMPL_ElevatorPicker buildPicker(Entity_SimulationContext c) {
+                return new IMPL_ElevatorPicker_FORECAST(c);
+            }
+            public Interface_IMPL_PendingProcessor buildPendingProcessor(Entity_SimulationContext c) {
+                return new IMPL_PendingProcessor_IMPROVED(c);
+            }
+        });
+
+        // a broken provider on the class path is reported and skipped, so
+        // the built in versions still work
+        Iterator<Interface_DispatchStrategy> loaded
+                = ServiceLoader.load(Interface_DispatchStrategy.class).iterator();
+
+        while(true)
+        {
+            try {
+                if(!loaded.hasNext())
+                    break;
+
+                register(found, rejected, loaded.next());
+            } catch (ServiceConfigurationError ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        ignored = rejected;
+        strategies = found;
+
+        return strategies;
+    }
+
+    /**
+     * Registers a strategy unless one with the same name already is
+     *
+     * @since Version 1.0
+     * @param found the strategies registered so far
+     * @param rejected the class names of the strategies ignored so far
+     * @param strategy the strategy to register
+     */
+    private static void register(Map<String, Interface_DispatchStrategy> found,
+                    List<String> rejected, Interface_DispatchStrategy strategy) {
+
+        String name = strategy.getName();
+
+        if(name == null || found.containsKey(name))
+        {
+            rejected.add(strategy.getClass().getName());
+            return;
+        }
+
+        found.put(name, strategy);
+    }
+
+    /**
+     * Returns the strategy registered under a version name
+     *
+     * @since Version 1.0
+     * @param name the version name
+     * @return the Interface_DispatchStrategy, or null if there is none
+     */
+    public static Interface_DispatchStrategy get(String name) {
+        return getStrategies().get(name);
+    }
+
+    /**
+     * Returns whether a strategy is registered under a version name
+     *
+     * @since Version 1.0
+     * @param name the version name
+     * @return a boolean that is true if a run can be given the version
+     */
+    public static boolean isRegistered(String name) {
+        return getStrategies().containsKey(name);
+    }
+
+    /**
+     * Returns the names of all the registered strategies, the built in
+     * versions first
+     *
+     * @since Version 1.0
+     * @return a String array of version names
+     */
+    public static String[] getNames() {
+        return getStrategies().keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Returns the class names of the strategies found on the class path that
+     * were ignored because they had no name or the name of one already
+     * registered
+     *
+     * @since Version 1.0
+     * @return a String array of class names, empty if none were ignored
+     */
+    public static synchronized String[] getIgnoredStrategies() {
+
+        getStrategies();
+
+        return ignored.toArray(new String[0]);
+    }
+
+}
@@ -0,0 +1,248 @@
+package ver3;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class is the completion barrier the simulation waits on while it drains
+ * the building at the end of a run. Once people stop arriving the simulation
+ * opens the barrier, and from then on every elevator that goes idle, every
+ * floor that is emptied and the controller whenever its pending list empties
+ * signals it. Each signal bumps a generation count and wakes the simulation,
+ * which then checks whether the building is empty. Between signals nothing
+ * can have finished, so the simulation has no reason to poll.
+ *
+ * The barrier does nothing while it is closed, so the participants can signal
+ * it unconditionally during the rest of the run without paying for it
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Singl_WorkingSimulation
+ */
+public class Entity_DrainBarrier {
+
+    /**
+     * The simulation context whose building is being drained
+     *
+     * @since Version 1.0
+     */
+    private final Entity_SimulationContext context;
+
+    /**
+     * The lock guarding the generation count
+     *
+     * @since Version 1.0
+     * @see #signal()
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The condition the simulation waits on for the next signal
+     *
+     * @since Version 1.0
+     * @see #awaitSignal(long, long)
+     */
+    private final Condition quiescent = lock.newCondition();
+
+    /**
+     * The number of signals received since the barrier was opened
+     *
+     * @since Version 1.0
+     * @see #getGeneration()
+     */
+    private long generation = 0;
+
+    /**
+     * A boolean that is true while the building is being drained
+     *
+     * @since Version 1.0
+     * @see #open()
+     * @see #close()
+     */
+    private volatile boolean draining = false;
+
+    /**
+     * Constructs a new, closed barrier for the building of the given context
+     *
+     * @since Version 1.0
+     * @param c the simulation context whose building will be drained
+     */
+    public Entity_DrainBarrier(Entity_SimulationContext c) {
+        context = c;
+    }
+
+    /**
+     * Opens the barrier so that signals are counted
+     *
+     * @since Version 1.0
+     * @see #draining
+     */
+    public void open() {
+
+        lock.lock();
+        try {
+            generation = 0;
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the barrier once the building has drained
+     *
+     * @since Version 1.0
+     * @see #draining
+     */
+    public void close() {
+        draining = false;
+    }
+
+    /**
+     * Returns whether the barrier is open
+     *
+     * @since Version 1.0
+     * @see #draining
+     * @return a boolean that is true while the building is being drained
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Tells the barrier that a participant has gone quiescent. It is ignored
+     * unless the barrier is open
+     *
+     * @since Version 1.0
+     * @see #generation
+     */
+    public void signal() {
+
+        if(!draining)
+            return;
+
+        lock.lock();
+        try {
+            ++generation;
+            quiescent.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of signals received since the barrier was opened.
+     * Read it before checking the building, then pass it to awaitSignal, so a
+     * signal that arrives in between is not missed
+     *
+     * @since Version 1.0
+     * @see #generation
+     * @return a long count of signals
+     */
+    public long getGeneration() {
+
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a signal newer than the given generation arrives or the
+     * given time runs out. Only used when the elevators run on threads of
+     * their own
+     *
+     * @since Version 1.0
+     * @see #quiescent
+     * @param seen the generation read before the building was last checked
+     * @param nanos the longest time to wait, in real nanoseconds
+     * @return a boolean that is true if a signal arrived
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean awaitSignal(long seen, long nanos) throws InterruptedException {
+
+        lock.lock();
+        try {
+            while(generation == seen && nanos > 0)
+                nanos = quiescent.awaitNanos(nanos);
+
+            return generation != seen;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether every elevator is idle: it has stopped and has nowhere
+     * left to go
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if no elevator has any work
+     */
+    public boolean areElevatorsIdle() {
+
+        List<Interface_Elevator> eList = context.getBuilding().getElevatorList();
+
+        for(Interface_Elevator elevator : eList)
+        {
+            if(!elevator.getDestinationList().isEmpty()
+                    || elevator.getDirection() != 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns whether the building is empty: every elevator is idle, no one
+     * is riding, waiting or about to arrive, and the controller has nothing 
+     * pending
+     *
+     * @since Version 1.0
+     * @see #areElevatorsIdle()
+     * @return a boolean that is true once the building has drained
+     */
+    public boolean isBuildingEmpty() {
+
+        if(!areElevatorsIdle())
+            return false;
+
+        for(Interface_Elevator elevator : context.getBuilding().getElevatorList())
+        {
+            if(!elevator.getPassengerList().isEmpty())
+                return false;
+        }
+
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
+        {
+            if(floor.getNumberOfWaitingPeopleCurrentlyOnFloor() != 0
+                    || floor.getNumberOfArrivingPeople() != 0)
+                return false;
+        }
+
+        return context.getController().getPendingCalls().isEmpty();
+    }
+
+    /**
+     * Converts simulated milliseconds to the real nanoseconds they take at
+     * the simulation's time scale
+     *
+     * @since Version 1.0
+     * @see Singl_WorkingSimulation#getScaledMillis(long)
+     * @param simMillis a number of simulated milliseconds
+     * @return a long number of real nanoseconds
+     */
+    public long toRealNanos(long simMillis) {
+
+        Singl_WorkingSimulation simulation = context.getSimulation();
+
+        return TimeUnit.MILLISECONDS.toNanos(simulation.getScaledMillis(simMillis))
+                + simulation.getScaledNanos(simMillis);
+    }
+
+}
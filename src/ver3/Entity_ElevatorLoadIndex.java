@@ -0,0 +1,401 @@
+package ver3;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * This class keeps an index of where every elevator of a simulation is, which
+ * way it is heading and how many destinations it has. The elevators update it
+ * whenever one of those changes, so an elevator picker can find the elevators
+ * that are approaching a floor, or idle near it, with a tree lookup instead of
+ * walking the whole elevator list, and can work out the average number of
+ * destinations without adding them up again for every request.
+ *
+ * For each direction (down, idle and up) the index maps a floor to the serial
+ * numbers of the elevators on it. The running total of destinations is kept
+ * next to them. The methods are synchronized, and the Iterables it returns are
+ * views of the live index, so walk them while holding the index's lock:
+ *
+ *      synchronized(index) {
+ *          for(int serial : index.getApproachingElevators(floor, direction))
+ *              ...
+ *      }
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see IMPL_ElevatorPicker_IMPROVED
+ * @see Entity_WorkingElevator
+ */
+public class Entity_ElevatorLoadIndex {
+
+    /**
+     * The elevators heading down by the floor they are on
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     */
+    private final TreeMap<Integer, TreeSet<Integer>> down
+                                    = new TreeMap<Integer, TreeSet<Integer>>();
+
+    /**
+     * The idle elevators by the floor they are on
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     */
+    private final TreeMap<Integer, TreeSet<Integer>> idle
+                                    = new TreeMap<Integer, TreeSet<Integer>>();
+
+    /**
+     * The elevators heading up by the floor they are on
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     */
+    private final TreeMap<Integer, TreeSet<Integer>> up
+                                    = new TreeMap<Integer, TreeSet<Integer>>();
+
+    /**
+     * The last floor, direction and number of destinations each elevator
+     * reported, keyed by its serial number
+     *
+     * @since Version 1.0
+     * @see #update(int, int, int, int)
+     */
+    private final Map<Integer, int[]> entries = new HashMap<Integer, int[]>();
+
+    /**
+     * The number of destinations of all the elevators added together
+     *
+     * @since Version 1.0
+     * @see #getTotalDestinations()
+     */
+    private long totalDestinations = 0;
+
+    /**
+     * Constructs a new, empty index
+     *
+     * @since Version 1.0
+     */
+    public Entity_ElevatorLoadIndex() {
+    }
+
+    /**
+     * Records where an elevator is, which way it is heading and how many
+     * destinations it has. An elevator the index has not seen before is added
+     *
+     * @since Version 1.0
+     * @see #entries
+     * @param serial the serial number of the elevator
+     * @param floor the floor the elevator is on
+     * @param direction the direction of the elevator, -1, 0 or 1
+     * @param destinations the number of destinations the elevator has
+     */
+    public synchronized void update(int serial, int floor, int direction,
+                                                            int destinations) {
+
+        int[] entry = entries.get(serial);
+
+        if(entry == null)
+        {
+            entry = new int[] {floor, direction, 0};
+            entries.put(serial, entry);
+            add(serial, floor, direction);
+        }
+        else if(entry[0] != floor || entry[1] != direction)
+        {
+            remove(serial, entry[0], entry[1]);
+            entry[0] = floor;
+            entry[1] = direction;
+            add(serial, floor, direction);
+        }
+
+        totalDestinations += destinations - entry[2];
+        entry[2] = destinations;
+    }
+
+    /**
+     * Returns the number of elevators in the index
+     *
+     * @since Version 1.0
+     * @see #entries
+     * @return an int count of elevators
+     */
+    public synchronized int getNumberOfElevators() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of destinations of all the elevators added together
+     *
+     * @since Version 1.0
+     * @see #totalDestinations
+     * @return a long count of destinations
+     */
+    public synchronized long getTotalDestinations() {
+        return totalDestinations;
+    }
+
+    /**
+     * Returns the number of destinations an elevator last reported
+     *
+     * @since Version 1.0
+     * @see #entries
+     * @param serial the serial number of the elevator
+     * @return an int count of destinations, zero if the elevator is unknown
+     */
+    public synchronized int getDestinations(int serial) {
+
+        int[] entry = entries.get(serial);
+
+        return (entry == null ? 0 : entry[2]);
+    }
+
+    /**
+     * Returns the average number of destinations of the elevators other than
+     * the given one, rounded down. An elevator with no destinations counts
+     * itself in, since it pulls the average down rather than up
+     *
+     * @since Version 1.0
+     * @see #totalDestinations
+     * @param serial the serial number of the elevator to compare
+     * @return an int average, zero if there are no other elevators to compare with
+     */
+    public synchronized int getAverageDestinationsExcluding(int serial) {
+
+        if(entries.isEmpty())
+            return 0;
+
+        int own = getDestinations(serial);
+
+        if(own == 0)
+            return (int) (totalDestinations / entries.size());
+
+        if(entries.size() < 2)
+            return 0;
+
+        return (int) ((totalDestinations - own) / (entries.size() - 1));
+    }
+
+    /**
+     * Returns the serial numbers of the elevators on a floor that are heading
+     * the given way, lowest first
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     * @param floor the floor number
+     * @param direction the direction, -1, 0 or 1
+     * @return a view of the serial numbers; hold the index's lock while walking it
+     */
+    public synchronized Iterable<Integer> getElevatorsOnFloor(int floor, int direction) {
+
+        TreeSet<Integer> serials = byFloor(direction).get(floor);
+
+        if(serials == null)
+            return Collections.<Integer>emptySet();
+
+        return serials;
+    }
+
+    /**
+     * Returns the serial numbers of the elevators heading the given way that
+     * will still pass the floor, nearest first. An elevator on the floor
+     * itself is included. Elevators on the same floor come highest serial
+     * number first
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     * @param floor the floor number
+     * @param direction the direction of the elevators, -1 or 1
+     * @return a view of the serial numbers; hold the index's lock while walking it
+     */
+    public synchronized Iterable<Integer> getApproachingElevators(int floor, int direction) {
+
+        // an elevator going up reaches the floor from below it, one going
+        // down reaches it from above
+        NavigableMap<Integer, TreeSet<Integer>> approaching = (direction == 1
+                ? up.headMap(floor, true).descendingMap()
+                : down.tailMap(floor, true));
+
+        return flatten(approaching.values());
+    }
+
+    /**
+     * Returns the serial numbers of the idle elevators, nearest to the floor
+     * first. Of two elevators the same distance away the one below the floor
+     * comes first, and elevators on the same floor come highest serial
+     * number first
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     * @param floor the floor number
+     * @return a view of the serial numbers; hold the index's lock while walking it
+     */
+    public synchronized Iterable<Integer> getIdleElevators(final int floor) {
+
+        final NavigableMap<Integer, TreeSet<Integer>> below
+                                = idle.headMap(floor, true).descendingMap();
+        final NavigableMap<Integer, TreeSet<Integer>> above
+                                = idle.tailMap(floor, false);
+
+        return new Iterable<Integer>() {
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+
+                    Iterator<Map.Entry<Integer, TreeSet<Integer>>> down
+                                                = below.entrySet().iterator();
+                    Iterator<Map.Entry<Integer, TreeSet<Integer>>> up
+                                                = above.entrySet().iterator();
+                    Map.Entry<Integer, TreeSet<Integer>> nextDown = next(down);
+                    Map.Entry<Integer, TreeSet<Integer>> nextUp = next(up);
+                    Iterator<Integer> current = Collections.<Integer>emptySet().iterator();
+
+                    public boolean hasNext() {
+
+                        while(!current.hasNext())
+                        {
+                            if(nextDown == null && nextUp == null)
+                                return false;
+
+                            // take whichever side is closer to the floor
+                            if(nextUp == null || (nextDown != null
+                                    && floor - nextDown.getKey() <= nextUp.getKey() - floor))
+                            {
+                                current = nextDown.getValue().descendingIterator();
+                                nextDown = next(down);
+                            }
+                            else
+                            {
+                                current = nextUp.getValue().descendingIterator();
+                                nextUp = next(up);
+                            }
+                        }
+
+                        return true;
+                    }
+
+                    public Integer next() {
+
+                        if(!hasNext())
+                            throw new NoSuchElementException();
+
+                        return current.next();
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    private Map.Entry<Integer, TreeSet<Integer>> next(
+                            Iterator<Map.Entry<Integer, TreeSet<Integer>>> side) {
+                        return (side.hasNext() ? side.next() : null);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns an Iterable that walks each set of serial numbers in turn,
+     * highest first
+     *
+     * @since Version 1.0
+     * @param sets the sets of serial numbers, in the order to walk them
+     * @return a view of the serial numbers
+     */
+    private Iterable<Integer> flatten(final Iterable<TreeSet<Integer>> sets) {
+
+        return new Iterable<Integer>() {
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+
+                    Iterator<TreeSet<Integer>> outer = sets.iterator();
+                    Iterator<Integer> current = Collections.<Integer>emptySet().iterator();
+
+                    public boolean hasNext() {
+
+                        while(!current.hasNext() && outer.hasNext())
+                            current = outer.next().descendingIterator();
+
+                        return current.hasNext();
+                    }
+
+                    public Integer next() {
+
+                        if(!hasNext())
+                            throw new NoSuchElementException();
+
+                        return current.next();
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Adds an elevator to the floor map of its direction
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     * @param serial the serial number of the elevator
+     * @param floor the floor the elevator is on
+     * @param direction the direction of the elevator
+     */
+    private void add(int serial, int floor, int direction) {
+
+        TreeSet<Integer> serials = byFloor(direction).get(floor);
+
+        if(serials == null)
+        {
+            serials = new TreeSet<Integer>();
+            byFloor(direction).put(floor, serials);
+        }
+
+        serials.add(serial);
+    }
+
+    /**
+     * Removes an elevator from the floor map of its direction
+     *
+     * @since Version 1.0
+     * @see #byFloor(int)
+     * @param serial the serial number of the elevator
+     * @param floor the floor the elevator was on
+     * @param direction the direction the elevator was heading
+     */
+    private void remove(int serial, int floor, int direction) {
+
+        TreeSet<Integer> serials = byFloor(direction).get(floor);
+
+        if(serials == null)
+            return;
+
+        serials.remove(serial);
+
+        if(serials.isEmpty())
+            byFloor(direction).remove(floor);
+    }
+
+    /**
+     * Returns the floor map of a direction
+     *
+     * @since Version 1.0
+     * @param direction the direction, -1, 0 or 1
+     * @return the TreeMap of the elevators heading that way by floor
+     */
+    private TreeMap<Integer, TreeSet<Integer>> byFloor(int direction) {
+        return (direction == -1 ? down : (direction == 1 ? up : idle));
+    }
+
+}
@@ -0,0 +1,354 @@
+package ver3;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class is the mailbox an elevator running on a thread of its own is
+ * sent commands through. Only the elevator's thread changes the elevator,
+ * so the controller, the dispatchers and the other elevators post what they
+ * want done here and the elevator carries the commands out, in the order
+ * they were posted, the next time it looks at its mailbox.
+ *
+ * Any number of threads may post, but only the elevator's thread takes
+ * commands out. Posting swaps the new command in as the last one and then
+ * links the one before it to it, so it never waits on a lock or on another
+ * poster. A command that is being linked in is not seen until the link is
+ * made, which is why a poster only wakes the elevator after posting
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_WorkingElevator#run()
+ */
+public class Entity_ElevatorMailbox {
+
+    /**
+     * Command type used to add a floor to the elevator's stops
+     *
+     * @since Version 1.0
+     */
+    public static final int ADD_STOP = 1;
+
+    /**
+     * Command type used to change the elevator's direction
+     *
+     * @since Version 1.0
+     */
+    public static final int SET_DIRECTION = 2;
+
+    /**
+     * Command type used to put a person on board the elevator
+     *
+     * @since Version 1.0
+     */
+    public static final int BOARD = 3;
+
+    /**
+     * Command type used to have a parked elevator ask the controller for
+     * the pending requests
+     *
+     * @since Version 1.0
+     */
+    public static final int PENDING_REQUEST = 4;
+
+    /**
+     * Command type used to wake an elevator that has been shut down, so that
+     * it stops instead of waiting for work that will not come
+     *
+     * @since Version 1.0
+     */
+    public static final int DRAIN = 5;
+
+    /**
+     * Command type used to take a floor a hall call put there off the
+     * elevator's stops, so the hall call reassigner can give the call to
+     * another elevator
+     *
+     * @since Version 1.0
+     * @see Entity_HallCallReassigner
+     */
+    public static final int WITHDRAW = 6;
+
+    /**
+     * A command posted to the elevator, linked to the one posted after it
+     *
+     * @since Version 1.0
+     */
+    public static final class Command {
+
+        /**
+         * The kind of command this is
+         *
+         * @since Version 1.0
+         * @see #getType()
+         */
+        private final int type;
+
+        /**
+         * The floor or direction the command is about
+         *
+         * @since Version 1.0
+         * @see #getValue()
+         */
+        private final int value;
+
+        /**
+         * The person a board command is about
+         *
+         * @since Version 1.0
+         * @see #getPerson()
+         */
+        private final Interface_Person person;
+
+        /**
+         * The command posted after this one, set once the poster links it in
+         *
+         * @since Version 1.0
+         */
+        private volatile Command next;
+
+        /**
+         * Whether the command is still waiting, a poster has undertaken to
+         * wake the elevator's thread for it, or the thread has taken it
+         *
+         * @since Version 1.0
+         * @see #claimWakeup()
+         * @see #markTaken()
+         */
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        /**
+         * The state of a command nobody has done anything with yet
+         *
+         * @since Version 1.0
+         */
+        private static final int WAITING = 0;
+
+        /**
+         * The state of a command whose poster is waking the elevator's thread
+         *
+         * @since Version 1.0
+         */
+        private static final int WAKING = 1;
+
+        /**
+         * The state of a command the elevator's thread has taken
+         *
+         * @since Version 1.0
+         */
+        private static final int TAKEN = 2;
+
+        /**
+         * A boolean set by the poster that undertook to wake the elevator's
+         * thread for the command, once it has done so
+         *
+         * @since Version 1.0
+         * @see #markWoken()
+         * @see #isWoken()
+         */
+        private volatile boolean woken;
+
+        /**
+         * Constructs a new command
+         *
+         * @since Version 1.0
+         * @param t the command type
+         * @param v the floor or direction the command is about
+         * @param p the person the command is about, or null
+         */
+        private Command(int t, int v, Interface_Person p) {
+            type = t;
+            value = v;
+            person = p;
+        }
+
+        /**
+         * Returns the kind of command this is
+         *
+         * @since Version 1.0
+         * @return an int command type
+         */
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * Returns the floor or direction the command is about
+         *
+         * @since Version 1.0
+         * @return an int floor or direction
+         */
+        public int getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the person the command is about
+         *
+         * @since Version 1.0
+         * @return the Interface_Person, or null if the command is not a board
+         */
+        public Interface_Person getPerson() {
+            return person;
+        }
+
+        /**
+         * Undertakes to wake the elevator's thread for the command, unless
+         * the thread has already taken it and so needs no waking
+         *
+         * @since Version 1.0
+         * @see #markTaken()
+         * @see #markWoken()
+         * @return a boolean that is true if the poster should wake the thread
+         */
+        public boolean claimWakeup() {
+            return state.compareAndSet(WAITING, WAKING);
+        }
+
+        /**
+         * Marks the command's wake up as sent. Only the poster that claimed
+         * the wake up does this, straight after unparking the elevator's
+         * thread
+         *
+         * @since Version 1.0
+         * @see #claimWakeup()
+         */
+        public void markWoken() {
+            woken = true;
+        }
+
+        /**
+         * Returns whether the poster that undertook to wake the elevator's
+         * thread for the command has unparked it, so no wake up for the
+         * command is still on its way
+         *
+         * @since Version 1.0
+         * @see #markWoken()
+         * @return a boolean that is true once the wake up has been sent
+         */
+        public boolean isWoken() {
+            return woken;
+        }
+
+        /**
+         * Marks the command as carried out. Only the elevator's thread does
+         * this
+         *
+         * @since Version 1.0
+         * @see #isTaken()
+         * @return a boolean that is false if a poster had undertaken to wake
+         *         the thread for the command, so a wake up may still be on
+         *         its way
+         */
+        public boolean markTaken() {
+            return state.getAndSet(TAKEN) != WAKING;
+        }
+
+        /**
+         * Returns whether the elevator has carried the command out
+         *
+         * @since Version 1.0
+         * @return a boolean that is true once the command has been carried out
+         */
+        public boolean isTaken() {
+            return state.get() == TAKEN;
+        }
+    }
+
+    /**
+     * The command last taken out, whose next is the first still waiting. It
+     * starts as a placeholder that is not a command
+     *
+     * @since Version 1.0
+     * @see #poll()
+     */
+    private Command head = new Command(0, 0, null);
+
+    /**
+     * The command last posted
+     *
+     * @since Version 1.0
+     * @see #post(int, int, Interface_Person)
+     */
+    private final AtomicReference<Command> tail = new AtomicReference<Command>(head);
+
+    /**
+     * The number of commands posted
+     *
+     * @since Version 1.0
+     * @see #getCommandsPosted()
+     */
+    private final AtomicLong commandsPosted = new AtomicLong();
+
+    /**
+     * Posts a command for the elevator. Any thread may post
+     *
+     * @since Version 1.0
+     * @param type the command type
+     * @param value the floor or direction the command is about
+     * @param person the person the command is about, or null
+     * @return the Command posted
+     */
+    public Command post(int type, int value, Interface_Person person) {
+
+        Command command = new Command(type, value, person);
+
+        tail.getAndSet(command).next = command;
+        commandsPosted.incrementAndGet();
+
+        return command;
+    }
+
+    /**
+     * Takes the first command still waiting out of the mailbox. Only the
+     * elevator's thread may take commands out
+     *
+     * @since Version 1.0
+     * @return the Command posted first, or null if none has been linked in
+     */
+    public Command poll() {
+
+        Command next = head.next;
+
+        if(next == null)
+            return null;
+
+        head = next;
+
+        return next;
+    }
+
+    /**
+     * Returns whether no command is waiting. Only the elevator's thread may
+     * ask
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if there is nothing to take out
+     */
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    /**
+     * Throws away every command waiting, for a new run. Only the elevator's
+     * thread, or a thread starting it, may clear the mailbox
+     *
+     * @since Version 1.0
+     */
+    public void clear() {
+        while(poll() != null);
+    }
+
+    /**
+     * Returns the number of commands posted
+     *
+     * @since Version 1.0
+     * @return a long count of commands
+     */
+    public long getCommandsPosted() {
+        return commandsPosted.get();
+    }
+
+}
@@ -0,0 +1,354 @@
+package ver3;
+
+/**
+ * This class is a picture of an elevator taken at one moment: its floor, its
+ * direction, whether its doors are open, how many people it holds and the
+ * floors it is going to stop at. An elevator publishes a new one every time
+ * any of these change, so the pickers and pending processors read one
+ * snapshot per elevator instead of asking it for each of these separately
+ * while it moves, and what they read always fits together.
+ *
+ * A snapshot never changes once it is made. Each one an elevator publishes
+ * has a higher version than the one before, so a picker that decided on a
+ * snapshot can tell afterwards whether the elevator has moved on since, and
+ * whether what it decided still holds.
+ *
+ * A stop or a turn posted to an elevator on a thread of its own is published
+ * straight away, before the elevator's thread has taken it, so the next
+ * picker sees the elevator as it is about to be rather than still idle
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Interface_Elevator#getSnapshot()
+ */
+public final class Entity_ElevatorSnapshot {
+
+    /**
+     * The number of times a picker makes a decision again when the elevator
+     * it chose has gone stale, before it sends the elevator anyway
+     *
+     * @since Version 1.0
+     * @see #hasGoneStale(Interface_Elevator, int, int)
+     */
+    public static final int MAX_STALE_RETRIES = 2;
+
+    /**
+     * The serial number of the elevator
+     *
+     * @since Version 1.0
+     * @see #getSerialNumber()
+     */
+    private final int serialNumber;
+
+    /**
+     * The floor the elevator was on
+     *
+     * @since Version 1.0
+     * @see #getCurrentFloor()
+     */
+    private final int currentFloor;
+
+    /**
+     * The direction the elevator was heading, -1, 0 or 1
+     *
+     * @since Version 1.0
+     * @see #getDirection()
+     */
+    private final int direction;
+
+    /**
+     * Whether the elevator's doors were open
+     *
+     * @since Version 1.0
+     * @see #getDoorsAreOpen()
+     */
+    private final boolean doorsAreOpen;
+
+    /**
+     * The number of people on board
+     *
+     * @since Version 1.0
+     * @see #getLoad()
+     */
+    private final int load;
+
+    /**
+     * The floors the elevator was going to stop at, floor f being bit f % 64
+     * of word f / 64
+     *
+     * @since Version 1.0
+     * @see #isStoppingAt(int)
+     */
+    private final long[] stops;
+
+    /**
+     * The number of floors the elevator was going to stop at
+     *
+     * @since Version 1.0
+     * @see #getDestinationCount()
+     */
+    private final int destinationCount;
+
+    /**
+     * The version of the snapshot, higher for each one the elevator publishes
+     *
+     * @since Version 1.0
+     * @see #getVersion()
+     */
+    private final long version;
+
+    /**
+     * Constructs a new snapshot
+     *
+     * @since Version 1.0
+     * @see Entity_StopSet#toWords()
+     * @param sN the serial number of the elevator
+     * @param floor the floor the elevator is on
+     * @param dir the direction the elevator is heading
+     * @param dAO whether the elevator's doors are open
+     * @param l the number of people on board
+     * @param s the stops, one bit per floor, which are copied
+     * @param v the version of the snapshot
+     */
+    public Entity_ElevatorSnapshot(int sN, int floor, int dir, boolean dAO,
+                                                int l, long[] s, long v) {
+        serialNumber = sN;
+        currentFloor = floor;
+        direction = dir;
+        doorsAreOpen = dAO;
+        load = l;
+        stops = s.clone();
+        version = v;
+
+        int count = 0;
+
+        for(long word : stops)
+            count += Long.bitCount(word);
+
+        destinationCount = count;
+    }
+
+    /**
+     * Returns the serial number of the elevator
+     *
+     * @since Version 1.0
+     * @return an int serial number
+     */
+    public int getSerialNumber() {
+        return serialNumber;
+    }
+
+    /**
+     * Returns the floor the elevator was on
+     *
+     * @since Version 1.0
+     * @return an int floor number
+     */
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    /**
+     * Returns the direction the elevator was heading
+     *
+     * @since Version 1.0
+     * @return an int that is 1 for up, -1 for down and 0 for idle
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns whether the elevator's doors were open
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if the doors were open
+     */
+    public boolean getDoorsAreOpen() {
+        return doorsAreOpen;
+    }
+
+    /**
+     * Returns the number of people on board
+     *
+     * @since Version 1.0
+     * @return an int count of people
+     */
+    public int getLoad() {
+        return load;
+    }
+
+    /**
+     * Returns the number of floors the elevator was going to stop at
+     *
+     * @since Version 1.0
+     * @return an int count of floors
+     */
+    public int getDestinationCount() {
+        return destinationCount;
+    }
+
+    /**
+     * Returns the version of the snapshot
+     *
+     * @since Version 1.0
+     * @see #hasGoneStale(Interface_Elevator, int, int)
+     * @return a long that is higher for each snapshot the elevator publishes
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the snapshot the elevator will have once it takes a stop posted
+     * to it: the floor is one of its stops, and an idle elevator heads toward
+     * it, as it does when it takes its only stop
+     *
+     * @since Version 1.0
+     * @see Entity_WorkingElevator#addToDestinationList(int)
+     * @param floor the floor of the stop
+     * @param v the version of the new snapshot
+     * @return a new Entity_ElevatorSnapshot
+     */
+    public Entity_ElevatorSnapshot withPostedStop(int floor, long v) {
+
+        long[] words = stops.clone();
+
+        if(floor >= 0 && (floor >>> 6) < words.length)
+            words[floor >>> 6] |= 1L << floor;
+
+        int dir = (direction != 0 ? direction
+                    : (floor > currentFloor ? 1 : (floor < currentFloor ? -1 : 0)));
+
+        return new Entity_ElevatorSnapshot(serialNumber, currentFloor, dir,
+                                                doorsAreOpen, load, words, v);
+    }
+
+    /**
+     * Returns the snapshot the elevator will have once it takes a turn posted
+     * to it. Only an idle elevator is turned
+     *
+     * @since Version 1.0
+     * @see Entity_WorkingElevator#setDirection(int)
+     * @param dir the direction posted
+     * @param v the version of the new snapshot
+     * @return a new Entity_ElevatorSnapshot
+     */
+    public Entity_ElevatorSnapshot withPostedDirection(int dir, long v) {
+
+        return new Entity_ElevatorSnapshot(serialNumber, currentFloor,
+                        (direction == 0 ? dir : direction), doorsAreOpen, load, stops, v);
+    }
+
+    /**
+     * Returns whether the elevator was going to stop at a floor
+     *
+     * @since Version 1.0
+     * @param floor the floor
+     * @return a boolean that is true if the floor was one of its stops
+     */
+    public boolean isStoppingAt(int floor) {
+
+        if(floor < 0 || (floor >>> 6) >= stops.length)
+            return false;
+
+        return (stops[floor >>> 6] & (1L << floor)) != 0;
+    }
+
+    /**
+     * Returns the lowest floor the elevator was going to stop at that is no
+     * lower than a given floor. Starting from zero and then from one above
+     * each stop found walks all the stops, lowest first
+     *
+     * @since Version 1.0
+     * @param from the floor to start looking from
+     * @return an int floor number, or -1 if there is no such stop
+     */
+    public int nextDestination(int from) {
+
+        if(from < 0)
+            from = 0;
+
+        int i = from >>> 6;
+
+        if(i >= stops.length)
+            return -1;
+
+        long word = stops[i] & (-1L << from);
+
+        while(true)
+        {
+            if(word != 0)
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+
+            if(++i == stops.length)
+                return -1;
+
+            word = stops[i];
+        }
+    }
+
+    /**
+     * Returns whether the elevator was standing on a floor with its doors
+     * open, idle or heading the requested way, so that it could simply take
+     * a request from there
+     *
+     * @since Version 1.0
+     * @param floor the requesting floor
+     * @param dir the direction of the request
+     * @return a boolean that is true if the elevator was open on the floor
+     */
+    public boolean isOpenOn(int floor, int dir) {
+        return floor == currentFloor && doorsAreOpen
+                        && (direction == dir || direction == 0);
+    }
+
+    /**
+     * Returns whether the elevator was heading the requested way and had not
+     * yet passed the floor
+     *
+     * @since Version 1.0
+     * @param floor the requesting floor
+     * @param dir the direction of the request
+     * @return a boolean that is true if the elevator was coming to the floor
+     */
+    public boolean isApproaching(int floor, int dir) {
+        return direction != 0 && direction == dir
+                        && direction * (floor - currentFloor) >= 0;
+    }
+
+    /**
+     * Returns whether the elevator could have been given a request, which it
+     * could if it was open on the floor, coming to it or idle
+     *
+     * @since Version 1.0
+     * @param floor the requesting floor
+     * @param dir the direction of the request
+     * @return a boolean that is true if the elevator could serve the request
+     */
+    public boolean canServe(int floor, int dir) {
+        return direction == 0 || isOpenOn(floor, dir) || isApproaching(floor, dir);
+    }
+
+    /**
+     * Returns whether a decision to send the elevator to a request, made on
+     * this snapshot, no longer holds. It holds if the elevator has published
+     * nothing since, or if what it has published since could still serve
+     * the request
+     *
+     * @since Version 1.0
+     * @see #canServe(int, int)
+     * @param elevator the elevator the snapshot was taken of
+     * @param floor the requesting floor
+     * @param dir the direction of the request
+     * @return a boolean that is true if the decision should be made again
+     */
+    public boolean hasGoneStale(Interface_Elevator elevator, int floor, int dir) {
+
+        Entity_ElevatorSnapshot current = elevator.getSnapshot();
+
+        return current.getVersion() != version && !current.canServe(floor, dir);
+    }
+
+}
@@ -0,0 +1,184 @@
+package ver3;
+
+import java.util.PriorityQueue;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class is the discrete-event engine used when the simulation is run in
+ * event driven mode. It owns a virtual clock and a priority queue of events.
+ * Instead of sleeping for real time, elevators and the simulation schedule
+ * events into the kernel and the kernel jumps the clock straight to the next
+ * event that is due. This lets a scenario finish as fast as the events can be
+ * processed no matter how long it lasts in simulated time.
+ *
+ * Everything runs on the thread that drives the kernel, so handlers are
+ * invoked one at a time in time order.
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_SimulationEvent
+ * @see Interface_EventHandler
+ */
+public class Entity_EventKernel {
+
+    /**
+     * The queue of events waiting to come due, ordered by time
+     *
+     * @since Version 1.0
+     * @see #schedule(long, int, Interface_EventHandler)
+     * @see #runUntil(long)
+     * @see #runNext(long)
+     */
+    private PriorityQueue<Entity_SimulationEvent> eventQueue
+            = new PriorityQueue<Entity_SimulationEvent>();
+
+    /**
+     * The virtual clock, in simulated milliseconds
+     *
+     * @since Version 1.0
+     * @see #getCurrentTime()
+     */
+    private long currentTime;
+
+    /**
+     * A running count used to give every event a unique scheduling order
+     *
+     * @since Version 1.0
+     * @see #schedule(long, int, Interface_EventHandler)
+     */
+    private long sequenceCount;
+
+    /**
+     * The number of events the kernel has handed to their handlers
+     *
+     * @since Version 1.0
+     * @see #getEventsProcessed()
+     */
+    private long eventsProcessed;
+
+    /**
+     * Constructs a new kernel with its clock set to zero and an empty queue
+     *
+     * @since Version 1.0
+     */
+    public Entity_EventKernel() {
+        currentTime = 0;
+        sequenceCount = 0;
+        eventsProcessed = 0;
+    }
+
+    /**
+     * Schedules a new event a given number of simulated milliseconds from now
+     *
+     * @since Version 1.0
+     * @see #eventQueue
+     * @param delay how long from the current virtual time the event is due
+     * @param type the type of the event
+     * @param handler the object that will process the event
+     * @return the new event so the caller can cancel it later
+     * @throws IllegalSimulationException if the delay is negative or there is no handler
+     */
+    public Entity_SimulationEvent schedule(long delay, int type,
+                 Interface_EventHandler handler) throws IllegalSimulationException {
+
+        if(delay < 0)
+            throw new IllegalSimulationException("Negative event delay "
+                                                    + "encountered: " + delay);
+
+        if(handler == null)
+            throw new IllegalSimulationException("Event scheduled without "
+                                                    + "a handler: " + type);
+
+        Entity_SimulationEvent event = new Entity_SimulationEvent(
+                                currentTime + delay, sequenceCount++, type, handler);
+
+        eventQueue.add(event);
+
+        return event;
+    }
+
+    /**
+     * Processes every event that is due at or before the given time, in time
+     * order, and then moves the clock forward to that time. Events that are
+     * scheduled by handlers along the way are processed too if they fall
+     * inside the window
+     *
+     * @since Version 1.0
+     * @see #eventQueue
+     * @see #currentTime
+     * @param time the virtual time to run the kernel up to
+     */
+    public void runUntil(long time) {
+
+        while(runNext(time));
+
+        if(time > currentTime)
+            currentTime = time;
+    }
+
+    /**
+     * Processes the next event if it is due at or before the given time. The
+     * clock is moved to that event but no further, so the caller can stop as
+     * soon as the event has had the effect it was waiting for
+     *
+     * @since Version 1.0
+     * @see #runUntil(long)
+     * @param time the latest virtual time the event may be due at
+     * @return a boolean that is true if an event was processed
+     */
+    public boolean runNext(long time) {
+
+        while(!eventQueue.isEmpty() && eventQueue.peek().getTime() <= time)
+        {
+            Entity_SimulationEvent event = eventQueue.poll();
+
+            if(event.isCancelled())
+                continue;
+
+            currentTime = event.getTime();
+            ++eventsProcessed;
+
+            event.getHandler().handleEvent(event);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the virtual clock
+     *
+     * @since Version 1.0
+     * @see #currentTime
+     * @return a long representing simulated milliseconds since the kernel started
+     */
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Returns the number of events processed so far
+     *
+     * @since Version 1.0
+     * @see #eventsProcessed
+     * @return a long count of processed events
+     */
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    /**
+     * Returns the number of events still waiting in the queue, including any
+     * cancelled events that have not been skipped yet
+     *
+     * @since Version 1.0
+     * @see #eventQueue
+     * @return an int count of queued events
+     */
+    public int getNumberOfQueuedEvents() {
+        return eventQueue.size();
+    }
+
+}
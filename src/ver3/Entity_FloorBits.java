@@ -0,0 +1,206 @@
+package ver3;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds the word scanning shared by the sets that keep one bit
+ * per floor, 64 floors to a word, in arrays of atomic words. A bit is set
+ * and cleared with a compare and set on its word, so threads can change
+ * different floors of the same word at once without a lock, and the nearest
+ * set bit to a floor is found a word at a time.
+ *
+ * The scans can look at one array of words or at two laid out alike, in
+ * which case a floor counts as set if it is set in either
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_StopSet
+ * @see Entity_PendingCallSet
+ * @see Entity_WorkingElevator#isStoppingAt(int)
+ */
+final class Entity_FloorBits {
+
+    /**
+     * This is a private constructor, as the class only has static methods
+     *
+     * @since Version 1.0
+     */
+    private Entity_FloorBits() {
+    }
+
+    /**
+     * Sets a floor's bit
+     *
+     * @since Version 1.0
+     * @param words the words to set the bit in
+     * @param floor the floor
+     * @return a boolean that is false if the bit was already set or the
+     *         floor has no bit
+     */
+    static boolean set(AtomicLongArray words, int floor) {
+
+        if(floor < 0 || (floor >>> 6) >= words.length())
+            return false;
+
+        long bit = 1L << floor;
+
+        while(true)
+        {
+            long word = words.get(floor >>> 6);
+
+            if((word & bit) != 0)
+                return false;
+
+            if(words.compareAndSet(floor >>> 6, word, word | bit))
+                return true;
+        }
+    }
+
+    /**
+     * Clears a floor's bit
+     *
+     * @since Version 1.0
+     * @param words the words to clear the bit in
+     * @param floor the floor
+     * @return a boolean that is false if the bit was not set or the floor
+     *         has no bit
+     */
+    static boolean clear(AtomicLongArray words, int floor) {
+
+        if(floor < 0 || (floor >>> 6) >= words.length())
+            return false;
+
+        long bit = 1L << floor;
+
+        while(true)
+        {
+            long word = words.get(floor >>> 6);
+
+            if((word & bit) == 0)
+                return false;
+
+            if(words.compareAndSet(floor >>> 6, word, word & ~bit))
+                return true;
+        }
+    }
+
+    /**
+     * Returns whether a floor's bit is set
+     *
+     * @since Version 1.0
+     * @param words the words to look in
+     * @param floor the floor
+     * @return a boolean that is false if the bit is clear or the floor has
+     *         no bit
+     */
+    static boolean contains(AtomicLongArray words, int floor) {
+
+        if(floor < 0 || (floor >>> 6) >= words.length())
+            return false;
+
+        return (words.get(floor >>> 6) & (1L << floor)) != 0;
+    }
+
+    /**
+     * Returns whether no bit is set
+     *
+     * @since Version 1.0
+     * @param words the words to look in
+     * @param also other words laid out alike to look in as well, or null
+     * @return a boolean that is true if every word is zero
+     */
+    static boolean isEmpty(AtomicLongArray words, AtomicLongArray also) {
+
+        for(int i = 0; i < words.length(); ++i)
+        {
+            if(wordAt(words, also, i) != 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the lowest set bit at or above a floor
+     *
+     * @since Version 1.0
+     * @param words the words to look in
+     * @param also other words laid out alike to look in as well, or null
+     * @param from the floor to start looking at
+     * @param capacity the number of floor numbers the words are for
+     * @return an int floor number, or -1 if there is none
+     */
+    static int next(AtomicLongArray words, AtomicLongArray also,
+                                                int from, int capacity) {
+
+        if(from < 0)
+            from = 0;
+
+        if(from >= capacity)
+            return -1;
+
+        int i = from >>> 6;
+        long word = wordAt(words, also, i) & (-1L << from);
+
+        while(true)
+        {
+            if(word != 0)
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+
+            if(++i == words.length())
+                return -1;
+
+            word = wordAt(words, also, i);
+        }
+    }
+
+    /**
+     * Returns the highest set bit at or below a floor
+     *
+     * @since Version 1.0
+     * @param words the words to look in
+     * @param also other words laid out alike to look in as well, or null
+     * @param from the floor to start looking at
+     * @param capacity the number of floor numbers the words are for
+     * @return an int floor number, or -1 if there is none
+     */
+    static int previous(AtomicLongArray words, AtomicLongArray also,
+                                                int from, int capacity) {
+
+        if(from < 0)
+            return -1;
+
+        if(from >= capacity)
+            from = capacity - 1;
+
+        int i = from >>> 6;
+        long word = wordAt(words, also, i) & (-1L >>> (63 - (from & 63)));
+
+        while(true)
+        {
+            if(word != 0)
+                return (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+
+            if(--i < 0)
+                return -1;
+
+            word = wordAt(words, also, i);
+        }
+    }
+
+    /**
+     * Returns one word, or the two words at the same place OR'ed together
+     *
+     * @since Version 1.0
+     * @param words the words to read
+     * @param also other words laid out alike, or null
+     * @param i the index of the word
+     * @return a long word of bits
+     */
+    private static long wordAt(AtomicLongArray words, AtomicLongArray also, int i) {
+
+        return (also == null ? words.get(i) : words.get(i) | also.get(i));
+    }
+
+}
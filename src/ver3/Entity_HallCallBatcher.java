@@ -0,0 +1,508 @@
+package ver3;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class collects the hall calls of a short window and then hands them
+ * all out at once. Rather than giving each call to the elevator that looks
+ * best for it alone, as soon as its button is pressed, it works out the
+ * estimated time to arrival of every elevator for every call in the window
+ * and has the Entity_AssignmentSolver find the assignment with the lowest
+ * total. When a burst of people arrives together this keeps two calls from
+ * both being given to the same nearby elevator while another one sits idle,
+ * and the controller picks once per window instead of once per call.
+ *
+ * The batcher works the calls out off the callbox's thread. With the
+ * elevators on threads of their own a dispatcher thread of its own sleeps
+ * through each window. When event driven the end of the window is an event
+ * on the kernel, and in lockstep the controller's tick checks for it.
+ *
+ * A call that an elevator already on its floor can take, or on a floor that
+ * an elevator is already stopping at, or a second call on the same floor, is
+ * not part of the assignment and is picked on its own by the ETA picker after
+ * the rest have been handed out. So is a call that no elevator can be sent to
+ * straight away, which ends up on the pending list as usual
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see IMPL_ElevatorPicker_BATCH
+ * @see IMPL_ElevatorPicker_ETA#getCost(Interface_Elevator, int, int)
+ * @see Entity_AssignmentSolver
+ */
+public class Entity_HallCallBatcher implements Interface_EventHandler {
+
+    /**
+     * This variable SimpleDateFormat simply sets the format of our date and time
+     * for tracking purposes.
+     * @since Version 1.0
+     */
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
+
+    /**
+     * The simulation context whose calls are batched
+     *
+     * @since Version 1.0
+     */
+    private final Entity_SimulationContext context;
+
+    /**
+     * The ETA picker whose costs the windows are assigned on
+     *
+     * @since Version 1.0
+     * @see #assign(List)
+     */
+    private final IMPL_ElevatorPicker_ETA eta;
+
+    /**
+     * How long a window collects calls for, in simulated milliseconds
+     *
+     * @since Version 1.0
+     * @see #getWindow()
+     */
+    private final long window;
+
+    /**
+     * The lock guarding the calls of the current window
+     *
+     * @since Version 1.0
+     * @see #submit(int, int)
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The condition the dispatcher thread waits on until a window opens
+     *
+     * @since Version 1.0
+     * @see #submit(int, int)
+     */
+    private final Condition windowOpened = lock.newCondition();
+
+    /**
+     * The calls of the current window, each a floor and a direction
+     *
+     * @since Version 1.0
+     * @see #submit(int, int)
+     */
+    private List<int[]> calls = new ArrayList<int[]>();
+
+    /**
+     * The simulated time the current window closes at, used in lockstep
+     *
+     * @since Version 1.0
+     * @see #step(long)
+     */
+    private long windowClosesAt = 0;
+
+    /**
+     * The thread that hands the calls out when the elevators have threads of
+     * their own. It is started by the first call
+     *
+     * @since Version 1.0
+     * @see #startDispatcher()
+     */
+    private Thread dispatcher;
+
+    /**
+     * A boolean that is false once the batcher has been shut down
+     *
+     * @since Version 1.0
+     * @see #shutDown()
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The number of calls submitted
+     *
+     * @since Version 1.0
+     * @see #getCallsSubmitted()
+     */
+    private final AtomicLong callsSubmitted = new AtomicLong();
+
+    /**
+     * The number of calls handed out by the assignment solver
+     *
+     * @since Version 1.0
+     * @see #getCallsAssigned()
+     */
+    private final AtomicLong callsAssigned = new AtomicLong();
+
+    /**
+     * The number of windows handed out
+     *
+     * @since Version 1.0
+     * @see #getBatches()
+     */
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Constructs a new batcher with no calls
+     *
+     * @since Version 1.0
+     * @param c the simulation context whose calls are batched
+     * @param w how long a window collects calls for, in simulated milliseconds
+     * @throws IllegalSimulationException if the window is negative
+     */
+    public Entity_HallCallBatcher(Entity_SimulationContext c, long w)
+                                            throws IllegalSimulationException {
+
+        if(w < 0)
+            throw new IllegalSimulationException("Negative batch window "
+                                                    + "encountered: " + w);
+
+        context = c;
+        eta = new IMPL_ElevatorPicker_ETA(c);
+        window = w;
+    }
+
+    /**
+     * Adds a call to the current window, opening a window if there is none.
+     * A call that is already in the window is not added twice
+     *
+     * @since Version 1.0
+     * @see #calls
+     * @param floor the floor of the callbox
+     * @param direction the direction of the call, -1 or 1
+     */
+    public void submit(int floor, int direction) {
+
+        Singl_WorkingSimulation simulation = context.getSimulation();
+        boolean opened = false;
+
+        lock.lock();
+        try {
+            for(int[] call : calls)
+                if(call[0] == floor && call[1] == direction)
+                    return;
+
+            calls.add(new int[] {floor, direction});
+            callsSubmitted.incrementAndGet();
+
+            if(calls.size() == 1)
+            {
+                opened = true;
+                windowClosesAt = simulation.getCurrentTime() + window;
+                windowOpened.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if(!opened)
+            return;
+
+        if(simulation.isEventDriven())
+        {
+            try {
+                simulation.getEventKernel().schedule(window,
+                                    Entity_SimulationEvent.HALL_CALL_BATCH, this);
+            } catch (IllegalSimulationException ex) {
+                ex.printStackTrace();
+            }
+        }
+        else if(!simulation.isSingleThreaded())
+            startDispatcher();
+    }
+
+    /**
+     * Hands the calls out if the window has closed by the given tick, when
+     * the simulation runs in lockstep
+     *
+     * @since Version 1.0
+     * @see Singl_WorkingController#step(long)
+     * @param tick the simulated time of the tick, in milliseconds
+     */
+    public void step(long tick) {
+
+        boolean due;
+
+        lock.lock();
+        try {
+            due = !calls.isEmpty() && tick >= windowClosesAt;
+        } finally {
+            lock.unlock();
+        }
+
+        if(due)
+            flush();
+    }
+
+    /**
+     * Hands the calls out when the kernel reports that the window has closed
+     *
+     * @since Version 1.0
+     * @see #submit(int, int)
+     * @param event the event that has come due
+     */
+    public void handleEvent(Entity_SimulationEvent event) {
+
+        if(event.getType() == Entity_SimulationEvent.HALL_CALL_BATCH)
+            flush();
+    }
+
+    /**
+     * Takes the calls of the current window and hands them out. The window is
+     * closed before the calls are worked out, so calls that come in meanwhile
+     * open the next one
+     *
+     * @since Version 1.0
+     * @see #assign(List)
+     */
+    public void flush() {
+
+        List<int[]> batch;
+
+        lock.lock();
+        try {
+            if(calls.isEmpty())
+                return;
+
+            batch = calls;
+            calls = new ArrayList<int[]>();
+        } finally {
+            lock.unlock();
+        }
+
+        batches.incrementAndGet();
+        assign(batch);
+    }
+
+    /**
+     * Gives a window's calls to the elevators. The calls that can take part
+     * are assigned by the solver on their estimated times to arrival, and the
+     * rest are picked one at a time by the ETA picker afterwards
+     *
+     * @since Version 1.0
+     * @see Entity_AssignmentSolver#solve(long[][])
+     * @param batch the calls of the window
+     */
+    private void assign(List<int[]> batch) {
+
+        List<Interface_Elevator> elevatorList = context.getBuilding().getElevatorList();
+        List<Interface_Floor> floorList = context.getBuilding().getFloorList();
+
+        List<int[]> solved = new ArrayList<int[]>();
+        List<int[]> single = new ArrayList<int[]>();
+        Set<Integer> floors = new HashSet<Integer>();
+
+        for(int[] call : batch)
+        {
+            // a button that is no longer lit was answered by an elevator
+            // that came by during the window
+            Interface_Callbox cBox = floorList.get(call[0] - 1).getcBox();
+            if(!(call[1] == 1 ? cBox.getUpButton() : cBox.getDownButton()))
+                continue;
+
+            if(eta.findElevatorOnFloor(call[0], call[1]) != 0
+                    || isStoppingAt(elevatorList, call[0])
+                    || !floors.add(call[0]))
+                single.add(call);
+            else
+                solved.add(call);
+        }
+
+        long[][] cost = new long[solved.size()][elevatorList.size()];
+
+        for(int i = 0; i < solved.size(); ++i)
+            for(int j = 0; j < elevatorList.size(); ++j)
+                cost[i][j] = eta.getCost(elevatorList.get(j),
+                                            solved.get(i)[0], solved.get(i)[1]);
+
+        int[] assignment = Entity_AssignmentSolver.solve(cost);
+
+        for(int i = 0; i < solved.size(); ++i)
+        {
+            int[] call = solved.get(i);
+
+            if(assignment[i] < 0)
+            {
+                single.add(call);
+                continue;
+            }
+
+            Interface_Elevator elevator = elevatorList.get(assignment[i]);
+
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+                + "The controller has assigned elevator "
+                + elevator.getLetterName() + elevator.getSerialNumber()
+                + " to the " + (call[1] == 1 ? "up" : "down")
+                + " request from floor #" + call[0]
+                + "\n\t\tas part of a batch of " + batch.size() + " calls. It is "
+                + "expected to arrive in " + (cost[i][assignment[i]] / 1000.0)
+                + " seconds");
+
+            context.getController().disPatchElevator(call[0], elevator.getSerialNumber());
+            callsAssigned.incrementAndGet();
+
+            Entity_HallCallReassigner reassigner
+                    = context.getSimulation().getHallCallReassigner();
+            if(reassigner != null)
+                reassigner.record(call[0], call[1], elevator.getSerialNumber());
+        }
+
+        for(int[] call : single)
+        {
+            try {
+                eta.pick(call[0], call[1]);
+            } catch (IllegalFloorException ex) {
+                ex.printStackTrace();
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns whether any elevator already has a floor on its destination list
+     *
+     * @since Version 1.0
+     * @param elevatorList the elevators of the building
+     * @param floor the floor to look for
+     * @return a boolean that is true if an elevator is going to stop there
+     */
+    private boolean isStoppingAt(List<Interface_Elevator> elevatorList, int floor) {
+
+        for(Interface_Elevator elevator : elevatorList)
+            if(elevator.isStoppingAt(floor))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Starts the dispatcher thread unless it is already running. The thread
+     * waits for a window to open, sleeps until it closes, and hands its calls
+     * out, until the batcher is shut down
+     *
+     * @since Version 1.0
+     * @see #dispatcher
+     */
+    private synchronized void startDispatcher() {
+
+        if(dispatcher != null || !running)
+            return;
+
+        dispatcher = new Thread(new Runnable() {
+            public void run() {
+
+                Singl_WorkingSimulation simulation = context.getSimulation();
+
+                while(running)
+                {
+                    lock.lock();
+                    try {
+                        while(running && calls.isEmpty())
+                            windowOpened.await();
+                    } catch (InterruptedException ex) {
+                        // shut down while waiting for a window
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if(!running)
+                        break;
+
+                    try {
+                        Thread.sleep(simulation.getScaledMillis(window),
+                                        simulation.getScaledNanos(window));
+                    } catch (InterruptedException ex) {
+                        // shut down during a window, its calls are still handed out
+                    }
+
+                    flush();
+                }
+            }
+        }, "Hall call batcher");
+
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Stops the dispatcher thread, handing out any calls still waiting
+     *
+     * @since Version 1.0
+     * @see #running
+     */
+    public void shutDown() {
+
+        running = false;
+
+        Thread thread;
+        synchronized(this) {
+            thread = dispatcher;
+        }
+
+        if(thread != null)
+        {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                context.getConsole().println("Interruption Occurred " + ex.getMessage());
+            }
+        }
+
+        flush();
+    }
+
+    /**
+     * Returns how long a window collects calls for
+     *
+     * @since Version 1.0
+     * @see #window
+     * @return a long representing simulated milliseconds
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the number of calls submitted
+     *
+     * @since Version 1.0
+     * @see #callsSubmitted
+     * @return a long count of calls
+     */
+    public long getCallsSubmitted() {
+        return callsSubmitted.get();
+    }
+
+    /**
+     * Returns the number of calls the assignment solver handed out
+     *
+     * @since Version 1.0
+     * @see #callsAssigned
+     * @return a long count of calls
+     */
+    public long getCallsAssigned() {
+        return callsAssigned.get();
+    }
+
+    /**
+     * Returns the number of windows handed out
+     *
+     * @since Version 1.0
+     * @see #batches
+     * @return a long count of windows
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+}
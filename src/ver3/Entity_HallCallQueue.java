@@ -0,0 +1,434 @@
+package ver3;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class is the queue that hall calls travel through on their way from
+ * the callboxes to the controller when the elevators run on threads of their
+ * own. Pressing a callbox button only publishes the call into the queue, so
+ * the person, or the simulation thread generating people, is not held up
+ * while the controller's picker works out which elevator to send. A
+ * dispatcher thread of its own takes the calls off the queue one at a time
+ * and hands them to the controller.
+ *
+ * A floor can have at most one call in each direction waiting in the queue:
+ * a second press of the same button before the dispatcher gets to it is
+ * coalesced into the first. That bounds the queue at two calls per floor, so
+ * publishing never waits for room.
+ *
+ * When the whole run happens on one thread the queue is never opened, and
+ * the callboxes signal the controller directly as before, so event driven
+ * and lockstep runs play out exactly as they did
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_WorkingCallbox
+ * @see Singl_WorkingController#pick(int, int)
+ */
+public class Entity_HallCallQueue {
+
+    /**
+     * The simulation context whose calls are queued
+     *
+     * @since Version 1.0
+     */
+    private final Entity_SimulationContext context;
+
+    /**
+     * The calls waiting for the dispatcher, each a floor, a direction and the
+     * System.nanoTime() it was published at
+     *
+     * @since Version 1.0
+     * @see #publish(int, int)
+     */
+    private final ArrayBlockingQueue<long[]> calls;
+
+    /**
+     * One flag per floor and direction that is 1 while that call is waiting
+     * in the queue
+     *
+     * @since Version 1.0
+     * @see #keyOf(int, int)
+     */
+    private final AtomicIntegerArray queued;
+
+    /**
+     * The thread that hands the calls to the controller
+     *
+     * @since Version 1.0
+     * @see #start()
+     */
+    private Thread dispatcher;
+
+    /**
+     * A boolean that is true while the queue takes calls
+     *
+     * @since Version 1.0
+     * @see #open()
+     * @see #shutDown()
+     */
+    private volatile boolean accepting = false;
+
+    /**
+     * The number of calls published, coalesced ones included
+     *
+     * @since Version 1.0
+     * @see #getCallsPublished()
+     */
+    private final AtomicLong callsPublished = new AtomicLong();
+
+    /**
+     * The number of calls coalesced into one already waiting
+     *
+     * @since Version 1.0
+     * @see #getCallsCoalesced()
+     */
+    private final AtomicLong callsCoalesced = new AtomicLong();
+
+    /**
+     * The number of calls handed to the controller
+     *
+     * @since Version 1.0
+     * @see #getCallsDispatched()
+     */
+    private final AtomicLong callsDispatched = new AtomicLong();
+
+    /**
+     * The most calls that have been waiting in the queue at once
+     *
+     * @since Version 1.0
+     * @see #getMaxDepth()
+     */
+    private final AtomicLong maxDepth = new AtomicLong();
+
+    /**
+     * The time the dispatched calls waited in the queue, added together
+     *
+     * @since Version 1.0
+     * @see #getAverageLatencyNanos()
+     */
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    /**
+     * The longest time a dispatched call waited in the queue
+     *
+     * @since Version 1.0
+     * @see #getMaxLatencyNanos()
+     */
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Constructs a new, closed queue for a building
+     *
+     * @since Version 1.0
+     * @param c the simulation context whose calls are queued
+     * @param nOF the number of floors in the building
+     * @throws IllegalSimulationException if there are no floors
+     */
+    public Entity_HallCallQueue(Entity_SimulationContext c, int nOF)
+                                            throws IllegalSimulationException {
+
+        if(nOF < 1)
+            throw new IllegalSimulationException("Invalid number of floors "
+                                    + "encountered in hall call queue: " + nOF);
+
+        context = c;
+        calls = new ArrayBlockingQueue<long[]>(2 * (nOF + 1));
+        queued = new AtomicIntegerArray(2 * (nOF + 1));
+    }
+
+    /**
+     * Opens the queue so that calls are published into it instead of being
+     * signalled directly. The calls wait until the dispatcher is started
+     *
+     * @since Version 1.0
+     * @see #accepting
+     */
+    public void open() {
+        accepting = true;
+    }
+
+    /**
+     * Opens the queue and starts the dispatcher thread, which takes calls
+     * off the queue and hands them to the controller until the queue is
+     * shut down
+     *
+     * @since Version 1.0
+     * @see #dispatcher
+     */
+    public synchronized void start() {
+
+        if(dispatcher != null)
+            return;
+
+        open();
+
+        dispatcher = new Thread(new Runnable() {
+            public void run() {
+
+                while(accepting)
+                {
+                    try {
+                        dispatch(calls.take());
+                    } catch (InterruptedException ex) {
+                        // shut down while waiting for a call
+                    }
+                }
+            }
+        }, "Hall call dispatcher");
+
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Publishes a call for the dispatcher. If the same call is already
+     * waiting the two are coalesced
+     *
+     * @since Version 1.0
+     * @see #calls
+     * @param floor the floor of the callbox
+     * @param direction the direction of the call, -1 or 1
+     * @return a boolean that is false if the queue is closed or the call
+     *         does not belong to the building, in which case the caller 
+     *         must signal the controller itself
+     */
+    public boolean publish(int floor, int direction) {
+
+        // a call the queue has no flag for is left to the controller, 
+        // which reports it
+        if(!(direction == -1 || direction == 1) 
+                || floor < 1 || keyOf(floor, direction) >= queued.length())
+            return false;
+
+        if(!accepting)
+            return false;
+
+        callsPublished.incrementAndGet();
+
+        int key = keyOf(floor, direction);
+
+        if(!queued.compareAndSet(key, 0, 1))
+        {
+            callsCoalesced.incrementAndGet();
+            return true;
+        }
+
+        // there is room for every floor and direction, and only one of each
+        // is ever waiting, so this never fails
+        if(!calls.offer(new long[] {floor, direction, System.nanoTime()}))
+        {
+            queued.set(key, 0);
+            callsPublished.decrementAndGet();
+            return false;
+        }
+
+        raise(maxDepth, calls.size());
+
+        return true;
+    }
+
+    /**
+     * Hands a call taken off the queue to the controller
+     *
+     * @since Version 1.0
+     * @see Singl_WorkingController#pick(int, int)
+     * @param call the floor, direction and publishing time of the call
+     */
+    private void dispatch(long[] call) {
+
+        int floor = (int) call[0];
+        int direction = (int) call[1];
+
+        // a new press of the button from now on is a new call
+        queued.set(keyOf(floor, direction), 0);
+
+        long latency = System.nanoTime() - call[2];
+        totalLatencyNanos.addAndGet(latency);
+        raise(maxLatencyNanos, latency);
+        callsDispatched.incrementAndGet();
+
+        try {
+            context.getController().pick(floor, direction);
+        } catch (IllegalDirectionException ex) {
+            ex.printStackTrace();
+        } catch (IllegalFloorException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Closes the queue and stops the dispatcher thread. Calls still waiting
+     * are handed to the controller on the calling thread
+     *
+     * @since Version 1.0
+     * @see #accepting
+     */
+    public void shutDown() {
+
+        accepting = false;
+
+        Thread thread;
+        synchronized(this) {
+            thread = dispatcher;
+            dispatcher = null;
+        }
+
+        if(thread != null)
+        {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                context.getConsole().println("Interruption Occurred " + ex.getMessage());
+            }
+        }
+
+        long[] call;
+        while((call = calls.poll()) != null)
+            dispatch(call);
+    }
+
+    /**
+     * Returns the index of the flag for a floor and direction
+     *
+     * @since Version 1.0
+     * @see #queued
+     * @param floor the floor of the call
+     * @param direction the direction of the call, -1 or 1
+     * @return an int index into queued
+     */
+    private int keyOf(int floor, int direction) {
+        return floor * 2 + (direction == 1 ? 1 : 0);
+    }
+
+    /**
+     * Raises a running maximum to a value if the value is higher
+     *
+     * @since Version 1.0
+     * @param maximum the running maximum
+     * @param value the value to compare
+     */
+    private static void raise(AtomicLong maximum, long value) {
+
+        long current = maximum.get();
+
+        while(value > current && !maximum.compareAndSet(current, value))
+            current = maximum.get();
+    }
+
+    /**
+     * Returns whether the queue takes calls
+     *
+     * @since Version 1.0
+     * @see #accepting
+     * @return a boolean that is true while the queue is open
+     */
+    public boolean isAccepting() {
+        return accepting;
+    }
+
+    /**
+     * Returns the number of calls waiting in the queue
+     *
+     * @since Version 1.0
+     * @see #calls
+     * @return an int count of calls
+     */
+    public int getDepth() {
+        return calls.size();
+    }
+
+    /**
+     * Returns the most calls that have been waiting in the queue at once
+     *
+     * @since Version 1.0
+     * @see #maxDepth
+     * @return a long count of calls
+     */
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * Returns the number of calls published, coalesced ones included
+     *
+     * @since Version 1.0
+     * @see #callsPublished
+     * @return a long count of calls
+     */
+    public long getCallsPublished() {
+        return callsPublished.get();
+    }
+
+    /**
+     * Returns the number of calls coalesced into one already waiting
+     *
+     * @since Version 1.0
+     * @see #callsCoalesced
+     * @return a long count of calls
+     */
+    public long getCallsCoalesced() {
+        return callsCoalesced.get();
+    }
+
+    /**
+     * Returns the number of calls handed to the controller
+     *
+     * @since Version 1.0
+     * @see #callsDispatched
+     * @return a long count of calls
+     */
+    public long getCallsDispatched() {
+        return callsDispatched.get();
+    }
+
+    /**
+     * Returns the average time a dispatched call waited in the queue
+     *
+     * @since Version 1.0
+     * @see #totalLatencyNanos
+     * @return a long representing real nanoseconds, zero if none were dispatched
+     */
+    public long getAverageLatencyNanos() {
+
+        long dispatched = callsDispatched.get();
+
+        return (dispatched == 0 ? 0 : totalLatencyNanos.get() / dispatched);
+    }
+
+    /**
+     * Returns the longest time a dispatched call waited in the queue
+     *
+     * @since Version 1.0
+     * @see #maxLatencyNanos
+     * @return a long representing real nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    /**
+     * Returns a one line summary of the queue's metrics
+     *
+     * @since Version 1.0
+     * @return a String used to later print out a report
+     */
+    public String buildReport() {
+
+        return "Hall call queue dispatched " + getCallsDispatched() + " of "
+                + getCallsPublished() + " calls (" + getCallsCoalesced()
+                + " coalesced), at most " + getMaxDepth() + " waiting, "
+                + "average dispatch latency "
+                + TimeUnit.NANOSECONDS.toMicros(getAverageLatencyNanos()) + " us, "
+                + "longest " + TimeUnit.NANOSECONDS.toMicros(getMaxLatencyNanos()) + " us";
+    }
+
+}
@@ -0,0 +1,655 @@
+package ver3;
+
+import java.text.SimpleDateFormat;
+import java.util.List;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class looks again, every so often, at the hall calls the ETA and Batch
+ * pickers have given to elevators. Once a call is on an elevator's
+ * destination list it would otherwise stay there, even if another elevator
+ * goes idle right next to the floor a moment later. If another elevator is
+ * now expected to reach the floor sooner than the one the call was given to,
+ * by at least the threshold, the floor is taken off the first elevator's list
+ * and the call is given to the other one.
+ *
+ * A call is only moved if the first elevator can give it up: it is not on
+ * the floor, nobody on board is going there, and the floor has no other lit
+ * callbox button that the elevator might be stopping for. A call stops being
+ * looked at once its callbox button goes out.
+ *
+ * Only an elevator's own thread changes its destination list while it runs
+ * on one, so in a real time run the reassigner looks at the calls on a
+ * thread of its own and posts the floor to be taken off to the first
+ * elevator. Once that elevator's thread has taken it off, it tells the
+ * reassigner, which then gives the call to the other elevator. A call is
+ * not looked at again while such a move is on its way. The reassigner does
+ * not run when people are told at destination kiosks which elevator to
+ * take, since moving a floor would not move the people waiting for that
+ * elevator
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see IMPL_ElevatorPicker_ETA#estimateTimeToArrival(Interface_Elevator, int, int)
+ * @see Interface_Elevator#withdrawFromDestinationList(int)
+ */
+public class Entity_HallCallReassigner implements Interface_EventHandler {
+
+    /**
+     * This variable SimpleDateFormat simply sets the format of our date and time
+     * for tracking purposes.
+     * @since Version 1.0
+     */
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
+
+    /**
+     * The simulation context whose calls are reassigned
+     *
+     * @since Version 1.0
+     */
+    private final Entity_SimulationContext context;
+
+    /**
+     * The ETA picker whose estimates the calls are compared on
+     *
+     * @since Version 1.0
+     */
+    private final IMPL_ElevatorPicker_ETA eta;
+
+    /**
+     * How often the calls are looked at, in simulated milliseconds, or zero
+     * if they never are
+     *
+     * @since Version 1.0
+     * @see #getInterval()
+     */
+    private final long interval;
+
+    /**
+     * How much sooner, in simulated milliseconds, another elevator must be
+     * expected at a floor for the call to be moved to it
+     *
+     * @since Version 1.0
+     * @see #getThreshold()
+     */
+    private final long threshold;
+
+    /**
+     * The serial number of the elevator each open call was given to, or zero,
+     * for each floor and direction
+     *
+     * @since Version 1.0
+     * @see #keyOf(int, int)
+     */
+    private final int[] assignedTo;
+
+    /**
+     * The serial number of the elevator each call is being moved off, while
+     * the move waits for that elevator's thread, or zero, for each floor and
+     * direction
+     *
+     * @since Version 1.0
+     * @see #withdrawn(Interface_Elevator, int, boolean)
+     */
+    private final int[] movingFrom;
+
+    /**
+     * The serial number of the elevator each call being moved is to be given
+     * to, for each floor and direction
+     *
+     * @since Version 1.0
+     * @see #movingFrom
+     */
+    private final int[] movingTo;
+
+    /**
+     * The estimated waiting time each call being moved will save, in
+     * simulated milliseconds, for each floor and direction
+     *
+     * @since Version 1.0
+     * @see #movingFrom
+     */
+    private final long[] moveSaving;
+
+    /**
+     * The number of open calls
+     *
+     * @since Version 1.0
+     */
+    private int openCalls = 0;
+
+    /**
+     * The thread that looks at the calls when the elevators have threads of
+     * their own. It is started by the first call
+     *
+     * @since Version 1.0
+     * @see #startPasses()
+     */
+    private Thread passes;
+
+    /**
+     * A boolean that is false once the reassigner has been shut down
+     *
+     * @since Version 1.0
+     * @see #shutDown()
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Whether a look at the calls is scheduled with the event kernel
+     *
+     * @since Version 1.0
+     */
+    private boolean scheduled = false;
+
+    /**
+     * The simulated time of the next look at the calls in lockstep mode
+     *
+     * @since Version 1.0
+     * @see #step(long)
+     */
+    private long nextPassAt = 0;
+
+    /**
+     * The number of calls moved to another elevator
+     *
+     * @since Version 1.0
+     * @see #getReassignments()
+     */
+    private long reassignments = 0;
+
+    /**
+     * The estimated waiting time the moves saved, in simulated milliseconds
+     *
+     * @since Version 1.0
+     * @see #getWaitSaved()
+     */
+    private long waitSaved = 0;
+
+    /**
+     * Constructs a new reassigner with no open calls
+     *
+     * @since Version 1.0
+     * @param c the simulation context whose calls are reassigned
+     * @param nOF the number of floors in the building
+     * @param i how often the calls are looked at, in simulated milliseconds,
+     *        or zero if they never are
+     * @param t how much sooner another elevator must be expected for a call
+     *        to be moved, in simulated milliseconds
+     * @throws IllegalSimulationException if the interval or threshold is negative
+     */
+    public Entity_HallCallReassigner(Entity_SimulationContext c, int nOF, long i, long t)
+                                            throws IllegalSimulationException {
+
+        if(i < 0)
+            throw new IllegalSimulationException("Negative reassign interval "
+                                                    + "encountered: " + i);
+
+        if(t < 0)
+            throw new IllegalSimulationException("Negative reassign threshold "
+                                                    + "encountered: " + t);
+
+        context = c;
+        eta = new IMPL_ElevatorPicker_ETA(c);
+        interval = i;
+        threshold = t;
+        assignedTo = new int[2 * (Math.max(nOF, 0) + 2)];
+        movingFrom = new int[assignedTo.length];
+        movingTo = new int[assignedTo.length];
+        moveSaving = new long[assignedTo.length];
+    }
+
+    /**
+     * Returns whether the reassigner looks at the calls in this run
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if there is an interval and people 
+     *         press up and down buttons
+     */
+    public boolean isEnabled() {
+        return interval > 0 && !context.getController().isDestinationDispatch();
+    }
+
+    /**
+     * Notes that a call has been given to an elevator, and makes sure the
+     * calls will be looked at again
+     *
+     * @since Version 1.0
+     * @param floor the floor of the call
+     * @param direction the direction of the call, -1 or 1
+     * @param serial the serial number of the elevator it was given to
+     */
+    public synchronized void record(int floor, int direction, int serial) {
+
+        if(!isEnabled() || floor < 0 || keyOf(floor, direction) >= assignedTo.length)
+            return;
+
+        int key = keyOf(floor, direction);
+
+        if(assignedTo[key] == 0)
+            ++openCalls;
+
+        assignedTo[key] = serial;
+
+        schedule();
+    }
+
+    /**
+     * Schedules the next look at the calls unless one already is
+     *
+     * @since Version 1.0
+     */
+    private void schedule() {
+
+        Singl_WorkingSimulation simulation = context.getSimulation();
+
+        if(simulation.isEventDriven())
+        {
+            if(scheduled)
+                return;
+
+            try {
+                simulation.getEventKernel().schedule(interval,
+                                Entity_SimulationEvent.HALL_CALL_REASSIGN, this);
+                scheduled = true;
+            } catch (IllegalSimulationException ex) {
+                ex.printStackTrace();
+            }
+        }
+        else if(!simulation.isSingleThreaded())
+            startPasses();
+        else if(openCalls == 1)
+            nextPassAt = simulation.getCurrentTime() + interval;
+    }
+
+    /**
+     * Starts the thread that looks at the calls unless it is already
+     * running. The thread sleeps for the interval and looks at the calls, 
+     * until the reassigner is shut down
+     *
+     * @since Version 1.0
+     * @see #passes
+     */
+    private synchronized void startPasses() {
+
+        if(passes != null || !running)
+            return;
+
+        passes = new Thread(new Runnable() {
+            public void run() {
+
+                Singl_WorkingSimulation simulation = context.getSimulation();
+
+                while(running)
+                {
+                    try {
+                        Thread.sleep(simulation.getScaledMillis(interval),
+                                        simulation.getScaledNanos(interval));
+                    } catch (InterruptedException ex) {
+                        // shut down while waiting for the next look
+                        break;
+                    }
+
+                    reassign();
+                }
+            }
+        }, "Hall call reassigner");
+
+        passes.setDaemon(true);
+        passes.start();
+    }
+
+    /**
+     * Stops the thread that looks at the calls. A move already posted to an
+     * elevator is still finished by that elevator's thread
+     *
+     * @since Version 1.0
+     * @see #running
+     */
+    public void shutDown() {
+
+        running = false;
+
+        Thread thread;
+        synchronized(this) {
+            thread = passes;
+        }
+
+        if(thread != null)
+        {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                context.getConsole().println("Interruption Occurred " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Looks at the calls if it is time to, when the simulation runs in lockstep
+     *
+     * @since Version 1.0
+     * @see Singl_WorkingController#step(long)
+     * @param tick the simulated time of the tick, in milliseconds
+     */
+    public void step(long tick) {
+
+        if(openCalls == 0 || tick < nextPassAt)
+            return;
+
+        reassign();
+        nextPassAt = tick + interval;
+    }
+
+    /**
+     * Looks at the calls when the kernel reports it is time to, and schedules
+     * the next look while calls are still open
+     *
+     * @since Version 1.0
+     * @param event the event that has come due
+     */
+    public void handleEvent(Entity_SimulationEvent event) {
+
+        if(event.getType() != Entity_SimulationEvent.HALL_CALL_REASSIGN)
+            return;
+
+        scheduled = false;
+
+        reassign();
+
+        if(openCalls > 0)
+            schedule();
+    }
+
+    /**
+     * Looks at every open call. Calls that have been answered are forgotten,
+     * and a call another elevator is now expected to reach sooner by at least
+     * the threshold is moved to that elevator. When the elevators have
+     * threads of their own the move is only posted to the first elevator
+     * here, and finished once its thread has taken the floor off
+     *
+     * @since Version 1.0
+     * @see #withdrawn(Interface_Elevator, int, boolean)
+     */
+    public synchronized void reassign() {
+
+        List<Interface_Elevator> elevatorList = context.getBuilding().getElevatorList();
+        boolean posted = !context.getSimulation().isSingleThreaded();
+
+        for(int key = 0; key < assignedTo.length; ++key)
+        {
+            int serial = assignedTo[key];
+
+            // a call being moved waits for the elevator's thread
+            if(serial == 0 || movingFrom[key] != 0)
+                continue;
+
+            int floor = key / 2;
+            int direction = (key % 2 == 1 ? 1 : -1);
+            Interface_Elevator assigned = elevatorList.get(serial - 1);
+
+            // the call has been answered, or the elevator no longer means to stop
+            if(!isLit(floor, direction) || !assigned.isStoppingAt(floor))
+            {
+                forget(key);
+                continue;
+            }
+
+            // the elevator may be stopping for the floor's other call too
+            int other = assignedTo[keyOf(floor, -direction)];
+            if(isLit(floor, -direction) && (other == 0 || other == serial))
+                continue;
+
+            long current = eta.estimateTimeToArrival(assigned, floor, direction);
+
+            if(current == Long.MAX_VALUE)
+                continue;
+
+            Interface_Elevator best = null;
+            long bestEstimate = Long.MAX_VALUE;
+
+            for(Interface_Elevator elevator : elevatorList)
+            {
+                if(elevator == assigned)
+                    continue;
+
+                // another elevator stopping there will answer the call anyway
+                if(elevator.isStoppingAt(floor))
+                {
+                    best = null;
+                    break;
+                }
+
+                long estimate = eta.getCost(elevator, floor, direction);
+
+                if(estimate < bestEstimate)
+                {
+                    bestEstimate = estimate;
+                    best = elevator;
+                }
+            }
+
+            if(best == null || current - bestEstimate < threshold)
+                continue;
+
+            if(posted)
+            {
+                movingFrom[key] = serial;
+                movingTo[key] = best.getSerialNumber();
+                moveSaving[key] = current - bestEstimate;
+                assigned.withdrawFromDestinationList(floor);
+                continue;
+            }
+
+            if(!assigned.withdrawFromDestinationList(floor))
+                continue;
+
+            printMove(floor, direction, assigned, best, current - bestEstimate);
+
+            context.getController().disPatchElevator(floor, best.getSerialNumber());
+
+            // the floor always goes back on one list or the other
+            if(best.isStoppingAt(floor))
+            {
+                assignedTo[key] = best.getSerialNumber();
+                ++reassignments;
+                waitSaved += current - bestEstimate;
+            }
+            else
+                context.getController().disPatchElevator(floor, serial);
+        }
+    }
+
+    /**
+     * Finishes the moves of a floor's calls once the elevator they were being
+     * moved off has had the floor posted to it. Called on that elevator's
+     * thread. If the floor was taken off, a call still lit on it is given to
+     * the elevator now expected sooner; otherwise the calls stay where they
+     * were
+     *
+     * @since Version 1.0
+     * @see Interface_Elevator#withdrawFromDestinationList(int)
+     * @param elevator the elevator the floor was posted to
+     * @param floor the floor
+     * @param withdrawn whether the elevator took the floor off its list
+     */
+    public void withdrawn(Interface_Elevator elevator, int floor, boolean withdrawn) {
+
+        Interface_Elevator best = null;
+
+        synchronized(this)
+        {
+            for(int direction = -1; direction <= 1; direction += 2)
+            {
+                int key = keyOf(floor, direction);
+
+                if(floor < 0 || key >= assignedTo.length
+                        || movingFrom[key] != elevator.getSerialNumber())
+                    continue;
+
+                int target = movingTo[key];
+                long saving = moveSaving[key];
+
+                movingFrom[key] = 0;
+                movingTo[key] = 0;
+                moveSaving[key] = 0;
+
+                if(!withdrawn || !isLit(floor, direction))
+                    continue;
+
+                best = context.getBuilding().getElevatorList().get(target - 1);
+
+                printMove(floor, direction, elevator, best, saving);
+
+                if(assignedTo[key] == 0)
+                    ++openCalls;
+
+                assignedTo[key] = target;
+                ++reassignments;
+                waitSaved += saving;
+            }
+        }
+
+        // the other elevator is sent outside the lock, as its own thread may
+        // be waiting for it to finish a move of its own
+        if(best != null)
+            context.getController().disPatchElevator(floor, best.getSerialNumber());
+    }
+
+    /**
+     * Prints that a call is being moved to another elevator
+     *
+     * @since Version 1.0
+     * @param floor the floor of the call
+     * @param direction the direction of the call, -1 or 1
+     * @param from the elevator the call is moved off
+     * @param to the elevator the call is given to
+     * @param saving how much sooner the other elevator is expected, in
+     *        simulated milliseconds
+     */
+    private void printMove(int floor, int direction, Interface_Elevator from,
+                                            Interface_Elevator to, long saving) {
+
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+            + "The controller is moving the " + (direction == 1 ? "up" : "down")
+            + " request from floor #" + floor + " from elevator "
+            + from.getLetterName() + from.getSerialNumber()
+            + " to elevator " + to.getLetterName() + to.getSerialNumber()
+            + "\n\t\tbecause it is now expected to arrive "
+            + (saving / 1000.0) + " seconds sooner");
+    }
+
+    /**
+     * Forgets an open call
+     *
+     * @since Version 1.0
+     * @param key the index of the call
+     */
+    private void forget(int key) {
+
+        if(assignedTo[key] == 0)
+            return;
+
+        assignedTo[key] = 0;
+        --openCalls;
+    }
+
+    /**
+     * Returns whether a floor's callbox button for a direction is lit
+     *
+     * @since Version 1.0
+     * @param floor the floor of the callbox
+     * @param direction the direction of the button, -1 or 1
+     * @return a boolean that is true if the button is lit
+     */
+    private boolean isLit(int floor, int direction) {
+
+        List<Interface_Floor> floorList = context.getBuilding().getFloorList();
+
+        if(floor < 1 || floor > floorList.size())
+            return false;
+
+        Interface_Callbox cBox = floorList.get(floor - 1).getcBox();
+
+        return (direction == 1 ? cBox.getUpButton() : cBox.getDownButton());
+    }
+
+    /**
+     * Returns the index of a call for a floor and direction
+     *
+     * @since Version 1.0
+     * @see #assignedTo
+     * @param floor the floor of the call
+     * @param direction the direction of the call, -1 or 1
+     * @return an int index into assignedTo
+     */
+    private int keyOf(int floor, int direction) {
+        return floor * 2 + (direction == 1 ? 1 : 0);
+    }
+
+    /**
+     * Returns how often the calls are looked at
+     *
+     * @since Version 1.0
+     * @see #interval
+     * @return a long representing simulated milliseconds
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Returns how much sooner another elevator must be expected for a call
+     * to be moved to it
+     *
+     * @since Version 1.0
+     * @see #threshold
+     * @return a long representing simulated milliseconds
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the number of calls moved to another elevator
+     *
+     * @since Version 1.0
+     * @see #reassignments
+     * @return a long count of calls
+     */
+    public long getReassignments() {
+        return reassignments;
+    }
+
+    /**
+     * Returns the estimated waiting time the moves saved
+     *
+     * @since Version 1.0
+     * @see #waitSaved
+     * @return a long representing simulated milliseconds
+     */
+    public long getWaitSaved() {
+        return waitSaved;
+    }
+
+    /**
+     * Returns a one line summary of the moves
+     *
+     * @since Version 1.0
+     * @return a String used to later print out a report
+     */
+    public String buildReport() {
+
+        return "Hall call reassigner moved " + getReassignments() + " calls to "
+                + "an elevator expected sooner, saving an estimated "
+                + (getWaitSaved() / 1000.0) + " seconds of waiting";
+    }
+
+}
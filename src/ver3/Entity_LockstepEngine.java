@@ -0,0 +1,174 @@
+package ver3;
+
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class is the engine used when the simulation is run in lockstep mode.
+ * It advances the whole building one fixed tick at a time on a single thread.
+ * On every tick it calls step() on each elevator, then each floor and then the
+ * controller, always in that order and always in list order. Because nothing
+ * runs on another thread and every random number comes from a seeded generator,
+ * two lockstep runs of the same programData.xml produce the same results.
+ * 
+ * The tick is the greatest common divisor of the simulation's time constants,
+ * so every scheduled elevator action falls exactly on a tick.
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Interface_Elevator#step(long)
+ * @see Interface_Floor#step(long)
+ * @see Singl_WorkingController#step(long)
+ */
+public class Entity_LockstepEngine {
+    
+    /**
+     * The simulation context whose building the engine steps
+     *
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+    
+    /**
+     * The length of one tick, in simulated milliseconds
+     *
+     * @since Version 1.0
+     * @see #getTick()
+     */
+    private long tick;
+    
+    /**
+     * The simulated time of the next tick, in simulated milliseconds
+     *
+     * @since Version 1.0
+     * @see #getCurrentTime()
+     */
+    private long currentTime;
+    
+    /**
+     * The number of ticks the engine has stepped through
+     *
+     * @since Version 1.0
+     * @see #getTicksRun()
+     */
+    private long ticksRun;
+    
+    /**
+     * Constructs a new engine for the default simulation context with its 
+     * clock set to zero
+     *
+     * @since Version 1.0
+     * @see Entity_SimulationContext#getDefault()
+     * @param t the length of one tick in simulated milliseconds
+     * @throws IllegalSimulationException if the tick is not positive
+     */
+    public Entity_LockstepEngine(long t) throws IllegalSimulationException {
+        this(Entity_SimulationContext.getDefault(), t);
+    }
+    
+    /**
+     * Constructs a new engine with its clock set to zero
+     *
+     * @since Version 1.0
+     * @param c the simulation context whose building the engine steps
+     * @param t the length of one tick in simulated milliseconds
+     * @throws IllegalSimulationException if the tick is not positive
+     */
+    public Entity_LockstepEngine(Entity_SimulationContext c, long t) 
+                                            throws IllegalSimulationException {
+        
+        context = c;
+        
+        if(t <= 0)
+            throw new IllegalSimulationException("Invalid tick length "
+                                                    + "encountered: " + t);
+        tick = t;
+        currentTime = 0;
+        ticksRun = 0;
+    }
+    
+    /**
+     * Steps the building through every tick in the next given number of 
+     * simulated milliseconds. Each tick steps the elevators, then the floors,
+     * then the controller
+     *
+     * @since Version 1.0
+     * @see #currentTime
+     * @param simMillis how many simulated milliseconds to advance
+     */
+    public void advance(long simMillis) {
+        
+        long target = currentTime + simMillis;
+        
+        while(currentTime < target)
+        {
+            for(Interface_Elevator elevator : context.getBuilding()
+                                                        .getElevatorList())
+                elevator.step(currentTime);
+            
+            for(Interface_Floor floor : context.getBuilding()
+                                                        .getFloorList())
+                floor.step(currentTime);
+            
+            context.getController().step(currentTime);
+            
+            currentTime += tick;
+            ++ticksRun;
+        }
+    }
+    
+    /**
+     * Returns the greatest common divisor of two tick lengths
+     *
+     * @since Version 1.0
+     * @param a the first length
+     * @param b the second length
+     * @return a long that evenly divides both lengths
+     */
+    public static long gcd(long a, long b) {
+        
+        while(b != 0)
+        {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        
+        return a;
+    }
+    
+    /**
+     * Returns the length of one tick
+     *
+     * @since Version 1.0
+     * @see #tick
+     * @return a long representing simulated milliseconds
+     */
+    public long getTick() {
+        return tick;
+    }
+    
+    /**
+     * Returns the simulated time of the next tick
+     *
+     * @since Version 1.0
+     * @see #currentTime
+     * @return a long representing simulated milliseconds since the run started
+     */
+    public long getCurrentTime() {
+        return currentTime;
+    }
+    
+    /**
+     * Returns the number of ticks stepped through so far
+     *
+     * @since Version 1.0
+     * @see #ticksRun
+     * @return a long count of ticks
+     */
+    public long getTicksRun() {
+        return ticksRun;
+    }
+    
+}
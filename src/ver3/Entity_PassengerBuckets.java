@@ -0,0 +1,152 @@
+package ver3;
+
+import java.util.ArrayList;
+import java.util.List;
+import ver3.project_exceptions.IllegalFloorException;
+
+/**
+ * This class holds the people riding in an elevator, in one bucket for each
+ * floor they are going to. Everyone getting off at a floor is taken out of
+ * that floor's bucket in one go, in the order they got on, so unloading
+ * takes time for the people getting off only, however full the elevator is,
+ * and whether anyone is going to a floor is answered by the size of one
+ * bucket.
+ *
+ * The elevator boards and unloads on its own thread while pickers on other
+ * threads count and look over its passengers, so every method holds the
+ * buckets' monitor. A person going to a floor that is not in the building
+ * cannot get on, since they could never get off
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_WorkingElevator#getPassengerList()
+ */
+public class Entity_PassengerBuckets {
+
+    /**
+     * The people going to each floor, in the order they got on, by floor
+     * number
+     *
+     * @since Version 1.0
+     * @see #add(Interface_Person)
+     */
+    private final List<List<Interface_Person>> buckets;
+
+    /**
+     * The number of people in every bucket together
+     *
+     * @since Version 1.0
+     * @see #size()
+     */
+    private int size = 0;
+
+    /**
+     * Constructs a new, empty set of buckets with one for every floor of a
+     * building, bucket f holding the people going to floor f
+     *
+     * @since Version 1.0
+     * @param nOF the number of floors in the building
+     */
+    public Entity_PassengerBuckets(int nOF) {
+
+        int floors = Math.max(nOF, 0) + 1;
+        buckets = new ArrayList<List<Interface_Person>>(floors);
+
+        for(int i = 0; i < floors; ++i)
+            buckets.add(new ArrayList<Interface_Person>());
+    }
+
+    /**
+     * Adds a person to the bucket of the floor they are going to
+     *
+     * @since Version 1.0
+     * @param person the person getting on
+     * @throws IllegalFloorException if the person is going to a floor that
+     *         is not in the building
+     */
+    public synchronized void add(Interface_Person person) throws IllegalFloorException {
+
+        int floor = person.getIntendedDestination();
+
+        if(floor < 1 || floor >= buckets.size())
+            throw new IllegalFloorException("Floor does not exist: " + floor);
+
+        buckets.get(floor).add(person);
+        ++size;
+    }
+
+    /**
+     * Takes everyone going to a floor out of the buckets
+     *
+     * @since Version 1.0
+     * @param floor the floor the elevator is on
+     * @return a List of the people getting off, in the order they got on
+     */
+    public synchronized List<Interface_Person> removeAll(int floor) {
+
+        if(floor < 1 || floor >= buckets.size())
+            return new ArrayList<Interface_Person>();
+
+        List<Interface_Person> bucket = buckets.get(floor);
+        List<Interface_Person> leaving = new ArrayList<Interface_Person>(bucket);
+
+        bucket.clear();
+        size -= leaving.size();
+
+        return leaving;
+    }
+
+    /**
+     * Returns the number of people going to a floor
+     *
+     * @since Version 1.0
+     * @param floor the floor
+     * @return an int count of people
+     */
+    public synchronized int count(int floor) {
+
+        if(floor < 1 || floor >= buckets.size())
+            return 0;
+
+        return buckets.get(floor).size();
+    }
+
+    /**
+     * Returns the number of people riding
+     *
+     * @since Version 1.0
+     * @return an int count of people
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether nobody is riding
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if the buckets are empty
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a copy of everyone riding, by the floor they are going to and
+     * then in the order they got on
+     *
+     * @since Version 1.0
+     * @return a new List of people
+     */
+    public synchronized List<Interface_Person> toList() {
+
+        List<Interface_Person> riding = new ArrayList<Interface_Person>(size);
+
+        for(List<Interface_Person> bucket : buckets)
+            riding.addAll(bucket);
+
+        return riding;
+    }
+
+}
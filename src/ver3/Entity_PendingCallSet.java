@@ -0,0 +1,259 @@
+package ver3;
+
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds the controller's pending requests, the callbox requests
+ * that no elevator could be sent to straight away. Every floor has an up bit
+ * and a down bit, kept 64 floors to a word in two arrays of atomic words, so
+ * elevator threads, callboxes and the shutdown can add and remove requests
+ * at the same time without a lock and without ever boxing a floor number.
+ *
+ * Because the bits are kept in floor order, the pending floor nearest to a
+ * given floor in either direction is found by looking for the nearest set
+ * bit, a word at a time, instead of walking through every request
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Singl_WorkingController#getPendingCalls()
+ * @see Entity_FloorBits
+ */
+public class Entity_PendingCallSet {
+
+    /**
+     * The up bit of every floor, floor f being bit f % 64 of word f / 64
+     *
+     * @since Version 1.0
+     * @see #add(int, int)
+     */
+    private final AtomicLongArray up;
+
+    /**
+     * The down bit of every floor, laid out as the up bits are
+     *
+     * @since Version 1.0
+     * @see #add(int, int)
+     */
+    private final AtomicLongArray down;
+
+    /**
+     * The number of floor numbers the set has room for, counting floor zero
+     *
+     * @since Version 1.0
+     */
+    private final int capacity;
+
+    /**
+     * Constructs a new, empty set with room for every floor of a building
+     * and the floor above it
+     *
+     * @since Version 1.0
+     * @param nOF the number of floors in the building
+     */
+    public Entity_PendingCallSet(int nOF) {
+
+        capacity = Math.max(nOF, 0) + 2;
+        up = new AtomicLongArray((capacity + 63) / 64);
+        down = new AtomicLongArray((capacity + 63) / 64);
+    }
+
+    /**
+     * Adds a request to the set
+     *
+     * @since Version 1.0
+     * @param floor the floor of the request
+     * @param direction the direction of the request, -1 or 1
+     * @return a boolean that is false if the request was already pending,
+     *         or the floor or direction is out of range
+     */
+    public boolean add(int floor, int direction) {
+
+        if(floor < 0 || floor >= capacity || !(direction == -1 || direction == 1))
+            return false;
+
+        return Entity_FloorBits.set(wordsOf(direction), floor);
+    }
+
+    /**
+     * Removes a request from the set
+     *
+     * @since Version 1.0
+     * @param floor the floor of the request
+     * @param direction the direction of the request, -1 or 1
+     * @return a boolean that is false if the request was not pending, or
+     *         the floor or direction is out of range
+     */
+    public boolean remove(int floor, int direction) {
+
+        if(floor < 0 || floor >= capacity || !(direction == -1 || direction == 1))
+            return false;
+
+        return Entity_FloorBits.clear(wordsOf(direction), floor);
+    }
+
+    /**
+     * Returns whether a request is pending
+     *
+     * @since Version 1.0
+     * @param floor the floor of the request
+     * @param direction the direction of the request, -1 or 1
+     * @return a boolean that is true if the request is pending
+     */
+    public boolean contains(int floor, int direction) {
+
+        if(floor < 0 || floor >= capacity || !(direction == -1 || direction == 1))
+            return false;
+
+        return (wordsOf(direction).get(floor >>> 6) & (1L << floor)) != 0;
+    }
+
+    /**
+     * Returns the requests pending on a floor in the direction code the
+     * pending list has always used
+     *
+     * @since Version 1.0
+     * @see #toTreeMap()
+     * @param floor the floor to look at
+     * @return an int that is 1 for just up, -1 for just down, 2 for down and
+     *         up, or 0 if nothing is pending on the floor
+     */
+    public int getCode(int floor) {
+
+        boolean upPending = contains(floor, 1);
+        boolean downPending = contains(floor, -1);
+
+        if(upPending && downPending)
+            return 2;
+
+        return (upPending ? 1 : (downPending ? -1 : 0));
+    }
+
+    /**
+     * Returns whether no request is pending
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if the set is empty
+     */
+    public boolean isEmpty() {
+        return Entity_FloorBits.isEmpty(up, down);
+    }
+
+    /**
+     * Returns the lowest floor at or above a floor with a request pending
+     *
+     * @since Version 1.0
+     * @param from the floor to start looking at
+     * @param direction the direction of the requests to look for, -1 or 1,
+     *        or 0 for either
+     * @return an int floor number, or -1 if there is none
+     */
+    public int nextFloor(int from, int direction) {
+
+        return Entity_FloorBits.next(wordsOf(direction),
+                (direction == -1 || direction == 1 ? null : up), from, capacity);
+    }
+
+    /**
+     * Returns the highest floor at or below a floor with a request pending
+     *
+     * @since Version 1.0
+     * @param from the floor to start looking at
+     * @param direction the direction of the requests to look for, -1 or 1,
+     *        or 0 for either
+     * @return an int floor number, or -1 if there is none
+     */
+    public int previousFloor(int from, int direction) {
+
+        return Entity_FloorBits.previous(wordsOf(direction),
+                (direction == -1 || direction == 1 ? null : up), from, capacity);
+    }
+
+    /**
+     * Returns the pending floor nearest to a floor, in either direction of
+     * any request. An elevator heading up only looks above the floor and one
+     * heading down only below it; an idle one looks both ways, and of two
+     * floors the same distance away takes the lower
+     *
+     * @since Version 1.0
+     * @param from the floor to start looking at
+     * @param heading the direction the elevator is heading, -1, 0 or 1
+     * @return an int floor number, or -1 if there is none
+     */
+    public int nearestFloor(int from, int heading) {
+
+        if(heading == 1)
+            return nextFloor(from, 0);
+
+        if(heading == -1)
+            return previousFloor(from, 0);
+
+        int below = previousFloor(from, 0);
+        int above = nextFloor(from, 0);
+
+        if(below == -1)
+            return above;
+
+        if(above == -1 || from - below <= above - from)
+            return below;
+
+        return above;
+    }
+
+    /**
+     * Returns a copy of all the bits, the up words followed by the down
+     * words, so that it can later be told whether the set has changed
+     *
+     * @since Version 1.0
+     * @return a long array of the bits
+     */
+    public long[] getBits() {
+
+        long[] bits = new long[2 * up.length()];
+
+        for(int i = 0; i < up.length(); ++i)
+        {
+            bits[i] = up.get(i);
+            bits[up.length() + i] = down.get(i);
+        }
+
+        return bits;
+    }
+
+    /**
+     * Returns a copy of the set as the pending list map of floor to
+     * direction code, for printing and for working through every request
+     *
+     * @since Version 1.0
+     * @see #getCode(int)
+     * @return a TreeMap<Integer, Integer> of floor to direction code
+     */
+    public TreeMap<Integer, Integer> toTreeMap() {
+
+        TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+
+        for(int floor = nextFloor(0, 0); floor != -1; floor = nextFloor(floor + 1, 0))
+        {
+            int code = getCode(floor);
+
+            // the request may have been taken since the bit was found
+            if(code != 0)
+                map.put(floor, code);
+        }
+
+        return map;
+    }
+
+    /**
+     * Returns the words holding the bits of one direction
+     *
+     * @since Version 1.0
+     * @param direction the direction, 1 for up and anything else for down
+     * @return the AtomicLongArray of that direction
+     */
+    private AtomicLongArray wordsOf(int direction) {
+        return (direction == 1 ? up : down);
+    }
+
+}
@@ -0,0 +1,132 @@
+package ver3;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class hands out the random numbers a simulation run draws. Every run is
+ * seeded from the randomSeed in programData.xml and the number of the
+ * replication it is, so any run can be replayed exactly from those two numbers.
+ *
+ * Each purpose a number is drawn for has a stream of its own: one stream picks
+ * the floors people start on, and every floor has its own stream for picking
+ * where the people starting there want to go. Changing how many numbers one
+ * purpose draws therefore leaves the numbers of every other purpose alone, and
+ * two replications of the same seed never share a stream.
+ *
+ * The streams are SplittableRandom generators split from one root in a fixed
+ * order, so drawing a number allocates nothing and needs no locking. A set of
+ * streams belongs to one run and must only be drawn from by one thread
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Singl_WorkingSimulation#generatePeople()
+ * @see Entity_ReplicationRunner
+ */
+public class Entity_RandomStreams {
+
+    /**
+     * The seed the streams were split from
+     *
+     * @since Version 1.0
+     * @see #getSeed()
+     */
+    private final long seed;
+
+    /**
+     * The replication the streams belong to
+     *
+     * @since Version 1.0
+     * @see #getReplication()
+     */
+    private final int replication;
+
+    /**
+     * The stream used to pick the floor each person starts on
+     *
+     * @since Version 1.0
+     * @see #nextOrigin()
+     */
+    private final SplittableRandom originStream;
+
+    /**
+     * The streams used to pick each person's destination, one per start floor
+     *
+     * @since Version 1.0
+     * @see #nextDestination(int)
+     */
+    private final SplittableRandom[] destinationStreams;
+
+    /**
+     * Constructs the streams of one replication
+     *
+     * @since Version 1.0
+     * @param s the seed of the run
+     * @param r the replication number, zero for a single run
+     * @param floors the number of floors in the building
+     */
+    public Entity_RandomStreams(long s, int r, int floors) {
+
+        seed = s;
+        replication = r;
+
+        // each replication takes the next split of the root, so replication
+        // r gets the same streams however many replications are run
+        SplittableRandom root = new SplittableRandom(s);
+        SplittableRandom replicationRoot = root.split();
+        for(int i = 0; i < r; ++i)
+            replicationRoot = root.split();
+
+        originStream = replicationRoot.split();
+
+        destinationStreams = new SplittableRandom[floors];
+        for(int i = 0; i < floors; ++i)
+            destinationStreams[i] = replicationRoot.split();
+    }
+
+    /**
+     * Draws the number used to pick the floor a person starts on
+     *
+     * @since Version 1.0
+     * @see #originStream
+     * @return a double from zero (inclusive) to one (exclusive)
+     */
+    public double nextOrigin() {
+        return originStream.nextDouble();
+    }
+
+    /**
+     * Draws the number used to pick where a person starting on a floor wants to go
+     *
+     * @since Version 1.0
+     * @see #destinationStreams
+     * @param startFloor the floor the person starts on
+     * @return a double from zero (inclusive) to one (exclusive)
+     */
+    public double nextDestination(int startFloor) {
+        return destinationStreams[startFloor - 1].nextDouble();
+    }
+
+    /**
+     * Returns the seed the streams were split from
+     *
+     * @since Version 1.0
+     * @see #seed
+     * @return a long
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the replication the streams belong to
+     *
+     * @since Version 1.0
+     * @see #replication
+     * @return an int, zero for a single run
+     */
+    public int getReplication() {
+        return replication;
+    }
+
+}
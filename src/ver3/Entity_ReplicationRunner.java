@@ -0,0 +1,502 @@
+package ver3;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class repeats one scenario many times with independent random seeds
+ * and reports how much the results of Charts A and C can be trusted: the mean,
+ * standard deviation and 95% confidence interval of the average wait and ride
+ * time per person and of the average wait on every floor.
+ *
+ * Replications are run in batches on a fork join pool, one per core. After
+ * each batch the confidence interval of the average wait per person is
+ * checked, and once its half-width is below the target (and the minimum
+ * number of replications has been run) no more batches are started.
+ *
+ * Every replication is run in lockstep mode in a simulation context of its
+ * own. Replication r draws from the random number streams of the base seed
+ * that belong to replication r, so the replications are independent of each
+ * other and any one of them can be replayed on its own
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_ReplicationStatistic
+ */
+public class Entity_ReplicationRunner {
+
+    /**
+     * The version of the IMPL's the scenario runs with
+     *
+     * @since Version 1.0
+     * @see #setVersion(String)
+     */
+    private String version = "Original";
+
+    /**
+     * The number of replications to run before stopping early is considered
+     *
+     * @since Version 1.0
+     * @see #setMinReplications(int)
+     */
+    private int minReplications = 5;
+
+    /**
+     * The most replications to run however wide the interval still is
+     *
+     * @since Version 1.0
+     * @see #setMaxReplications(int)
+     */
+    private int maxReplications = 100;
+
+    /**
+     * The half-width, in seconds, of the 95% confidence interval for the
+     * average wait per person that is narrow enough to stop at
+     *
+     * @since Version 1.0
+     * @see #setTargetHalfWidth(double)
+     */
+    private double targetHalfWidth = 0.5;
+
+    /**
+     * The seed the random number streams of every replication are split from
+     *
+     * @since Version 1.0
+     * @see #setBaseSeed(long)
+     * @see Entity_RandomStreams
+     */
+    private long baseSeed = 1;
+
+    /**
+     * The summary of the average wait per person
+     *
+     * @since Version 1.0
+     * @see #run()
+     */
+    private Entity_ReplicationStatistic waitStatistic;
+
+    /**
+     * The summary of the average ride per person
+     *
+     * @since Version 1.0
+     * @see #run()
+     */
+    private Entity_ReplicationStatistic rideStatistic;
+
+    /**
+     * The summaries of the average wait on each floor, in floor order
+     *
+     * @since Version 1.0
+     * @see #run()
+     */
+    private List<Entity_ReplicationStatistic> floorStatistics;
+
+    /**
+     * Constructs a new runner with the default settings
+     *
+     * @since Version 1.0
+     * @see #readXML(String)
+     */
+    public Entity_ReplicationRunner() {
+    }
+
+    /**
+     * Builds a runner from the optional replication section of an xml data
+     * file. Any setting that is left out keeps its default, and the base
+     * seed is the randomSeed of the building
+     *
+     * @since Version 1.0
+     * @param path the path of the xml data file
+     * @return a new Entity_ReplicationRunner
+     * @throws SAXException if has trouble extracting from the xml file
+     * @throws ParserConfigurationException if has trouble extracting from the xml file
+     * @throws IllegalSimulationException if a setting is out of range
+     */
+    public static Entity_ReplicationRunner readXML(String path) throws SAXException,
+                    ParserConfigurationException, IllegalSimulationException {
+
+        Entity_ReplicationRunner runner = new Entity_ReplicationRunner();
+
+        try {
+            FileInputStream file = new FileInputStream(path);
+            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+            Document doc = dBuilder.parse(file);
+            doc.getDocumentElement().normalize();
+            file.close();
+
+            Element eElement = doc.getDocumentElement();
+
+            String min = readTag(eElement, "replicationMin");
+            if(min != null)
+                runner.setMinReplications(Integer.parseInt(min));
+
+            String max = readTag(eElement, "replicationMax");
+            if(max != null)
+                runner.setMaxReplications(Integer.parseInt(max));
+
+            String target = readTag(eElement, "replicationTargetHalfWidth");
+            if(target != null)
+                runner.setTargetHalfWidth(Double.parseDouble(target));
+
+            String seed = readTag(eElement, "randomSeed");
+            if(seed != null)
+                runner.setBaseSeed(Long.parseLong(seed));
+
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        } catch (NumberFormatException ex) {
+            throw new IllegalSimulationException("Illegal number encountered "
+                                    + "in replication section: " + ex.getMessage());
+        }
+
+        return runner;
+    }
+
+    /**
+     * Returns the trimmed text of the first element with the given tag name
+     *
+     * @since Version 1.0
+     * @param eElement the element to search
+     * @param tag the tag name
+     * @return a String, or null if there is no such element
+     */
+    private static String readTag(Element eElement, String tag) {
+
+        NodeList list = eElement.getElementsByTagName(tag);
+
+        if(list.getLength() == 0)
+            return null;
+
+        return list.item(0).getTextContent().trim();
+    }
+
+    /**
+     * Runs replications until the average wait per person is known closely
+     * enough or the maximum has been run
+     *
+     * @since Version 1.0
+     * @see #buildReport()
+     * @return the number of replications run
+     */
+    public int run() {
+
+        waitStatistic = new Entity_ReplicationStatistic("Avg wait per person");
+        rideStatistic = new Entity_ReplicationStatistic("Avg ride per person");
+        floorStatistics = new ArrayList<Entity_ReplicationStatistic>();
+
+        ForkJoinPool pool = new ForkJoinPool();
+        int run = 0;
+
+        try {
+            while(run < maxReplications)
+            {
+                int batch = (run == 0 ? Math.max(minReplications, pool.getParallelism())
+                                      : pool.getParallelism());
+                batch = Math.min(batch, maxReplications - run);
+
+                double[][] measurements = new double[batch][];
+                pool.invoke(new ReplicationTask(version, baseSeed, run, 
+                                                        measurements, 0, batch));
+
+                // add in replication order so the summary does not depend
+                // on which core finished first
+                for(double[] measured : measurements)
+                    if(measured != null)
+                        add(measured);
+
+                run += batch;
+
+                if(run >= minReplications
+                        && waitStatistic.getHalfWidth() <= targetHalfWidth)
+                    break;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return run;
+    }
+
+    /**
+     * Adds the measurements of one replication to the statistics
+     *
+     * @since Version 1.0
+     * @param measured the average wait and ride per person, then the
+     *        average wait of each floor
+     */
+    private void add(double[] measured) {
+
+        waitStatistic.add(measured[0]);
+        rideStatistic.add(measured[1]);
+
+        for(int i = 2; i < measured.length; ++i)
+        {
+            if(floorStatistics.size() < i - 1)
+                floorStatistics.add(new Entity_ReplicationStatistic(
+                                            "Avg wait on floor " + (i - 1)));
+
+            // a floor nobody left from has no wait to average
+            if(!Double.isNaN(measured[i]))
+                floorStatistics.get(i - 2).add(measured[i]);
+        }
+    }
+
+    /**
+     * Runs one replication in a simulation context of its own, with its
+     * commentary thrown away
+     *
+     * @since Version 1.0
+     * @param version the version of the IMPL's to run with
+     * @param seed the random seed of the replications
+     * @param replication the number of the replication to run
+     * @return the average wait and ride per person followed by the average
+     *         wait of each floor, or null if the run failed
+     */
+    static double[] runReplication(String version, long seed, int replication) {
+
+        Entity_SimulationContext context = new Entity_SimulationContext(
+                                    Entity_SimulationContext.newDiscardingConsole());
+
+        try {
+            context.getSimulation().setRandomSeedOverride(seed);
+            context.getSimulation().setReplicationNumber(replication);
+            context.getSimulation().run(version, Singl_WorkingSimulation.LOCKSTEP);
+        } catch (IllegalSimulationException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+
+        List<Interface_Floor> floors = context.getBuilding().getFloorList();
+        double[] measured = new double[2 + floors.size()];
+
+        double totalWaitTime = 0;
+        double totalRideTime = 0;
+        int people = 0;
+
+        for(int i = 0; i < floors.size(); ++i)
+        {
+            for(Interface_Person theGuy : floors.get(i).getPersonsCompleted())
+            {
+                totalWaitTime += theGuy.getWaitTime();
+                totalRideTime += theGuy.getRideTime();
+                ++people;
+            }
+
+            measured[2 + i] = (floors.get(i).getPersonsDeparted().isEmpty()
+                                ? Double.NaN : floors.get(i).getAvgWaitTime());
+        }
+
+        measured[0] = (people == 0 ? 0 : totalWaitTime / people);
+        measured[1] = (people == 0 ? 0 : totalRideTime / people);
+
+        return measured;
+    }
+
+    /**
+     * Builds the report of the last run: one line per measurement with its
+     * mean, standard deviation and 95% confidence interval
+     *
+     * @since Version 1.0
+     * @see #run()
+     * @return a String used to later print out a report
+     */
+    public String buildReport() {
+
+        StringBuilder report = new StringBuilder();
+
+        report.append("Replications of the ").append(version)
+                .append(" Algorithm: ").append(waitStatistic.getCount())
+                .append(" runs, target half-width ")
+                .append(String.format("%1$,.2f", targetHalfWidth))
+                .append(" seconds\n\n");
+        report.append(String.format("%-22s %6s %9s %9s %21s%n",
+                "Measurement", "Runs", "Mean", "Std Dev", "95% CI"));
+
+        List<Entity_ReplicationStatistic> all = new ArrayList<Entity_ReplicationStatistic>();
+        all.add(waitStatistic);
+        all.add(rideStatistic);
+        all.addAll(floorStatistics);
+
+        for(Entity_ReplicationStatistic statistic : all)
+        {
+            double halfWidth = statistic.getHalfWidth();
+
+            report.append(String.format("%-22s %6d %9.2f %9.2f ", statistic.getName(),
+                    statistic.getCount(), statistic.getMean(),
+                    statistic.getStandardDeviation()));
+
+            if(Double.isInfinite(halfWidth))
+                report.append(String.format("%21s%n", "-"));
+            else
+                report.append(String.format("[%8.2f, %8.2f]%n",
+                        statistic.getMean() - halfWidth, statistic.getMean() + halfWidth));
+        }
+
+        report.append("\n\n");
+
+        return report.toString();
+    }
+
+    /**
+     * Returns the summary of the average wait per person from the last run
+     *
+     * @since Version 1.0
+     * @see #waitStatistic
+     * @return an Entity_ReplicationStatistic, or null before the first run
+     */
+    public Entity_ReplicationStatistic getWaitStatistic() {
+        return waitStatistic;
+    }
+
+    /**
+     * Returns the summary of the average ride per person from the last run
+     *
+     * @since Version 1.0
+     * @see #rideStatistic
+     * @return an Entity_ReplicationStatistic, or null before the first run
+     */
+    public Entity_ReplicationStatistic getRideStatistic() {
+        return rideStatistic;
+    }
+
+    /**
+     * Sets the version of the IMPL's the scenario runs with
+     *
+     * @since Version 1.0
+     * @see #version
+     * @param v the version
+     * @throws IllegalSimulationException if the argument provided is not a registered version
+     */
+    public void setVersion(String v) throws IllegalSimulationException {
+
+        if(!Singl_WorkingSimulation.isKnownVersion(v))
+            throw new IllegalSimulationException("Invalid version argument "
+                                  + " encountered in replication runner: " + v);
+
+        version = v;
+    }
+
+    /**
+     * Sets the number of replications to run before stopping early
+     *
+     * @since Version 1.0
+     * @see #minReplications
+     * @param min the number of replications
+     * @throws IllegalSimulationException if the argument is less than two
+     */
+    public void setMinReplications(int min) throws IllegalSimulationException {
+
+        if(min < 2)
+            throw new IllegalSimulationException("At least two replications "
+                                        + "are needed for an interval: " + min);
+
+        minReplications = min;
+    }
+
+    /**
+     * Sets the most replications to run
+     *
+     * @since Version 1.0
+     * @see #maxReplications
+     * @param max the number of replications
+     * @throws IllegalSimulationException if the argument is less than one
+     */
+    public void setMaxReplications(int max) throws IllegalSimulationException {
+
+        if(max < 1)
+            throw new IllegalSimulationException("Illegal maximum number of "
+                                        + "replications encountered: " + max);
+
+        maxReplications = max;
+    }
+
+    /**
+     * Sets the half-width to stop at
+     *
+     * @since Version 1.0
+     * @see #targetHalfWidth
+     * @param target the half-width in seconds
+     * @throws IllegalSimulationException if the argument is negative
+     */
+    public void setTargetHalfWidth(double target) throws IllegalSimulationException {
+
+        if(target < 0)
+            throw new IllegalSimulationException("Negative target half-width "
+                                                        + "encountered: " + target);
+
+        targetHalfWidth = target;
+    }
+
+    /**
+     * Sets the seed the random number streams of every replication are split from
+     *
+     * @since Version 1.0
+     * @see #baseSeed
+     * @param s the seed
+     */
+    public void setBaseSeed(long s) {
+        baseSeed = s;
+    }
+
+    /**
+     * The fork join task that runs a slice of a batch of replications. It
+     * splits itself in half until each task has one replication to run
+     *
+     * @since Version 1.0
+     * @see Entity_ReplicationRunner#run()
+     */
+    private static class ReplicationTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String version;
+        private final long seed;
+        private final int firstReplication;
+        private final double[][] measurements;
+        private final int low;
+        private final int high;
+
+        ReplicationTask(String v, long s, int fR, double[][] m, int l, int h) {
+            version = v;
+            seed = s;
+            firstReplication = fR;
+            measurements = m;
+            low = l;
+            high = h;
+        }
+
+        @Override
+        protected void compute() {
+
+            if(high - low <= 1)
+            {
+                if(high > low)
+                    measurements[low] = runReplication(version, seed, 
+                                                        firstReplication + low);
+                return;
+            }
+
+            int middle = (low + high) >>> 1;
+
+            invokeAll(new ReplicationTask(version, seed, firstReplication, 
+                                                        measurements, low, middle),
+                      new ReplicationTask(version, seed, firstReplication, 
+                                                        measurements, middle, high));
+        }
+    }
+
+}
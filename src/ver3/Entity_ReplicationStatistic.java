@@ -0,0 +1,158 @@
+package ver3;
+
+/**
+ * This class summarises one measurement across the replications of a
+ * scenario, such as the average wait on floor 3. Every replication adds the
+ * value it measured, and the statistic keeps a running mean and variance so
+ * the values themselves do not have to be stored. From those it reports the
+ * standard deviation and the half-width of a 95% confidence interval for the
+ * mean, using Student's t distribution
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_ReplicationRunner
+ */
+public class Entity_ReplicationStatistic {
+
+    /**
+     * The two-sided 95% critical values of Student's t distribution for one to
+     * thirty degrees of freedom. Past thirty the normal value of 1.96 is used
+     *
+     * @since Version 1.0
+     * @see #getHalfWidth()
+     */
+    private static final double[] T_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    /**
+     * The name of the measurement, used in reports
+     *
+     * @since Version 1.0
+     * @see #getName()
+     */
+    private final String name;
+
+    /**
+     * The number of values added
+     *
+     * @since Version 1.0
+     * @see #getCount()
+     */
+    private int count;
+
+    /**
+     * The running mean of the values added
+     *
+     * @since Version 1.0
+     * @see #getMean()
+     */
+    private double mean;
+
+    /**
+     * The running sum of squared differences from the mean
+     *
+     * @since Version 1.0
+     * @see #getStandardDeviation()
+     */
+    private double squaredDifferences;
+
+    /**
+     * Constructs a new statistic with no values
+     *
+     * @since Version 1.0
+     * @param n the name of the measurement
+     */
+    public Entity_ReplicationStatistic(String n) {
+        name = n;
+        count = 0;
+        mean = 0;
+        squaredDifferences = 0;
+    }
+
+    /**
+     * Adds the value one replication measured
+     *
+     * @since Version 1.0
+     * @param value the value measured
+     */
+    public void add(double value) {
+
+        ++count;
+
+        double difference = value - mean;
+        mean += difference / count;
+        squaredDifferences += difference * (value - mean);
+    }
+
+    /**
+     * Returns the name of the measurement
+     *
+     * @since Version 1.0
+     * @see #name
+     * @return a String
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of values added
+     *
+     * @since Version 1.0
+     * @see #count
+     * @return an int count of replications
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values added
+     *
+     * @since Version 1.0
+     * @see #mean
+     * @return a double, zero if no values have been added
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample standard deviation of the values added
+     *
+     * @since Version 1.0
+     * @see #squaredDifferences
+     * @return a double, zero if fewer than two values have been added
+     */
+    public double getStandardDeviation() {
+
+        if(count < 2)
+            return 0;
+
+        return Math.sqrt(squaredDifferences / (count - 1));
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval for the mean
+     *
+     * @since Version 1.0
+     * @see #T_95
+     * @return a double, or positive infinity if fewer than two values have
+     *         been added
+     */
+    public double getHalfWidth() {
+
+        if(count < 2)
+            return Double.POSITIVE_INFINITY;
+
+        int degreesOfFreedom = count - 1;
+        double t = (degreesOfFreedom <= T_95.length ? T_95[degreesOfFreedom - 1] : 1.96);
+
+        return t * getStandardDeviation() / Math.sqrt(count);
+    }
+
+}
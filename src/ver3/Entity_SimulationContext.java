@@ -0,0 +1,303 @@
+package ver3;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * This class owns everything one simulation needs: its simulation (which holds
+ * the configuration and the clock), its building, its controller, the counters
+ * used to hand out serial numbers, and the console its commentary is printed
+ * to. Every elevator, floor, callbox, person and IMPL strategy is given the
+ * context it belongs to when it is built, and reaches the rest of its
+ * simulation through it rather than through a process-wide singleton. That way
+ * any number of independent simulations can run side by side in one JVM, each
+ * in its own context.
+ *
+ * The getInstance() methods of the Singl_ classes still work. They return the
+ * objects of the default context, which is created the first time it is needed
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Singl_WorkingSimulation
+ * @see Singl_WorkingBuilding
+ * @see Singl_WorkingController
+ */
+public class Entity_SimulationContext {
+
+    /**
+     * The context used by the getInstance() methods of the Singl_ classes
+     *
+     * @since Version 1.0
+     * @see #getDefault()
+     */
+    private volatile static Entity_SimulationContext defaultContext;
+
+    /**
+     * The simulation of this context
+     *
+     * @since Version 1.0
+     * @see #getSimulation()
+     */
+    private final Singl_WorkingSimulation simulation;
+
+    /**
+     * The building of this context. It is created the first time it is asked
+     * for, since it is sized from the data the simulation reads when it sets up
+     *
+     * @since Version 1.0
+     * @see #getBuilding()
+     */
+    private volatile Singl_WorkingBuilding building;
+
+    /**
+     * The controller of this context, created the first time it is asked for
+     *
+     * @since Version 1.0
+     * @see #getController()
+     */
+    private volatile Singl_WorkingController controller;
+
+    /**
+     * The index of where the elevators of this context are and how busy they
+     * are. The elevators keep it up to date themselves
+     *
+     * @since Version 1.0
+     * @see #getLoadIndex()
+     */
+    private final Entity_ElevatorLoadIndex loadIndex = new Entity_ElevatorLoadIndex();
+
+    /**
+     * The stream the commentary of this context is printed to
+     *
+     * @since Version 1.0
+     * @see #getConsole()
+     * @see #setConsole(PrintStream)
+     */
+    private volatile PrintStream console = System.out;
+
+    /**
+     * The number of elevators built in this context, used to assign serial numbers
+     *
+     * @since Version 1.0
+     * @see #nextElevatorSerialNumber()
+     */
+    private int elevatorCount = 0;
+
+    /**
+     * The letter name to give the next elevator built in this context
+     *
+     * @since Version 1.0
+     * @see #nextElevatorLetterName()
+     */
+    private char elevatorChar = 'A';
+
+    /**
+     * The number of floors built in this context, used to number the floors
+     *
+     * @since Version 1.0
+     * @see #nextFloorNumber()
+     */
+    private int floorCount = 0;
+
+    /**
+     * The number of people created in this context, used to assign serial numbers
+     *
+     * @since Version 1.0
+     * @see #nextPersonSerialNumber()
+     */
+    private int personCount = 0;
+
+    /**
+     * Constructs a new context with its own simulation. The building and the
+     * controller follow when they are first asked for
+     *
+     * @since Version 1.0
+     */
+    public Entity_SimulationContext() {
+        this(System.out);
+    }
+
+    /**
+     * Constructs a new context with its own simulation whose commentary is
+     * printed to the given stream from the start
+     *
+     * @since Version 1.0
+     * @see #newDiscardingConsole()
+     * @param c the stream to print the commentary to
+     */
+    public Entity_SimulationContext(PrintStream c) {
+        console = c;
+        simulation = new Singl_WorkingSimulation(this);
+    }
+
+    /**
+     * Returns a new stream that throws away everything printed to it, for
+     * contexts whose commentary nobody will read
+     *
+     * @since Version 1.0
+     * @see #setConsole(PrintStream)
+     * @return a PrintStream that prints nothing
+     */
+    public static PrintStream newDiscardingConsole() {
+
+        return new PrintStream(new OutputStream() {
+            public void write(int b) {}
+            public void write(byte[] b, int off, int len) {}
+        });
+    }
+
+    /**
+     * Returns the default context, creating it the first time. The method
+     * follows the same double-checked pattern as the singletons it stands behind
+     *
+     * @since Version 1.0
+     * @see #defaultContext
+     * @return the Entity_SimulationContext behind the Singl_ getInstance() methods
+     */
+    public static Entity_SimulationContext getDefault() {
+
+        if(defaultContext == null)
+            synchronized(Entity_SimulationContext.class)
+            {
+                if(defaultContext == null)
+                {
+                    defaultContext = new Entity_SimulationContext();
+                }
+            }
+
+        return defaultContext;
+    }
+
+    /**
+     * Returns the simulation of this context
+     *
+     * @since Version 1.0
+     * @see #simulation
+     * @return the Singl_WorkingSimulation of this context
+     */
+    public Singl_WorkingSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Returns the building of this context, creating it the first time
+     *
+     * @since Version 1.0
+     * @see #building
+     * @return the Singl_WorkingBuilding of this context
+     */
+    public Singl_WorkingBuilding getBuilding() {
+
+        if(building == null)
+            synchronized(this)
+            {
+                if(building == null)
+                {
+                    building = new Singl_WorkingBuilding(this);
+                }
+            }
+
+        return building;
+    }
+
+    /**
+     * Returns the controller of this context, creating it the first time
+     *
+     * @since Version 1.0
+     * @see #controller
+     * @return the Singl_WorkingController of this context
+     */
+    public Singl_WorkingController getController() {
+
+        if(controller == null)
+            synchronized(this)
+            {
+                if(controller == null)
+                {
+                    controller = new Singl_WorkingController(this);
+                }
+            }
+
+        return controller;
+    }
+
+    /**
+     * Returns the index of where the elevators of this context are and how
+     * many destinations each has
+     *
+     * @since Version 1.0
+     * @see #loadIndex
+     * @return the Entity_ElevatorLoadIndex of this context
+     */
+    public Entity_ElevatorLoadIndex getLoadIndex() {
+        return loadIndex;
+    }
+
+    /**
+     * Returns the stream the commentary of this context is printed to
+     *
+     * @since Version 1.0
+     * @see #console
+     * @return a PrintStream, System.out unless it has been replaced
+     */
+    public PrintStream getConsole() {
+        return console;
+    }
+
+    /**
+     * Replaces the stream the commentary of this context is printed to
+     *
+     * @since Version 1.0
+     * @see #console
+     * @param c the new stream
+     */
+    public void setConsole(PrintStream c) {
+        console = c;
+    }
+
+    /**
+     * Returns the serial number for a newly built elevator
+     *
+     * @since Version 1.0
+     * @see #elevatorCount
+     * @return an int one higher than the last elevator's serial number
+     */
+    public synchronized int nextElevatorSerialNumber() {
+        return ++elevatorCount;
+    }
+
+    /**
+     * Returns the letter name for a newly built elevator
+     *
+     * @since Version 1.0
+     * @see #elevatorChar
+     * @return a char one letter after the last elevator's letter name
+     */
+    public synchronized char nextElevatorLetterName() {
+        return elevatorChar++;
+    }
+
+    /**
+     * Returns the floor number for a newly built floor
+     *
+     * @since Version 1.0
+     * @see #floorCount
+     * @return an int one higher than the last floor's number
+     */
+    public synchronized int nextFloorNumber() {
+        return ++floorCount;
+    }
+
+    /**
+     * Returns the serial number for a newly created person
+     *
+     * @since Version 1.0
+     * @see #personCount
+     * @return an int one higher than the last person's serial number
+     */
+    public synchronized int nextPersonSerialNumber() {
+        return ++personCount;
+    }
+
+}
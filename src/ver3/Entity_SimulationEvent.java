@@ -0,0 +1,206 @@
+package ver3;
+
+/**
+ * This class represents a single event in the discrete-event kernel's queue. An
+ * event knows the virtual time it is due, its type, and the handler that should
+ * process it. Events are ordered by their time and then by the order they were
+ * scheduled in, so two events due at the same instant are always processed
+ * first scheduled, first served. Events are cancelled lazily: a cancelled event
+ * stays in the queue but is skipped by the kernel when it comes due.
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_EventKernel
+ */
+public class Entity_SimulationEvent implements Comparable<Entity_SimulationEvent> {
+
+    /**
+     * Event type used when an elevator has finished travelling one floor
+     *
+     * @since Version 1.0
+     */
+    public static final int FLOOR_ARRIVAL = 1;
+
+    /**
+     * Event type used when an elevator's doors have been open long enough
+     * and should now close
+     *
+     * @since Version 1.0
+     */
+    public static final int DOOR_CLOSE = 2;
+
+    /**
+     * Event type used when the simulation should create a new batch of people
+     *
+     * @since Version 1.0
+     */
+    public static final int PASSENGER_ARRIVAL = 3;
+
+    /**
+     * Event type used when an idle elevator has waited long enough to check
+     * for pending requests again or return to its default floor
+     *
+     * @since Version 1.0
+     */
+    public static final int IDLE_TIMEOUT = 4;
+
+    /**
+     * Event type used when a parked elevator should ask the controller for a
+     * request that has just been added to the pending list
+     *
+     * @since Version 1.0
+     */
+    public static final int PENDING_REQUEST = 5;
+
+    /**
+     * Event type used when the hall call batcher's window has closed and the
+     * calls collected in it should be assigned to elevators
+     *
+     * @since Version 1.0
+     */
+    public static final int HALL_CALL_BATCH = 6;
+
+    /**
+     * Event type used when the hall call reassigner should look again at the
+     * hall calls it has seen given to elevators
+     *
+     * @since Version 1.0
+     */
+    public static final int HALL_CALL_REASSIGN = 7;
+
+    /**
+     * The virtual time (in simulated milliseconds) that the event is due
+     *
+     * @since Version 1.0
+     * @see #getTime()
+     */
+    private long time;
+
+    /**
+     * The order the event was scheduled in, used to break ties between
+     * events that are due at the same time
+     *
+     * @since Version 1.0
+     * @see #compareTo(Entity_SimulationEvent)
+     */
+    private long sequenceNumber;
+
+    /**
+     * The kind of event this is
+     *
+     * @since Version 1.0
+     * @see #getType()
+     */
+    private int type;
+
+    /**
+     * The object that will process the event when it comes due
+     *
+     * @since Version 1.0
+     * @see #getHandler()
+     */
+    private Interface_EventHandler handler;
+
+    /**
+     * A boolean marking the event as cancelled so the kernel skips it
+     *
+     * @since Version 1.0
+     * @see #cancel()
+     * @see #isCancelled()
+     */
+    private boolean cancelled;
+
+    /**
+     * Constructs a new event. Only the kernel creates events so that the
+     * sequence numbers stay unique
+     *
+     * @since Version 1.0
+     * @see Entity_EventKernel#schedule(long, int, Interface_EventHandler)
+     * @param t the virtual time the event is due
+     * @param sN the scheduling order of the event
+     * @param ty the type of the event
+     * @param h the handler of the event
+     */
+    Entity_SimulationEvent(long t, long sN, int ty, Interface_EventHandler h) {
+        time = t;
+        sequenceNumber = sN;
+        type = ty;
+        handler = h;
+        cancelled = false;
+    }
+
+    /**
+     * Orders events by time and then by scheduling order
+     *
+     * @since Version 1.0
+     * @param e the event to compare against
+     * @return a negative int, zero, or a positive int as this event is due
+     *         before, with, or after the other event
+     */
+    public int compareTo(Entity_SimulationEvent e) {
+
+        if(time != e.time)
+            return (time < e.time ? -1 : 1);
+
+        if(sequenceNumber != e.sequenceNumber)
+            return (sequenceNumber < e.sequenceNumber ? -1 : 1);
+
+        return 0;
+    }
+
+    /**
+     * Returns the virtual time the event is due
+     *
+     * @since Version 1.0
+     * @see #time
+     * @return a long representing simulated milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the type of the event
+     *
+     * @since Version 1.0
+     * @see #type
+     * @return an int matching one of the event type constants
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Returns the handler of the event
+     *
+     * @since Version 1.0
+     * @see #handler
+     * @return the Interface_EventHandler that will process the event
+     */
+    public Interface_EventHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Marks the event as cancelled so the kernel will skip it
+     *
+     * @since Version 1.0
+     * @see #cancelled
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether the event has been cancelled
+     *
+     * @since Version 1.0
+     * @see #cancelled
+     * @return a boolean that is true if the event should be skipped
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+}
@@ -0,0 +1,265 @@
+package ver3;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds the floors an elevator is going to stop at. A stop is
+ * either an up stop, made on the way up, or a down stop, made on the way
+ * down, and each kind is kept as one bit per floor, 64 floors to a word, in
+ * an array of atomic words the same way the controller's pending requests
+ * are. Adding, removing and looking up a stop takes constant time and never
+ * boxes a floor number, and the next stop is found by looking for the
+ * nearest set bit a word at a time, so the stops never need sorting.
+ *
+ * The stops are visited the way an elevator sweeps the building. Heading up
+ * (or idle) it makes the up stops above it from the bottom up, then the down
+ * stops from the top down, then any up stops below it from the bottom up.
+ * Heading down it does the same the other way round. A floor is only ever
+ * one kind of stop at a time.
+ *
+ * Only the elevator changes its stops, but pickers on other threads read
+ * them while it does, so every word is read and written atomically and a
+ * reader sees each stop either there or not
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_WorkingElevator#getDestinationList()
+ * @see Entity_PendingCallSet
+ * @see Entity_FloorBits
+ */
+public class Entity_StopSet {
+
+    /**
+     * The up stops, floor f being bit f % 64 of word f / 64
+     *
+     * @since Version 1.0
+     * @see #add(int, int)
+     */
+    private final AtomicLongArray up;
+
+    /**
+     * The down stops, laid out as the up stops are
+     *
+     * @since Version 1.0
+     * @see #add(int, int)
+     */
+    private final AtomicLongArray down;
+
+    /**
+     * The number of floor numbers the set has room for, counting floor zero
+     *
+     * @since Version 1.0
+     */
+    private final int capacity;
+
+    /**
+     * Constructs a new, empty set with room for every floor of a building
+     * and the floor above it
+     *
+     * @since Version 1.0
+     * @param nOF the number of floors in the building
+     */
+    public Entity_StopSet(int nOF) {
+
+        capacity = Math.max(nOF, 0) + 2;
+        up = new AtomicLongArray((capacity + 63) / 64);
+        down = new AtomicLongArray((capacity + 63) / 64);
+    }
+
+    /**
+     * Adds a stop to the set, unless the floor is already a stop of either
+     * kind
+     *
+     * @since Version 1.0
+     * @param floor the floor of the stop
+     * @param direction the way the elevator will be heading when it stops,
+     *        1 for up and -1 for down
+     * @return a boolean that is false if the floor was already a stop or is
+     *         not in the building
+     */
+    public boolean add(int floor, int direction) {
+
+        if(floor < 0 || floor >= capacity || contains(floor))
+            return false;
+
+        return Entity_FloorBits.set((direction == -1 ? down : up), floor);
+    }
+
+    /**
+     * Removes a stop from the set, whichever kind it is
+     *
+     * @since Version 1.0
+     * @param floor the floor of the stop
+     * @return a boolean that is false if the floor was not a stop
+     */
+    public boolean remove(int floor) {
+
+        if(floor < 0 || floor >= capacity)
+            return false;
+
+        return Entity_FloorBits.clear(up, floor) | Entity_FloorBits.clear(down, floor);
+    }
+
+    /**
+     * Returns whether a floor is a stop of either kind
+     *
+     * @since Version 1.0
+     * @param floor the floor
+     * @return a boolean that is true if the elevator is going to stop there
+     */
+    public boolean contains(int floor) {
+
+        if(floor < 0 || floor >= capacity)
+            return false;
+
+        long bit = 1L << floor;
+
+        return ((up.get(floor >>> 6) | down.get(floor >>> 6)) & bit) != 0;
+    }
+
+    /**
+     * Returns whether there are no stops
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if the set is empty
+     */
+    public boolean isEmpty() {
+        return Entity_FloorBits.isEmpty(up, down);
+    }
+
+    /**
+     * Returns the number of stops
+     *
+     * @since Version 1.0
+     * @return an int count of floors
+     */
+    public int size() {
+
+        int size = 0;
+
+        for(int i = 0; i < up.length(); ++i)
+            size += Long.bitCount(up.get(i) | down.get(i));
+
+        return size;
+    }
+
+    /**
+     * Returns a copy of the stops of both kinds, floor f being bit f % 64 of
+     * word f / 64, for an elevator to publish in its snapshot
+     *
+     * @since Version 1.0
+     * @see Entity_ElevatorSnapshot
+     * @return a new array of words
+     */
+    public long[] toWords() {
+
+        long[] words = new long[up.length()];
+
+        for(int i = 0; i < words.length; ++i)
+            words[i] = up.get(i) | down.get(i);
+
+        return words;
+    }
+
+    /**
+     * Returns the stop the elevator comes to first
+     *
+     * @since Version 1.0
+     * @param from the floor the elevator is on
+     * @param heading the direction the elevator is heading, -1, 0 or 1
+     * @return an int floor number, or -1 if there are no stops
+     */
+    public int nextStop(int from, int heading) {
+
+        from = Math.max(0, Math.min(from, capacity - 1));
+
+        int floor;
+
+        if(heading == -1)
+        {
+            floor = previous(down, from);
+            if(floor == -1)
+                floor = next(up, 0);
+            if(floor == -1)
+                floor = previous(down, capacity - 1);
+        }
+        else
+        {
+            floor = next(up, from);
+            if(floor == -1)
+                floor = previous(down, capacity - 1);
+            if(floor == -1)
+                floor = next(up, 0);
+        }
+
+        return floor;
+    }
+
+    /**
+     * Returns the stops in the order the elevator comes to them
+     *
+     * @since Version 1.0
+     * @param from the floor the elevator is on
+     * @param heading the direction the elevator is heading, -1, 0 or 1
+     * @return an int array of floor numbers
+     */
+    public int[] toArray(int from, int heading) {
+
+        from = Math.max(0, Math.min(from, capacity - 1));
+
+        // a floor taken off one kind and put on the other while the words
+        // are read may be seen twice, so there is room for both
+        int[] order = new int[2 * capacity];
+        int n = 0;
+
+        if(heading == -1)
+        {
+            for(int f = previous(down, from); f != -1; f = previous(down, f - 1))
+                order[n++] = f;
+            for(int f = next(up, 0); f != -1; f = next(up, f + 1))
+                order[n++] = f;
+            for(int f = previous(down, capacity - 1); f > from; f = previous(down, f - 1))
+                order[n++] = f;
+        }
+        else
+        {
+            for(int f = next(up, from); f != -1; f = next(up, f + 1))
+                order[n++] = f;
+            for(int f = previous(down, capacity - 1); f != -1; f = previous(down, f - 1))
+                order[n++] = f;
+            for(int f = next(up, 0); f != -1 && f < from; f = next(up, f + 1))
+                order[n++] = f;
+        }
+
+        int[] stops = new int[n];
+        System.arraycopy(order, 0, stops, 0, n);
+
+        return stops;
+    }
+
+    /**
+     * Returns the lowest set bit at or above a floor
+     *
+     * @since Version 1.0
+     * @param words the words to look in
+     * @param from the floor to start looking at
+     * @return an int floor number, or -1 if there is none
+     */
+    private int next(AtomicLongArray words, int from) {
+        return Entity_FloorBits.next(words, null, from, capacity);
+    }
+
+    /**
+     * Returns the highest set bit at or below a floor
+     *
+     * @since Version 1.0
+     * @param words the words to look in
+     * @param from the floor to start looking at
+     * @return an int floor number, or -1 if there is none
+     */
+    private int previous(AtomicLongArray words, int from) {
+        return Entity_FloorBits.previous(words, null, from, capacity);
+    }
+
+}
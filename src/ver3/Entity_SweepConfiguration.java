@@ -0,0 +1,157 @@
+package ver3;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class represents one point of a parameter sweep: how many elevators the
+ * building has, the default floor of each of them, how many people each can
+ * carry and which version of the IMPL's to run with. Everything else about the
+ * building is still read from programData.xml. A configuration cannot be
+ * changed once it is built, so it can be handed to any thread of the sweep
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_SweepRunner
+ * @see Singl_WorkingSimulation#setConfigurationOverride(Entity_SweepConfiguration)
+ */
+public class Entity_SweepConfiguration {
+
+    /**
+     * The version of the IMPL's to run with, Original, New or ETA
+     *
+     * @since Version 1.0
+     * @see #getVersion()
+     */
+    private final String version;
+
+    /**
+     * The default floor of each elevator. Elevator serial number i parks on
+     * defaultFloors[i - 1]
+     *
+     * @since Version 1.0
+     * @see #getElevatorDefaultFloorDetails()
+     */
+    private final int[] defaultFloors;
+
+    /**
+     * The number of people each elevator can carry at once
+     *
+     * @since Version 1.0
+     * @see #getMaxPersonsPerElevator()
+     */
+    private final int maxPersonsPerElevator;
+
+    /**
+     * Constructs a new configuration. There is one elevator for every default
+     * floor given
+     *
+     * @since Version 1.0
+     * @param v the version of the IMPL's to run with
+     * @param dF the default floor of each elevator, in serial number order
+     * @param mPPE the number of people each elevator can carry
+     * @throws IllegalSimulationException if the version is not a registered version,
+     *         there are no elevators, a default floor is not positive or the
+     *         capacity is negative
+     */
+    public Entity_SweepConfiguration(String v, int[] dF, int mPPE)
+                                        throws IllegalSimulationException {
+
+        if(!Singl_WorkingSimulation.isKnownVersion(v))
+            throw new IllegalSimulationException("Invalid version argument "
+                                  + " encountered in sweep configuration: " + v);
+
+        if(dF == null || dF.length == 0)
+            throw new IllegalSimulationException("Sweep configuration "
+                                                    + "without elevators encountered");
+
+        for(int floor : dF)
+            if(floor < 1)
+                throw new IllegalSimulationException("Illegal default floor "
+                                  + "encountered in sweep configuration: " + floor);
+
+        if(mPPE < 0)
+            throw new IllegalSimulationException("Negative maxPersonsPerElevator "
+                                                    + "encountered: " + mPPE);
+
+        version = v;
+        defaultFloors = Arrays.copyOf(dF, dF.length);
+        maxPersonsPerElevator = mPPE;
+    }
+
+    /**
+     * Returns the version of the IMPL's to run with
+     *
+     * @since Version 1.0
+     * @see #version
+     * @return a String, Original, New or ETA
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of elevators in the building
+     *
+     * @since Version 1.0
+     * @see #defaultFloors
+     * @return an int count of elevators
+     */
+    public int getNumberOfElevators() {
+        return defaultFloors.length;
+    }
+
+    /**
+     * Returns the default floor of each elevator keyed by serial number, in
+     * the same form the simulation reads them from programData.xml
+     *
+     * @since Version 1.0
+     * @see #defaultFloors
+     * @return a new TreeMap from elevator serial number to default floor
+     */
+    public TreeMap<Integer, Integer> getElevatorDefaultFloorDetails() {
+
+        TreeMap<Integer, Integer> details = new TreeMap<Integer, Integer>();
+
+        for(int i = 0; i < defaultFloors.length; ++i)
+            details.put(i + 1, defaultFloors[i]);
+
+        return details;
+    }
+
+    /**
+     * Returns the number of people each elevator can carry at once
+     *
+     * @since Version 1.0
+     * @see #maxPersonsPerElevator
+     * @return an int capacity
+     */
+    public int getMaxPersonsPerElevator() {
+        return maxPersonsPerElevator;
+    }
+
+    /**
+     * Returns a short label for the configuration, used in the sweep table
+     *
+     * @since Version 1.0
+     * @return a String such as "New, 4 elevators @ 1/1/1/7, max 8"
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder floors = new StringBuilder();
+
+        for(int i = 0; i < defaultFloors.length; ++i)
+        {
+            if(i > 0)
+                floors.append('/');
+            floors.append(defaultFloors[i]);
+        }
+
+        return version + ", " + defaultFloors.length + " elevators @ "
+                + floors + ", max " + maxPersonsPerElevator;
+    }
+
+}
@@ -0,0 +1,155 @@
+package ver3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds what one configuration of a parameter sweep scored: the
+ * average and the 95th percentile of the time people waited for an elevator,
+ * in seconds, and how many people were served. Results are ordered best first,
+ * by average wait and then by p95 wait
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_SweepRunner
+ * @see Entity_SweepConfiguration
+ */
+public class Entity_SweepResult implements Comparable<Entity_SweepResult> {
+
+    /**
+     * The configuration that was run
+     *
+     * @since Version 1.0
+     * @see #getConfiguration()
+     */
+    private final Entity_SweepConfiguration configuration;
+
+    /**
+     * The average wait in seconds
+     *
+     * @since Version 1.0
+     * @see #getAverageWait()
+     */
+    private final double averageWait;
+
+    /**
+     * The 95th percentile wait in seconds
+     *
+     * @since Version 1.0
+     * @see #getP95Wait()
+     */
+    private final double p95Wait;
+
+    /**
+     * The number of people that were picked up
+     *
+     * @since Version 1.0
+     * @see #getPeopleServed()
+     */
+    private final int peopleServed;
+
+    /**
+     * Constructs a new result from the wait times recorded by a finished run
+     *
+     * @since Version 1.0
+     * @param c the configuration that was run
+     * @param waits the wait time in seconds of every person picked up
+     */
+    public Entity_SweepResult(Entity_SweepConfiguration c, List<Double> waits) {
+
+        configuration = c;
+        peopleServed = waits.size();
+
+        List<Double> sorted = new ArrayList<Double>(waits);
+        Collections.sort(sorted);
+
+        double total = 0;
+        for(Double wait : sorted)
+            total += wait;
+
+        averageWait = (sorted.isEmpty() ? 0 : total / sorted.size());
+        p95Wait = percentile(sorted, 95);
+    }
+
+    /**
+     * Returns the nearest-rank percentile of a sorted list
+     *
+     * @since Version 1.0
+     * @param sorted the values in ascending order
+     * @param p the percentile wanted, from 1 to 100
+     * @return the smallest value that at least p percent of the values are
+     *         less than or equal to, or zero for an empty list
+     */
+    static double percentile(List<Double> sorted, int p) {
+
+        if(sorted.isEmpty())
+            return 0;
+
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    /**
+     * Orders results best first: by average wait, then by p95 wait
+     *
+     * @since Version 1.0
+     * @param r the result to compare against
+     * @return a negative int, zero, or a positive int as this result ranks
+     *         before, with, or after the other result
+     */
+    public int compareTo(Entity_SweepResult r) {
+
+        if(averageWait != r.averageWait)
+            return Double.compare(averageWait, r.averageWait);
+
+        return Double.compare(p95Wait, r.p95Wait);
+    }
+
+    /**
+     * Returns the configuration that was run
+     *
+     * @since Version 1.0
+     * @see #configuration
+     * @return the Entity_SweepConfiguration of this result
+     */
+    public Entity_SweepConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Returns the average wait
+     *
+     * @since Version 1.0
+     * @see #averageWait
+     * @return a double representing seconds
+     */
+    public double getAverageWait() {
+        return averageWait;
+    }
+
+    /**
+     * Returns the 95th percentile wait
+     *
+     * @since Version 1.0
+     * @see #p95Wait
+     * @return a double representing seconds
+     */
+    public double getP95Wait() {
+        return p95Wait;
+    }
+
+    /**
+     * Returns the number of people that were picked up
+     *
+     * @since Version 1.0
+     * @see #peopleServed
+     * @return an int count of people
+     */
+    public int getPeopleServed() {
+        return peopleServed;
+    }
+
+}
@@ -0,0 +1,578 @@
+package ver3;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class runs a parameter sweep to find the best elevator configuration.
+ * It is given ranges for the number of elevators, the floors an elevator may
+ * default to, the number of people an elevator can carry and the versions of
+ * the IMPL's. It builds every combination of them (or a random sample of the
+ * combinations), runs each one in a simulation context of its own on a fork
+ * join pool so every core is kept busy, and ranks the configurations by the
+ * average and p95 wait they produced.
+ *
+ * Every configuration is run in lockstep mode. A lockstep run does not sleep,
+ * and since it draws its people from the seeded random numbers every
+ * configuration is measured against the same arrivals.
+ *
+ * Elevators are identical, so only one ordering of each set of default floors
+ * is run: 1/1/7 is run, but 1/7/1 and 7/1/1 are not
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_SweepConfiguration
+ * @see Entity_SweepResult
+ */
+public class Entity_SweepRunner {
+
+    /**
+     * The numbers of elevators to try
+     *
+     * @since Version 1.0
+     * @see #setElevatorCounts(List)
+     */
+    private List<Integer> elevatorCounts = new ArrayList<Integer>();
+
+    /**
+     * The floors an elevator may be given as its default floor
+     *
+     * @since Version 1.0
+     * @see #setDefaultFloors(List)
+     */
+    private List<Integer> defaultFloors = new ArrayList<Integer>();
+
+    /**
+     * The numbers of people per elevator to try
+     *
+     * @since Version 1.0
+     * @see #setMaxPersons(List)
+     */
+    private List<Integer> maxPersons = new ArrayList<Integer>();
+
+    /**
+     * The versions of the IMPL's to try
+     *
+     * @since Version 1.0
+     * @see #setVersions(List)
+     */
+    private List<String> versions = new ArrayList<String>();
+
+    /**
+     * The number of configurations to run, picked at random from all of them.
+     * Zero runs every configuration
+     *
+     * @since Version 1.0
+     * @see #setSampleSize(int)
+     */
+    private int sampleSize = 0;
+
+    /**
+     * The seed used to pick the sample of configurations
+     *
+     * @since Version 1.0
+     * @see #setSampleSeed(long)
+     */
+    private long sampleSeed = 1;
+
+    /**
+     * The configurations whose run failed in the last sweep, listed under the
+     * table rather than ranked
+     *
+     * @since Version 1.0
+     * @see #getFailedConfigurations()
+     */
+    private List<Entity_SweepConfiguration> failedConfigurations
+                                    = new ArrayList<Entity_SweepConfiguration>();
+
+    /**
+     * Constructs a new runner with empty ranges
+     *
+     * @since Version 1.0
+     * @see #readXML(String)
+     */
+    public Entity_SweepRunner() {
+    }
+
+    /**
+     * Builds a runner from the optional sweep section of an xml data file. Any
+     * range that is left out is taken from the building in the same file: its
+     * number of elevators, the floors its elevators default to, its
+     * maxPersonsPerElevator, and both versions
+     *
+     * @since Version 1.0
+     * @see #parseRange(String)
+     * @param path the path of the xml data file
+     * @return a new Entity_SweepRunner
+     * @throws SAXException if has trouble extracting from the xml file
+     * @throws ParserConfigurationException if has trouble extracting from the xml file
+     * @throws IllegalSimulationException if a range cannot be read or a version
+     *         has no registered strategy
+     */
+    public static Entity_SweepRunner readXML(String path) throws SAXException,
+                    ParserConfigurationException, IllegalSimulationException {
+
+        Entity_SweepRunner runner = new Entity_SweepRunner();
+
+        try {
+            FileInputStream file = new FileInputStream(path);
+            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+            Document doc = dBuilder.parse(file);
+            doc.getDocumentElement().normalize();
+            file.close();
+
+            Element eElement = doc.getDocumentElement();
+
+            String counts = readTag(eElement, "sweepElevatorCounts");
+            runner.setElevatorCounts(counts != null ? parseRange(counts)
+                    : parseRange(readTag(eElement, "numOfElevators")));
+
+            String floors = readTag(eElement, "sweepDefaultFloors");
+            if(floors != null)
+                runner.setDefaultFloors(parseRange(floors));
+            else
+            {
+                List<Integer> listed = new ArrayList<Integer>();
+                NodeList elevatorList = eElement.getElementsByTagName("elevator");
+
+                for(int k = 0; k < elevatorList.getLength(); ++k)
+                {
+                    Integer floor = Integer.valueOf(((Element) elevatorList.item(k))
+                            .getElementsByTagName("defaultFloor")
+                            .item(0).getTextContent().trim());
+
+                    if(!listed.contains(floor))
+                        listed.add(floor);
+                }
+                runner.setDefaultFloors(listed);
+            }
+
+            String persons = readTag(eElement, "sweepMaxPersons");
+            runner.setMaxPersons(persons != null ? parseRange(persons)
+                    : parseRange(readTag(eElement, "maxPersonsPerElevator")));
+
+            List<String> listedVersions = new ArrayList<String>();
+            String versionTag = readTag(eElement, "sweepVersions");
+            for(String v : (versionTag != null ? versionTag : "Original,New").split(","))
+                listedVersions.add(v.trim());
+            runner.setVersions(listedVersions);
+
+            String sample = readTag(eElement, "sweepSampleSize");
+            if(sample != null)
+                runner.setSampleSize(Integer.parseInt(sample));
+
+            String seed = readTag(eElement, "randomSeed");
+            if(seed != null)
+                runner.setSampleSeed(Long.parseLong(seed));
+
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        } catch (NumberFormatException ex) {
+            throw new IllegalSimulationException("Illegal number encountered "
+                                    + "in sweep section: " + ex.getMessage());
+        }
+
+        return runner;
+    }
+
+    /**
+     * Returns the trimmed text of the first element with the given tag name
+     *
+     * @since Version 1.0
+     * @param eElement the element to search
+     * @param tag the tag name
+     * @return a String, or null if there is no such element
+     */
+    private static String readTag(Element eElement, String tag) {
+
+        NodeList list = eElement.getElementsByTagName(tag);
+
+        if(list.getLength() == 0)
+            return null;
+
+        return list.item(0).getTextContent().trim();
+    }
+
+    /**
+     * Reads a range such as "2-6", "1,7,16" or "1,4-6"
+     *
+     * @since Version 1.0
+     * @param range the text of the range
+     * @return a List of the Integers in the range, in the order written
+     * @throws IllegalSimulationException if the range is empty or a span runs backwards
+     */
+    public static List<Integer> parseRange(String range) throws IllegalSimulationException {
+
+        List<Integer> values = new ArrayList<Integer>();
+
+        for(String part : range.split(","))
+        {
+            part = part.trim();
+
+            if(part.length() == 0)
+                continue;
+
+            int dash = part.indexOf('-', 1);
+
+            if(dash < 0)
+                values.add(Integer.parseInt(part));
+            else
+            {
+                int low = Integer.parseInt(part.substring(0, dash).trim());
+                int high = Integer.parseInt(part.substring(dash + 1).trim());
+
+                if(high < low)
+                    throw new IllegalSimulationException("Backwards sweep range "
+                                                        + "encountered: " + part);
+
+                for(int i = low; i <= high; ++i)
+                    values.add(i);
+            }
+        }
+
+        if(values.isEmpty())
+            throw new IllegalSimulationException("Empty sweep range encountered");
+
+        return values;
+    }
+
+    /**
+     * Builds the configurations the sweep will run: every combination of the
+     * ranges, or a random sample of them if a sample size has been set
+     *
+     * @since Version 1.0
+     * @see #sampleSize
+     * @return a List of the Entity_SweepConfigurations to run
+     * @throws IllegalSimulationException if a combination is not a legal configuration
+     */
+    public List<Entity_SweepConfiguration> buildConfigurations()
+                                        throws IllegalSimulationException {
+
+        List<Integer> floors = new ArrayList<Integer>(defaultFloors);
+        Collections.sort(floors);
+
+        List<Entity_SweepConfiguration> configurations
+                = new ArrayList<Entity_SweepConfiguration>();
+
+        for(String version : versions)
+            for(Integer count : elevatorCounts)
+                for(Integer capacity : maxPersons)
+                {
+                    List<int[]> layouts = new ArrayList<int[]>();
+                    buildLayouts(floors, new int[count], 0, 0, layouts);
+
+                    for(int[] layout : layouts)
+                        configurations.add(new Entity_SweepConfiguration(
+                                                        version, layout, capacity));
+                }
+
+        if(sampleSize > 0 && sampleSize < configurations.size())
+        {
+            Collections.shuffle(configurations, new Random(sampleSeed));
+            configurations = new ArrayList<Entity_SweepConfiguration>(
+                                        configurations.subList(0, sampleSize));
+        }
+
+        return configurations;
+    }
+
+    /**
+     * Adds every way of giving the remaining elevators a default floor, never
+     * choosing a lower floor than the elevator before, so each set of default
+     * floors is only added once
+     *
+     * @since Version 1.0
+     * @param floors the floors to choose from, in ascending order
+     * @param layout the default floors chosen so far
+     * @param elevator the index of the next elevator to choose for
+     * @param first the index of the lowest floor the next elevator may choose
+     * @param layouts the list the finished layouts are added to
+     */
+    private static void buildLayouts(List<Integer> floors, int[] layout,
+                            int elevator, int first, List<int[]> layouts) {
+
+        if(elevator == layout.length)
+        {
+            layouts.add(layout.clone());
+            return;
+        }
+
+        for(int i = first; i < floors.size(); ++i)
+        {
+            layout[elevator] = floors.get(i);
+            buildLayouts(floors, layout, elevator + 1, i, layouts);
+        }
+    }
+
+    /**
+     * Runs every configuration on a fork join pool with one worker per core
+     * and returns the results ranked best first. A configuration whose run
+     * fails is not ranked, but kept with the failed configurations
+     *
+     * @since Version 1.0
+     * @see #buildConfigurations()
+     * @see #getFailedConfigurations()
+     * @return a List of Entity_SweepResults, best first
+     * @throws IllegalSimulationException if a combination is not a legal configuration
+     */
+    public List<Entity_SweepResult> run() throws IllegalSimulationException {
+
+        List<Entity_SweepConfiguration> configurations = buildConfigurations();
+        Entity_SweepResult[] results = new Entity_SweepResult[configurations.size()];
+
+        ForkJoinPool pool = new ForkJoinPool();
+
+        try {
+            pool.invoke(new SweepTask(configurations, results, 0, results.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Entity_SweepResult> ranked = new ArrayList<Entity_SweepResult>();
+        failedConfigurations = new ArrayList<Entity_SweepConfiguration>();
+
+        for(int i = 0; i < results.length; ++i)
+        {
+            if(results[i] != null)
+                ranked.add(results[i]);
+            else
+                failedConfigurations.add(configurations.get(i));
+        }
+
+        Collections.sort(ranked);
+
+        return ranked;
+    }
+
+    /**
+     * Runs one configuration in a simulation context of its own, with its
+     * commentary thrown away
+     *
+     * @since Version 1.0
+     * @param configuration the configuration to run
+     * @return the Entity_SweepResult of the run, or null if the run failed
+     */
+    static Entity_SweepResult runConfiguration(Entity_SweepConfiguration configuration) {
+
+        Entity_SimulationContext context = new Entity_SimulationContext(
+                                    Entity_SimulationContext.newDiscardingConsole());
+
+        try {
+            context.getSimulation().setConfigurationOverride(configuration);
+            context.getSimulation().run(configuration.getVersion(),
+                                                Singl_WorkingSimulation.LOCKSTEP);
+        } catch (IllegalSimulationException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+
+        return new Entity_SweepResult(configuration,
+                                        context.getSimulation().getWaitTimes());
+    }
+
+    /**
+     * Builds the ranked table of a sweep
+     *
+     * @since Version 1.0
+     * @see #buildTable(List, List)
+     * @param results the results, best first
+     * @return a String with one line per configuration
+     */
+    public static String buildTable(List<Entity_SweepResult> results) {
+        return buildTable(results, new ArrayList<Entity_SweepConfiguration>());
+    }
+
+    /**
+     * Builds the ranked table of a sweep, with the configurations whose run
+     * failed listed under it
+     *
+     * @since Version 1.0
+     * @see #getFailedConfigurations()
+     * @param results the results, best first
+     * @param failed the configurations whose run failed
+     * @return a String with one line per configuration
+     */
+    public static String buildTable(List<Entity_SweepResult> results,
+                                    List<Entity_SweepConfiguration> failed) {
+
+        StringBuilder table = new StringBuilder();
+
+        table.append("PARAMETER SWEEP: ").append(results.size())
+                .append(" configurations ranked by average wait\n\n");
+        table.append(String.format("%5s  %9s  %9s  %7s  %s%n",
+                "RANK", "AVG WAIT", "P95 WAIT", "PEOPLE", "CONFIGURATION"));
+
+        int rank = 0;
+
+        for(Entity_SweepResult result : results)
+            table.append(String.format("%5d  %9.2f  %9.2f  %7d  %s%n", ++rank,
+                    result.getAverageWait(), result.getP95Wait(),
+                    result.getPeopleServed(), result.getConfiguration()));
+
+        if(!failed.isEmpty())
+        {
+            table.append("\n").append(failed.size())
+                    .append(" configurations failed to run\n\n");
+
+            for(Entity_SweepConfiguration configuration : failed)
+                table.append(String.format("%5s  %s%n", "FAIL", configuration));
+        }
+
+        return table.toString();
+    }
+
+    /**
+     * Sets the numbers of elevators to try
+     *
+     * @since Version 1.0
+     * @see #elevatorCounts
+     * @param eC the numbers of elevators
+     * @throws IllegalSimulationException if a number is less than one
+     */
+    public void setElevatorCounts(List<Integer> eC) throws IllegalSimulationException {
+
+        for(Integer count : eC)
+            if(count < 1)
+                throw new IllegalSimulationException("Illegal sweep elevator "
+                                                    + "count encountered: " + count);
+
+        elevatorCounts = new ArrayList<Integer>(eC);
+    }
+
+    /**
+     * Sets the floors an elevator may be given as its default floor
+     *
+     * @since Version 1.0
+     * @see #defaultFloors
+     * @param dF the floors
+     */
+    public void setDefaultFloors(List<Integer> dF) {
+        defaultFloors = new ArrayList<Integer>(dF);
+    }
+
+    /**
+     * Sets the numbers of people per elevator to try
+     *
+     * @since Version 1.0
+     * @see #maxPersons
+     * @param mP the numbers of people
+     */
+    public void setMaxPersons(List<Integer> mP) {
+        maxPersons = new ArrayList<Integer>(mP);
+    }
+
+    /**
+     * Sets the versions of the IMPL's to try
+     *
+     * @since Version 1.0
+     * @see #versions
+     * @param v the versions
+     * @throws IllegalSimulationException if a version has no registered strategy
+     */
+    public void setVersions(List<String> v) throws IllegalSimulationException {
+
+        for(String version : v)
+            if(!Entity_DispatchStrategyRegistry.isRegistered(version))
+                throw new IllegalSimulationException("Invalid sweep version "
+                                                    + "encountered: " + version);
+
+        versions = new ArrayList<String>(v);
+    }
+
+    /**
+     * Returns the configurations whose run failed in the last sweep
+     *
+     * @since Version 1.0
+     * @see #run()
+     * @return a List of Entity_SweepConfigurations, empty if every run finished
+     */
+    public List<Entity_SweepConfiguration> getFailedConfigurations() {
+        return failedConfigurations;
+    }
+
+    /**
+     * Sets the number of configurations to run
+     *
+     * @since Version 1.0
+     * @see #sampleSize
+     * @param sS the number of configurations, or zero to run all of them
+     * @throws IllegalSimulationException if the argument is less than zero
+     */
+    public void setSampleSize(int sS) throws IllegalSimulationException {
+
+        if(sS < 0)
+            throw new IllegalSimulationException("Negative sweep sample size "
+                                                        + "encountered: " + sS);
+
+        sampleSize = sS;
+    }
+
+    /**
+     * Sets the seed used to pick the sample of configurations
+     *
+     * @since Version 1.0
+     * @see #sampleSeed
+     * @param s the seed
+     */
+    public void setSampleSeed(long s) {
+        sampleSeed = s;
+    }
+
+    /**
+     * The fork join task that runs a slice of the configurations. It splits
+     * itself in half until each task has one configuration to run
+     *
+     * @since Version 1.0
+     * @see Entity_SweepRunner#run()
+     */
+    private static class SweepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Entity_SweepConfiguration> configurations;
+        private final Entity_SweepResult[] results;
+        private final int low;
+        private final int high;
+
+        SweepTask(List<Entity_SweepConfiguration> c, Entity_SweepResult[] r,
+                                                                int l, int h) {
+            configurations = c;
+            results = r;
+            low = l;
+            high = h;
+        }
+
+        @Override
+        protected void compute() {
+
+            if(high - low <= 1)
+            {
+                if(high > low)
+                    results[low] = runConfiguration(configurations.get(low));
+                return;
+            }
+
+            int middle = (low + high) >>> 1;
+
+            invokeAll(new SweepTask(configurations, results, low, middle),
+                      new SweepTask(configurations, results, middle, high));
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package ver3;
+
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ * This class holds how long an elevator takes to travel between any two floors
+ * of the building, in simulated milliseconds. The simulation builds it once
+ * when it sets up, from the number of floors and the floor travel time, so an
+ * elevator picker that estimates arrival times can look a trip up with a
+ * single array read instead of working it out for every elevator of every
+ * request.
+ *
+ * The table is one flat array, row by row, with a row and a column for every
+ * floor number from zero up, so a floor number is its own index
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see IMPL_ElevatorPicker_ETA
+ * @see Singl_WorkingSimulation#getTravelTimeTable()
+ */
+public class Entity_TravelTimeTable {
+
+    /**
+     * The number of floors in the building
+     *
+     * @since Version 1.0
+     * @see #getNumberOfFloors()
+     */
+    private final int numberOfFloors;
+
+    /**
+     * The travel times, row by row, where row is the floor the trip starts
+     * on and column is the floor it ends on
+     *
+     * @since Version 1.0
+     * @see #getTravelTime(int, int)
+     */
+    private final long[] times;
+
+    /**
+     * Constructs the table for a building
+     *
+     * @since Version 1.0
+     * @param nOF the number of floors in the building
+     * @param fTT the time an elevator takes to travel one floor, in
+     *        simulated milliseconds
+     * @throws IllegalSimulationException if there are no floors or the travel
+     *         time is negative
+     */
+    public Entity_TravelTimeTable(int nOF, int fTT) throws IllegalSimulationException {
+
+        if(nOF < 1)
+            throw new IllegalSimulationException("Invalid number of floors "
+                                    + "encountered in travel time table: " + nOF);
+
+        if(fTT < 0)
+            throw new IllegalSimulationException("Negative floor travel time "
+                                    + "encountered in travel time table: " + fTT);
+
+        numberOfFloors = nOF;
+        times = new long[(nOF + 1) * (nOF + 1)];
+
+        for(int from = 0; from <= nOF; ++from)
+            for(int to = 0; to <= nOF; ++to)
+                times[from * (nOF + 1) + to] = (long) Math.abs(from - to) * fTT;
+    }
+
+    /**
+     * Returns how long an elevator takes to travel from one floor to another
+     *
+     * @since Version 1.0
+     * @see #times
+     * @param from the floor the trip starts on
+     * @param to the floor the trip ends on
+     * @return a long representing simulated milliseconds
+     */
+    public long getTravelTime(int from, int to) {
+        return times[from * (numberOfFloors + 1) + to];
+    }
+
+    /**
+     * Returns the number of floors the table covers
+     *
+     * @since Version 1.0
+     * @see #numberOfFloors
+     * @return an int number of floors
+     */
+    public int getNumberOfFloors() {
+        return numberOfFloors;
+    }
+
+}
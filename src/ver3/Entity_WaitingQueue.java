@@ -0,0 +1,262 @@
+package ver3;
+
+/**
+ * This class is a queue of the people waiting on a floor to go one way. It
+ * is a ring of slots in an array, so a person joins at the back and the
+ * person at the front boards in constant time, and boarding k people never
+ * looks at anyone behind them, even when people in front of them are left
+ * waiting. The array doubles when it runs out of room.
+ *
+ * Every person is stamped with the order they arrived on the floor in, so
+ * a floor holding one queue for each direction can still tell who of all
+ * its people came first.
+ *
+ * The queue does no locking of its own. The floor it belongs to is held
+ * whenever it is read or changed
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_WorkingFloor#getWaitingQueue(int)
+ */
+public class Entity_WaitingQueue {
+
+    /**
+     * The slots people are kept in
+     *
+     * @since Version 1.0
+     * @see #offer(Interface_Person, long)
+     */
+    private Interface_Person[] people = new Interface_Person[16];
+
+    /**
+     * The arrival stamp of the person in each slot
+     *
+     * @since Version 1.0
+     * @see #getArrival(int)
+     */
+    private long[] arrivals = new long[16];
+
+    /**
+     * The slot of the person at the front
+     *
+     * @since Version 1.0
+     */
+    private int head = 0;
+
+    /**
+     * The number of people in the queue
+     *
+     * @since Version 1.0
+     * @see #size()
+     */
+    private int size = 0;
+
+    /**
+     * Adds a person to the back of the queue
+     *
+     * @since Version 1.0
+     * @param person the person who has arrived
+     * @param arrival the order the person arrived on the floor in
+     */
+    public void offer(Interface_Person person, long arrival) {
+
+        if(size == people.length)
+            grow();
+
+        int slot = (head + size) & (people.length - 1);
+
+        people[slot] = person;
+        arrivals[slot] = arrival;
+        ++size;
+    }
+
+    /**
+     * Takes the person at the front out of the queue
+     *
+     * @since Version 1.0
+     * @return the Interface_Person at the front, or null if the queue is empty
+     */
+    public Interface_Person poll() {
+
+        if(size == 0)
+            return null;
+
+        Interface_Person person = people[head];
+
+        people[head] = null;
+        head = (head + 1) & (people.length - 1);
+        --size;
+
+        return person;
+    }
+
+    /**
+     * Returns a person by their place in the queue, the front being zero
+     *
+     * @since Version 1.0
+     * @param index the place in the queue
+     * @return the Interface_Person at that place
+     * @throws IndexOutOfBoundsException if there is nobody at that place
+     */
+    public Interface_Person get(int index) {
+        return people[slotOf(index)];
+    }
+
+    /**
+     * Returns the arrival stamp of a person by their place in the queue
+     *
+     * @since Version 1.0
+     * @param index the place in the queue
+     * @return a long which is the order the person arrived on the floor in
+     * @throws IndexOutOfBoundsException if there is nobody at that place
+     */
+    public long getArrival(int index) {
+        return arrivals[slotOf(index)];
+    }
+
+    /**
+     * Takes a person out of the queue by their place in it. The people
+     * behind them move up one, so taking out the person at the front is
+     * constant time
+     *
+     * @since Version 1.0
+     * @param index the place in the queue
+     * @return the Interface_Person who was at that place
+     * @throws IndexOutOfBoundsException if there is nobody at that place
+     */
+    public Interface_Person remove(int index) {
+
+        if(index == 0)
+        {
+            slotOf(0);
+            return poll();
+        }
+
+        Interface_Person person = people[slotOf(index)];
+        int mask = people.length - 1;
+
+        for(int i = index; i < size - 1; ++i)
+        {
+            int to = (head + i) & mask;
+            int from = (head + i + 1) & mask;
+
+            people[to] = people[from];
+            arrivals[to] = arrivals[from];
+        }
+
+        people[(head + size - 1) & mask] = null;
+        --size;
+
+        return person;
+    }
+
+    /**
+     * Takes the people at the given places out of the queue in one pass. 
+     * The people kept in front of the last place taken move back into the
+     * gaps, nearest first, and the front of the queue moves up past the 
+     * slots left empty, so nobody behind the last place taken is looked at
+     * and everyone kept stays in order
+     *
+     * @since Version 1.0
+     * @see #remove(int)
+     * @param places the places to take out, in increasing order, the front
+     *        being zero
+     * @param count the number of places to take out, from the start of places
+     * @throws IndexOutOfBoundsException if there is nobody at a place
+     */
+    public void removeAll(int[] places, int count) {
+
+        if(count == 0)
+            return;
+
+        slotOf(places[0]);
+        slotOf(places[count - 1]);
+
+        int mask = people.length - 1;
+        int write = places[count - 1];
+        int next = count - 1;
+
+        for(int read = write; read >= 0; --read)
+        {
+            if(next >= 0 && places[next] == read)
+            {
+                --next;
+                continue;
+            }
+
+            int to = (head + write) & mask;
+            int from = (head + read) & mask;
+
+            people[to] = people[from];
+            arrivals[to] = arrivals[from];
+            --write;
+        }
+
+        for(int i = 0; i < count; ++i)
+            people[(head + i) & mask] = null;
+
+        head = (head + count) & mask;
+        size -= count;
+    }
+
+    /**
+     * Returns the number of people in the queue
+     *
+     * @since Version 1.0
+     * @return an int count of people
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether nobody is in the queue
+     *
+     * @since Version 1.0
+     * @return a boolean that is true if the queue is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot of a place in the queue
+     *
+     * @since Version 1.0
+     * @param index the place in the queue
+     * @return an int index into the slots
+     * @throws IndexOutOfBoundsException if there is nobody at that place
+     */
+    private int slotOf(int index) {
+
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        return (head + index) & (people.length - 1);
+    }
+
+    /**
+     * Doubles the number of slots, moving the front of the queue to slot zero
+     *
+     * @since Version 1.0
+     */
+    private void grow() {
+
+        Interface_Person[] morePeople = new Interface_Person[people.length * 2];
+        long[] moreArrivals = new long[arrivals.length * 2];
+
+        for(int i = 0; i < size; ++i)
+        {
+            int slot = (head + i) & (people.length - 1);
+
+            morePeople[i] = people[slot];
+            moreArrivals[i] = arrivals[slot];
+        }
+
+        people = morePeople;
+        arrivals = moreArrivals;
+        head = 0;
+    }
+
+}
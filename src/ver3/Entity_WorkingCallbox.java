@@ -33,6 +33,11 @@ public class Entity_WorkingCallbox implements Interface_Callbox {
      * @since Version 1.0
      */
     private int floor;
+    /**
+     * This variable "context" is the simulation context the Callbox belongs to.
+     * @since Version 1.0
+     */
+    private Entity_SimulationContext context;
     /**
      * This variable SimpleDateFormat simply sets the format of our date and time
      * for tracking purposes.
@@ -44,13 +49,16 @@ public class Entity_WorkingCallbox implements Interface_Callbox {
      * This is the public constructor for the Callbox.
      * It will by default set both buttons to 'false', or unpressed,
      * and set the requested floor to the parameter 'flr'.
+     * @param c the simulation context the callbox belongs to
      * @param flr 
      * @since Version 1.0
      * @see #setDownButton
      * @see #setUpButton
      * @see #setFloor
      */
-    public Entity_WorkingCallbox(int flr) {
+    public Entity_WorkingCallbox(Entity_SimulationContext c, int flr) {
+        
+        context = c;
         
         try
         {
@@ -107,7 +115,7 @@ public class Entity_WorkingCallbox implements Interface_Callbox {
             {
                 upButton = uB;
 
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "Callbox on floor " + getFloor() + " is ringing"
                         + " with an up request");
                 
@@ -147,7 +155,7 @@ public class Entity_WorkingCallbox implements Interface_Callbox {
             {
                 downButton = dB;
                 
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t" 
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t" 
                         + "Callbox on floor " + getFloor() + " is ringing"
                         + " with a down request");
                     
@@ -177,7 +185,7 @@ public class Entity_WorkingCallbox implements Interface_Callbox {
      */
     private void setFloor(int flr) throws IllegalFloorException{
         
-        if(flr < 0 || flr > Singl_WorkingSimulation.getInstance().getNumberOfFloors())
+        if(flr < 0 || flr > context.getSimulation().getNumberOfFloors())
             throw new IllegalFloorException("Invalid floor encountered"
                                                + " when setting floor: " + flr);
         else
@@ -199,8 +207,12 @@ public class Entity_WorkingCallbox implements Interface_Callbox {
      * This method triggers communication between the callbox and the controller
      * It is invoked any time a person clicks a callbox button. The method includes
      * a floor and a direction parameter that it uses to help the controller
-     * determine which elevator to send to the floor.
+     * determine which elevator to send to the floor. When the simulation's hall
+     * call queue is open the call is only published into it, and the queue's
+     * dispatcher hands it to the controller, so pressing the button returns 
+     * straight away.
      * 
+     * @see Entity_HallCallQueue#publish(int, int)
      * 
      * @param floor, direction
      * @throws IllegalDirectionException, IllegalFloorException
@@ -209,14 +221,18 @@ public class Entity_WorkingCallbox implements Interface_Callbox {
     private void signal(int floor, int direction) throws IllegalDirectionException
                                             , IllegalFloorException {
         
-        if(floor < 0 || floor > Singl_WorkingSimulation.getInstance().getNumberOfFloors())
+        if(floor < 0 || floor > context.getSimulation().getNumberOfFloors())
             throw new IllegalFloorException ("Invalid floor encountered "
                                             + "when trying to signal: " + floor);
         else if(!(direction == 1 || direction == -1))
             throw new IllegalDirectionException ("Invalid direction encountered "
                                             + "when trying to signal: " + direction);
+        Entity_HallCallQueue queue = context.getSimulation().getHallCallQueue();
+        if(queue != null && queue.publish(floor, direction))
+            return;
+        
         try{
-            Singl_WorkingController.getInstance().pick(floor, direction);
+            context.getController().pick(floor, direction);
         } catch (IllegalDirectionException ex) {
             ex.printStackTrace();
         } catch (IllegalFloorException ex) {
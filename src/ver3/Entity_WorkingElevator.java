@@ -1,11 +1,18 @@
 package ver3;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import ver3.project_exceptions.IllegalDirectionException;
 import ver3.project_exceptions.IllegalElevatorException;
 import ver3.project_exceptions.IllegalFloorException;
@@ -14,41 +21,139 @@ import ver3.project_exceptions.IllegalSimulationException;
 /**
  * This class represents a Working Elevator.  This elevator is automatically assigned
  * a serial number when constructed.  It can be run, started up, and shut down.  It 
- * also has several private class variables, such as the destination list for the
- * elevator instance (destinationList), the length of time the doors stay open 
+ * also has several private class variables, such as the stops of the
+ * elevator instance (stops), the length of time the doors stay open 
  * (doorOpenTime), the length of time to travel between floors (floorTravelTime),
  * the floor an elevator will default back to when idle (defaultFloor), the elevator's
  * current floor (currentFloor), the elevator's direction (direction), the elevator's
  * serial number (serialNumber), the status of whether the elevator is running or idle
- * (isRunning), and an internal static count to assign an elevator's serial number 
- * (serialCount).  It also creates a SimpleDateFormat to display time (sdf).
+ * (isRunning), and the simulation context it belongs to, which hands out the
+ * elevator's serial number and letter name (context).  It also creates a SimpleDateFormat to display time (sdf).
  * 
  *
  * @author Ben McFerren
  * @author Kevin Newhouse
  * @since Version 1.0
  */
-public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
+public class Entity_WorkingElevator implements Interface_Elevator, Runnable, 
+                                                    Interface_EventHandler {
     
     /**
-     * A private ArrayList of Integers used to store the elevator's destined floors.
+     * The floors the elevator is going to stop at. It is built once the 
+     * number of floors is known
      * 
      * @since Version 1.0
      * @see #run
      * @see #addToDestinationList(int) 
      * @see #getDestinationList() 
      */
-    private List <Integer> destinationList = new ArrayList <Integer>();
+    private Entity_StopSet stops;
     
     /**
-     * A private ArrayList of Interface_Person objects used to store the people
-     * currently in the elevator
+     * A read-only view of the stops, in the order the elevator comes to them
+     * from where it is now. It is what pickers and the floors are given
+     * 
+     * @since Version 1.0
+     * @see #getDestinationList() 
+     */
+    private final List <Integer> destinationList = new AbstractList<Integer>() {
+        
+        @Override
+        public Integer get(int index) {
+            
+            int[] order = stops.toArray(getCurrentFloor(), getDirection());
+            
+            if(index < 0 || index >= order.length)
+                throw new IndexOutOfBoundsException("Index: " + index 
+                                                    + ", Size: " + order.length);
+            
+            return order[index];
+        }
+        
+        @Override
+        public int size() {
+            return stops.size();
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return stops.isEmpty();
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof Integer) && stops.contains((Integer) o);
+        }
+        
+        // iterates over the stops as they were when it was made, so a
+        // reader on another thread never sees the list change under it
+        @Override
+        public Iterator<Integer> iterator() {
+            
+            final int[] order = stops.toArray(getCurrentFloor(), getDirection());
+            
+            return new Iterator<Integer>() {
+                
+                private int next = 0;
+                
+                public boolean hasNext() {
+                    return next < order.length;
+                }
+                
+                public Integer next() {
+                    if(next >= order.length)
+                        throw new NoSuchElementException();
+                    return order[next++];
+                }
+                
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    };
+    
+    /**
+     * The people currently in the elevator, kept by the floor they are going
+     * to. It is built once the number of floors is known
      * 
      * @since Version 1.0
      * @see #run
      * @see #getPassengerList()
      */
-    private List <Interface_Person> passengerList = new ArrayList <Interface_Person>();
+    private Entity_PassengerBuckets passengers;
+    
+    /**
+     * A read-only view of the people currently in the elevator. It is what 
+     * pickers, floors and the simulation are given
+     * 
+     * @since Version 1.0
+     * @see #getPassengerList()
+     */
+    private final List <Interface_Person> passengerList = new AbstractList<Interface_Person>() {
+        
+        @Override
+        public Interface_Person get(int index) {
+            return passengers.toList().get(index);
+        }
+        
+        @Override
+        public int size() {
+            return passengers.size();
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return passengers.isEmpty();
+        }
+        
+        // iterates over the passengers as they were when it was made, so a
+        // reader on another thread never sees the list change under it
+        @Override
+        public Iterator<Interface_Person> iterator() {
+            return Collections.unmodifiableList(passengers.toList()).iterator();
+        }
+    };
     
     /**
      * A constant integer used to store the length of time (in milliseconds) 
@@ -104,7 +209,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * @see #getCurrentFloor()
      * @see #setCurrentFloor(int)  
      */
-    private int currentFloor;
+    private volatile int currentFloor;
     
     /**
      * An integer used to describe the direction the elevator is currently heading.
@@ -113,7 +218,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * @since Version 1.0
      * @see #getDirection() 
      */
-    private int direction; // 0 is no direction, positive int is up, negative int is down
+    private volatile int direction; // 0 is no direction, positive int is up, negative int is down
     
     /**
      * A unique integer used to represent the serial number of the Elevator. 
@@ -141,15 +246,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * @see #getDoorsAreOpen() 
      * @see #setDoorsAreOpen(boolean dAO)
      */ 
-    private boolean doorsAreOpen;
-    
-    /**
-     * A private static char used to create unique letter names
-     * 
-     * @see #Entity_WorkingElevator()
-     * @since Version 1.0
-     */     
-    private static char serialChar = 'A';
+    private volatile boolean doorsAreOpen;
     
     /**
      * A boolean variable describing whether or not the elevator is running.
@@ -159,17 +256,147 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * @see #getIsRunning() 
      * @see #setIsRunning(boolean) 
      */
-    private boolean isRunning;
+    private volatile boolean isRunning;
+    
+    /**
+     * The commands other threads have posted for the elevator's thread to
+     * carry out, as only that thread changes the elevator while it runs
+     * 
+     * @since Version 1.0
+     * @see #post(int, int, Interface_Person)
+     * @see #drainMailbox()
+     */
+    private final Entity_ElevatorMailbox mailbox = new Entity_ElevatorMailbox();
+    
+    /**
+     * A boolean that is true from when a threaded elevator is started until
+     * its thread has stopped, while changes from other threads are posted
+     * 
+     * @since Version 1.0
+     * @see #isOwnedElsewhere()
+     */
+    private volatile boolean threaded;
+    
+    /**
+     * The thread running the elevator, or null before it has started
+     * 
+     * @since Version 1.0
+     * @see #run()
+     */
+    private volatile Thread owner;
+    
+    /**
+     * A boolean that is true while the elevator's thread is idle and parked,
+     * read by the controller to pick an elevator to wake
+     * 
+     * @since Version 1.0
+     * @see #isParked()
+     * @see #run()
+     */
+    private volatile boolean parked;
+    
+    /**
+     * A boolean set by the elevator's thread when the controller has posted
+     * it a pending request to wake for
+     * 
+     * @since Version 1.0
+     * @see #wakeForPendingRequest()
+     */
+    private boolean pendingRequestPosted;
+    
+    /**
+     * The commands the elevator's thread has taken whose posters undertook
+     * to wake it, so their wake ups may still be on their way. The thread 
+     * lets them in before it parks again
+     * 
+     * @since Version 1.0
+     * @see #drainMailbox()
+     * @see #settleWakeups()
+     * @see Entity_ElevatorMailbox.Command#claimWakeup()
+     */
+    private final List<Entity_ElevatorMailbox.Command> wakeupsOwed 
+                            = new ArrayList<Entity_ElevatorMailbox.Command>();
+    
+    /**
+     * A boolean set by a poster that is about to wake the elevator's parked
+     * thread, so the thread can tell a wake up it was sent from a park that
+     * returned of its own accord
+     * 
+     * @since Version 1.0
+     * @see #post(int, int, Interface_Person)
+     * @see #run()
+     */
+    private final AtomicBoolean wakeupSent = new AtomicBoolean();
+    
+    /**
+     * A boolean set while an elevator is stopped at a floor, recording that its
+     * direction changed and it should ask the controller for pending requests
+     * once its doors close
+     * 
+     * @since Version 1.0
+     * @see #beginArrival()
+     * @see #finishArrival()
+     */
+    private boolean pendingCheckAfterDoorsClose;
+    
+    /**
+     * The number of times the elevator has opened its doors on a floor
+     * 
+     * @since Version 1.0
+     * @see #getStopCount()
+     */
+    private volatile long stopCount;
+    
+    /**
+     * The snapshot last published of the elevator's floor, direction, doors,
+     * load and stops, for pickers on other threads to read
+     * 
+     * @since Version 1.0
+     * @see #getSnapshot()
+     * @see #publishSnapshot()
+     * @see #publishPosted(int, int)
+     */
+    private final AtomicReference<Entity_ElevatorSnapshot> snapshot 
+                                = new AtomicReference<Entity_ElevatorSnapshot>();
+    
+    /**
+     * The floors posted to the elevator's thread as stops that it has not 
+     * taken yet, floor f being bit f % 64 of word f / 64. They are part of 
+     * every snapshot published until the thread takes them
+     * 
+     * @since Version 1.0
+     * @see #post(int, int, Interface_Person)
+     * @see #drainMailbox()
+     */
+    private final AtomicLongArray postedStops;
+    
+    /**
+     * The event the elevator is waiting on when the simulation is event driven.
+     * This is null when the elevator is run by its own thread
+     * 
+     * @since Version 1.0
+     * @see #handleEvent(Entity_SimulationEvent)
+     * @see #scheduleAction(int, long)
+     */
+    private Entity_SimulationEvent scheduledAction;
+    
+    /**
+     * A boolean that is true while the elevator is handling one of its own 
+     * events, so that destinations it adds to itself do not reschedule it
+     * 
+     * @since Version 1.0
+     * @see #handleEvent(Entity_SimulationEvent)
+     * @see #addToDestinationList(int)
+     */
+    private boolean handlingEvent;
     
     /**
-     * A static integer used to store the number of elevators and assign serial
-     * numbers.  This is incremented when a new elevator is created.
+     * The simulation context this elevator belongs to
      * 
      * @since Version 1.0
-     * @see #Entity_WorkingElevator()
+     * @see Entity_SimulationContext
      */
-    private static int serialCount = 0; // static so we can use number to assign 
-                                        // serial number to elevator object
+    private Entity_SimulationContext context;
     
     /**
      * This variable SimpleDateFormat simply sets the format of our date and time
@@ -187,22 +414,28 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * @see #setIsRunning(boolean) 
      * @see #setCurrentFloor(int) 
      * @see #setSerialNumber(int) 
-     * @see #serialCount
+     * @see Entity_SimulationContext#nextElevatorSerialNumber()
      * @see #setDirection(int) 
+     * @param c the simulation context the elevator belongs to
      */
-    public Entity_WorkingElevator() { 
+    public Entity_WorkingElevator(Entity_SimulationContext c) { 
+        
+        context = c;
+        stops = new Entity_StopSet(context.getSimulation().getNumberOfFloors());
+        postedStops = new AtomicLongArray(stops.toWords().length);
+        passengers = new Entity_PassengerBuckets(context.getSimulation().getNumberOfFloors());
         
         try{
 
-            setTimeScaleFactor(Singl_WorkingSimulation.getInstance().getTimeScaleFactor());
-            setSerialNumber(++serialCount); // set first then increments
-            setLetterName(serialChar++);
-            setMaxPersonsPerElevator(Singl_WorkingSimulation.getInstance().getMaxPersonsPerElevator());
+            setTimeScaleFactor(context.getSimulation().getTimeScaleFactor());
+            setSerialNumber(context.nextElevatorSerialNumber());
+            setLetterName(context.nextElevatorLetterName());
+            setMaxPersonsPerElevator(context.getSimulation().getMaxPersonsPerElevator());
             setDirection(0);
-            setDoorOpenTime(Singl_WorkingSimulation.getInstance().getDoorOpenTime());
-            setFloorTravelTime(Singl_WorkingSimulation.getInstance().getFloorTravelTime());
+            setDoorOpenTime(context.getSimulation().getDoorOpenTime());
+            setFloorTravelTime(context.getSimulation().getFloorTravelTime());
             setDoorsAreOpen(true);
-            setDefaultFloor(Singl_WorkingSimulation.getInstance()
+            setDefaultFloor(context.getSimulation()
                                     .getElevatorDefaultFloorDetails()
                                     .get(getSerialNumber()));
             setCurrentFloor(getDefaultFloor());
@@ -219,12 +452,17 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     } 
     
     /**
-     * Simulates the running of the elevator.  Includes two synchronized blocks,
-     * these are synchronized because we want each thread to fully complete before
-     * another thread may enter the block.  
+     * Simulates the running of the elevator.  The elevator's thread is the 
+     * only one that changes the elevator while it runs, so nothing here is
+     * locked. Other threads post their changes to the mailbox, which the 
+     * thread carries out before it decides what to do next, after every 
+     * floor it travels, and before its doors close. An idle elevator parks
+     * its thread rather than waiting on a lock, so one running in a virtual
+     * thread does not pin its carrier thread, and posting a command wakes it.
      * 
      * @since Version 1.0
      * @see #destinationList
+     * @see #drainMailbox()
      * @see #getDirection() 
      * @see #setDirection(int) 
      * @see #checkChangeDirection(int) 
@@ -236,78 +474,113 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      */
     public void run(){
         
+        owner = Thread.currentThread();
+        
         boolean waitFlag;
         
-        while(getIsRunning()){
-            
-            waitFlag = false;
-            
-            synchronized(this) {
+        try {
+            while(getIsRunning()){
+                
+                waitFlag = false;
                 
-                if(getDestinationList().isEmpty())
+                drainMailbox();
+                
+                if(stops.isEmpty() && getIsRunning())
                 {
                     try{
-                        int tempDir = getDirection();
-                        setDirection(0);
+                        // park before looking at the pending list, so a request 
+                        // added after the look either wakes this elevator or 
+                        // shows up as a new pending list version
+                        parked = true;
+                        pendingRequestPosted = false;
+                        long seenVersion = context.getController().getPendingListVersion();
                         
-                        //make sure door is shut
-                        setDoorsAreOpen(true);
+                        enterIdleState();
+                        
+                        // only an elevator away from its parking floor has an
+                        // idle-return timer; one parked waits until it has work
+                        boolean timed = (getCurrentFloor() != getParkingFloor());
+                        long remaining = context.getSimulation().getScaledMillis(10000) 
+                                * 1000000L + context.getSimulation().getScaledNanos(10000);
+                        long deadline = System.nanoTime() + remaining;
                         
-                        if(!Singl_WorkingController.getInstance().getPendingList().isEmpty())
+                        drainMailbox();
+                        
+                        while(getIsRunning() && stops.isEmpty()
+                                && !pendingRequestPosted && seenVersion 
+                                    == context.getController().getPendingListVersion())
                         {
-                            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
-                                    + "Elevator " + getLetterName() + getSerialNumber()
-                                    + " will now try to ask the controller for "
-                                    + "pending requests");
+                            // a wake up still on its way for a command already
+                            // taken would end this park with nothing to do
+                            settleWakeups();
+                            
+                            // a command posted after parked was set unparks 
+                            // this thread, even if it has not parked yet, but
+                            // settling may have used that wake up as well
+                            if(mailbox.isEmpty())
+                            {
+                                if(timed)
+                                    LockSupport.parkNanos(this, remaining);
+                                else
+                                    LockSupport.park(this);
+                            }
+                            
+                            boolean sent = wakeupSent.getAndSet(false);
+                            boolean tookCommand = drainMailbox();
                             
-                            // check if there are any pending destinations before it
-                            // goes to waits in idle state
-                            Singl_WorkingController.getInstance()
-                                .deliverPendingList(getCurrentFloor(), getSerialNumber());
+                            if(getIsRunning() && stops.isEmpty()
+                                    && !pendingRequestPosted && seenVersion 
+                                        == context.getController().getPendingListVersion())
+                            {
+                                remaining = deadline - System.nanoTime();
+                                
+                                if(timed && remaining <= 0)
+                                {
+                                    context.getSimulation().getElevatorExecutor().recordWakeup();
+                                    waitFlag = true;
+                                    break;
+                                }
+                                
+                                // a park may also return with nothing sent or
+                                // posted, for a permit left by something else
+                                // in the JVM, which is not a wake up at all, 
+                                // so the thread just parks again
+                                if(tookCommand)
+                                    context.getSimulation().getElevatorExecutor().recordWakeup();
+                                else if(sent)
+                                    context.getSimulation().getElevatorExecutor().recordSpuriousWakeup();
+                            }
+                            else
+                                context.getSimulation().getElevatorExecutor().recordWakeup();
                         }
-                        
-                        wait(10000 / getTimeScaleFactor());
-                        waitFlag = true;
-                    } catch (InterruptedException exOne){
-                        exOne.printStackTrace();
                     } catch (IllegalElevatorException ex) {
                         ex.printStackTrace();
                     } catch (IllegalFloorException ex) {
                         ex.printStackTrace();
                     } catch (IllegalDirectionException ex) {
                         ex.printStackTrace();
+                    } finally {
+                        parked = false;
                     }
                 }
-            }
-            
-            synchronized(destinationList) {
                 
-                        
                 // if the elevator just woke up from sleeping
-                if(getDestinationList().isEmpty() && waitFlag == true
-                        && getCurrentFloor() != getDefaultFloor()){
+                if(stops.isEmpty() && waitFlag == true){
                     
-                    try {
-                        checkChangeDirection(getDefaultFloor());
-                    } catch (IllegalDirectionException ex) {
-                        ex.printStackTrace();
-                    }
-                    
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
-                                + "\tElevator %c%d timed out; returning to its "
-                                + "default floor: Floor #%d\n", getLetterName(), 
-                                getSerialNumber(), getDefaultFloor());
-
-                    addToDestinationList(getDefaultFloor());
+                    returnToParkingFloor();
                     
                 }
-                else if(!getDestinationList().isEmpty())
+                else if(!stops.isEmpty())
                 {
                     try {
                         //make sure door is shut
                         setDoorsAreOpen(false);
                         
-                        Thread.sleep(getFloorTravelTime() / getTimeScaleFactor());
+                        Thread.sleep(context.getSimulation()
+                                        .getScaledMillis(getFloorTravelTime()),
+                                     context.getSimulation()
+                                        .getScaledNanos(getFloorTravelTime()));
+                        context.getSimulation().getElevatorExecutor().recordWakeup();
                     } catch (IllegalElevatorException ex) {
                         ex.printStackTrace();
                     } catch(InterruptedException ex)
@@ -315,55 +588,558 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                         ex.printStackTrace();
                     }
                     
-                    if(getDirection() == -1 && getCurrentFloor() > getDestinationList().get(0))
-                    {
-                        currentFloor--;
-                    }
-                    else if(getDirection() == 1 && getCurrentFloor() < getDestinationList().get(0))
-                    {
-                        currentFloor++;
-                    }
+                    // take in the stops posted while travelling the floor,
+                    // which may have taken the last one off
+                    drainMailbox();
                     
-                    try
+                    // means I have arrived, so open the doors and let 
+                    // people out before sleeping while the doors are open
+                    if(!stops.isEmpty() && moveTowardNextDestination() 
+                                                            && beginArrival())
                     {
-                        if(getCurrentFloor() == getDestinationList().get(0)) 
-                            considerArrival(); // means I have arrived
-                        else
-                        {                            
-                            //sort destination list
-                            Collections.sort(getDestinationList());
-                            if(getDirection() == -1)
-                                Collections.reverse(getDestinationList());
-                            
-                            System.out.printf(sdf.format(System.currentTimeMillis()) +
-                              "\tElevator %c%d passing Floor %d on the way to %d. %s\n", 
-                              getLetterName(), getSerialNumber(),
-                              getCurrentFloor(),
-                              getDestinationList().get(0),
-                              printDestinationList()
-                              );  
+                        try {
+                            Thread.sleep(context.getSimulation()
+                                            .getScaledMillis(getDoorOpenTime()),
+                                         context.getSimulation()
+                                            .getScaledNanos(getDoorOpenTime()));
+                            context.getSimulation().getElevatorExecutor().recordWakeup();
+                        } catch (InterruptedException ex) {
+                            ex.printStackTrace();
                         }
                         
-                    } catch(IndexOutOfBoundsException ex) {
-                        System.out.println("Error occurred while trying to get "
-                                + "zero index of destination list (passing msg):" 
-                                + ex.getMessage());
+                        // a picker may have turned the elevator while its 
+                        // doors were open, so that happens before boarding
+                        drainMailbox();
+                        
+                        finishArrival();
                     }
                 }
             }
+        } finally {
+            // a restarted elevator may already have a thread of its own again
+            if(owner == Thread.currentThread())
+            {
+                threaded = false;
+                owner = null;
+            }
         }
     }      
     
     /**
-     * Simulates the elevator starting up from creation.  This creates a new thread
-     * for the elevator to run in.  Each elevator runs in its own thread.
+     * Carries out, in the order they were posted, the commands other threads
+     * have posted to the elevator's mailbox. Only the elevator's thread does
+     * this
+     * 
+     * @since Version 1.0
+     * @see #mailbox
+     * @see #post(int, int, Interface_Person)
+     * @return a boolean that is true if there was a command to carry out
+     */
+    private boolean drainMailbox() {
+        
+        Entity_ElevatorMailbox.Command command;
+        boolean took = false;
+        
+        while((command = mailbox.poll()) != null)
+        {
+            took = true;
+            
+            if(command.getType() == Entity_ElevatorMailbox.ADD_STOP)
+            {
+                int floor = command.getValue();
+                
+                // the stop was picked for the elevator as it was when it was
+                // posted, so if it has turned since, the call goes back to 
+                // the controller rather than being lost
+                if((getDirection() == 1 && floor < getCurrentFloor()) ||
+                        (getDirection() == -1 && floor > getCurrentFloor()))
+                    handBackStop(floor);
+                else
+                    addToDestinationList(floor);
+                
+                // the stop is taken, so only the stops show it from now on
+                if(Entity_FloorBits.clear(postedStops, floor) && !stops.contains(floor))
+                    publishSnapshot();
+            }
+            else if(command.getType() == Entity_ElevatorMailbox.SET_DIRECTION)
+            {
+                // pickers only turn an idle elevator with nowhere else to 
+                // go, and it may have been turned or given somewhere to go since
+                if(getDirection() == 0 && (stops.isEmpty() || (stops.size() == 1 
+                                        && stops.contains(getCurrentFloor()))))
+                {
+                    try {
+                        setDirection(command.getValue());
+                    } catch (IllegalDirectionException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            }
+            else if(command.getType() == Entity_ElevatorMailbox.BOARD)
+            {
+                try {
+                    passengers.add(command.getPerson());
+                    publishSnapshot();
+                } catch (IllegalFloorException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            else if(command.getType() == Entity_ElevatorMailbox.PENDING_REQUEST)
+            {
+                pendingRequestPosted = true;
+            }
+            else if(command.getType() == Entity_ElevatorMailbox.WITHDRAW)
+            {
+                boolean withdrawn = withdrawFromDestinationList(command.getValue());
+                Entity_HallCallReassigner reassigner 
+                        = context.getSimulation().getHallCallReassigner();
+                
+                if(reassigner != null)
+                    reassigner.withdrawn(this, command.getValue(), withdrawn);
+            }
+            else if(command.getType() == Entity_ElevatorMailbox.DRAIN)
+            {
+                // shutDown() has already stopped the elevator running
+            }
+            
+            // the poster of a command that was taken after the poster had
+            // undertaken to wake the thread still unparks it
+            if(!command.markTaken())
+                wakeupsOwed.add(command);
+        }
+        
+        return took;
+    }
+    
+    /**
+     * Hands a hall call that was posted to the elevator back to be picked 
+     * again, once for each callbox button still lit on the floor, because the
+     * elevator has turned away from the floor since. The call goes through
+     * the hall call queue, or onto the controller's pending list if the 
+     * queue is closed
+     * 
+     * @since Version 1.0
+     * @see #drainMailbox()
+     * @see Entity_HallCallQueue#publish(int, int)
+     * @see Singl_WorkingController#addToPendingList(int, int)
+     * @param floor the floor the elevator was posted
+     */
+    private void handBackStop(int floor) {
+        
+        Interface_Callbox cBox = context.getBuilding()
+                                    .getFloorList().get(floor - 1).getcBox();
+        Entity_HallCallQueue queue = context.getSimulation().getHallCallQueue();
+        
+        context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                + "\tElevator %c%d has turned away from Floor %d since it was "
+                + "sent there,\n\t\tso the request goes back to the "
+                + "controller\n", 
+                getLetterName(), getSerialNumber(), floor);
+        
+        try {
+            if(cBox.getUpButton() && (queue == null || !queue.publish(floor, 1)))
+                context.getController().addToPendingList(floor, 1);
+            
+            if(cBox.getDownButton() && (queue == null || !queue.publish(floor, -1)))
+                context.getController().addToPendingList(floor, -1);
+        } catch (IllegalDirectionException ex) {
+            ex.printStackTrace();
+        } catch (IllegalFloorException ex) {
+            ex.printStackTrace();
+        }
+    }
+    
+    /**
+     * Posts a command for the elevator's thread to carry out and wakes the
+     * thread if it is parked and has not already taken the command. A stop 
+     * or a turn is published in the elevator's snapshot before it is posted,
+     * as hall calls are picked one straight after another and the next pick
+     * must not still see the elevator idle; the poster never waits for the
+     * elevator's thread
+     * 
+     * @since Version 1.0
+     * @see Entity_ElevatorMailbox#post(int, int, Interface_Person)
+     * @see #publishPosted(int, int)
+     * @param type the command type
+     * @param value the floor or direction the command is about
+     * @param person the person the command is about, or null
+     */
+    private void post(int type, int value, Interface_Person person) {
+        
+        if(type == Entity_ElevatorMailbox.ADD_STOP)
+            Entity_FloorBits.set(postedStops, value);
+        
+        if(type == Entity_ElevatorMailbox.ADD_STOP 
+                || type == Entity_ElevatorMailbox.SET_DIRECTION)
+            publishPosted(type, value);
+        
+        Entity_ElevatorMailbox.Command command = mailbox.post(type, value, person);
+        
+        Thread thread = owner;
+        
+        // a thread that has already taken the command is not woken for it,
+        // as it would find nothing and count the wakeup as spurious
+        if(parked && thread != null && command.claimWakeup())
+        {
+            wakeupSent.set(true);
+            LockSupport.unpark(thread);
+            command.markWoken();
+        }
+    }
+    
+    /**
+     * Lets in the wake ups still owed for commands the elevator's thread has
+     * already taken, before it parks, so that none is left to end a later 
+     * park with nothing to do. Each poster only has its unpark left to do 
+     * once it has claimed a wake up, so the thread yields until they have 
+     * all been sent, then gives itself a permit and parks on it, which uses
+     * up any permit they left whether or not one was left. That may use up
+     * the wake up for a command posted meanwhile too, so the thread looks 
+     * in the mailbox before it parks. Only the elevator's thread does this
+     * 
+     * @since Version 1.0
+     * @see #wakeupsOwed
+     * @see #run()
+     */
+    private void settleWakeups() {
+        
+        if(wakeupsOwed.isEmpty())
+            return;
+        
+        for(Entity_ElevatorMailbox.Command command : wakeupsOwed)
+        {
+            while(!command.isWoken())
+                Thread.yield();
+        }
+        
+        wakeupsOwed.clear();
+        wakeupSent.set(false);
+        
+        LockSupport.unpark(Thread.currentThread());
+        LockSupport.park(this);
+    }
+    
+    /**
+     * Returns whether the elevator runs on a thread of its own that is not
+     * the one asking, so a change has to be posted to it rather than made
+     * 
+     * @since Version 1.0
+     * @see #threaded
+     * @return a boolean that is true if changes must be posted
+     */
+    private boolean isOwnedElsewhere() {
+        return threaded && Thread.currentThread() != owner;
+    }
+    
+    /**
+     * Handles the events this elevator scheduled with the discrete-event kernel
+     * when the simulation is event driven. These events take the place of the
+     * sleeps and waits in run(). A floor-arrival event moves the elevator one
+     * floor, a door-close event finishes an arrival, and an idle-timeout event
+     * does what the idle wait in run() does when it times out. Events that are
+     * no longer the elevator's scheduled action are ignored
+     * 
+     * @since Version 1.0
+     * @see #run()
+     * @see #scheduledAction
+     * @see #settle()
+     * @param event the event that has come due
+     */
+    public void handleEvent(Entity_SimulationEvent event) {
+        
+        if(event != scheduledAction || !getIsRunning())
+            return;
+        
+        scheduledAction = null;
+        handlingEvent = true;
+        
+        try {
+            if(event.getType() == Entity_SimulationEvent.FLOOR_ARRIVAL)
+            {
+                if(!stops.isEmpty())
+                {
+                    try {
+                        //make sure door is shut
+                        setDoorsAreOpen(false);
+                    } catch (IllegalElevatorException ex) {
+                        ex.printStackTrace();
+                    }
+                    
+                    // means I have arrived, so keep the doors open 
+                    // until the door-close event comes due
+                    if(moveTowardNextDestination() && beginArrival())
+                    {
+                        scheduleAction(Entity_SimulationEvent.DOOR_CLOSE, getDoorOpenTime());
+                        return;
+                    }
+                }
+            }
+            else if(event.getType() == Entity_SimulationEvent.DOOR_CLOSE)
+            {
+                finishArrival();
+            }
+            else if(event.getType() == Entity_SimulationEvent.PENDING_REQUEST)
+            {
+                // settle() asks the controller for the pending requests
+            }
+            else if(event.getType() == Entity_SimulationEvent.IDLE_TIMEOUT)
+            {
+                // if the elevator just woke up from being idle
+                if(stops.isEmpty())
+                    returnToParkingFloor();
+            }
+            
+            settle();
+            
+        } finally {
+            handlingEvent = false;
+        }
+    }
+    
+    /**
+     * Carries out the elevator's scheduled action if it has come due by the 
+     * given lockstep tick
+     * 
+     * @since Version 1.0
+     * @see Entity_LockstepEngine#advance(long)
+     * @see #scheduledAction
+     * @param tick the simulated time of the tick, in milliseconds
+     */
+    public void step(long tick) {
+        
+        if(scheduledAction != null && scheduledAction.getTime() <= tick)
+            handleEvent(scheduledAction);
+    }
+    
+    /**
+     * Decides what the elevator does next when it is event driven or in 
+     * lockstep. If it has destinations it schedules its next floor-arrival.
+     * If not it goes idle the same way run() does. An idle elevator away from
+     * its parking floor schedules an idle-timeout; one at its parking floor
+     * schedules nothing and stays parked until it is given work
+     * 
+     * @since Version 1.0
+     * @see #handleEvent(Entity_SimulationEvent)
+     * @see #enterIdleState()
+     */
+    private void settle() {
+        
+        if(scheduledAction != null)
+            return;
+        
+        if(stops.isEmpty())
+        {
+            try {
+                enterIdleState();
+            } catch (IllegalElevatorException ex) {
+                ex.printStackTrace();
+            } catch (IllegalFloorException ex) {
+                ex.printStackTrace();
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            }
+        }
+        
+        if(stops.isEmpty())
+        {
+            if(getCurrentFloor() != getParkingFloor())
+                scheduleAction(Entity_SimulationEvent.IDLE_TIMEOUT, 10000);
+        }
+        else
+            scheduleAction(Entity_SimulationEvent.FLOOR_ARRIVAL, getFloorTravelTime());
+    }
+    
+    /**
+     * Schedules the elevator's next action with the discrete-event kernel. In
+     * lockstep mode the action is kept by the elevator and carried out by 
+     * step() instead. An elevator only ever has one action scheduled at a time
+     * 
+     * @since Version 1.0
+     * @see #scheduledAction
+     * @see Entity_EventKernel#schedule(long, int, Interface_EventHandler)
+     * @param type the event type of the action
+     * @param delay how many simulated milliseconds until the action is due
+     */
+    private void scheduleAction(int type, long delay) {
+        
+        if(scheduledAction != null)
+            scheduledAction.cancel();
+        
+        if(context.getSimulation().isLockstep())
+        {
+            scheduledAction = new Entity_SimulationEvent(
+                    context.getSimulation().getCurrentTime() + delay,
+                    0, type, this);
+            return;
+        }
+        
+        try {
+            scheduledAction = context.getSimulation()
+                                    .getEventKernel().schedule(delay, type, this);
+        } catch (IllegalSimulationException ex) {
+            ex.printStackTrace();
+        }
+    }
+    
+    /**
+     * Puts the elevator into its idle state. It clears the direction, makes
+     * sure the door is open, and asks the controller for any pending requests
+     * before the elevator waits
+     * 
+     * @since Version 1.0
+     * @see #run()
+     * @see #settle()
+     * @throws IllegalElevatorException, IllegalFloorException, IllegalDirectionException
+     */
+    private void enterIdleState() throws IllegalElevatorException, 
+                                 IllegalFloorException, IllegalDirectionException {
+        
+        setDirection(0);
+                        
+        //make sure door is shut
+        setDoorsAreOpen(true);
+
+        if(!context.getController().getPendingCalls().isEmpty())
+        {
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
+                    + "Elevator " + getLetterName() + getSerialNumber()
+                    + " will now try to ask the controller for "
+                    + "pending requests");
+
+            // check if there are any pending destinations before it
+            // goes to waits in idle state
+            context.getController()
+                .deliverPendingList(getCurrentFloor(), getSerialNumber());
+        }
+        
+        // let a draining simulation know this elevator has gone quiet
+        context.getSimulation().getDrainBarrier().signal();
+    }
+    
+    /**
+     * Returns the floor the elevator waits on while idle. This is its default
+     * floor unless the controller's picker parks elevators where calls are
+     * expected
+     * 
+     * @since Version 1.0
+     * @see Singl_WorkingController#getParkingFloor(Interface_Elevator)
+     * @return the floor number the elevator should park on
+     */
+    private int getParkingFloor() {
+        return context.getController().getParkingFloor(this);
+    }
+    
+    /**
+     * Sends an idle elevator that has timed out to its parking floor, unless
+     * it is already there
+     * 
+     * @since Version 1.0
+     * @see #run()
+     * @see #getParkingFloor()
+     */
+    private void returnToParkingFloor() {
+        
+        int parkingFloor = getParkingFloor();
+        
+        if(parkingFloor == getCurrentFloor())
+            return;
+        
+        try {
+            checkChangeDirection(parkingFloor);
+        } catch (IllegalDirectionException ex) {
+            ex.printStackTrace();
+        }
+
+        if(parkingFloor == getDefaultFloor())
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                    + "\tElevator %c%d timed out; returning to its "
+                    + "default floor: Floor #%d\n", getLetterName(), 
+                    getSerialNumber(), parkingFloor);
+        else
+        {
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                    + "\tElevator %c%d timed out; parking on Floor #%d "
+                    + "where calls are expected\n", getLetterName(), 
+                    getSerialNumber(), parkingFloor);
+            
+            context.getSimulation().getDemandForecast().recordParking();
+        }
+
+        addToDestinationList(parkingFloor);
+    }
+    
+    /**
+     * Moves the elevator one floor toward the first floor in its destination
+     * list. If that floor has been reached it reports the arrival, otherwise 
+     * it resorts the destination list and announces that it is passing the floor
+     * 
+     * @since Version 1.0
+     * @see #run()
+     * @see #currentFloor
+     * @return a boolean that is true if the elevator has arrived at a destination
+     */
+    private boolean moveTowardNextDestination() {
+        
+        int nextStop = stops.nextStop(getCurrentFloor(), getDirection());
+        
+        if(nextStop == -1)
+        {
+            context.getConsole().println("Error occurred while trying to get "
+                    + "the next stop of the destination list (passing msg): "
+                    + "no stops left");
+            return false;
+        }
+        
+        // a floor skipped on the way can leave the only stops behind the
+        // elevator, so it turns toward them rather than standing still
+        if((getDirection() == 1 && getCurrentFloor() > nextStop)
+                || (getDirection() == -1 && getCurrentFloor() < nextStop))
+        {
+            try {
+                checkChangeDirection(nextStop);
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            }
+        }
+        
+        if(getDirection() == -1 && getCurrentFloor() > nextStop)
+        {
+            currentFloor--;
+            updateLoadIndex();
+        }
+        else if(getDirection() == 1 && getCurrentFloor() < nextStop)
+        {
+            currentFloor++;
+            updateLoadIndex();
+        }
+
+        if(getCurrentFloor() == nextStop) 
+            return true; // means I have arrived
+        
+        context.getConsole().printf(sdf.format(System.currentTimeMillis()) +
+          "\tElevator %c%d passing Floor %d on the way to %d. %s\n", 
+          getLetterName(), getSerialNumber(),
+          getCurrentFloor(),
+          nextStop,
+          printDestinationList()
+          );  
+        
+        return false;
+    }
+    
+    /**
+     * Simulates the elevator starting up from creation.  This hands the elevator
+     * to the simulation's execution backend, which runs it in its own platform 
+     * or virtual thread.  Each elevator runs in its own thread. When the
+     * simulation is event driven or in lockstep no thread is created and the 
+     * elevator schedules its first action instead.
      * 
      * @since Version 1.0
-     * @see Thread
+     * @see Interface_ElevatorExecutor
      */
     public void startUp(){
         
-        System.out.printf(sdf.format(System.currentTimeMillis()) 
+        context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
                             + "\tStarting up elevator %c%d on floor #" 
                             + getCurrentFloor()+ "\n", 
                             getLetterName(), getSerialNumber());
@@ -372,7 +1148,25 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         } catch (IllegalElevatorException ex) {
             ex.printStackTrace();
         }
-            new Thread(this).start();      
+        
+        // anything still scheduled or posted belongs to a previous run
+        scheduledAction = null;
+        mailbox.clear();
+        
+        for(int i = 0; i < postedStops.length(); ++i)
+            postedStops.set(i, 0);
+        
+        wakeupsOwed.clear();
+        wakeupSent.set(false);
+        
+        if(context.getSimulation().isSingleThreaded())
+            settle();
+        else
+        {
+            // from now on only the elevator's thread changes the elevator
+            threaded = true;
+            context.getSimulation().getElevatorExecutor().execute(this);
+        }
         
     }
     
@@ -390,19 +1184,69 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         } catch (IllegalElevatorException ex) {
             ex.printStackTrace();
         }
+        
+        // a parked elevator thread has no timer to wake it, so tell it to stop
+        if(isOwnedElsewhere())
+            post(Entity_ElevatorMailbox.DRAIN, 0, null);
 
-        System.out.printf(sdf.format(System.currentTimeMillis()) 
+        context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
                             + "\tElevator %c%d has shutdown\n", 
                             getLetterName(), getSerialNumber());
                     
     }
     
     /**
-     * Adds a new destination to the list and keeps the list sorted.  This list 
-     * is always sorted in the order that the elevator will visit them, so index
-     * 0 of the destinationList will always be the next destination for the elevator.
+     * Returns whether the elevator is idle and parked. A threaded elevator is
+     * parked while its thread waits for a command. A single threaded 
+     * elevator is parked while it has no destinations and nothing scheduled
+     * but its idle-return timer
+     * 
+     * @since Version 1.0
+     * @see #parked
+     * @return a boolean that is true if the elevator has nothing to do
+     */
+    public boolean isParked() {
+        
+        if(!context.getSimulation().isSingleThreaded())
+            return parked;
+        
+        return getIsRunning() && !handlingEvent && stops.isEmpty()
+                && (scheduledAction == null || scheduledAction.getType() 
+                                    == Entity_SimulationEvent.IDLE_TIMEOUT);
+    }
+    
+    /**
+     * Wakes the elevator if it is parked so that it asks the controller for
+     * the pending requests. A threaded elevator is posted a pending request,
+     * which unparks its thread. An event driven
+     * elevator schedules a pending-request event for the current time. In
+     * lockstep the controller offers the pending list to idle elevators at
+     * every tick, so nothing needs to be done
+     * 
+     * @since Version 1.0
+     * @see Singl_WorkingController#addToPendingList(int, int)
+     */
+    public void wakeForPendingRequest() {
+        
+        if(!context.getSimulation().isSingleThreaded())
+        {
+            if(parked)
+                post(Entity_ElevatorMailbox.PENDING_REQUEST, 0, null);
+        }
+        else if(context.getSimulation().isEventDriven() && isParked())
+            scheduleAction(Entity_SimulationEvent.PENDING_REQUEST, 0);
+    }
+    
+    /**
+     * Adds a new destination to the elevator's stops. A floor above the
+     * elevator is an up stop and one below it a down stop, and the floor it
+     * is on is a stop for the way it is heading, so index 0 of the 
+     * destination list is always the next destination for the elevator.
+     * Asked from any thread but the elevator's own while it runs on one, the
+     * floor is posted to the elevator and added once its thread gets to it
      * 
      * @since Version 1.0
+     * @see #drainMailbox()
      * @see #getDirection() 
      * @see #getCurrentFloor()
      * @see #getDestinationList() 
@@ -412,54 +1256,59 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     public void addToDestinationList(int floor) {
         
         //Basic checks to ensure we have a good floor argument
-        if(floor < 1 || floor > Singl_WorkingBuilding.getInstance().getNumberOfFloors())
+        if(floor < 1 || floor > context.getBuilding().getNumberOfFloors())
             return;
-                        
-        synchronized (this) {           
-            
-            //check for wrong direction
-            if ((getDirection() == 1 && floor < getCurrentFloor()) ||
-                    (getDirection() == -1 && floor > getCurrentFloor()))
-            {    
-                System.out.printf(sdf.format(System.currentTimeMillis()) 
-                        + "\tInvalid Request: Elevator %c%d is moving in a different "
-                        + "direction\n", getLetterName(), getSerialNumber());
-                    
-                return;
-            }
-            
-            //check if the floor is already in the destination list
-            if(getDestinationList().indexOf(floor) != -1 && getCurrentFloor() != floor)
-            {    
-                System.out.printf(sdf.format(System.currentTimeMillis()) 
-                        + "\tInvalid Request: Requested floor is already in "
-                        + "Elevator %c%d's destination list\n", 
-                        getLetterName(), getSerialNumber());
-                    
-                return;
-            }
-            
-            getDestinationList().add(floor);
-            
-            if(getDestinationList().size() == 1)
-            {
-                try {
-                    checkChangeDirection(floor);
-                } catch (IllegalDirectionException ex) {
-                    ex.printStackTrace();
-                }
-            }
-            
-            //sort destination list
-            Collections.sort(getDestinationList());
-            if(getDirection() == -1)
-                Collections.reverse(getDestinationList());
+        
+        if(isOwnedElsewhere())
+        {
+            post(Entity_ElevatorMailbox.ADD_STOP, floor, null);
+            return;
+        }
             
-            this.notifyAll();
+        //check for wrong direction
+        if ((getDirection() == 1 && floor < getCurrentFloor()) ||
+                (getDirection() == -1 && floor > getCurrentFloor()))
+        {    
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                    + "\tInvalid Request: Elevator %c%d is moving in a different "
+                    + "direction\n", getLetterName(), getSerialNumber());
+                
+            return;
+        }
+        
+        //check if the floor is already in the destination list
+        if(stops.contains(floor) && getCurrentFloor() != floor)
+        {    
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                    + "\tInvalid Request: Requested floor is already in "
+                    + "Elevator %c%d's destination list\n", 
+                    getLetterName(), getSerialNumber());
+                
+            return;
+        }
+        
+        stops.add(floor, floor > getCurrentFloor() ? 1 : (floor < getCurrentFloor() 
+                                    ? -1 : (getDirection() == -1 ? -1 : 1)));
+        updateLoadIndex();
         
+        if(stops.size() == 1)
+        {
+            try {
+                checkChangeDirection(floor);
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            }
         }
         
-        System.out.printf(sdf.format(System.currentTimeMillis()) + 
+        // an idle single threaded elevator has nothing scheduled but an 
+        // idle timeout, so start it moving toward the new destination
+        if(context.getSimulation().isSingleThreaded() 
+                && getIsRunning() && !handlingEvent
+                && (scheduledAction == null || scheduledAction.getType() 
+                                == Entity_SimulationEvent.IDLE_TIMEOUT))
+            scheduleAction(Entity_SimulationEvent.FLOOR_ARRIVAL, getFloorTravelTime());
+        
+        context.getConsole().printf(sdf.format(System.currentTimeMillis()) + 
                           "\tElevator %c%d is adding Floor %d to its destination "
                           + "list, %s\n", 
                           getLetterName(), 
@@ -470,41 +1319,75 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     }
 
     /**
-     * Prints the current destination list and keeps the list sorted according to
-     * the direction of the elevator.
+     * Takes a floor that a hall call put on the destination list off it 
+     * again, so that the call can be given to another elevator. A floor the
+     * elevator is on, or one that a passenger on board is going to, is kept.
+     * 
+     * Asked from any thread but the elevator's own while it runs on one, the
+     * floor is posted to the elevator and false is returned. Its thread takes
+     * the floor off once it gets to it, and tells the hall call reassigner
+     * whether it did. If the list is left empty, the elevator goes idle 
+     * instead of arriving anywhere
+     * 
+     * @since Version 1.0
+     * @see #addToDestinationList(int)
+     * @see #drainMailbox()
+     * @see Entity_HallCallReassigner#withdrawn(Interface_Elevator, int, boolean)
+     * @param floor the floor to take off the list
+     * @return a boolean that is true if the floor was taken off
+     */
+    public boolean withdrawFromDestinationList(int floor) {
+        
+        if(isOwnedElsewhere())
+        {
+            post(Entity_ElevatorMailbox.WITHDRAW, floor, null);
+            return false;
+        }
+        
+        if(floor == getCurrentFloor() || !stops.contains(floor))
+            return false;
+        
+        if(passengers.count(floor) > 0)
+            return false;
+        
+        stops.remove(floor);
+        updateLoadIndex();
+        
+        context.getConsole().printf(sdf.format(System.currentTimeMillis()) + 
+                          "\tElevator %c%d is taking Floor %d off its destination "
+                          + "list, %s\n", 
+                          getLetterName(), 
+                          getSerialNumber(), 
+                          floor, 
+                          printDestinationList() );
+        
+        return true;
+    }
+
+    /**
+     * Prints the current destination list in the order the elevator will
+     * visit the floors.
      * 
      * @since Version 1.0
      * @see #getDestinationList() 
-     * @see Collections
+     * @see Entity_StopSet#toArray(int, int)
      * @return a string that will be used to display the destination list
      */
     public String printDestinationList() {
         
         String destlistToString = "";
+        int[] order = stops.toArray(getCurrentFloor(), getDirection());
         
-        if(!getDestinationList().isEmpty())
+        if(order.length > 0)
         {
             
-            //sort destination list
-            Collections.sort(getDestinationList());
-            if(getDirection() == -1)
-                Collections.reverse(getDestinationList());
-
             destlistToString = "Full Destination List: [";
 
-            for(int i = 0; i < getDestinationList().size(); ++i)
+            for(int i = 0; i < order.length; ++i)
             {
-                try
-                {
-                    destlistToString += getDestinationList().get(i);
-                } catch(IndexOutOfBoundsException ex) {
-                        System.out.printf("Error occurred while trying to get "
-                                + "zero index of destination list (within print "
-                                + "destlist method) - index%d: " + ex.getMessage() 
-                                + "\n", i);
-                }
+                destlistToString += order[i];
 
-                if(i != getDestinationList().size() - 1)
+                if(i != order.length - 1)
                     destlistToString += ", ";
             }
             
@@ -536,8 +1419,9 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     }
 
     /**
-     * Returns the current sorted destination list.  This is represented as an
-     * ArrayList of Integers.
+     * Returns the current destination list, in the order the elevator will
+     * visit the floors.  This is a read-only view of the elevator's stops, 
+     * so it always shows them as they are now.
      * 
      * @since Version 1.0
      * @see #destinationList
@@ -546,6 +1430,31 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     public List <Integer> getDestinationList() {
         return destinationList;
     }
+    
+    /**
+     * Returns whether the elevator is going to stop at a floor, counting a
+     * stop posted to its thread that it has not taken yet
+     * 
+     * @since Version 1.0
+     * @see #stops
+     * @see #postedStops
+     * @param floor the floor
+     * @return a boolean that is true if the floor is one of its stops
+     */
+    public boolean isStoppingAt(int floor) {
+        return stops.contains(floor) || Entity_FloorBits.contains(postedStops, floor);
+    }
+    
+    /**
+     * Returns the snapshot the elevator last published
+     * 
+     * @since Version 1.0
+     * @see #snapshot
+     * @return the Entity_ElevatorSnapshot last published
+     */
+    public Entity_ElevatorSnapshot getSnapshot() {
+        return snapshot.get();
+    }
 
     /**
      * Returns the current direction of the elevator represented as a positive
@@ -593,7 +1502,9 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     }
 
     /**
-     * Sets the direction of the elevator.
+     * Sets the direction of the elevator. Asked from any thread but the 
+     * elevator's own while it runs on one, the direction is posted to the
+     * elevator and set once its thread gets to it
      * 
      * @since Version 1.0
      * @see #direction
@@ -603,8 +1514,15 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     public void setDirection(int dir) throws IllegalDirectionException {
         if(!(dir == -1 || dir == 0 || dir == 1))
             throw new IllegalDirectionException("Out of bounds direction encountered: " + dir);
-        else
-            direction = dir;
+        
+        if(isOwnedElsewhere())
+        {
+            post(Entity_ElevatorMailbox.SET_DIRECTION, dir, null);
+            return;
+        }
+        
+        direction = dir;
+        updateLoadIndex();
     }
     
     /**
@@ -617,7 +1535,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      */
     public boolean equals(Entity_WorkingElevator e) {
         
-        if (!this.destinationList.equals(e.destinationList))
+        if (!this.getDestinationList().equals(e.getDestinationList()))
             return false;
         //if (this.currentFloor != e.currentFloor )
          //   return false;
@@ -634,10 +1552,11 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     }    
     
     /**
-     * Returns the elevator's passenger list
+     * Returns the elevator's passenger list. This is a read-only view of the
+     * people riding, by the floor they are going to
      * 
      * @since Version 1.0
-     * @see #currentFloor
+     * @see #passengers
      * @return a list of Interface_Person objects
      */
     public List<Interface_Person> getPassengerList() {
@@ -645,14 +1564,29 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     }
     
     /**
-     * Adds a person to the elevator's passenger list
+     * Adds a person to the elevator's passengers, in the bucket of the floor
+     * they are going to. Asked from any thread but the elevator's own while 
+     * it runs on one, the person is posted to the elevator and boards once 
+     * its thread gets to them
      * 
      * @since Version 1.0
      * @see #getPassengerList()
      * @param person
      */
     public void addToPassengerList(Interface_Person person){
-        getPassengerList().add(person);
+        
+        if(isOwnedElsewhere())
+        {
+            post(Entity_ElevatorMailbox.BOARD, 0, person);
+            return;
+        }
+        
+        try {
+            passengers.add(person);
+            publishSnapshot();
+        } catch (IllegalFloorException ex) {
+            ex.printStackTrace();
+        }
     }  
     
     /**
@@ -689,7 +1623,10 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             throw new IllegalElevatorException("Incorrect type encountered "
                                         + "when setting opening doors: " + dAO);
         else
+        {
             doorsAreOpen = dAO;
+            publishSnapshot();
+        }
     }
 
    /**
@@ -732,7 +1669,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      */
     private void setDefaultFloor(int dF) throws IllegalFloorException {
         
-        if(dF < 1 || dF > Singl_WorkingSimulation.getInstance().getNumberOfFloors())
+        if(dF < 1 || dF > context.getSimulation().getNumberOfFloors())
             throw new IllegalFloorException("Out of bounds defaultFloor encountered: " + dF);
         else
         {
@@ -834,8 +1771,83 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     private void setCurrentFloor(int floorNumber) throws IllegalFloorException {
         if((floorNumber < 1))
             throw new IllegalFloorException("Negative floorNumber encountered: " + floorNumber);
-        else
-            currentFloor = floorNumber;
+        
+        currentFloor = floorNumber;
+        updateLoadIndex();
+    }
+    
+    /**
+     * Tells the load index of the context where the elevator is, which way it
+     * is heading and how many destinations it has, and publishes a new 
+     * snapshot. Invoked whenever one of those changes
+     * 
+     * @since Version 1.0
+     * @see Entity_SimulationContext#getLoadIndex()
+     * @see #publishSnapshot()
+     */
+    private void updateLoadIndex() {
+        context.getLoadIndex().update(getSerialNumber(), getCurrentFloor(), 
+                                    getDirection(), stops.size());
+        publishSnapshot();
+    }
+    
+    /**
+     * Publishes a new snapshot of the elevator, one version on from the last.
+     * Invoked by the one thread changing the elevator whenever its floor, 
+     * direction, doors, load or stops change. The stops posted to it and not
+     * yet taken are among the snapshot's stops. A poster may publish in 
+     * between, in which case the snapshot is made again with its stop
+     * 
+     * @since Version 1.0
+     * @see #snapshot
+     * @see #publishPosted(int, int)
+     */
+    private void publishSnapshot() {
+        
+        Entity_ElevatorSnapshot last;
+        Entity_ElevatorSnapshot next;
+        
+        do {
+            last = snapshot.get();
+            
+            long[] words = stops.toWords();
+            
+            for(int i = 0; i < words.length; ++i)
+                words[i] |= postedStops.get(i);
+            
+            next = new Entity_ElevatorSnapshot(getSerialNumber(), 
+                            getCurrentFloor(), getDirection(), getDoorsAreOpen(), 
+                            passengers.size(), words, 
+                            (last == null ? 1 : last.getVersion() + 1));
+        } while(!snapshot.compareAndSet(last, next));
+    }
+    
+    /**
+     * Publishes the snapshot the elevator will have once its thread takes a
+     * stop or a turn being posted to it, one version on from the last
+     * 
+     * @since Version 1.0
+     * @see #post(int, int, Interface_Person)
+     * @see Entity_ElevatorSnapshot#withPostedStop(int, long)
+     * @see Entity_ElevatorSnapshot#withPostedDirection(int, long)
+     * @param type ADD_STOP or SET_DIRECTION
+     * @param value the floor or direction posted
+     */
+    private void publishPosted(int type, int value) {
+        
+        Entity_ElevatorSnapshot last;
+        Entity_ElevatorSnapshot next;
+        
+        do {
+            last = snapshot.get();
+            
+            if(last == null)
+                return;
+            
+            next = (type == Entity_ElevatorMailbox.ADD_STOP 
+                        ? last.withPostedStop(value, last.getVersion() + 1)
+                        : last.withPostedDirection(value, last.getVersion() + 1));
+        } while(!snapshot.compareAndSet(last, next));
     }
     
     /**
@@ -877,7 +1889,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      */
     private void checkChangeDirection(int floor) throws IllegalDirectionException {
         
-        if(floor < 0 || floor > Singl_WorkingSimulation.getInstance().getNumberOfFloors())
+        if(floor < 0 || floor > context.getSimulation().getNumberOfFloors())
             throw new IllegalDirectionException("Invalid floor encountered "
                                   + "when trying to change direction: " + floor);
         else
@@ -904,10 +1916,8 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * waiting people on the floor and your destination list happens to be empty, 
      * then change your direction to what's popular on the floor. Open the doors, 
      * remove passengers from the elevator, check if you need to change floors. 
-     * If so, then ask the controller to check the pending list. Sleep for a 
-     * little but while doors are open. Add people to passengers list. Close the 
-     * doors. Remove the floor from the destination list. Reset the callbox 
-     * buttons on the floor
+     * If so, then remember to ask the controller to check the pending list once
+     * the doors close. The doors then stay open until finishArrival() is called
      * 
      * @since Version 1.0
      * @see #getDestinationList() 
@@ -915,29 +1925,25 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * @see #getCurrentFloor()
      * @see #getSerialNumber() 
      * @see #getDestinationList() 
-     * @see #printDestinationList() 
+     * @see #finishArrival()
+     * @return a boolean that is true if the elevator stopped and opened its 
+     *         doors, or false if it skipped the floor
      */
-    private void considerArrival(){
+    private boolean beginArrival(){
                 
         // acknowledge passengers on the floor you've arrived upon 
-        Interface_Floor focusFloor = Singl_WorkingBuilding.getInstance()
+        Interface_Floor focusFloor = context.getBuilding()
                                         .getFloorList().get(getCurrentFloor() - 1);
         
         
         //is there anyone in the elevator who originally selected this destination?
-        boolean selectedFromWithin = false;
-        
-        for(Interface_Person guy : getPassengerList())
-        {
-            if(getCurrentFloor() == guy.getIntendedDestination())
-                selectedFromWithin = true;
-        }
+        boolean selectedFromWithin = (passengers.count(getCurrentFloor()) > 0);
         
         
         // now check if the stop is asking to go in the same direction that the 
         // elevator is heading if its not, and noone within the elevator asked 
         // for it, then skip and add floor to pending list
-        if(getDestinationList().size() > 1 
+        if(stops.size() > 1 
                 && focusFloor.getcBox().getDownButton() == false 
                 && focusFloor.getcBox().getUpButton() == true 
                 && selectedFromWithin == false
@@ -945,7 +1951,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         {       // if elevator is going down, the down callbox button must be 
                 // pressed in order for elevator to stop on floor
             
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                     + "Even though floor #" + getCurrentFloor() + " has been on elevator " 
                     + getLetterName() + getSerialNumber() + "'s destination list, the "
                     + "\n\t\trequest to stop on this floor denied because the elevator "
@@ -958,7 +1964,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                     );
             try {
                 //add floor and direction to pendinglist 
-                Singl_WorkingController.getInstance().addToPendingList(getCurrentFloor(), 1);
+                context.getController().addToPendingList(getCurrentFloor(), 1);
             } catch (IllegalDirectionException ex) {
                     ex.printStackTrace();
             } catch (IllegalFloorException ex) {
@@ -966,14 +1972,14 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             }
             
             // now remove the floor from the destination list
-            if(getDestinationList().contains(new Integer (getCurrentFloor())))
-                getDestinationList().remove(new Integer (getCurrentFloor())); 
+            if(stops.remove(getCurrentFloor()))
+                updateLoadIndex();
             
             // return and skip the rest of the method
-            return;
+            return false;
                     
         }
-        else if(getDestinationList().size() > 1 
+        else if(stops.size() > 1 
                 && focusFloor.getcBox().getUpButton() == false 
                 && focusFloor.getcBox().getDownButton() == true 
                 && selectedFromWithin == false
@@ -981,7 +1987,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         {       // if elevator is going up, the up callbox button must be pressed 
                 // in order for elevator to stop on floor
                         
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                     + "Even though floor #" + getCurrentFloor() + " has been on "
                     + "elevator " + getLetterName() + getSerialNumber() + "'s "
                     + "destination list, the \n\t\trequest to stop on this floor "
@@ -997,7 +2003,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                     );
             try {
                 //add floor and direction to pendinglist 
-                Singl_WorkingController.getInstance().addToPendingList(getCurrentFloor(), -1);
+                context.getController().addToPendingList(getCurrentFloor(), -1);
             } catch (IllegalDirectionException ex) {
                     ex.printStackTrace();
             } catch (IllegalFloorException ex) {
@@ -1005,24 +2011,20 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             }
             
             // now remove the floor from the destination list
-            if(getDestinationList().contains(new Integer (getCurrentFloor())))
-                getDestinationList().remove(new Integer (getCurrentFloor())); 
+            if(stops.remove(getCurrentFloor()))
+                updateLoadIndex();
             
             // return and skip the rest of the method
-            return;
+            return false;
         }
                 
         
-        // recognize list of people on that floor
-        ArrayList<Interface_Person> focusFloorList = focusFloor.getPeopleOnFloorList();
-        
-        
         // first be sure that the elevator has a direction
         if(getDirection() == 0 && focusFloor.getNumberOfWaitingPeopleCurrentlyOnFloor() > 0)
         {
             // if elevator direction is idle, then set the direction to the same
             // as the anticipated first passenger
-            int tempDest = focusFloor.findPersonIndexInWaitingList(0).getIntendedDestination();
+            int tempDest = findFirstWaitingPerson(focusFloor).getIntendedDestination();
             int tempDir = getDirection();
             try {
                 setDirection(tempDest > getCurrentFloor() ? 1 : -1);
@@ -1035,12 +2037,12 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         // if when you arrive, there are waiting people on the floor and your 
         // destination list happens to be empty, then change your direction to 
         // what's popular on the floor
-        if(getPassengerList().isEmpty() 
+        if(passengers.isEmpty() 
                 && focusFloor.getNumberOfWaitingPeopleCurrentlyOnFloor() > 0
-                && getDestinationList().isEmpty())
+                && stops.isEmpty())
         {
             // change the direction to the same as the anticipated first passenger
-            int tempDest = focusFloor.findPersonIndexInWaitingList(0).getIntendedDestination();
+            int tempDest = findFirstWaitingPerson(focusFloor).getIntendedDestination();
             int tempDir = getDirection();
             try {
                 setDirection(tempDest > getCurrentFloor() ? 1 : -1);
@@ -1056,11 +2058,12 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         {
             try {
                 setDoorsAreOpen(true);
+                ++stopCount;
             } catch (IllegalElevatorException ex) {
                 ex.printStackTrace();
             }
 
-            System.out.printf(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
                                 + "\tElevator %c%d arrives at destination "
                                 + "floor %d. Doors open...\n", 
                                 getLetterName(), getSerialNumber(), 
@@ -1069,7 +2072,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         }
         else
         {
-            System.out.printf(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
                                 + "\tElevator %c%d is already at "
                                 + "floor %d and has its doors open...\n", 
                                 getLetterName(), getSerialNumber(), 
@@ -1081,12 +2084,12 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         // allow any passengers to exit if they've reached their destination
         removePassengersFromElevator();
         
-        boolean flagToCheckForPendingRequests = false;
+        pendingCheckAfterDoorsClose = false;
         
         // check to see if any other elevators are currently on the same floor
         // and that floor has people on it
         boolean otherElevatorsOnSameFloor = false; // true means there are others
-        List<Interface_Elevator> eList = Singl_WorkingBuilding.getInstance().getElevatorList();
+        List<Interface_Elevator> eList = context.getBuilding().getElevatorList();
         for(Interface_Elevator elevator : eList)
         {
             
@@ -1094,11 +2097,11 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                     && elevator.getDoorsAreOpen() == true // his doors are open
                     && getDoorsAreOpen() == true // my doors are open
                     && elevator.getSerialNumber() != getSerialNumber() // not same 
-                    && focusFloorList.size() > 1 // there's more than one person 
+                    && focusFloor.getNumberOfWaitingPeopleCurrentlyOnFloor() > 1 // there's more than one person 
                     && elevator.getDirection() != 0
                     && getDirection() != 0
                     && !elevator.getDestinationList().isEmpty()
-                    && !getDestinationList().isEmpty()) 
+                    && !stops.isEmpty()) 
             {
                 
                 otherElevatorsOnSameFloor = true;
@@ -1111,22 +2114,25 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         // elevator direction don't worry, if people accumulate on a floor, it 
         // will maintain first come, first serve
         // This is an adjustment bc we can't remove currentfloor yet
-        if(getPassengerList().isEmpty() 
+        if(passengers.isEmpty() 
                 && focusFloor.getNumberOfWaitingPeopleCurrentlyOnFloor() > 0 
-                && getDestinationList().get(0) == getCurrentFloor() 
-                && getDestinationList().size() == 1                
-                && otherElevatorsOnSameFloor == false
+                && stops.size() == 1
+                && stops.contains(getCurrentFloor())
+                && (otherElevatorsOnSameFloor == false
+                    // someone told to take this elevator turns it their way
+                    || findFirstWaitingPerson(focusFloor).getAssignedElevator() 
+                                                            == getSerialNumber())
                 )
         {
             // change the direction to the same as the anticipated first passenger
-            int tempDest = focusFloor.findPersonIndexInWaitingList(0).getIntendedDestination();
+            int tempDest = findFirstWaitingPerson(focusFloor).getIntendedDestination();
             
             try {
                 int tempDir = getDirection();
                 
                 setDirection(tempDest > getCurrentFloor() ? 1 : -1);
                 
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                     + "Elevator " + getLetterName() + getSerialNumber() 
                     + " changes direction from " 
                     + (tempDir == 1 ? "up" : (tempDir == 0 ? "idle" : "down")) + " to " 
@@ -1136,7 +2142,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                 // a pending request check in the near future (after current 
                 // floor has been removed)
                  if(tempDir != getDirection())
-                     flagToCheckForPendingRequests = true;
+                     pendingCheckAfterDoorsClose = true;
                 
             } catch (IllegalDirectionException ex) {
                 ex.printStackTrace();
@@ -1146,19 +2152,28 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         
         
         
-        // sleep for a little bit while the elevator doors are open
-        try {
-            Thread.sleep(getDoorOpenTime() / getTimeScaleFactor());
-
-        } catch (InterruptedException ex) {
-            ex.printStackTrace();
-        } catch(IndexOutOfBoundsException ex) {
-                        System.out.println("Error occurred while trying to get "
-                                + "zero index of destination list (invoking print "
-                                + "destlist conditional):" + ex.getMessage());
-        }
-        
+        // the doors now stay open for a little bit before finishArrival()
+        return true;
+    }
+    
+    /**
+     * Finishes the arrival that beginArrival() started once the doors have
+     * been open long enough. Add people to passengers list. Close the doors. 
+     * Remove the floor from the destination list. Register the new passengers'
+     * requests, and ask the controller for pending requests if the direction 
+     * changed during the arrival
+     * 
+     * @since Version 1.0
+     * @see #beginArrival()
+     * @see #pendingCheckAfterDoorsClose
+     * @see #getDestinationList() 
+     * @see #printDestinationList() 
+     */
+    private void finishArrival(){
         
+        // acknowledge passengers on the floor the doors are open upon 
+        Interface_Floor focusFloor = context.getBuilding()
+                                        .getFloorList().get(getCurrentFloor() - 1);
         
         // allow any passengers on the floor to enter 
         // elevator if they wish (match direction)
@@ -1180,15 +2195,15 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         
         // now remove the destination you've arrived at 
         // (if you haven't spontaneously arrived)
-        if(getDestinationList().contains(new Integer (getCurrentFloor())))
-            getDestinationList().remove(new Integer (getCurrentFloor())); 
+        if(stops.remove(getCurrentFloor()))
+            updateLoadIndex();
                 
         
         // now that doors are closed, register all new 
         // passenger floor requests with the controller
         for (Map.Entry<Integer, Interface_Person> request : newPassengerRequests.entrySet())
         {
-            if(!getDestinationList().contains(request.getKey()))
+            if(!stops.contains(request.getKey()))
             {                
                 addToDestinationList(request.getKey());
             }
@@ -1196,19 +2211,17 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         
         // if there had been a direction change above and the flag was set, 
         // then check for pending requests
-        TreeMap<Integer, Integer> pList = Singl_WorkingController.getInstance()
-                                                .getPendingList();
+        Entity_PendingCallSet pending = context.getController()
+                                                .getPendingCalls();
         
-        if(flagToCheckForPendingRequests == true)
+        if(pendingCheckAfterDoorsClose == true)
         {
             // first check controller's pending list to make sure its accounted 
             // for people entering due to the direction change
-            if(pList.containsKey(getCurrentFloor())
-                    && (pList.get(getCurrentFloor()) == 2 
-                            || pList.get(getCurrentFloor()) == getDirection()))
+            if(pending.contains(getCurrentFloor(), getDirection()))
             {
                 try {
-                    Singl_WorkingController.getInstance()
+                    context.getController()
                             .removeFromPendingList(getCurrentFloor(), getDirection());
                 } catch (IllegalDirectionException ex) {
                     ex.printStackTrace();
@@ -1216,13 +2229,13 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                     ex.printStackTrace();
                 }
                 
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t" + "Removed " 
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t" + "Removed " 
                         + getCurrentFloor() + "-" + (getDirection() == 1 ? "up" : "down")
                         + " request from the controller's pending list because it was just "
                         + "satisfied");
             }
             
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                     + "The direction of elevator " + getLetterName() + getSerialNumber() 
                     + " has changed. Now that the current floor\n\t\thas been reached"
                     + " elevator " + getLetterName() + getSerialNumber() 
@@ -1230,7 +2243,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             try {
                 // check if there are any pending destinations before it
                 // goes to waits in idle state
-                Singl_WorkingController.getInstance()
+                context.getController()
                     .deliverPendingList(getCurrentFloor(), getSerialNumber());
             } catch (IllegalElevatorException ex) {
                     ex.printStackTrace();
@@ -1239,13 +2252,13 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             }
         }
         
-        System.out.printf(sdf.format(System.currentTimeMillis()) +
+        context.getConsole().printf(sdf.format(System.currentTimeMillis()) +
                 "\tElevator %c%d Doors are closed and the destination list has "
                 + "been\n\t\tupdated. %s%s\n", 
                 getLetterName(), 
                 getSerialNumber(), 
-                !getDestinationList().isEmpty() ? "Continuing to next destination: " 
-                                                  + getDestinationList().get(0) + ". " 
+                !stops.isEmpty() ? "Continuing to next destination: " 
+                                   + stops.nextStop(getCurrentFloor(), getDirection()) + ". " 
                                                 : "",
                 printDestinationList());
         
@@ -1266,12 +2279,10 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             }
             
             // check controller's pending list to make sure its not there anymore
-            if(pList.containsKey(getCurrentFloor())
-                    && (pList.get(getCurrentFloor()) == 2 
-                            || pList.get(getCurrentFloor()) == 1))
+            if(pending.contains(getCurrentFloor(), 1))
             {
                 try {
-                    Singl_WorkingController.getInstance()
+                    context.getController()
                             .removeFromPendingList(getCurrentFloor(), 1);
                 } catch (IllegalDirectionException ex) {
                     ex.printStackTrace();
@@ -1279,7 +2290,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                     ex.printStackTrace();
                 }
                 
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "Request " + getCurrentFloor() + "-" + "up"
                         + " has been removed from the controller's pending list"
                         + " because it has just been satisfied.");
@@ -1287,7 +2298,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             
             if(tempUpStatus == true)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "The up button on floor #" + getCurrentFloor() 
                         + " has been reset from " + tempUpStatus + " to " 
                         + focusFloor.getcBox().getUpButton() 
@@ -1295,7 +2306,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             }
             else
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "The up button on floor #" + getCurrentFloor()
                         + " was already " + tempUpStatus + " and not lit so it "
                         + "does not need to be reset.");
@@ -1310,13 +2321,10 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             }
             
             // check controller's pending list to make sure its not there anymore
-            if(pList.containsKey(getCurrentFloor())
-                    && (pList.get(getCurrentFloor()) == 2 
-                            || pList.get(getCurrentFloor()) == -1)
-               )
+            if(pending.contains(getCurrentFloor(), -1))
             {
                 try {
-                    Singl_WorkingController.getInstance()
+                    context.getController()
                             .removeFromPendingList(getCurrentFloor(), -1);
                 } catch (IllegalDirectionException ex) {
                     ex.printStackTrace();
@@ -1324,7 +2332,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                     ex.printStackTrace();
                 }
                 
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "Request " + getCurrentFloor() + "-" + "down"
                         + " has been removed from the controller's pending list"
                         + " because it has just been satisfied.");
@@ -1332,7 +2340,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             
             if(tempDownStatus == true)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "The down button on floor #" + getCurrentFloor() 
                         + " has been reset from " + tempDownStatus + " to " 
                         + focusFloor.getcBox().getDownButton() 
@@ -1340,7 +2348,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
             }
             else
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "The down button on floor #" + getCurrentFloor()
                         + " was already " + tempDownStatus + " and not lit so it "
                         + "does not need to be reset.");
@@ -1350,12 +2358,33 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
         
         // HERE IS WHERE WE PROCESS THE LIST OF PEOPLE FRUSTRATED BC THEY COULDN"T 
         // GET ON A FULL ELEVATOR EACH ONE WILL INVOKE THE PERSON pressCallbox() METHOD
-        for(Interface_Person angryLeftOver : focusFloorList)
+        // Once one of them has lit the callbox, the rest pressing it does 
+        // nothing, so only the first is asked unless everyone has a kiosk
+        if(passengers.size() == getMaxPersonsPerElevator())
         {
-            if(angryLeftOver.getIntendedDirection() == getDirection() 
-                        && getPassengerList().size() == getMaxPersonsPerElevator())
+            List<Interface_Person> leftOvers = new ArrayList<Interface_Person>();
+            boolean everyone = context.getController().isDestinationDispatch();
+            
+            synchronized(focusFloor)
+            {
+                Entity_WaitingQueue leftBehind = focusFloor.getWaitingQueue(getDirection());
+                
+                for(int i = 0; leftBehind != null && i < leftBehind.size(); ++i)
+                {
+                    if(isWaitingFor(leftBehind.get(i)))
+                    {
+                        leftOvers.add(leftBehind.get(i));
+                        
+                        if(!everyone)
+                            break;
+                    }
+                }
+            }
+            
+            // pressing may pick, so it happens with the floor let go
+            for(Interface_Person angryLeftOver : leftOvers)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                     + "Frustrated Person " + angryLeftOver.getSerialNumber() 
                     + " was left behind, standing on floor #" + getCurrentFloor() 
                     + ", because\n\t\televator " + getLetterName() + getSerialNumber() 
@@ -1367,52 +2396,41 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
     }    
     
     /**
-     * This method removes passengers from the elevator
+     * This method removes passengers from the elevator. Only the bucket of
+     * the current floor is looked at, so it takes time for the people 
+     * getting off only
      * 
      * @since Version 1.0
      * @see #getPassengerList() 
      * @see #getPersonsCompleted()
-     * @see #getPassengerList()
+     * @see Entity_PassengerBuckets#removeAll(int)
      * @see #markArrivalTime()
      */
     private void removePassengersFromElevator(){
         
         // allow any passengers to exit if they've reached their destination
-        if(getPassengerList().size() > 0)
+        if(passengers.count(getCurrentFloor()) > 0)
         {
-            List <Interface_Person> tempRemovalList = new ArrayList <Interface_Person>();
+            List <Interface_Person> leaving = passengers.removeAll(getCurrentFloor());
+            publishSnapshot();
             
-            for(Interface_Person person : getPassengerList())
+            for(Interface_Person person : leaving)
             {
-                if(person.getIntendedDestination() == getCurrentFloor())
-                {
-                    // use a temparraylist so we're not pulling 
-                    // up boards as we walk on bridge
-                    tempRemovalList.add(person);
-                    
-                    // add person to the floor's completed list
-                    Singl_WorkingBuilding.getInstance()
-                            .getFloorList().get(getCurrentFloor() - 1)
-                            .getPersonsCompleted().add(person);
-                    
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
-                                + "\tPerson %d has arrived at his destination. "
-                                + "He is now exiting elevator at floor %d.\n", 
-                                person.getSerialNumber(), 
-                                person.getIntendedDestination()
-                          );   
-                }
+                // add person to the floor's completed list
+                context.getBuilding()
+                        .getFloorList().get(getCurrentFloor() - 1)
+                        .getPersonsCompleted().add(person);
                 
+                context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                            + "\tPerson %d has arrived at his destination. "
+                            + "He is now exiting elevator at floor %d.\n", 
+                            person.getSerialNumber(), 
+                            person.getIntendedDestination()
+                      );   
             }
             
-            // clean up and remove all the people that 
-            // were previous marked for removal
-            for(Interface_Person person: tempRemovalList)
-            {
-                int indexOfPersonToRemove = getPassengerList().indexOf(person);
-                getPassengerList().remove(indexOfPersonToRemove);
+            for(Interface_Person person: leaving)
                 person.markArrivalTime();
-            }
         }
     }
     
@@ -1426,62 +2444,72 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
      * @see #markArrivalTime()
      * @return TreeMap<Integer, Interface_Person> requests for elevator to iterate through to controller
      */
-    private synchronized TreeMap<Integer, Interface_Person> addPassengersToElevator(){
+    private TreeMap<Integer, Interface_Person> addPassengersToElevator(){
         
         // this list is used to collect all new passenger floor requests
         TreeMap<Integer, Interface_Person> newPassengerRequests 
                 = new TreeMap<Integer, Interface_Person>();
         
         // acknowledge passengers on the floor you've arrived upon 
-        ArrayList<Interface_Person> examineFloorList = 
-                                Singl_WorkingBuilding.getInstance()
-                                    .getFloorList().get(getCurrentFloor() - 1)
-                                    .getPeopleOnFloorList();
-        
-        // acknowledge passengers on the floor you've arrived upon 
-        Interface_Floor focusFloor = Singl_WorkingBuilding.getInstance()
+        Interface_Floor focusFloor = context.getBuilding()
                                     .getFloorList().get(getCurrentFloor() - 1);
         
         // allow any passengers on the floor to enter elevator 
         // if they wish (match direction)
-        if(getPassengerList().size() < getMaxPersonsPerElevator())
+        // people keep arriving on the floor while the doors are open, so the
+        // floor is held while this elevator boards from it
+        synchronized(focusFloor)
         {
+            // only the queue of people going this elevator's way is looked
+            // at, from the front, so boarding takes time for those who board
+            Entity_WaitingQueue boarding = focusFloor.getWaitingQueue(getDirection());
             
-            // this list is used to remove people from the 
-            // floor list after they've entered elevator
-            List <Interface_Person> tempRemovalList = new ArrayList <Interface_Person>();
+            if(passengers.size() < getMaxPersonsPerElevator())
+            {
+                // the places of those who board, taken out of the queue 
+                // together once boarding is over
+                int[] boardedPlaces = new int[getMaxPersonsPerElevator()];
+                int boarded = 0;
             
-            for(Interface_Person person : examineFloorList)
-            {                
-                // if the person intends to go in the same direction as the elevator
-                // then they will enter the elevator
-                if(person.getIntendedDirection() == getDirection() 
-                        && getPassengerList().size() < getMaxPersonsPerElevator())
-                {
-                    // we mark the person for removal from the floor's list of people and we
-                    // use a temparraylist so we're not pulling up boards as we walk on bridge
-                    tempRemovalList.add(person);
+                for(int place = 0; boarding != null && place < boarding.size()
+                        && passengers.size() < getMaxPersonsPerElevator(); ++place)
+                {                
+                    Interface_Person person = boarding.get(place);
+                    
+                    // someone told to take another elevator that is still 
+                    // coming waits for it, keeping their place in the queue
+                    if(!isWaitingFor(person))
+                        continue;
                     
-                    // person enters elevator
-                    getPassengerList().add(person);
+                    // person enters elevator, unless they are going 
+                    // somewhere the elevator cannot take them
+                    try {
+                        passengers.add(person);
+                    } catch (IllegalFloorException ex) {
+                        ex.printStackTrace();
+                        continue;
+                    }
                     
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
+                    boardedPlaces[boarded++] = place;
+                    publishSnapshot();
+                
+                    context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
                             + "\tPerson %d is now entering elevator %c%d floor %d.\n", 
                             person.getSerialNumber(),
                             getLetterName(), 
                             getSerialNumber(),
                             getCurrentFloor()
                     );              
-                    
-                    
+                
+                
                     // collect requests from new passengers
                     // if the floor has not yet been pressed in the elevator, then add to 
                     // the newPassengerRequests list that will be processed below
-                    if(!getDestinationList().contains(person.getIntendedDestination())
+                    if(!stops.contains(person.getIntendedDestination())
                             && !newPassengerRequests.containsKey(person.getIntendedDestination())
                             )
                     {
-                        System.out.printf(sdf.format(System.currentTimeMillis())
+                        context.getConsole().printf(sdf.format(System.currentTimeMillis())
                         + "\tNow that he is in the elevator %c%d, person %d "
                         + "presses the button for floor %d\n", 
                         getLetterName(), 
@@ -1493,7 +2521,7 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                     }
                     else
                     {
-                        System.out.printf(sdf.format(System.currentTimeMillis()) +
+                        context.getConsole().printf(sdf.format(System.currentTimeMillis()) +
                             "\tAs person %d enters elevator %c%d, he notices the "
                                 + "button for floor %d is already a destination\n", 
                             person.getSerialNumber(),
@@ -1501,53 +2529,100 @@ public class Entity_WorkingElevator implements Interface_Elevator, Runnable {
                             getSerialNumber(), 
                             person.getIntendedDestination());
                     }
-                }
-                else if(person.getIntendedDirection() == getDirection() 
-                        && getPassengerList().size() == getMaxPersonsPerElevator())
-                {
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
-                            + "\tPerson %d on floor %d is frustrated with "
-                            + "elevator %c%d\n\t\tbecause it has opened on his "
-                            + "floor but it now is too full\n\t\tof people.\n", 
-                            person.getSerialNumber(),
-                            getCurrentFloor(),
-                            getLetterName(), 
-                            getSerialNumber()
-                    );  
                     
+                    person.markEnterElevatorTime();
+                    focusFloor.getPersonsDeparted().add(person.getWaitTime());
                 }
-                else if(person.getIntendedDirection() != getDirection())
-                {
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
-                            + "\tPerson %d on floor %d is frustrated with "
-                            + "elevator %c%d \n\t\tbecause it has opened on his "
-                            + "floor but it is going\n\t\tin the wrong direction. "
-                            + "Person %d wants to go %s to floor %d\n", 
-                            person.getSerialNumber(),
-                            getCurrentFloor(),
-                            getLetterName(), 
-                            getSerialNumber(), 
-                            person.getSerialNumber(),
-                            (person.getIntendedDirection() == 1 ? "up" : "down"),
-                            person.getIntendedDestination()
-                    );  
-                }
-            }
+                
+                // those left waiting in front of the last to board move 
+                // back into the gaps, so the queue is put right in one pass
+                if(boarding != null)
+                    boarding.removeAll(boardedPlaces, boarded);
+                
+                focusFloor.printFrustrated(this, boarding);
             
-            // clean up and remove all the people 
-            // that were previous marked for removal
-            for(Interface_Person person: tempRemovalList)
-            {
-                int indexOfPersonToRemove = examineFloorList.indexOf(person);
-                examineFloorList.remove(indexOfPersonToRemove);
-                person.markEnterElevatorTime();
-                focusFloor.getPersonsDeparted().add(person.getWaitTime());
+                // the floor goes quiet once the last person waiting there boards
+                if(boarded > 0 && focusFloor.getNumberOfWaitingPeopleCurrentlyOnFloor() == 0)
+                    context.getSimulation().getDrainBarrier().signal();
             }
         }
         
         return newPassengerRequests;
     }
     
+    /**
+     * Returns whether a person on the current floor would take this elevator.
+     * A person told at a destination kiosk to take another elevator waits 
+     * for it, unless it is no longer coming to the floor
+     * 
+     * @since Version 1.0
+     * @see Interface_Person#getAssignedElevator()
+     * @param person the person waiting on the current floor
+     * @return a boolean that is true if the person would take this elevator
+     */
+    private boolean isWaitingFor(Interface_Person person) {
+        
+        int assigned = person.getAssignedElevator();
+        List<Interface_Elevator> eList = context.getBuilding().getElevatorList();
+        
+        if(assigned == 0 || assigned == getSerialNumber() || assigned > eList.size())
+            return true;
+        
+        Interface_Elevator other = eList.get(assigned - 1);
+        
+        return !(other.isStoppingAt(getCurrentFloor())
+                    || (other.getCurrentFloor() == getCurrentFloor() 
+                            && other.getDoorsAreOpen()));
+    }
+    
+    /**
+     * Returns the first person on a floor who would take this elevator, or 
+     * the first person on the floor if there is none
+     * 
+     * @since Version 1.0
+     * @see #isWaitingFor(Interface_Person)
+     * @param floor the floor the elevator is on, with people waiting on it
+     * @return the Interface_Person whose direction the elevator takes
+     */
+    private Interface_Person findFirstWaitingPerson(Interface_Floor floor) {
+        
+        synchronized(floor)
+        {
+            Entity_WaitingQueue up = floor.getWaitingQueue(1);
+            Entity_WaitingQueue down = floor.getWaitingQueue(-1);
+            int u = 0;
+            int d = 0;
+            
+            // step through the two queues in the order people arrived
+            while(u < up.size() || d < down.size())
+            {
+                Interface_Person person;
+                
+                if(d == down.size() 
+                        || (u < up.size() && up.getArrival(u) < down.getArrival(d)))
+                    person = up.get(u++);
+                else
+                    person = down.get(d++);
+                
+                if(isWaitingFor(person))
+                    return person;
+            }
+            
+            return floor.findPersonIndexInWaitingList(0);
+        }
+    }
+    
+    /**
+     * Returns the number of times the elevator has opened its doors on a floor
+     * 
+     * @since Version 1.0
+     * @see #stopCount
+     * @return a long count of stops
+     */
+    public long getStopCount() {
+        return stopCount;
+    }
+    
     /**
      * Returns the constant integer for the door opening time.
      * 
@@ -3,7 +3,6 @@ package ver3;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.TreeMap;
 import ver3.project_exceptions.IllegalDirectionException;
 import ver3.project_exceptions.IllegalElevatorException;
@@ -43,15 +42,33 @@ public class Entity_WorkingFloor implements Interface_Floor {
     private Interface_Callbox cBox;
 
     /**
-    * The floor's serial number with regard to height.
+    * The people waiting on the floor to go up, first come first served
     * 
     * @since Version 1.0
-    * @see #peopleOnFloor
+    * @see #getWaitingQueue(int)
     * @see #getPeopleOnFloorList() 
     * @see #sendPassengersToElevator(int elevator) 
     */
-    private ArrayList <Interface_Person> peopleOnFloor 
-            = new ArrayList <Interface_Person>();
+    private Entity_WaitingQueue upQueue = new Entity_WaitingQueue();
+
+    /**
+    * The people waiting on the floor to go down, first come first served
+    * 
+    * @since Version 1.0
+    * @see #getWaitingQueue(int)
+    * @see #getPeopleOnFloorList() 
+    * @see #sendPassengersToElevator(int elevator) 
+    */
+    private Entity_WaitingQueue downQueue = new Entity_WaitingQueue();
+
+    /**
+    * The number of people who have arrived on the floor, used to stamp each 
+    * of them with the order they arrived in
+    * 
+    * @since Version 1.0
+    * @see #addPersonToFloor(Interface_Person)
+    */
+    private long arrivalCount = 0;
 
     /**
     * The floor's serial list of people who have exited on that floor
@@ -78,12 +95,22 @@ public class Entity_WorkingFloor implements Interface_Floor {
         = new ArrayList <Double>();
     
     /**
-    * A static int used to label the floor number.
-    *
+    * The people waiting to arrive on the floor at the next lockstep tick
+    * 
     * @since Version 1.0
-    * @see #Entity_WorkingFloor()
-    */
-    private static int floorCount = 0;
+    * @see #addArrivingPerson(Interface_Person)
+    * @see #step(long)
+    */    
+    private ArrayList <Interface_Person> peopleArriving 
+        = new ArrayList <Interface_Person>();
+    
+    /**
+     * The simulation context this floor belongs to
+     * 
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
     
     /**
      * This variable SimpleDateFormat simply sets the format of our date and time
@@ -101,16 +128,18 @@ public class Entity_WorkingFloor implements Interface_Floor {
      * @see #setFloorNumber(int)
      * @since Version 1.0
      */
-    public Entity_WorkingFloor() {
+    public Entity_WorkingFloor(Entity_SimulationContext c) {
+        
+        context = c;
         
         try
         {
-            setFloorNumber(++floorCount);
+            setFloorNumber(context.nextFloorNumber());
         } catch (IllegalFloorException ex) {
             ex.printStackTrace();
         }
         
-        setcBox(Fact_CallboxFactory.build(getFloorNumber()));
+        setcBox(Fact_CallboxFactory.build(context, getFloorNumber()));
         
     }
 
@@ -137,14 +166,72 @@ public class Entity_WorkingFloor implements Interface_Floor {
     } 
     
     /**
-     * Returns the current list of people on the floor
+     * Returns the current list of people on the floor, in the order they 
+     * arrived. The list is a copy; people join and leave the floor through 
+     * its waiting queues
      * 
      * @since Version 1.0
-     * @see #peopleOnFloor
+     * @see #upQueue
+     * @see #downQueue
      * @return floor's collection of people currently on the floor
      */
-    public ArrayList<Interface_Person> getPeopleOnFloorList() {
-        return peopleOnFloor;
+    public synchronized ArrayList<Interface_Person> getPeopleOnFloorList() {
+        
+        ArrayList<Interface_Person> waiting 
+                = new ArrayList<Interface_Person>(upQueue.size() + downQueue.size());
+        
+        int u = 0;
+        int d = 0;
+        
+        // the two queues are each in arrival order, so merge them
+        while(u < upQueue.size() || d < downQueue.size())
+        {
+            if(d == downQueue.size() 
+                    || (u < upQueue.size() 
+                            && upQueue.getArrival(u) < downQueue.getArrival(d)))
+                waiting.add(upQueue.get(u++));
+            else
+                waiting.add(downQueue.get(d++));
+        }
+        
+        return waiting;
+    }
+    
+    /**
+     * Returns the queue of people waiting on the floor to go one way. The 
+     * floor must be held while the queue is read or changed
+     * 
+     * @since Version 1.0
+     * @see #upQueue
+     * @see #downQueue
+     * @param direction 1 for up and -1 for down
+     * @return the Entity_WaitingQueue for that direction, or null for any
+     *         other direction
+     */
+    public Entity_WaitingQueue getWaitingQueue(int direction) {
+        
+        if(direction == 1)
+            return upQueue;
+        
+        if(direction == -1)
+            return downQueue;
+        
+        return null;
+    }
+    
+    /**
+     * Returns the number of people waiting on the floor to go one way
+     * 
+     * @since Version 1.0
+     * @see #getWaitingQueue(int)
+     * @param direction 1 for up and -1 for down
+     * @return an int count of people, zero for any other direction
+     */
+    public synchronized int getNumberOfWaitingPeople(int direction) {
+        
+        Entity_WaitingQueue queue = getWaitingQueue(direction);
+        
+        return (queue == null ? 0 : queue.size());
     }
     
     /**
@@ -173,15 +260,82 @@ public class Entity_WorkingFloor implements Interface_Floor {
     }
     
     /**
-     * Adds a person to the floor
+     * Adds a person to the back of the queue for the way they are going and 
+     * counts their arrival in the simulation's demand forecast
      * 
      * @since Version 1.0
-     * @see #getPeopleOnFloorList()
+     * @see #getWaitingQueue(int)
+     * @see Entity_DemandForecast#recordArrival(int)
      */
     public void addPersonToFloor(Interface_Person theGuy){
         
-        getPeopleOnFloorList().add(theGuy);
+        // an elevator may be boarding from the queues on its own thread
+        synchronized(this)
+        {
+            if(theGuy.getIntendedDirection() == -1)
+                downQueue.offer(theGuy, ++arrivalCount);
+            else
+                upQueue.offer(theGuy, ++arrivalCount);
+        }
+        
+        Entity_DemandForecast forecast = context.getSimulation().getDemandForecast();
+        
+        if(forecast != null)
+        {
+            try {
+                forecast.recordArrival(getFloorNumber());
+            } catch (IllegalFloorException ex) {
+                ex.printStackTrace();
+            }
+        }
+        
+    }
+    
+    /**
+     * Queues a person to arrive on the floor at the next lockstep tick
+     * 
+     * @since Version 1.0
+     * @see #peopleArriving
+     * @see #step(long)
+     */
+    public void addArrivingPerson(Interface_Person theGuy){
+        
+        peopleArriving.add(theGuy);
+        
+    }
+    
+    /**
+     * Returns the number of people queued to arrive at the next lockstep tick
+     * 
+     * @since Version 1.0
+     * @see #peopleArriving
+     * @return an int which is the amount of people yet to arrive
+     */
+    public int getNumberOfArrivingPeople(){
+        return peopleArriving.size();
+    }
+    
+    /**
+     * Lets everyone queued to arrive onto the floor, in the order they were 
+     * queued, and then has each of them press the callbox for their direction
+     * 
+     * @since Version 1.0
+     * @see #peopleArriving
+     * @see #addPersonToFloor(Interface_Person)
+     */
+    public void step(long tick){
+        
+        if(peopleArriving.isEmpty())
+            return;
+        
+        ArrayList<Interface_Person> arrivals = peopleArriving;
+        peopleArriving = new ArrayList<Interface_Person>();
         
+        for(Interface_Person theGuy : arrivals)
+            addPersonToFloor(theGuy);
+        
+        for(Interface_Person theGuy : arrivals)
+            theGuy.pressCallbox();
     }
     
     /**
@@ -194,7 +348,7 @@ public class Entity_WorkingFloor implements Interface_Floor {
     public TreeMap<Integer, Interface_Person> sendPassengersToElevator(int elevator) 
                                                 throws IllegalElevatorException {
         
-        if(elevator < 0 || elevator > Singl_WorkingSimulation.getInstance().getNumberOfElevators())
+        if(elevator < 0 || elevator > context.getSimulation().getNumberOfElevators())
             throw new IllegalElevatorException("Invalid number of elevators "
                                                        + "encountered: " + elevator);
         
@@ -204,118 +358,128 @@ public class Entity_WorkingFloor implements Interface_Floor {
         
         
         // acknowledge elevator you're sending passengers to
-        Interface_Elevator focusElevator = Singl_WorkingBuilding.getInstance()
+        Interface_Elevator focusElevator = context.getBuilding()
                                             .getElevatorList().get(elevator);
         
         
         // recognize max allowed people on elevator
-        int maxPeople = Singl_WorkingSimulation.getInstance().getMaxPersonsPerElevator();
+        int maxPeople = context.getSimulation().getMaxPersonsPerElevator();
         
         
         // allow any passengers on the floor to enter elevator 
         // if they wish (match direction)
-        if(focusElevator.getPassengerList().size() < maxPeople)
+        synchronized(this)
         {
+            Entity_WaitingQueue boarding = getWaitingQueue(focusElevator.getDirection());
+            boolean boarded = false;
             
-            // this list is used to remove people from the 
-            // floor list after they've entered elevator
-            List <Interface_Person> tempRemovalList = new ArrayList <Interface_Person>();
+            // an elevator on a thread of its own takes people on board once
+            // its thread gets to them, so the room left is counted here
+            int room = maxPeople - focusElevator.getPassengerList().size();
             
-            for(Interface_Person person : getPeopleOnFloorList())
-            {                
-                // if the person intends to go in the same direction as the elevator
-                // then they will enter the elevator
-                if(person.getIntendedDirection() == focusElevator.getDirection() 
-                        && focusElevator.getPassengerList().size() < maxPeople)
-                {
-                    // we mark the person for removal from the floor's list of people and we
-                    // use a temparraylist so we're not pulling up boards as we walk on bridge
-                    tempRemovalList.add(person);
-                    
-                    // person enters elevator
-                    focusElevator.addToPassengerList(person);
-                    
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
-                            + "\tPerson %d is now entering elevator %c%d floor %d.\n", 
-                            person.getSerialNumber(),
-                            focusElevator.getLetterName(), 
-                            focusElevator.getSerialNumber(),
-                            focusElevator.getCurrentFloor()
-                    );              
-                    
-                    
-                    // collect requests from new passengers
-                    // if the floor has not yet been pressed in the elevator, then add to 
-                    // the newPassengerRequests list that will be processed below
-                    if(!focusElevator.getDestinationList().contains(person.getIntendedDestination())
-                            && !newPassengerRequests.containsKey(person.getIntendedDestination())
-                            )
-                    {
-                        System.out.printf(sdf.format(System.currentTimeMillis())
-                        + "\tNow that he is in the elevator %c%d, person %d "
-                        + "presses the button for floor %d\n", 
+            // only the people going the elevator's way are looked at, from the
+            // front of their queue, so boarding takes time for those who board
+            while(boarding != null && !boarding.isEmpty() && room > 0)
+            {
+                Interface_Person person = boarding.poll();
+                boarded = true;
+                --room;
+                
+                // person enters elevator
+                focusElevator.addToPassengerList(person);
+                
+                context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                        + "\tPerson %d is now entering elevator %c%d floor %d.\n", 
+                        person.getSerialNumber(),
                         focusElevator.getLetterName(), 
                         focusElevator.getSerialNumber(),
-                        person.getSerialNumber(), 
-                        person.getIntendedDestination());
-
-                        newPassengerRequests.put(person.getIntendedDestination(), person);
-                    }
-                    else
-                    {
-                        System.out.printf(sdf.format(System.currentTimeMillis()) +
-                            "\tAs person %d enters elevator %c%d, he notices the "
-                                + "button for floor %d is already a destination\n", 
-                            person.getSerialNumber(),
-                            focusElevator.getLetterName(), 
-                            focusElevator.getSerialNumber(), 
-                            person.getIntendedDestination());
-                    }
-                }
-                else if(person.getIntendedDirection() == focusElevator.getDirection() 
-                        && focusElevator.getPassengerList().size() == maxPeople)
+                        focusElevator.getCurrentFloor()
+                );              
+                
+                
+                // collect requests from new passengers
+                // if the floor has not yet been pressed in the elevator, then add to 
+                // the newPassengerRequests list that will be processed below
+                if(!focusElevator.isStoppingAt(person.getIntendedDestination())
+                        && !newPassengerRequests.containsKey(person.getIntendedDestination())
+                        )
                 {
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
-                            + "\tPerson %d on floor %d is frustrated with "
-                            + "elevator %c%d\n\t\tbecause it has opened on his "
-                            + "floor but it now is too full\n\t\tof people.\n", 
-                            person.getSerialNumber(),
-                            focusElevator.getCurrentFloor(),
-                            focusElevator.getLetterName(), 
-                            focusElevator.getSerialNumber()
-                    );  
-                    
+                    context.getConsole().printf(sdf.format(System.currentTimeMillis())
+                    + "\tNow that he is in the elevator %c%d, person %d "
+                    + "presses the button for floor %d\n", 
+                    focusElevator.getLetterName(), 
+                    focusElevator.getSerialNumber(),
+                    person.getSerialNumber(), 
+                    person.getIntendedDestination());
+
+                    newPassengerRequests.put(person.getIntendedDestination(), person);
                 }
-                else if(person.getIntendedDirection() != focusElevator.getDirection())
+                else
                 {
-                    System.out.printf(sdf.format(System.currentTimeMillis()) 
-                            + "\tPerson %d on floor %d is frustrated with "
-                            + "elevator %c%d \n\t\tbecause it has opened on his "
-                            + "floor but it is going\n\t\tin the wrong direction. "
-                            + "Person %d wants to go %s to floor %d\n", 
-                            person.getSerialNumber(),
-                            focusElevator.getCurrentFloor(),
-                            focusElevator.getLetterName(), 
-                            focusElevator.getSerialNumber(), 
-                            person.getSerialNumber(),
-                            (person.getIntendedDirection() == 1 ? "up" : "down"),
-                            person.getIntendedDestination()
-                    );  
+                    context.getConsole().printf(sdf.format(System.currentTimeMillis()) +
+                        "\tAs person %d enters elevator %c%d, he notices the "
+                            + "button for floor %d is already a destination\n", 
+                        person.getSerialNumber(),
+                        focusElevator.getLetterName(), 
+                        focusElevator.getSerialNumber(), 
+                        person.getIntendedDestination());
                 }
             }
             
-            // clean up and remove all the people 
-            // that were previous marked for removal
-            for(Interface_Person person: tempRemovalList)
-            {
-                int indexOfPersonToRemove = getPeopleOnFloorList().indexOf(person);
-                getPeopleOnFloorList().remove(indexOfPersonToRemove);
-            }
+            printFrustrated(focusElevator, boarding);
+            
+            // the floor goes quiet once the last person waiting here leaves
+            if(boarded && upQueue.isEmpty() && downQueue.isEmpty())
+                context.getSimulation().getDrainBarrier().signal();
         }
         
         return newPassengerRequests;
     }
     
+    /**
+     * Tells the console about the people an elevator has opened its doors to
+     * and left behind, once for each reason rather than once for each person
+     * 
+     * @since Version 1.0
+     * @see #sendPassengersToElevator(int)
+     * @param elevator the elevator that has opened its doors on the floor
+     * @param boarding the queue that boarded, or null if nobody could
+     */
+    public synchronized void printFrustrated(Interface_Elevator elevator, 
+                                                Entity_WaitingQueue boarding){
+        
+        if(boarding != null && !boarding.isEmpty()
+                && elevator.getPassengerList().size() 
+                        >= context.getSimulation().getMaxPersonsPerElevator())
+        {
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                    + "\t%d people on floor %d are frustrated with "
+                    + "elevator %c%d\n\t\tbecause it has opened on their "
+                    + "floor but it now is too full\n\t\tof people.\n", 
+                    boarding.size(),
+                    getFloorNumber(),
+                    elevator.getLetterName(), 
+                    elevator.getSerialNumber()
+            );  
+        }
+        
+        int wrongWay = (boarding == upQueue ? 0 : upQueue.size())
+                            + (boarding == downQueue ? 0 : downQueue.size());
+        
+        if(wrongWay > 0)
+        {
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
+                    + "\t%d people on floor %d are frustrated with "
+                    + "elevator %c%d \n\t\tbecause it has opened on their "
+                    + "floor but it is going\n\t\tin the wrong direction.\n", 
+                    wrongWay,
+                    getFloorNumber(),
+                    elevator.getLetterName(), 
+                    elevator.getSerialNumber()
+            );  
+        }
+    }
+    
     /**
      * This method iterates through each floor and checks
      * whether there are any people still waiting on the floor
@@ -343,6 +507,8 @@ public class Entity_WorkingFloor implements Interface_Floor {
         boolean ignoredUpCovered = false;
         boolean ignoredDownCovered = false;
 
+        // a copy in arrival order, as picking may send an elevator that 
+        // boards from the queues on its own thread
         for(Interface_Person guy : getPeopleOnFloorList())
         {
             // is their callbox button lit? 
@@ -366,7 +532,7 @@ public class Entity_WorkingFloor implements Interface_Floor {
                     && ignoredUpCovered == false)
             {
                 try {
-                    Singl_WorkingController.getInstance().pick(getFloorNumber(), 1);
+                    context.getController().pick(getFloorNumber(), 1);
                 } catch (IllegalDirectionException ex) {
                     ex.printStackTrace();
                 }catch (IllegalFloorException ex) {
@@ -380,7 +546,7 @@ public class Entity_WorkingFloor implements Interface_Floor {
                     && ignoredDownCovered == false)
             {
                 try {
-                    Singl_WorkingController.getInstance().pick(getFloorNumber(), -1);
+                    context.getController().pick(getFloorNumber(), -1);
                 } catch (IllegalFloorException ex) {
                     ex.printStackTrace();
                 } catch (IllegalDirectionException ex) {
@@ -402,8 +568,8 @@ public class Entity_WorkingFloor implements Interface_Floor {
      * @see #getPeopleOnFloorList()
      * @return an int which is the amount of people on the floor list
      */
-    public int getNumberOfWaitingPeopleCurrentlyOnFloor(){
-        return getPeopleOnFloorList().size();
+    public synchronized int getNumberOfWaitingPeopleCurrentlyOnFloor(){
+        return upQueue.size() + downQueue.size();
     }
     
     /**
@@ -495,14 +661,38 @@ public class Entity_WorkingFloor implements Interface_Floor {
     }
     
     /**
-     * Locates a particular person in the floor's people list by index
+     * Locates a particular person in the floor's people list by index, the 
+     * people being in the order they arrived
      * 
      * @since Version 1.0
-     * @see #getcBox()
+     * @see #getPeopleOnFloorList()
      * @param int pIndex
      */
-    public Interface_Person findPersonIndexInWaitingList(int pIndex){
-        return getPeopleOnFloorList().get(pIndex);
+    public synchronized Interface_Person findPersonIndexInWaitingList(int pIndex){
+        
+        if(pIndex < 0 || pIndex >= upQueue.size() + downQueue.size())
+            throw new IndexOutOfBoundsException("Index: " + pIndex + ", Size: " 
+                                        + (upQueue.size() + downQueue.size()));
+        
+        int u = 0;
+        int d = 0;
+        
+        // step through the two queues in arrival order until pIndex people
+        // have been passed
+        while(true)
+        {
+            boolean takeUp = d == downQueue.size() 
+                    || (u < upQueue.size() 
+                            && upQueue.getArrival(u) < downQueue.getArrival(d));
+            
+            if(u + d == pIndex)
+                return takeUp ? upQueue.get(u) : downQueue.get(d);
+            
+            if(takeUp)
+                ++u;
+            else
+                ++d;
+        }
     }
     
     /**
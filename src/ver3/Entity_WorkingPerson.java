@@ -45,13 +45,11 @@ public class Entity_WorkingPerson implements Interface_Person {
      */
     private int serialNumber;
     /*
-     * serialCount is a static integer that repsents the number of people created with serial numbers.
-     * It is static because it is a global count for all people, incremented each time a new person
-     * is created.
+     * context is the simulation context the person belongs to. It hands out the
+     * person's serial number and supplies the simulation's clock.
      * @since Version 1.0
      */
-    private static int serialCount = 0; // static so we can use number to assign 
-                                        // serial number to person object
+    private Entity_SimulationContext context;
     /*
      * startOnFloorTime is a long number that represents the starting time when the person requests their
      * elevator.
@@ -68,14 +66,21 @@ public class Entity_WorkingPerson implements Interface_Person {
      * @since Version 1.0
      */
     private long arrivalTime;
+    /*
+     * assignedElevator is an integer that represents the serial number of the elevator the person
+     * was told to take at a destination kiosk, or zero if any elevator going their way will do.
+     * @since Version 1.0
+     */
+    private volatile int assignedElevator;
 
     /*
      * This is the public constructor for the class Entity_WorkingPerson.  It takes parameters
-     * cF and iD, cF is an integer that represents the starting floor and iD is an integer that
-     * represents the intended destination floor.
-     * @param cF, iD
+     * c, cF and iD, c is the simulation context the person belongs to, cF is an integer that 
+     * represents the starting floor and iD is an integer that represents the intended 
+     * destination floor.
+     * @param c, cF, iD
      * @see #setSerialNumber
-     * @see #serialCount
+     * @see Entity_SimulationContext#nextPersonSerialNumber()
      * @see #setStartFloor
      * @see #setIntendedDestination
      * @see #setIntendedDirection
@@ -83,15 +88,17 @@ public class Entity_WorkingPerson implements Interface_Person {
      * @see #getIntendedDestination
      * @since Version 1.0
      */
-    public Entity_WorkingPerson(int cF, int iD) {
+    public Entity_WorkingPerson(Entity_SimulationContext c, int cF, int iD) {
 
+        context = c;
+        
         try{
-            setSerialNumber(++serialCount); // set first then increments
+            setSerialNumber(context.nextPersonSerialNumber());
             setStartFloor(cF);
             setIntendedDestination(iD);
             setIntendedDirection();
-            setStartOnFloorTime(System.currentTimeMillis());
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\tA new " 
+            setStartOnFloorTime(context.getSimulation().getCurrentTime());
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\tA new " 
                         + "person #" + getSerialNumber() + " has been created and "
                         + "placed on floor #" + getStartFloor()
                         + " - This person wants to go to floor " 
@@ -112,6 +119,13 @@ public class Entity_WorkingPerson implements Interface_Person {
      */
     public void pressCallbox(){
         
+        // a destination kiosk takes the floor itself instead of a direction
+        if(context.getController().isDestinationDispatch())
+        {
+            enterDestination();
+            return;
+        }
+        
         int myDir;
         if(getIntendedDestination() > getStartFloor())
             myDir = 1;
@@ -120,7 +134,7 @@ public class Entity_WorkingPerson implements Interface_Person {
         
         try
         {
-            Interface_Callbox myCallbox = Singl_WorkingBuilding.getInstance()
+            Interface_Callbox myCallbox = context.getBuilding()
                                             .getFloorList()
                                             .get(getStartFloor() - 1)
                                             .getcBox();
@@ -128,7 +142,7 @@ public class Entity_WorkingPerson implements Interface_Person {
             // make sure my intended (direction) button is not already pressed
             if(myDir == 1 && myCallbox.getUpButton() == false)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "Person #" + getSerialNumber() 
                         + " presses callbox " + (myDir == 1 ? "up" : "down") 
                         + " button on floor #" + getStartFloor());
@@ -136,7 +150,7 @@ public class Entity_WorkingPerson implements Interface_Person {
             }
             else if(myDir == 1 && myCallbox.getUpButton() == true)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "Person #" + getSerialNumber() + " wants to press callbox " 
                         + (myDir == 1 ? "up" : "down") 
                         + " button on floor #" + getStartFloor()
@@ -145,7 +159,7 @@ public class Entity_WorkingPerson implements Interface_Person {
 
             if(myDir == -1 && myCallbox.getDownButton() == false)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) 
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) 
                         + "\tPerson #" + getSerialNumber() + " presses callbox " 
                         + (myDir == 1 ? "up" : "down") 
                         + " button on floor #" + getStartFloor());
@@ -153,7 +167,7 @@ public class Entity_WorkingPerson implements Interface_Person {
             }
             else if(myDir == -1 && myCallbox.getDownButton() == true)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\t"
                         + "Person #" + getSerialNumber() 
                         + " wants to press callbox " + (myDir == 1 ? "up" : "down") 
                         + " button on floor #" + getStartFloor()
@@ -162,12 +176,51 @@ public class Entity_WorkingPerson implements Interface_Person {
         } catch (IllegalDirectionException ex) {
             ex.printStackTrace();
         } catch(IndexOutOfBoundsException ex) {
-            System.out.printf("Error occurred while trying to get index %d of "
+            context.getConsole().printf("Error occurred while trying to get index %d of "
                     + "floor inside pressCallbox() method: %s\n", 
                     ex.getMessage(), (getStartFloor() - 1));
         } 
     }
 
+    /*
+     * This method keys the person's intended destination into the kiosk on their floor. The
+     * controller tells them which elevator to take, and the callbox button for their direction
+     * is lit as it would be in the up/down modes, so elevators still know which way the floor's
+     * waiting people are headed.
+     * @see #pressCallbox
+     * @see Singl_WorkingController#pickDestination(Interface_Person)
+     * @since Version 1.0
+     */
+    private void enterDestination(){
+        
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) + "	"
+                + "Person #" + getSerialNumber() + " keys floor #" 
+                + getIntendedDestination() + " into the kiosk on floor #" + getStartFloor());
+        
+        try
+        {
+            context.getController().pickDestination(this);
+            
+            Interface_Callbox myCallbox = context.getBuilding()
+                                            .getFloorList()
+                                            .get(getStartFloor() - 1)
+                                            .getcBox();
+            
+            if(getIntendedDirection() == 1 && myCallbox.getUpButton() == false)
+                myCallbox.setUpButton(true);
+            else if(getIntendedDirection() == -1 && myCallbox.getDownButton() == false)
+                myCallbox.setDownButton(true);
+        } catch (IllegalDirectionException ex) {
+            ex.printStackTrace();
+        } catch (IllegalFloorException ex) {
+            ex.printStackTrace();
+        } catch(IndexOutOfBoundsException ex) {
+            context.getConsole().printf("Error occurred while trying to get index %d of "
+                    + "floor inside enterDestination() method: %s\n", 
+                    (getStartFloor() - 1), ex.getMessage());
+        }
+    }
+
     /*
      * This method returns the floor that the person started on represented as an integer.
      * @return int which is the floor that the person will start his journey
@@ -210,28 +263,28 @@ public class Entity_WorkingPerson implements Interface_Person {
 
     /*
      * This method marks the arrival time (when the person requests the elevator)
-     * using the current system time.
+     * using the current simulation time.
      * @see #setArrivalTime
      * @since Version 1.0
      */
     public void markArrivalTime(){
         
         try {
-            setArrivalTime(System.currentTimeMillis());
+            setArrivalTime(context.getSimulation().getCurrentTime());
         } catch (IllegalSimulationException ex) {
             ex.printStackTrace();
         } 
     }
     
     /*
-     * This method marks the time that the person enters their elevator using the current system time.
+     * This method marks the time that the person enters their elevator using the current simulation time.
      * @see #setEnterElevatorTime
      * @since Version 1.0
      */
     public void markEnterElevatorTime(){
         
         try {
-            setEnterElevatorTime(System.currentTimeMillis());
+            setEnterElevatorTime(context.getSimulation().getCurrentTime());
         } catch (IllegalElevatorException ex) {
             ex.printStackTrace();
         } 
@@ -248,9 +301,8 @@ public class Entity_WorkingPerson implements Interface_Person {
         
         double difference = (getEnterElevatorTime() - getStartOnFloorTime());
         
-        int timeScale = Singl_WorkingSimulation.getInstance().getTimeScaleFactor();        
-        
-        double adjusted = (difference / 1000) * timeScale;
+        // timestamps are already in simulated milliseconds
+        double adjusted = difference / 1000;
         
         return adjusted;
     }
@@ -265,14 +317,35 @@ public class Entity_WorkingPerson implements Interface_Person {
         
         double difference = (getArrivalTime() - getEnterElevatorTime());
         
-        int timeScale = Singl_WorkingSimulation.getInstance().getTimeScaleFactor();        
-        
-        double adjusted = (difference / 1000) * timeScale;
+        // timestamps are already in simulated milliseconds
+        double adjusted = difference / 1000;
         
         return adjusted;
     }
 
     
+    /*
+     * This method returns the serial number of the elevator the person was told
+     * to take when keying in their destination, or zero if any elevator will do.
+     * @return int which represents the serial number of the assigned elevator
+     * @see #assignedElevator
+     * @since Version 1.0
+     */
+    public int getAssignedElevator() {
+        return assignedElevator;
+    }
+
+    /*
+     * This method sets the serial number of the elevator the person is told to
+     * take, or zero if any elevator will do.
+     * @param serial the serial number of the assigned elevator
+     * @see #assignedElevator
+     * @since Version 1.0
+     */
+    public void setAssignedElevator(int serial) {
+        assignedElevator = serial;
+    }
+
     /*
      * This method returns the time the person left the elevator at represented as a long.
      * @see #arrivalTime
@@ -317,8 +390,8 @@ public class Entity_WorkingPerson implements Interface_Person {
     private void setIntendedDirection() throws IllegalFloorException {
         
         if(getIntendedDestination() < 0 
-                || getIntendedDestination() > Singl_WorkingSimulation
-                                                           .getInstance()
+                || getIntendedDestination() > context
+                                                           .getSimulation()
                                                            .getNumberOfFloors())
         {
             throw new IllegalFloorException("While setting person intended direction"
@@ -326,7 +399,7 @@ public class Entity_WorkingPerson implements Interface_Person {
                     + getIntendedDestination());
         }
         else if(getStartFloor() < 0 
-                || getStartFloor() > Singl_WorkingSimulation.getInstance()
+                || getStartFloor() > context.getSimulation()
                                                            .getNumberOfFloors())
         {
             throw new IllegalFloorException("While setting person intended direction"
@@ -374,7 +447,7 @@ public class Entity_WorkingPerson implements Interface_Person {
      */
     private void setIntendedDestination(int iD) throws IllegalFloorException {
         
-        if(iD < 0 || iD > Singl_WorkingSimulation.getInstance().getNumberOfFloors())
+        if(iD < 0 || iD > context.getSimulation().getNumberOfFloors())
             throw new IllegalFloorException("Invalid intended destination "
                                                  + " floor encountered: " + iD);
         else
@@ -390,7 +463,7 @@ public class Entity_WorkingPerson implements Interface_Person {
      */
     private void setStartFloor(int sF) throws IllegalFloorException {
         
-        if(sF < 0 || sF > Singl_WorkingSimulation.getInstance().getNumberOfFloors())
+        if(sF < 0 || sF > context.getSimulation().getNumberOfFloors())
             throw new IllegalFloorException("Invalid start floor encountered: " + sF);
         else
             startFloor = sF;
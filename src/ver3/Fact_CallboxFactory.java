@@ -17,12 +17,13 @@ public class Fact_CallboxFactory {
     
     /*
      * This method builds the callbox entity given an integer representing the floor that owns it.
+     * @param context
      * @param flr
      * @since Version 1.0
      */
-    public static Interface_Callbox build(int flr) {
+    public static Interface_Callbox build(Entity_SimulationContext context, int flr) {
         // will not be a conditional here bc we are only making one 
         // kind of callbox
-        return new Entity_WorkingCallbox(flr);
+        return new Entity_WorkingCallbox(context, flr);
     }
 }
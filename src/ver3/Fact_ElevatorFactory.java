@@ -30,12 +30,13 @@ public class Fact_ElevatorFactory {
      * 
      * @since Version 1.0
      * @return Interface_Elevator so that invoker codes to interface
+     * @param context the simulation context the elevator belongs to
      */
-    public static Interface_Elevator build() {
+    public static Interface_Elevator build(Entity_SimulationContext context) {
         
         // will not be a conditional here bc we are only making one 
         // kind of elevator
-        return new Entity_WorkingElevator();
+        return new Entity_WorkingElevator(context);
         
         
     }
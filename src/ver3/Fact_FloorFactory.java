@@ -28,11 +28,12 @@ public class Fact_FloorFactory {
      * 
      * @since Version 1.0
      * @return Interface_Floor so that invoker codes to interface
+     * @param context the simulation context the floor belongs to
      */
-    public static Interface_Floor build() {
+    public static Interface_Floor build(Entity_SimulationContext context) {
         // will not be a conditional here bc we are only making one 
         // kind of floor
-        return new Entity_WorkingFloor();
+        return new Entity_WorkingFloor(context);
     }
     
 }
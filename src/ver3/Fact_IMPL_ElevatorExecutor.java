@@ -0,0 +1,39 @@
+package ver3;
+
+/**
+ * This is a factory that creates a new Elevator Executor implementation
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ */
+public class Fact_IMPL_ElevatorExecutor {
+    
+    /*
+     * This is a private constructor for the Impl Elevator Executor Factory.
+     * This is designed to be private so a new factory cannot be instantiated.
+     * @since Version 1.0
+     */
+    private Fact_IMPL_ElevatorExecutor() {
+        //private constructor
+    }
+    
+    /*
+     * This is the build() function to create a new Implementation of the Elevator Executor.
+     * It takes the string parameter backend to determine if it should use virtual threads or not.
+     * @param backend
+     * @since Version 1.0
+     */
+    public static Interface_ElevatorExecutor build(String backend) {
+        
+        // conditional here so we know which backend to create
+        if(backend.equals("Virtual"))
+        {
+            return new IMPL_ElevatorExecutor_VIRTUAL();
+        }
+        else 
+        {
+            return new IMPL_ElevatorExecutor_PLATFORM();
+        }
+    }
+    
+}
@@ -19,20 +19,24 @@ public class Fact_IMPL_ElevatorPicker {
     
     /*
      * This is the build() function to create a new Implementation of the Elevator Picker.
-     * It takes the string parameter version to determine if it should use the original version or not.
-     * @param version
+     * It takes the string parameter version and builds the picker of the dispatch
+     * strategy registered under that name, or the improved one if there is none.
+     * @param context, version
      * @since Version 1.0
+     * @see Entity_DispatchStrategyRegistry#get(String)
      */
-    public static Interface_IMPL_ElevatorPicker build(String version) {
+    public static Interface_IMPL_ElevatorPicker build(Entity_SimulationContext context, String version) {
         
-        // conditional here so we know which version to create
-        if(version.equals("Original"))
+        Interface_DispatchStrategy strategy = Entity_DispatchStrategyRegistry.get(version);
+        
+        // the registry knows which version to create
+        if(strategy != null)
         {
-            return new IMPL_ElevatorPicker_PROVIDED();
+            return strategy.buildPicker(context);
         }
         else 
         {
-            return new IMPL_ElevatorPicker_IMPROVED();
+            return new IMPL_ElevatorPicker_IMPROVED(context);
         }
     }
     
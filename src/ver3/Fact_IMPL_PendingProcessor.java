@@ -19,20 +19,24 @@ public class Fact_IMPL_PendingProcessor {
     
     /*
      * This is the build() function to create a new Implementation of the PendingProcessor.
-     * It takes the string version as a parameter to determine if it should use the original version or not.
-     * @param version
+     * It takes the string version as a parameter and builds the pending processor of the
+     * dispatch strategy registered under that name, or the improved one if there is none.
+     * @param context, version
      * @since Version 1.0
+     * @see Entity_DispatchStrategyRegistry#get(String)
      */
-    public static Interface_IMPL_PendingProcessor build(String version) {
+    public static Interface_IMPL_PendingProcessor build(Entity_SimulationContext context, String version) {
         
-        // conditional here so we know which version to create
-        if(version.equals("Original"))
+        Interface_DispatchStrategy strategy = Entity_DispatchStrategyRegistry.get(version);
+        
+        // the registry knows which version to create
+        if(strategy != null)
         {
-            return new IMPL_PendingProcessor_PROVIDED();
+            return strategy.buildPendingProcessor(context);
         }
         else
         {
-            return new IMPL_PendingProcessor_IMPROVED();
+            return new IMPL_PendingProcessor_IMPROVED(context);
         }
     }
     
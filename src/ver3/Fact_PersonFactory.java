@@ -18,14 +18,15 @@ public class Fact_PersonFactory {
     /**
      * This method build a new WorkingPerson Entity.  It takes integers startFloor and intendedDestination
      * and builds the new person accordingly
+     * @param context
      * @param startFloor
      * @param intendedDestination
      * @return 
      * @since Version 1.0
      */
-    public static Interface_Person build(int startFloor, int intendedDestination) {
+    public static Interface_Person build(Entity_SimulationContext context, int startFloor, int intendedDestination) {
         
-        return new Entity_WorkingPerson(startFloor, intendedDestination);
+        return new Entity_WorkingPerson(context, startFloor, intendedDestination);
     }
     
 }
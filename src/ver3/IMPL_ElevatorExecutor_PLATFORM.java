@@ -0,0 +1,126 @@
+package ver3;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the original execution backend. It runs every elevator loop in its
+ * own platform thread, the same as the elevators always have
+ * 
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Interface_ElevatorExecutor
+ */
+public class IMPL_ElevatorExecutor_PLATFORM implements Interface_ElevatorExecutor {
+    
+    /**
+     * The number of threads this backend has started
+     * 
+     * @since Version 1.0
+     * @see #getThreadsStarted()
+     */
+    private AtomicLong threadsStarted = new AtomicLong();
+    
+    /**
+     * The number of wakeups recorded by this backend's threads
+     * 
+     * @since Version 1.0
+     * @see #recordWakeup()
+     * @see #getWakeups()
+     */
+    private AtomicLong wakeups = new AtomicLong();
+    
+    /**
+     * The number of wakeups that found no work, recorded by this backend's threads
+     * 
+     * @since Version 1.0
+     * @see #recordSpuriousWakeup()
+     * @see #getSpuriousWakeups()
+     */
+    private AtomicLong spuriousWakeups = new AtomicLong();
+    
+    /**
+     * This is the public constructor. It takes no parameters and simply acts as a stub
+     * @since Version 1.0
+     */
+    public IMPL_ElevatorExecutor_PLATFORM() {
+        
+    }
+    
+    /**
+     * Starts the elevator loop in a new platform thread
+     * 
+     * @since Version 1.0
+     * @see Thread
+     * @param loop the elevator loop to run
+     */
+    public void execute(Runnable loop) {
+        
+        threadsStarted.incrementAndGet();
+        new Thread(loop).start();
+    }
+    
+    /**
+     * Records that one of this backend's threads has woken up
+     * 
+     * @since Version 1.0
+     * @see #wakeups
+     */
+    public void recordWakeup() {
+        wakeups.incrementAndGet();
+    }
+    
+    /**
+     * Records that one of this backend's threads woke up without any work
+     * 
+     * @since Version 1.0
+     * @see #spuriousWakeups
+     */
+    public void recordSpuriousWakeup() {
+        spuriousWakeups.incrementAndGet();
+    }
+    
+    /**
+     * Returns the name of the backend
+     * 
+     * @since Version 1.0
+     * @return a String naming the backend
+     */
+    public String getName() {
+        return "Platform";
+    }
+    
+    /**
+     * Returns the number of threads this backend has started
+     * 
+     * @since Version 1.0
+     * @see #threadsStarted
+     * @return a long count of started threads
+     */
+    public long getThreadsStarted() {
+        return threadsStarted.get();
+    }
+    
+    /**
+     * Returns the number of wakeups recorded by this backend's threads
+     * 
+     * @since Version 1.0
+     * @see #wakeups
+     * @return a long count of wakeups
+     */
+    public long getWakeups() {
+        return wakeups.get();
+    }
+    
+    /**
+     * Returns the number of wakeups that found no work
+     * 
+     * @since Version 1.0
+     * @see #spuriousWakeups
+     * @return a long count of spurious wakeups
+     */
+    public long getSpuriousWakeups() {
+        return spuriousWakeups.get();
+    }
+    
+}
@@ -0,0 +1,173 @@
+package ver3;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is an execution backend that runs every elevator loop in its own
+ * virtual thread, so that tens of thousands of elevators can run in one JVM
+ * without a platform thread each. Virtual threads only exist on Java 21 and
+ * later, and the project still builds for older releases, so the backend finds
+ * Thread.startVirtualThread by reflection. When it is missing the backend falls
+ * back to platform threads and says so in its name
+ * 
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Interface_ElevatorExecutor
+ * @see IMPL_ElevatorExecutor_PLATFORM
+ */
+public class IMPL_ElevatorExecutor_VIRTUAL implements Interface_ElevatorExecutor {
+    
+    /**
+     * The Thread.startVirtualThread(Runnable) method, or null if this JVM
+     * does not have virtual threads
+     * 
+     * @since Version 1.0
+     * @see #execute(Runnable)
+     */
+    private static final Method startVirtualThread = findStartVirtualThread();
+    
+    /**
+     * The number of threads this backend has started
+     * 
+     * @since Version 1.0
+     * @see #getThreadsStarted()
+     */
+    private AtomicLong threadsStarted = new AtomicLong();
+    
+    /**
+     * The number of wakeups recorded by this backend's threads
+     * 
+     * @since Version 1.0
+     * @see #recordWakeup()
+     * @see #getWakeups()
+     */
+    private AtomicLong wakeups = new AtomicLong();
+    
+    /**
+     * The number of wakeups that found no work, recorded by this backend's threads
+     * 
+     * @since Version 1.0
+     * @see #recordSpuriousWakeup()
+     * @see #getSpuriousWakeups()
+     */
+    private AtomicLong spuriousWakeups = new AtomicLong();
+    
+    /**
+     * This is the public constructor. It takes no parameters and simply acts as a stub
+     * @since Version 1.0
+     */
+    public IMPL_ElevatorExecutor_VIRTUAL() {
+        
+    }
+    
+    /**
+     * Looks up Thread.startVirtualThread(Runnable)
+     * 
+     * @since Version 1.0
+     * @see #startVirtualThread
+     * @return the Method, or null if this JVM does not have virtual threads
+     */
+    private static Method findStartVirtualThread() {
+        
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+    
+    /**
+     * Starts the elevator loop in a new virtual thread, or in a new platform
+     * thread if virtual threads are not available
+     * 
+     * @since Version 1.0
+     * @see #startVirtualThread
+     * @param loop the elevator loop to run
+     */
+    public void execute(Runnable loop) {
+        
+        threadsStarted.incrementAndGet();
+        
+        if(startVirtualThread == null)
+        {
+            new Thread(loop).start();
+            return;
+        }
+        
+        try {
+            startVirtualThread.invoke(null, loop);
+        } catch (IllegalAccessException ex) {
+            ex.printStackTrace();
+        } catch (InvocationTargetException ex) {
+            ex.printStackTrace();
+        }
+    }
+    
+    /**
+     * Records that one of this backend's threads has woken up
+     * 
+     * @since Version 1.0
+     * @see #wakeups
+     */
+    public void recordWakeup() {
+        wakeups.incrementAndGet();
+    }
+    
+    /**
+     * Records that one of this backend's threads woke up without any work
+     * 
+     * @since Version 1.0
+     * @see #spuriousWakeups
+     */
+    public void recordSpuriousWakeup() {
+        spuriousWakeups.incrementAndGet();
+    }
+    
+    /**
+     * Returns the name of the backend
+     * 
+     * @since Version 1.0
+     * @return a String naming the backend
+     */
+    public String getName() {
+        return (startVirtualThread != null ? "Virtual" 
+                        : "Virtual (unavailable, using platform threads)");
+    }
+    
+    /**
+     * Returns the number of threads this backend has started
+     * 
+     * @since Version 1.0
+     * @see #threadsStarted
+     * @return a long count of started threads
+     */
+    public long getThreadsStarted() {
+        return threadsStarted.get();
+    }
+    
+    /**
+     * Returns the number of wakeups recorded by this backend's threads
+     * 
+     * @since Version 1.0
+     * @see #wakeups
+     * @return a long count of wakeups
+     */
+    public long getWakeups() {
+        return wakeups.get();
+    }
+    
+    /**
+     * Returns the number of wakeups that found no work
+     * 
+     * @since Version 1.0
+     * @see #spuriousWakeups
+     * @return a long count of spurious wakeups
+     */
+    public long getSpuriousWakeups() {
+        return spuriousWakeups.get();
+    }
+    
+}
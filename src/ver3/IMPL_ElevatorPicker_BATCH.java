@@ -0,0 +1,108 @@
+package ver3;
+
+import java.text.SimpleDateFormat;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+
+/**
+ * This is a class that represents an expert that the controller relies upon.
+ * The purpose is to provide a method (pick) that is responsible for selecting
+ * the best possible active elevator to fulfill callbox requests
+ *
+ * This delegate does not pick an elevator while the callbox waits. It hands
+ * the request to the simulation's hall call batcher, which collects the
+ * requests of a short window and then gives them all to the elevators at
+ * once, on the same estimated times to arrival as the ETA delegate
+ *
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_HallCallBatcher
+ * @see IMPL_ElevatorPicker_ETA
+ */
+public class IMPL_ElevatorPicker_BATCH implements Interface_IMPL_ElevatorPicker {
+
+    /**
+     * This variable SimpleDateFormat simply sets the format of our date and time
+     * for tracking purposes.
+     * @since Version 1.0
+     */
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
+
+    /**
+     * The simulation context this expert works for
+     *
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+
+    /**
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
+     * @since Version 1.0
+     * @see Entity_SimulationContext#getDefault()
+     */
+    public IMPL_ElevatorPicker_BATCH() {
+        this(Entity_SimulationContext.getDefault());
+    }
+
+    /**
+     * This is the public constructor used by the factory. It takes the
+     * simulation context the expert works for
+     * @since Version 1.0
+     * @param c the simulation context
+     */
+    public IMPL_ElevatorPicker_BATCH(Entity_SimulationContext c) {
+        context = c;
+    }
+
+    /**
+     * This method hands a request that comes in from a callbox on a particular
+     * floor to the hall call batcher, which will select the elevator when its
+     * window closes. The parameters included in the method include the floor
+     * number that the callbox is on and the direction related to the where
+     * the request intends to go
+     *
+     * @param floor, direction
+     * @throws IllegalDirectionException, IllegalFloorException
+     * @since Version 1.0
+     * @see Entity_HallCallBatcher#submit(int, int)
+     */
+    public void pick(int floor, int direction)
+                       throws IllegalFloorException, IllegalDirectionException {
+
+        if(!(direction == -1 || direction  == 1))
+            throw new IllegalDirectionException("Out of bounds direction encountered"
+                    + " while delegate is picking: " + direction);
+
+        if(floor < 0)
+            throw new IllegalFloorException("Negative number of floors encountered: " + floor);
+
+        if(floor > context.getSimulation().getNumberOfFloors()+1)
+            throw new IllegalFloorException("Floor does not exist (too high): " + floor);
+
+        Entity_HallCallBatcher batcher = context.getSimulation().getHallCallBatcher();
+
+        // without a batcher the request is picked straight away
+        if(batcher == null)
+        {
+            new IMPL_ElevatorPicker_ETA(context).pick(floor, direction);
+            return;
+        }
+
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+                + "The controller is holding the request from floor " + floor
+                + " to go " + (direction == 1 ? "up" : "down")
+                + " for the next batch of calls");
+
+        batcher.submit(floor, direction);
+    }
+
+}
@@ -0,0 +1,355 @@
+package ver3;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+
+/**
+ * This is a class that represents an expert that the controller relies upon.
+ * The purpose is to provide a method (pickDestination) that tells each person
+ * who keys their destination into a kiosk which elevator to take
+ *
+ * This delegate knows where each person is going before they get on, so it
+ * sends people going to the same or nearby floors together. For each elevator
+ * that could come for the person it adds up:
+ * 1. the estimated time for the elevator to reach the person's floor, the
+ *    same estimate the ETA delegate uses. An elevator that could not be sent
+ *    there by the ETA delegate, or that already has as many people on board
+ *    or told to take it as it can carry, is not considered.
+ * 2. the door open time of a stop on the person's floor, unless the elevator
+ *    is already stopping there.
+ * 3. the door open time of a stop on the person's destination, unless the
+ *    elevator is already stopping there or someone else told to take it is
+ *    going there, plus the travel time past the end of its run if the
+ *    destination lies beyond it.
+ * The person is told to take the elevator with the lowest total, and it is
+ * sent to their floor. If no elevator can be sent the person may take any
+ * elevator going their way, and the callbox button they light goes to the
+ * controller's pending list the same as with the ETA delegate
+ *
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see IMPL_ElevatorPicker_ETA
+ * @see Interface_Person#getAssignedElevator()
+ */
+public class IMPL_ElevatorPicker_DESTINATION implements Interface_DestinationPicker {
+
+    /**
+     * This variable SimpleDateFormat simply sets the format of our date and time
+     * for tracking purposes.
+     * @since Version 1.0
+     */
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
+
+    /**
+     * The simulation context this expert works for
+     *
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+
+    /**
+     * The ETA delegate whose estimates and up/down requests this one uses
+     *
+     * @since Version 1.0
+     */
+    private final IMPL_ElevatorPicker_ETA eta;
+
+    /**
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
+     * @since Version 1.0
+     */
+    public IMPL_ElevatorPicker_DESTINATION() {
+        this(Entity_SimulationContext.getDefault());
+    }
+
+    /**
+     * This is the public constructor for a given simulation context
+     * @since Version 1.0
+     * @param c the simulation context this expert works for
+     */
+    public IMPL_ElevatorPicker_DESTINATION(Entity_SimulationContext c) {
+        context = c;
+        eta = new IMPL_ElevatorPicker_ETA(c);
+    }
+
+    /**
+     * This method selects the elevator a person who has keyed in their
+     * destination should take, tells the person and sends the elevator to
+     * their floor
+     *
+     * @since Version 1.0
+     * @param person the person at the kiosk
+     * @return the serial number of the elevator the person was told to take,
+     *         or zero if there is none yet
+     * @throws IllegalFloorException if the person's floors are not in the building
+     * @throws IllegalDirectionException if the person has no direction
+     */
+    public int pickDestination(Interface_Person person)
+                       throws IllegalFloorException, IllegalDirectionException {
+
+        int floor = person.getStartFloor();
+        int destination = person.getIntendedDestination();
+        int direction = person.getIntendedDirection();
+
+        if(!(direction == -1 || direction  == 1))
+            throw new IllegalDirectionException("Out of bounds direction encountered"
+                    + " while delegate is picking: " + direction);
+
+        if(floor > context.getSimulation().getNumberOfFloors()
+                || destination > context.getSimulation().getNumberOfFloors())
+            throw new IllegalFloorException("Floor does not exist (too high): "
+                    + floor + " to " + destination);
+
+        List<Interface_Elevator> elevatorList
+                = context.getBuilding().getElevatorList();
+        int capacity = context.getSimulation().getMaxPersonsPerElevator();
+        int bestElevator = 0;
+        long bestCost = Long.MAX_VALUE;
+
+        for(Interface_Elevator elevator : elevatorList)
+        {
+            Entity_ElevatorSnapshot snapshot = elevator.getSnapshot();
+            long estimate = eta.getCost(snapshot, floor, direction);
+
+            if(estimate == Long.MAX_VALUE)
+                continue;
+
+            List<Integer> promised = findPromisedDestinations(elevator, person);
+
+            if(capacity > 0 && snapshot.getLoad()
+                                    + promised.size() >= capacity)
+                continue;
+
+            long cost = estimate + estimateTripCost(elevator, snapshot, floor,
+                                            destination, direction, promised);
+
+            if(cost < bestCost)
+            {
+                bestCost = cost;
+                bestElevator = elevator.getSerialNumber();
+            }
+        }
+
+        person.setAssignedElevator(bestElevator);
+
+        if(bestElevator == 0)
+        {
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis())
+                    + "\tThe controller could not find an elevator it can send to "
+                    + "floor #" + floor + " for person #" + person.getSerialNumber()
+                    + " right now.\n\t\tSo the person may take any elevator going "
+                    + (direction == 1 ? "up" : "down"));
+            return 0;
+        }
+
+        Interface_Elevator chosen = elevatorList.get(bestElevator - 1);
+
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+            + "The kiosk on floor #" + floor + " tells person #" + person.getSerialNumber()
+            + " to take elevator " + chosen.getLetterName() + chosen.getSerialNumber()
+            + " to floor #" + destination);
+
+        // an idle elevator already on the floor is turned the person's way
+        if(eta.findElevatorOnFloor(floor, direction) == bestElevator
+                && chosen.getSnapshot().getDirection() == 0)
+        {
+            try {
+                chosen.setDirection(direction);
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        context.getController().disPatchElevator(floor, bestElevator);
+
+        return bestElevator;
+    }
+
+    /**
+     * This method answers an up or down callbox button. A person who keys in
+     * their destination lights the button for their direction after they
+     * have been told which elevator to take, so if that elevator is still
+     * coming nothing more is done. Otherwise, as when the button is pressed
+     * again by someone who was left behind, the request is handled by the
+     * ETA delegate
+     *
+     * @since Version 1.0
+     * @param floor the floor of the callbox
+     * @param direction the direction of the button, -1 or 1
+     * @throws IllegalFloorException if the floor is not in the building
+     * @throws IllegalDirectionException if the direction is not -1 or 1
+     */
+    public void pick(int floor, int direction)
+                       throws IllegalFloorException, IllegalDirectionException {
+
+        if(!(direction == -1 || direction  == 1))
+            throw new IllegalDirectionException("Out of bounds direction encountered"
+                    + " while delegate is picking: " + direction);
+
+        if(floor < 1 || floor > context.getSimulation().getNumberOfFloors())
+            throw new IllegalFloorException("Floor does not exist: " + floor);
+
+        List<Interface_Elevator> elevatorList
+                = context.getBuilding().getElevatorList();
+        Interface_Floor callFloor = context.getBuilding().getFloorList().get(floor - 1);
+
+        synchronized(callFloor)
+        {
+            Entity_WaitingQueue waiting = callFloor.getWaitingQueue(direction);
+
+            for(int i = 0; i < waiting.size(); ++i)
+            {
+                int serial = waiting.get(i).getAssignedElevator();
+
+                if(serial < 1 || serial > elevatorList.size())
+                    continue;
+
+                // an elevator takes the floor off its list as it leaves
+                if(elevatorList.get(serial - 1).isStoppingAt(floor))
+                    return;
+            }
+        }
+
+        eta.pick(floor, direction);
+    }
+
+    /**
+     * Returns the destinations of the people waiting on any floor who have
+     * been told to take an elevator, not counting a given person
+     *
+     * @since Version 1.0
+     * @param elevator the elevator
+     * @param asking the person being picked for, who is not counted
+     * @return a List of destination floors, one for each person
+     */
+    private List<Integer> findPromisedDestinations(Interface_Elevator elevator,
+                                                        Interface_Person asking) {
+
+        List<Integer> promised = new ArrayList<Integer>();
+
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
+        {
+            for(Interface_Person person : floor.getPeopleOnFloorList())
+            {
+                if(person != asking && person.getAssignedElevator()
+                                            == elevator.getSerialNumber())
+                    promised.add(person.getIntendedDestination());
+            }
+        }
+
+        return promised;
+    }
+
+    /**
+     * Estimates what taking the person costs beyond the wait for the
+     * elevator: the door open time of each stop the person rides through,
+     * and for each stop the elevator would not otherwise make, its door open
+     * time once for the stop and once more for every rider it holds up. The
+     * travel past the end of the elevator's run to the destination is added
+     * if the destination lies beyond it
+     *
+     * @since Version 1.0
+     * @param elevator the elevator
+     * @param snapshot the snapshot of the elevator the wait was costed from
+     * @param floor the person's floor
+     * @param destination the person's destination
+     * @param direction the person's direction, -1 or 1
+     * @param promised the destinations of the others told to take the elevator
+     * @return a long representing simulated milliseconds
+     */
+    private long estimateTripCost(Interface_Elevator elevator, 
+                    Entity_ElevatorSnapshot snapshot, int floor,
+                    int destination, int direction, List<Integer> promised) {
+
+        Singl_WorkingSimulation simulation = context.getSimulation();
+        long dwell = simulation.getDoorOpenTime();
+        List<Integer> stops = new ArrayList<Integer>();
+        List<Integer> riding = new ArrayList<Integer>();
+
+        for(int stop = snapshot.nextDestination(0); stop != -1;
+                                    stop = snapshot.nextDestination(stop + 1))
+            stops.add(stop);
+
+        try {
+            for(Interface_Person passenger : elevator.getPassengerList())
+                riding.add(passenger.getIntendedDestination());
+        } catch (IndexOutOfBoundsException ex) {
+            // the elevator let people off while its list was being read
+        } catch (ConcurrentModificationException ex) {
+            // people got on or off while the list was being read
+        }
+
+        riding.addAll(promised);
+
+        long cost = 0;
+
+        // everyone who will be on board is held up by a new stop for the person
+        if(!stops.contains(floor) && !(snapshot.getCurrentFloor() == floor
+                                            && snapshot.getDoorsAreOpen()))
+            cost += dwell * (1 + riding.size());
+
+        // the farthest stop already planned, and the stops the person rides through
+        int farthest = floor;
+        List<Integer> counted = new ArrayList<Integer>();
+        for(int stop : concat(stops, promised))
+        {
+            if(direction * (stop - farthest) > 0)
+                farthest = stop;
+
+            if(direction * (stop - floor) > 0 && direction * (destination - stop) > 0
+                    && !counted.contains(stop))
+            {
+                counted.add(stop);
+                cost += dwell;
+            }
+        }
+
+        if(stops.contains(destination) || promised.contains(destination))
+            return cost;
+
+        // a new stop on the way holds up only the riders going past it
+        long heldUp = 1;
+        for(int stop : riding)
+        {
+            if(direction * (stop - destination) > 0)
+                ++heldUp;
+        }
+
+        cost += dwell * heldUp;
+
+        if(direction * (destination - farthest) > 0)
+            cost += simulation.getTravelTimeTable().getTravelTime(farthest, destination);
+
+        return cost;
+    }
+
+    /**
+     * Returns one list followed by another
+     *
+     * @since Version 1.0
+     * @param first the first list
+     * @param second the second list
+     * @return a new List holding both
+     */
+    private static List<Integer> concat(List<Integer> first, List<Integer> second) {
+
+        List<Integer> both = new ArrayList<Integer>(first);
+        both.addAll(second);
+
+        return both;
+    }
+
+}
@@ -0,0 +1,443 @@
+package ver3;
+
+import java.text.SimpleDateFormat;
+import java.util.List;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+
+/**
+ * This is a class that represents an expert that the controller relies upon.
+ * The purpose is to provide a method (pick) that is responsible for selecting
+ * the best possible active elevator to fulfill callbox requests
+ *
+ * This delegate gives each request to the elevator that is estimated to reach
+ * the requesting floor soonest. The estimate adds up:
+ * 1. the travel time to the floor, looked up in the simulation's travel time
+ *    table. An elevator heading away from the floor, or heading toward it the
+ *    wrong way, first travels to the end of its run and comes back.
+ * 2. the door open time of every stop on its destination list that it makes
+ *    before it gets there.
+ * 3. a share of the door open time for every passenger on board, since a
+ *    crowded elevator is slower to load and unload. A full elevator is never
+ *    picked.
+ * Only an idle elevator, or one already heading the requested way toward the
+ * floor, can be sent straight away, and not one that is on its way to pick up
+ * people who want to go the other way. If none of those can be sent, or
+ * another elevator is already stopping on the floor, the request goes to the
+ * controller's pending list, the same as with the other delegates
+ *
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_TravelTimeTable
+ */
+public class IMPL_ElevatorPicker_ETA implements Interface_IMPL_ElevatorPicker {
+
+    /**
+     * This variable SimpleDateFormat simply sets the format of our date and time
+     * for tracking purposes.
+     * @since Version 1.0
+     */
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
+
+    /**
+     * The simulation context this expert works for
+     *
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+
+    /**
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
+     * @since Version 1.0
+     * @see Entity_SimulationContext#getDefault()
+     */
+    public IMPL_ElevatorPicker_ETA() {
+        this(Entity_SimulationContext.getDefault());
+    }
+
+    /**
+     * This is the public constructor used by the factory. It takes the
+     * simulation context the expert works for
+     * @since Version 1.0
+     * @param c the simulation context
+     */
+    public IMPL_ElevatorPicker_ETA(Entity_SimulationContext c) {
+        context = c;
+    }
+
+    /**
+     * This method selects which elevator is best suited to fullfill a request
+     * that comes in from a callbox on a particular floor. The parameters included
+     * in the method include the floor number that the callbox is on and the
+     * direction related to the where the request intends to go. It first checks
+     * if any elevator is already on the requesting floor. If not, it sends the
+     * elevator with the lowest estimated time to arrival of those that can be
+     * sent straight away. If there is none, it adds the request to the
+     * controller's pending list
+     *
+     * @param floor, direction
+     * @throws IllegalDirectionException, IllegalFloorException
+     * @since Version 1.0
+     * @see #estimateTimeToArrival(Interface_Elevator, int, int)
+     */
+    public void pick(int floor, int direction)
+                       throws IllegalFloorException, IllegalDirectionException {
+
+        if(!(direction == -1 || direction  == 1))
+            throw new IllegalDirectionException("Out of bounds direction encountered"
+                    + " while delegate is picking: " + direction);
+
+        if(floor < 0)
+            throw new IllegalFloorException("Negative number of floors encountered: " + floor);
+
+        if(floor > context.getSimulation().getNumberOfFloors()+1)
+            throw new IllegalFloorException("Floor does not exist (too high): " + floor);
+
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+                + "The controller is being asked to send an elevator to "
+                + "floor " + floor + " so it can go "
+                + (direction == 1 ? "up" : "down") + " from there");
+
+        List<Interface_Elevator> elevatorList
+                = context.getBuilding().getElevatorList();
+        int alreadyOnFloorElevator = 0;
+        int bestElevator = 0;
+        long bestEstimate = Long.MAX_VALUE;
+
+        // each elevator is costed from the snapshot it last published. If the
+        // one chosen has moved on since and can no longer take the request,
+        // the choice is made again
+        for(int attempt = 0; ; ++attempt)
+        {
+            alreadyOnFloorElevator = findElevatorOnFloor(floor, direction);
+            bestElevator = 0;
+            bestEstimate = Long.MAX_VALUE;
+
+            Entity_ElevatorSnapshot best = null;
+            int stoppingElevator = 0;
+
+            for(int i = 0; i < elevatorList.size() && alreadyOnFloorElevator == 0; ++i)
+            {
+                Entity_ElevatorSnapshot snapshot = elevatorList.get(i).getSnapshot();
+
+                if(snapshot.isStoppingAt(floor))
+                    stoppingElevator = snapshot.getSerialNumber();
+
+                long estimate = getCost(snapshot, floor, direction);
+
+                if(estimate < bestEstimate)
+                {
+                    bestEstimate = estimate;
+                    bestElevator = snapshot.getSerialNumber();
+                    best = snapshot;
+                }
+            }
+
+            // two elevators opening on the same floor at the same time will not
+            // turn around for each other, so if another elevator is already
+            // stopping there the request waits for it on the pending list
+            if(stoppingElevator != 0 && stoppingElevator != bestElevator)
+                bestElevator = 0;
+
+            if(bestElevator == 0 || attempt == Entity_ElevatorSnapshot.MAX_STALE_RETRIES
+                    || !best.hasGoneStale(elevatorList.get(bestElevator - 1),
+                                                            floor, direction))
+                break;
+        }
+
+        if(alreadyOnFloorElevator != 0)
+        {
+            try {
+                elevatorList.get(alreadyOnFloorElevator - 1).setDirection(direction);
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            }
+
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+                + "The controller has found that elevator "
+                + elevatorList.get(alreadyOnFloorElevator - 1).getLetterName()
+                + elevatorList.get(alreadyOnFloorElevator - 1).getSerialNumber()
+                + " is already on floor #" + floor + ". So it can satisfy\n\t\tthe "
+                + "request to go " + (direction == 1 ? "up" : "down")
+                + " from floor #" + floor);
+
+            context.getController().disPatchElevator(floor, alreadyOnFloorElevator);
+        }
+        else if(bestElevator != 0)
+        {
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+                + "The controller has selected elevator "
+                + elevatorList.get(bestElevator - 1).getLetterName()
+                + elevatorList.get(bestElevator - 1).getSerialNumber()
+                + " to satisfy the " + (direction == 1 ? "up" : "down")
+                + " request from floor #" + floor
+                + "\n\t\tbecause it is expected to arrive soonest, in "
+                + (bestEstimate / 1000.0) + " seconds");
+
+            context.getController().disPatchElevator(floor, bestElevator);
+            
+            Entity_HallCallReassigner reassigner 
+                    = context.getSimulation().getHallCallReassigner();
+            if(reassigner != null)
+                reassigner.record(floor, direction, bestElevator);
+        }
+        else
+        {
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis())
+                    + "\tThe controller could not find an elevator it can send to "
+                    + "floor #" + floor + " right now.\n\t\tSo it is sending the "
+                    + "request to a pending list.");
+
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\tAdding "
+                    + "floor " + floor + " to the list of pending requests, "
+                    + "specifically marked to go " + (direction == 1 ? "up" : "down"));
+            try {
+                context.getController().addToPendingList(floor, direction);
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            } catch (IllegalFloorException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the serial number of an elevator that is already on the floor
+     * with its doors open and that is idle or heading the requested way, so
+     * that it can simply take the request
+     *
+     * @since Version 1.0
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return an int serial number, or zero if there is no such elevator
+     */
+    int findElevatorOnFloor(int floor, int direction) {
+
+        for(Interface_Elevator elevator : context.getBuilding().getElevatorList())
+        {
+            Entity_ElevatorSnapshot snapshot = elevator.getSnapshot();
+
+            if(snapshot.isOpenOn(floor, direction))
+                return snapshot.getSerialNumber();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns what it costs to give a request to an elevator, which is its
+     * estimated time to arrival if it can be sent straight away
+     *
+     * @since Version 1.0
+     * @see #estimateTimeToArrival(Interface_Elevator, int, int)
+     * @param elevator the elevator to cost
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return a long representing simulated milliseconds, or Long.MAX_VALUE
+     *         if the elevator cannot be given the request
+     */
+    long getCost(Interface_Elevator elevator, int floor, int direction) {
+        return getCost(elevator.getSnapshot(), floor, direction);
+    }
+
+    /**
+     * Returns what it costs to give a request to an elevator, as it was when
+     * it published a snapshot
+     *
+     * @since Version 1.0
+     * @see #getCost(Interface_Elevator, int, int)
+     * @param snapshot the snapshot of the elevator to cost
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return a long representing simulated milliseconds, or Long.MAX_VALUE
+     *         if the elevator cannot be given the request
+     */
+    long getCost(Entity_ElevatorSnapshot snapshot, int floor, int direction) {
+
+        if(!canBeSent(snapshot, floor, direction)
+                || checkCallboxConflict(snapshot, floor) == true
+                || isTurningAround(snapshot) == true)
+            return Long.MAX_VALUE;
+
+        return estimateTimeToArrival(snapshot, floor, direction);
+    }
+
+    /**
+     * Estimates how long an elevator will take to reach a floor and open its
+     * doors there for a request in the given direction, from the snapshot it
+     * last published
+     *
+     * @since Version 1.0
+     * @see #estimateTimeToArrival(Entity_ElevatorSnapshot, int, int)
+     * @param elevator the elevator to estimate for
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return a long representing simulated milliseconds, or Long.MAX_VALUE
+     *         if the elevator is full
+     */
+    public long estimateTimeToArrival(Interface_Elevator elevator, int floor,
+                                                                int direction) {
+        return estimateTimeToArrival(elevator.getSnapshot(), floor, direction);
+    }
+
+    /**
+     * Estimates how long an elevator will take to reach a floor and open its
+     * doors there for a request in the given direction, as it was when it
+     * published a snapshot. Every travel time is read from the simulation's 
+     * travel time table and the stops are walked a bit at a time, so the 
+     * estimate creates no objects
+     *
+     * @since Version 1.0
+     * @see Entity_TravelTimeTable#getTravelTime(int, int)
+     * @param snapshot the snapshot of the elevator to estimate for
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return a long representing simulated milliseconds, or Long.MAX_VALUE
+     *         if the elevator is full
+     */
+    public long estimateTimeToArrival(Entity_ElevatorSnapshot snapshot, int floor,
+                                                                int direction) {
+
+        Singl_WorkingSimulation simulation = context.getSimulation();
+        Entity_TravelTimeTable table = simulation.getTravelTimeTable();
+        long dwell = simulation.getDoorOpenTime();
+        int capacity = simulation.getMaxPersonsPerElevator();
+        int passengers = snapshot.getLoad();
+
+        if(capacity > 0 && passengers >= capacity)
+            return Long.MAX_VALUE;
+
+        // a crowded elevator takes longer at every stop
+        long load = (capacity > 0 ? dwell * passengers / capacity : 0);
+
+        int current = snapshot.getCurrentFloor();
+        int heading = snapshot.getDirection();
+
+        if(heading == 0)
+            return table.getTravelTime(current, floor) + load;
+
+        boolean ahead = (heading * (floor - current) >= 0);
+
+        // walk the stops for the far end of the current run, the stops
+        // made before the floor and the stops made in all
+        int farthest = current;
+        int stopsBefore = 0;
+        int stopsInAll = 0;
+
+        for(int stop = snapshot.nextDestination(0); stop != -1;
+                                    stop = snapshot.nextDestination(stop + 1))
+        {
+            ++stopsInAll;
+
+            if(heading * (stop - farthest) > 0)
+                farthest = stop;
+
+            if(heading * (stop - current) > 0 && heading * (floor - stop) > 0)
+                ++stopsBefore;
+        }
+
+        if(ahead && heading == direction)
+            return table.getTravelTime(current, floor) + stopsBefore * dwell + load;
+
+        // otherwise it finishes its run before it can come to the floor
+        return table.getTravelTime(current, farthest)
+                + table.getTravelTime(farthest, floor) + stopsInAll * dwell + load;
+    }
+
+    /**
+     * Returns whether an elevator can be given the request straight away,
+     * which it can if it is idle or already heading the requested way toward
+     * the floor. An idle elevator that has been sent to its own floor takes
+     * its direction from the people there when it opens, so until then it 
+     * is not given requests from other floors that could lie the other way
+     *
+     * @since Version 1.0
+     * @param snapshot the snapshot of the elevator to check
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return a boolean that is true if the floor can go on its destination list
+     */
+    private boolean canBeSent(Entity_ElevatorSnapshot snapshot, int floor, 
+                                                                int direction) {
+
+        if(snapshot.getDirection() == 0)
+            return snapshot.getDestinationCount() == 0;
+
+        return snapshot.isApproaching(floor, direction);
+    }
+
+    /**
+     * Returns whether an elevator is on its way to a floor where only the
+     * callbox button for the other direction is lit, which means it was sent
+     * there to turn around. Giving it more stops past that floor would keep
+     * it from turning, and the people waiting there would be left behind
+     *
+     * @since Version 1.0
+     * @param snapshot the snapshot of the elevator to check
+     * @return a boolean that is true if the elevator is going to turn around
+     */
+    private boolean isTurningAround(Entity_ElevatorSnapshot snapshot) {
+
+        int heading = snapshot.getDirection();
+
+        if(heading == 0)
+            return false;
+
+        List<Interface_Floor> floorList = context.getBuilding().getFloorList();
+
+        for(int stop = snapshot.nextDestination(1); stop != -1;
+                                    stop = snapshot.nextDestination(stop + 1))
+        {
+            Interface_Callbox cBox = floorList.get(stop - 1).getcBox();
+
+            if(heading == -1 && cBox.getUpButton() == true
+                             && cBox.getDownButton() == false)
+                return true;
+
+            if(heading == 1 && cBox.getDownButton() == true
+                            && cBox.getUpButton() == false)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * The elevators are set up to service first pressed, first served relative to
+     * callboxes. So the delegate checks if there is not already a lit
+     * callbox button in a direction different than the request we are examining
+     * on a floor the elevator is already going to, so requests dont get lost
+     *
+     * @param snapshot, floor
+     * @since Version 1.0
+     * @return a boolean that is true if the floor has a conflict
+     */
+    private boolean checkCallboxConflict(Entity_ElevatorSnapshot snapshot, int floor) {
+
+        if(!snapshot.isStoppingAt(floor))
+            return false;
+
+        Interface_Callbox cBox = context.getBuilding()
+                                        .getFloorList().get(floor - 1).getcBox();
+
+        if(snapshot.getDirection() == 1 && cBox.getDownButton() == false)
+            return false;
+
+        if(snapshot.getDirection() == -1 && cBox.getUpButton() == false)
+            return false;
+
+        // means that there is already a lit callbox button on that floor
+        // in the opposite direction of the request
+        return true;
+    }
+
+}
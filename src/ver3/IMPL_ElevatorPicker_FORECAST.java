@@ -0,0 +1,217 @@
+package ver3;
+
+import java.util.List;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+
+/**
+ * This is a class that represents an expert that the controller relies upon.
+ * It answers callbox requests the same way the ETA delegate does, and it also
+ * provides a method (pickParkingFloor) that tells an elevator that has been
+ * idle long enough where to wait for its next call
+ *
+ * Instead of going back to its default floor, the idle elevator is parked on
+ * the floor that keeps the expected response time to the forecast demand
+ * lowest. For every floor the demand forecast gives a rate of arrivals, and
+ * a call from a floor is answered by whichever elevator waiting nearest can
+ * get there first, so the delegate picks the floor for which the rates times
+ * those travel times add up to the least. Only elevators that are idle, or on
+ * their way to the floor they were parked on, are counted as waiting; a busy
+ * elevator cannot be relied upon to answer. Staying put wins a tie, so an
+ * elevator is not moved for nothing. Until the forecast has seen anyone
+ * arrive, the elevator goes back to its default floor as before
+ *
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see IMPL_ElevatorPicker_ETA
+ * @see Entity_DemandForecast
+ */
+public class IMPL_ElevatorPicker_FORECAST implements Interface_ParkingPicker {
+
+    /**
+     * The simulation context this expert works for
+     *
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+
+    /**
+     * The ETA delegate the callbox requests are handed to
+     *
+     * @since Version 1.0
+     */
+    private final IMPL_ElevatorPicker_ETA eta;
+
+    /**
+     * The floor each elevator was last parked on, by serial number, or zero
+     *
+     * @since Version 1.0
+     * @see #pickParkingFloor(Interface_Elevator)
+     */
+    private int[] parkedOn = new int[0];
+
+    /**
+     * The lock held while a parking floor is picked. It is not this expert's
+     * own monitor, since elevators ask for a parking floor while holding
+     * their own locks
+     *
+     * @since Version 1.0
+     * @see #parkedOn
+     */
+    private final Object parkingLock = new Object();
+
+    /**
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
+     * @since Version 1.0
+     */
+    public IMPL_ElevatorPicker_FORECAST() {
+        this(Entity_SimulationContext.getDefault());
+    }
+
+    /**
+     * This is the public constructor for a given simulation context
+     * @since Version 1.0
+     * @param c the simulation context this expert works for
+     */
+    public IMPL_ElevatorPicker_FORECAST(Entity_SimulationContext c) {
+        context = c;
+        eta = new IMPL_ElevatorPicker_ETA(c);
+    }
+
+    /**
+     * This method answers a callbox request by handing it to the ETA delegate
+     *
+     * @since Version 1.0
+     * @param floor the floor of the callbox
+     * @param direction the direction of the button, -1 or 1
+     * @throws IllegalFloorException if the floor is not in the building
+     * @throws IllegalDirectionException if the direction is not -1 or 1
+     * @see IMPL_ElevatorPicker_ETA#pick(int, int)
+     */
+    public void pick(int floor, int direction)
+                       throws IllegalFloorException, IllegalDirectionException {
+        eta.pick(floor, direction);
+    }
+
+    /**
+     * This method selects the floor an idle elevator should wait on, the one
+     * with the lowest expected response time to the forecast demand
+     *
+     * @since Version 1.0
+     * @param elevator the idle elevator
+     * @return the floor number the elevator should park on
+     */
+    public int pickParkingFloor(Interface_Elevator elevator) {
+
+        Entity_DemandForecast forecast = context.getSimulation().getDemandForecast();
+
+        if(forecast == null || !forecast.hasDemand())
+            return elevator.getDefaultFloor();
+
+        Entity_TravelTimeTable table = context.getSimulation().getTravelTimeTable();
+        List<Interface_Elevator> elevatorList = context.getBuilding().getElevatorList();
+        double[] rates = forecast.getRates();
+        int nOF = rates.length;
+
+        synchronized(parkingLock)
+        {
+            if(parkedOn.length <= elevatorList.size())
+            {
+                int[] grown = new int[elevatorList.size() + 1];
+                System.arraycopy(parkedOn, 0, grown, 0, parkedOn.length);
+                parkedOn = grown;
+            }
+
+            // how soon the nearest other waiting elevator reaches each floor
+            long[] nearest = new long[nOF];
+            for(int f = 0; f < nOF; ++f)
+                nearest[f] = Long.MAX_VALUE;
+
+            for(Interface_Elevator other : elevatorList)
+            {
+                if(other == elevator)
+                    continue;
+
+                int waitingOn = findWaitingFloor(other);
+
+                if(waitingOn < 1 || waitingOn > nOF)
+                    continue;
+
+                for(int f = 0; f < nOF; ++f)
+                    nearest[f] = Math.min(nearest[f],
+                                        table.getTravelTime(waitingOn, f + 1));
+            }
+
+            int best = elevator.getSnapshot().getCurrentFloor();
+            double bestCost = (best >= 1 && best <= nOF)
+                    ? expectedResponse(table, rates, nearest, best)
+                    : Double.MAX_VALUE;
+
+            for(int floor = 1; floor <= nOF; ++floor)
+            {
+                double cost = expectedResponse(table, rates, nearest, floor);
+
+                if(cost < bestCost)
+                {
+                    bestCost = cost;
+                    best = floor;
+                }
+            }
+
+            parkedOn[elevator.getSerialNumber()] = best;
+
+            return best;
+        }
+    }
+
+    /**
+     * Returns the floor another elevator is waiting on: its own floor if it
+     * is idle, or the floor it was parked on if that is the only floor it is
+     * headed to
+     *
+     * @since Version 1.0
+     * @param other the other elevator
+     * @return the floor number, or zero if the elevator is busy
+     */
+    private int findWaitingFloor(Interface_Elevator other) {
+
+        Entity_ElevatorSnapshot snapshot = other.getSnapshot();
+
+        if(snapshot.getDestinationCount() == 0)
+            return snapshot.getCurrentFloor();
+
+        int target = parkedOn[snapshot.getSerialNumber()];
+
+        if(snapshot.getDestinationCount() == 1 && snapshot.isStoppingAt(target))
+            return target;
+
+        return 0;
+    }
+
+    /**
+     * Returns the forecast arrival rates times how soon a call from each
+     * floor would be answered, if the elevator were parked on a floor
+     *
+     * @since Version 1.0
+     * @param table the travel time table
+     * @param rates the forecast rate of each floor, floor one at index zero
+     * @param nearest how soon the other waiting elevators reach each floor
+     * @param floor the floor the elevator would be parked on
+     * @return a double that is lower for a better floor
+     */
+    private static double expectedResponse(Entity_TravelTimeTable table,
+                            double[] rates, long[] nearest, int floor) {
+
+        double cost = 0;
+
+        for(int f = 0; f < rates.length; ++f)
+            cost += rates[f] * Math.min(nearest[f], table.getTravelTime(floor, f + 1));
+
+        return cost;
+    }
+
+}
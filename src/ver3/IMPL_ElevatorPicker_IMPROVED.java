@@ -14,6 +14,10 @@ import ver3.project_exceptions.IllegalFloorException;
  * 1. When deciding which elevator to selects, this improved delegate also considers 
  *    the average amount of destinations among all elevators. It selects those that
  *    are below the average it order to keep the elevators evenly dispersed.
+ *    In a building with many elevators the candidates are looked up in the 
+ *    context's load index, nearest to the requesting floor first, so a request
+ *    costs a tree lookup rather than a walk over every elevator for every 
+ *    elevator. With only a few, one pass over their snapshots is cheaper.
  * 2. The elevators are set up to service first pressed, first served relative to 
  *    callboxes. So the improved delegate checks if there is not already a lit 
  *    callbox button in a direction different than the request we are examining
@@ -31,14 +35,49 @@ public class IMPL_ElevatorPicker_IMPROVED implements Interface_IMPL_ElevatorPick
      * for tracking purposes.
      * @since Version 1.0
      */
-    private SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
 
     /**
-     * This is the public constructor. It takes no parameters and simply acts as a stub
+     * The most elevators a building can have for the candidates to be found by
+     * scanning every elevator's snapshot. Up to about this many one pass over
+     * the snapshots costs less than walking the load index's trees
+     * 
+     * @since Version 1.0
+     * @see Entity_ElevatorLoadIndex
+     */
+    private static final int DIRECT_SCAN_LIMIT = 32;
+
+    /**
+     * The simulation context this expert works for
+     * 
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+    
+    /**
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
      * @since Version 1.0
+     * @see Entity_SimulationContext#getDefault()
      */
     public IMPL_ElevatorPicker_IMPROVED() {
-        
+        this(Entity_SimulationContext.getDefault());
+    }
+    
+    /**
+     * This is the public constructor used by the factory. It takes the 
+     * simulation context the expert works for
+     * @since Version 1.0
+     * @param c the simulation context
+     */
+    public IMPL_ElevatorPicker_IMPROVED(Entity_SimulationContext c) {
+        context = c;
     }
     
     /**
@@ -65,209 +104,130 @@ public class IMPL_ElevatorPicker_IMPROVED implements Interface_IMPL_ElevatorPick
         if(floor < 0)
             throw new IllegalFloorException("Negative number of floors encountered: " + floor);
         
-        if(floor > Singl_WorkingSimulation.getInstance().getNumberOfFloors()+1)
+        if(floor > context.getSimulation().getNumberOfFloors()+1)
             throw new IllegalFloorException("Floor does not exist (too high): " + floor);
                     
-        System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller is being asked to send an elevator to "
                 + "floor " + floor + " so it can go " 
                 + (direction == 1 ? "up" : "down") + " from there");
         
         List<Interface_Elevator> elevatorList 
-                = Singl_WorkingBuilding.getInstance().getElevatorList();
+                = context.getBuilding().getElevatorList();
         int backup = 0;
         int lessThanAvgAndSameDir = 0;
         int sameDirectionElevator = 0;
         int alreadyOnFloorElevator = 0;
+        Entity_ElevatorSnapshot chosen = null;
         
-            
-        for(int i = 0; i < elevatorList.size(); ++i)
+        // the elevators are read from the snapshots they last published. If
+        // the one chosen has moved on since and can no longer take the 
+        // request, the choice is made again
+        for(int attempt = 0; ; ++attempt)
         {
-            
-            // if there's already an elevator on that floor, simply arrive
-            if(floor == elevatorList.get(i).getCurrentFloor() 
-                                && elevatorList.get(i).getDoorsAreOpen() == true
-                                && (direction == elevatorList.get(i).getDirection() 
-                                    || elevatorList.get(i).getDirection() == 0))
-            {
-                alreadyOnFloorElevator = elevatorList.get(i).getSerialNumber();
-                
-                try {
-                    elevatorList.get(alreadyOnFloorElevator - 1)
-                            .setDirection(direction);
-                } catch (IllegalDirectionException ex) {
-                    ex.printStackTrace();
-                }
-                
+            int[] found = (elevatorList.size() <= DIRECT_SCAN_LIMIT
+                            ? scanElevators(elevatorList, floor, direction)
+                            : lookUpInIndex(elevatorList, context.getLoadIndex(), 
+                                                                floor, direction));
+            alreadyOnFloorElevator = found[0];
+            lessThanAvgAndSameDir = found[1];
+            sameDirectionElevator = found[2];
+            backup = found[3];
+        
+            int serial = (alreadyOnFloorElevator != 0 ? alreadyOnFloorElevator 
+                            : (lessThanAvgAndSameDir != 0 ? lessThanAvgAndSameDir 
+                                : (sameDirectionElevator != 0 ? sameDirectionElevator 
+                                    : backup)));
+        
+            if(serial == 0)
                 break;
-            }
-            
-            
-            // determine the average amount of destinations among all elevators
-            int totalDestinations = 0;
-            int totalCountingElevators = 0;
-            for(Interface_Elevator elevator : elevatorList)
-            {
-                // if current elevator does have destinations, count it
-                // Don't count it if it has none
-                if(elevator.getSerialNumber() == elevatorList.get(i).getSerialNumber()
-                        && elevator.getDestinationList().isEmpty())
-                {
-                    totalDestinations += elevator.getDestinationList().size();
-                    ++totalCountingElevators;
-                }
-                else if(elevator.getSerialNumber() != elevatorList.get(i).getSerialNumber())
-                {
-                    totalDestinations += elevator.getDestinationList().size();
-                    ++totalCountingElevators;
-                }
-            }
-            double avgDestinationListSize = (totalDestinations / totalCountingElevators);
-            
-            
-            
-            if(elevatorList.get(i).getDestinationList().size() <= avgDestinationListSize
-                && (avgDestinationListSize >= 1)
-                && ((elevatorList.get(i).getDirection() == -1 
-                    && floor <= elevatorList.get(i).getCurrentFloor() 
-                    && direction == -1)
-                || (elevatorList.get(i).getDirection() == 1 
-                    && floor >= elevatorList.get(i).getCurrentFloor() 
-                    && direction == 1))
-              )   
-            {
-                try {
-                    // check if there is not already a lit callbox button in a
-                    // direction different than the request we are examining
-                    if(checkCallboxConflict(elevatorList.get(i), floor) 
-                            == false) // false means there is no conflict
-                    {
-                        lessThanAvgAndSameDir = elevatorList.get(i)
-                                                    .getSerialNumber();
-                    }
-                } catch (IllegalFloorException ex) {
-                    ex.printStackTrace();
-                }
-            }
-            
-            
-            
-            // if it doesn't meet the criteria above, then just find
-            // elevator that is going in the same direction
-            if((elevatorList.get(i).getDirection() == -1 
-                    && floor <= elevatorList.get(i).getCurrentFloor() 
-                    && direction == -1)
-                || (elevatorList.get(i).getDirection() == 1 
-                    && floor >= elevatorList.get(i).getCurrentFloor() 
-                    && direction == 1)
-              )   
-            {
-                try {
-                    // check if there is not already a lit callbox button in a
-                    // direction different than the request we are examining
-                    if(checkCallboxConflict(elevatorList.get(i), floor) 
-                            == false) // false means there is no conflict
-                    {
-                        sameDirectionElevator = elevatorList.get(i)
-                                                    .getSerialNumber();
-                    }
-                } catch (IllegalFloorException ex) {
-                    ex.printStackTrace();
-                }
-            }
-            
-            // backup plan if after I iterate through loop, 
-            // I find no directional choices
-            if(elevatorList.get(i).getDirection() == 0)
-            {
-                try {
-                    // check if there is not already a lit callbox button in a
-                    // direction different than the request we are examining
-                    if(checkCallboxConflict(elevatorList.get(i), floor) 
-                            == false) // false means there is no conflict
-                    {
-                        backup = elevatorList.get(i).getSerialNumber();
-                    }
-                } catch (IllegalFloorException ex) {
-                    ex.printStackTrace();
-                }
+        
+            chosen = elevatorList.get(serial - 1).getSnapshot();
+        
+            if(attempt == Entity_ElevatorSnapshot.MAX_STALE_RETRIES
+                    || chosen.canServe(floor, direction))
+                break;
+        }
+        
+        if(alreadyOnFloorElevator != 0)
+        {
+            try {
+                elevatorList.get(alreadyOnFloorElevator - 1).setDirection(direction);
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
             }
         }
         
         if(alreadyOnFloorElevator != 0)
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has found that elevator "
                 + elevatorList.get(alreadyOnFloorElevator - 1).getLetterName() 
                 + elevatorList.get(alreadyOnFloorElevator - 1).getSerialNumber()
                 + " is already on floor #" 
-                + elevatorList.get(alreadyOnFloorElevator - 1).getCurrentFloor()
+                + chosen.getCurrentFloor()
                 + ". So it can satisfy\n\t\tthe request to go " 
                 + (direction == 1 ? "up" : "down") + " from floor #" + floor);
             
-            Singl_WorkingController.getInstance().disPatchElevator(
+            context.getController().disPatchElevator(
                                                         floor, 
                                                         alreadyOnFloorElevator);
         }
         else if(lessThanAvgAndSameDir != 0)
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has selected elevator "
                 + elevatorList.get(lessThanAvgAndSameDir - 1).getLetterName() 
                 + elevatorList.get(lessThanAvgAndSameDir - 1).getSerialNumber()
                 + " to satisfy the " + (direction == 1 ? "up" : "down") 
                 + " request from floor #" + floor 
                 + "\n\t\tbecause it is currently on floor " 
-                + elevatorList.get(lessThanAvgAndSameDir - 1).getCurrentFloor()
+                + chosen.getCurrentFloor()
                 + " and it is " 
-                + (elevatorList.get(lessThanAvgAndSameDir - 1)
-                        .getDirection()== 1 ? "heading up" : 
-                    (elevatorList.get(lessThanAvgAndSameDir - 1)
-                            .getDirection()== 0 ? "idle" : "heading down")
+                + (chosen.getDirection()== 1 ? "heading up" : 
+                    (chosen.getDirection()== 0 ? "idle" : "heading down")
                    )
                 + "\n\t\tIn addition, this elevator was chosen because it had less "
                 + "\n\t\tdestinations that the average amount"
             );
-            System.out.println(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) 
                     + "\tSending Elevator " 
                     + elevatorList.get(lessThanAvgAndSameDir - 1).getLetterName() 
                     + elevatorList.get(lessThanAvgAndSameDir - 1).getSerialNumber() 
                     + " to Floor " + floor + "…");
             
-            Singl_WorkingController.getInstance().disPatchElevator(
+            context.getController().disPatchElevator(
                                                         floor, 
-                                                        sameDirectionElevator);
+                                                        lessThanAvgAndSameDir);
         }
         else if(sameDirectionElevator != 0)
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has selected elevator "
                 + elevatorList.get(sameDirectionElevator - 1).getLetterName() 
                 + elevatorList.get(sameDirectionElevator - 1).getSerialNumber()
                 + " to satisfy the " + (direction == 1 ? "up" : "down") 
                 + " request from floor #" + floor 
                 + "\n\t\tbecause it is currently on floor " 
-                + elevatorList.get(sameDirectionElevator - 1).getCurrentFloor()
+                + chosen.getCurrentFloor()
                 + " and it is " 
-                + (elevatorList.get(sameDirectionElevator - 1)
-                        .getDirection()== 1 ? "heading up" : 
-                    (elevatorList.get(sameDirectionElevator - 1)
-                            .getDirection()== 0 ? "idle" : "heading down")
+                + (chosen.getDirection()== 1 ? "heading up" : 
+                    (chosen.getDirection()== 0 ? "idle" : "heading down")
                    )
             );
-            System.out.println(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) 
                     + "\tSending Elevator " 
                     + elevatorList.get(sameDirectionElevator - 1).getLetterName() 
                     + elevatorList.get(sameDirectionElevator - 1).getSerialNumber() 
                     + " to Floor " + floor + "…");
             
-            Singl_WorkingController.getInstance().disPatchElevator(
+            context.getController().disPatchElevator(
                                                         floor, 
                                                         sameDirectionElevator);
         }
         else if(backup != 0)
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has selected elevator "
                 + elevatorList.get(backup - 1).getLetterName() 
                 + elevatorList.get(backup - 1).getSerialNumber()
@@ -278,17 +238,17 @@ public class IMPL_ElevatorPicker_IMPROVED implements Interface_IMPL_ElevatorPick
                 + elevatorList.get(backup - 1).getSerialNumber() + " was idle at "
                 + "the time the request was received");
             
-            System.out.println(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) 
                     + "\tSending Elevator " 
                     + elevatorList.get(backup - 1).getLetterName() 
                     + elevatorList.get(backup - 1).getSerialNumber() 
                     + " to Floor " + floor + "…");
             
-            Singl_WorkingController.getInstance().disPatchElevator(floor, backup);
+            context.getController().disPatchElevator(floor, backup);
         }
         else
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) 
                     + "The controller could not find an elevator that is heading"
                     + " in the direction of that floor \n\t\twhile also planning"
                     + " to continue in the direction of the request. It tried "
@@ -296,11 +256,11 @@ public class IMPL_ElevatorPicker_IMPROVED implements Interface_IMPL_ElevatorPick
                     + "those either.\n\t\tSo it is sending the request to a "
                     + "pending list.");
             
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\tAdding "
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\tAdding "
                     + "floor " + floor + " to the list of pending requests, "
                     + "specifically marked to go " + (direction == 1 ? "up" : "down"));
             try {
-                Singl_WorkingController.getInstance()
+                context.getController()
                                             .addToPendingList(floor, direction);
             } catch (IllegalDirectionException ex) {
                 ex.printStackTrace();
@@ -311,6 +271,233 @@ public class IMPL_ElevatorPicker_IMPROVED implements Interface_IMPL_ElevatorPick
     }
     
         
+    /**
+     * Finds the candidates for a request by looking them up in the context's
+     * load index, nearest to the requesting floor first. Used when there are
+     * too many elevators for scanning them all to be cheap
+     * 
+     * @since Version 1.0
+     * @see #DIRECT_SCAN_LIMIT
+     * @param elevatorList the elevators of the building
+     * @param loadIndex the context's load index
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return an int array of the serial numbers of the elevator already on
+     *         the floor, the less than average and same direction elevator,
+     *         the same direction elevator and the backup, zero where none
+     */
+    private int[] lookUpInIndex(List<Interface_Elevator> elevatorList, 
+                Entity_ElevatorLoadIndex loadIndex, int floor, int direction) {
+        
+        int[] found = new int[4];
+        
+        // the index's views are live, so hold its lock while walking them
+        synchronized(loadIndex)
+        {
+            // if there's already an elevator on that floor, simply arrive
+            for(int serial : loadIndex.getElevatorsOnFloor(floor, direction))
+                found[0] = firstWithDoorsOpen(elevatorList, found[0], serial);
+        
+            for(int serial : loadIndex.getElevatorsOnFloor(floor, 0))
+                found[0] = firstWithDoorsOpen(elevatorList, found[0], serial);
+        
+            if(found[0] == 0)
+            {
+                // walk the elevators heading the same way that will still pass 
+                // the floor, nearest first. The first one without a conflicting
+                // callbox is the same direction choice, and the first of those 
+                // with no more destinations than the average of the others is
+                // preferred to it
+                for(int serial : loadIndex.getApproachingElevators(floor, direction))
+                {
+                    try {
+                        // check if there is not already a lit callbox button in a
+                        // direction different than the request we are examining
+                        if(checkCallboxConflict(elevatorList.get(serial - 1), floor) 
+                                == true) // true means there is a conflict
+                            continue;
+                    } catch (IllegalFloorException ex) {
+                        ex.printStackTrace();
+                        continue;
+                    }
+                
+                    if(found[2] == 0)
+                        found[2] = serial;
+                
+                    // determine the average amount of destinations 
+                    // among the other elevators
+                    int avgDestinationListSize 
+                                = loadIndex.getAverageDestinationsExcluding(serial);
+                
+                    if(loadIndex.getDestinations(serial) <= avgDestinationListSize
+                            && avgDestinationListSize >= 1)
+                    {
+                        found[1] = serial;
+                        break;
+                    }
+                }
+            
+                // backup plan if I find no directional choices: 
+                // the nearest idle elevator
+                if(found[2] == 0)
+                    for(int serial : loadIndex.getIdleElevators(floor))
+                    {
+                        // a stop posted to an elevator's thread shows in its
+                        // snapshot before the elevator updates the index
+                        if(elevatorList.get(serial - 1).getSnapshot().getDirection() != 0)
+                            continue;
+                        
+                        try {
+                            // check if there is not already a lit callbox button in a
+                            // direction different than the request we are examining
+                            if(checkCallboxConflict(elevatorList.get(serial - 1), floor) 
+                                    == false) // false means there is no conflict
+                            {
+                                found[3] = serial;
+                                break;
+                            }
+                        } catch (IllegalFloorException ex) {
+                            ex.printStackTrace();
+                        }
+                    }
+            }
+        }
+        
+        return found;
+    }
+    
+    /**
+     * Finds the candidates for a request by reading every elevator's snapshot
+     * once. Chooses exactly as the load index would: of two elevators the 
+     * same distance away the approaching one with the higher serial number
+     * comes first, and the idle one below or on the floor before the one 
+     * above it, then the higher serial number
+     * 
+     * @since Version 1.0
+     * @see #DIRECT_SCAN_LIMIT
+     * @param elevatorList the elevators of the building
+     * @param floor the requesting floor
+     * @param direction the direction of the request
+     * @return an int array laid out as the one from lookUpInIndex
+     */
+    private int[] scanElevators(List<Interface_Elevator> elevatorList, 
+                                                    int floor, int direction) {
+        
+        int[] found = new int[4];
+        Entity_ElevatorSnapshot[] snapshots 
+                = new Entity_ElevatorSnapshot[elevatorList.size()];
+        int totalDestinations = 0;
+        
+        for(int i = 0; i < snapshots.length; ++i)
+        {
+            snapshots[i] = elevatorList.get(i).getSnapshot();
+            totalDestinations += snapshots[i].getDestinationCount();
+            
+            // if there's already an elevator on that floor, simply arrive
+            if(found[0] == 0 && snapshots[i].isOpenOn(floor, direction))
+                found[0] = snapshots[i].getSerialNumber();
+        }
+        
+        if(found[0] != 0)
+            return found;
+        
+        int sameDirectionDistance = Integer.MAX_VALUE;
+        int lessThanAvgDistance = Integer.MAX_VALUE;
+        int backupDistance = Integer.MAX_VALUE;
+        boolean backupAbove = false;
+        
+        // walking the serial numbers down keeps the higher one of two 
+        // elevators the same distance away
+        for(int i = snapshots.length - 1; i >= 0; --i)
+        {
+            Entity_ElevatorSnapshot snapshot = snapshots[i];
+            int serial = snapshot.getSerialNumber();
+            int distance = Math.abs(floor - snapshot.getCurrentFloor());
+            boolean above = snapshot.getCurrentFloor() > floor;
+            
+            if(snapshot.isApproaching(floor, direction))
+            {
+                if(distance >= sameDirectionDistance 
+                        && distance >= lessThanAvgDistance)
+                    continue;
+            }
+            else if(snapshot.getDirection() == 0)
+            {
+                if(distance > backupDistance 
+                        || (distance == backupDistance && (above || !backupAbove)))
+                    continue;
+            }
+            else
+                continue;
+            
+            try {
+                // check if there is not already a lit callbox button in a
+                // direction different than the request we are examining
+                if(checkCallboxConflict(elevatorList.get(serial - 1), floor) 
+                        == true) // true means there is a conflict
+                    continue;
+            } catch (IllegalFloorException ex) {
+                ex.printStackTrace();
+                continue;
+            }
+            
+            if(snapshot.getDirection() == 0)
+            {
+                found[3] = serial;
+                backupDistance = distance;
+                backupAbove = above;
+                continue;
+            }
+            
+            if(distance < sameDirectionDistance)
+            {
+                found[2] = serial;
+                sameDirectionDistance = distance;
+            }
+            
+            // the average amount of destinations among the other elevators
+            int others = totalDestinations - snapshot.getDestinationCount();
+            int avgDestinationListSize 
+                    = (snapshot.getDestinationCount() == 0 
+                        ? totalDestinations / snapshots.length 
+                        : (snapshots.length < 2 ? 0 : others / (snapshots.length - 1)));
+            
+            if(distance < lessThanAvgDistance
+                    && snapshot.getDestinationCount() <= avgDestinationListSize
+                    && avgDestinationListSize >= 1)
+            {
+                found[1] = serial;
+                lessThanAvgDistance = distance;
+            }
+        }
+        
+        // the backup plan is only for when there are no directional choices
+        if(found[2] != 0)
+            found[3] = 0;
+        
+        return found;
+    }
+    
+    /**
+     * Returns the lower serial number of the elevator found so far and the 
+     * given one, counting the given one only if its doors are open. Used to 
+     * pick the elevator already standing on a requesting floor
+     * 
+     * @since Version 1.0
+     * @param elevatorList the elevators of the building
+     * @param found the serial number found so far, zero if none
+     * @param serial the serial number of an elevator on the floor
+     * @return an int serial number, zero if neither qualifies
+     */
+    private int firstWithDoorsOpen(List<Interface_Elevator> elevatorList, 
+                                                        int found, int serial) {
+        
+        if(elevatorList.get(serial - 1).getSnapshot().getDoorsAreOpen() == false)
+            return found;
+        
+        return (found == 0 || serial < found ? serial : found);
+    }
+    
     /**
      * The elevators are set up to service first pressed, first served relative to 
      * callboxes. So the improved delegate checks if there is not already a lit 
@@ -329,18 +516,21 @@ public class IMPL_ElevatorPicker_IMPROVED implements Interface_IMPL_ElevatorPick
         if(floor < 0)
             throw new IllegalFloorException("Negative floors number encountered: " + floor);
         
+        // the stops and the direction are read from the one snapshot
+        Entity_ElevatorSnapshot current = elevator.getSnapshot();
+        
         // check if there is not already a lit callbox button in a
         // direction different than the request we are examining
-        if(elevator.getDestinationList().contains(floor))
+        if(current.isStoppingAt(floor))
         {
-            if(elevator.getDirection() == 1 && Singl_WorkingBuilding.getInstance()
+            if(current.getDirection() == 1 && context.getBuilding()
                                             .getFloorList().get(floor - 1)
                                             .getcBox().getDownButton() == false)
             {
                 // means there's no conflicting, lit callbox button on the floor
                 return false;
             }
-            else if(elevator.getDirection() == -1 && Singl_WorkingBuilding.getInstance()
+            else if(current.getDirection() == -1 && context.getBuilding()
                                                         .getFloorList().get(floor - 1)
                                                         .getcBox().getUpButton() == false)
             {
@@ -21,15 +21,40 @@ public class IMPL_ElevatorPicker_PROVIDED implements Interface_IMPL_ElevatorPick
      * for tracking purposes.
      * @since Version 1.0
      */
-    private SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
 
     
     /**
-     * This is the public constructor. It takes no parameters and simply acts as a stub
+     * The simulation context this expert works for
+     * 
      * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+    
+    /**
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
+     * @since Version 1.0
+     * @see Entity_SimulationContext#getDefault()
      */
     public IMPL_ElevatorPicker_PROVIDED() {
-        
+        this(Entity_SimulationContext.getDefault());
+    }
+    
+    /**
+     * This is the public constructor used by the factory. It takes the 
+     * simulation context the expert works for
+     * @since Version 1.0
+     * @param c the simulation context
+     */
+    public IMPL_ElevatorPicker_PROVIDED(Entity_SimulationContext c) {
+        context = c;
     }
     
      /*
@@ -57,105 +82,118 @@ public class IMPL_ElevatorPicker_PROVIDED implements Interface_IMPL_ElevatorPick
         if(floor < 0)
             throw new IllegalFloorException("Negative number of floors encountered: " + floor);
                
-        System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller is being asked to send an elevator to "
                 + "floor " + floor + " so it can go " 
                 + (direction == 1 ? "up" : "down") + " from there");
         
         List<Interface_Elevator> elevatorList 
-                = Singl_WorkingBuilding.getInstance().getElevatorList();
+                = context.getBuilding().getElevatorList();
+        Entity_ElevatorSnapshot[] snapshots 
+                = new Entity_ElevatorSnapshot[elevatorList.size()];
         int backup = 0;
         int sameDirectionElevator = 0;
         int alreadyOnFloorElevator = 0;
         
-            
-        for(int i = 0; i < elevatorList.size(); ++i)
+        // each elevator is read once, from the snapshot it last published. If
+        // the one chosen has moved on since and can no longer take the 
+        // request, the choice is made again
+        for(int attempt = 0; ; ++attempt)
         {
+            backup = 0;
+            sameDirectionElevator = 0;
+            alreadyOnFloorElevator = 0;
             
-            // if there's already an elevator on that floor, simply arrive
-            if(floor == elevatorList.get(i).getCurrentFloor() 
-                                && elevatorList.get(i).getDoorsAreOpen() == true
-                                && (direction == elevatorList.get(i).getDirection() 
-                                    || elevatorList.get(i).getDirection() == 0))
+            for(int i = 0; i < elevatorList.size(); ++i)
             {
-                alreadyOnFloorElevator = elevatorList.get(i).getSerialNumber();
+                snapshots[i] = elevatorList.get(i).getSnapshot();
                 
-                try {
-                    elevatorList.get(alreadyOnFloorElevator - 1)
-                            .setDirection(direction);
-                } catch (IllegalDirectionException ex) {
-                    ex.printStackTrace();
+                // if there's already an elevator on that floor, simply arrive
+                if(snapshots[i].isOpenOn(floor, direction))
+                {
+                    alreadyOnFloorElevator = snapshots[i].getSerialNumber();
+                    break;
                 }
                 
-                break;
+                // finding elevator that is going in the same direction
+                if(snapshots[i].isApproaching(floor, direction))
+                {
+                    sameDirectionElevator = snapshots[i].getSerialNumber();
+                }
+                
+                // backup plan if after I iterate through loop, 
+                // I find no directional choices
+                if(snapshots[i].getDirection() == 0)
+                {
+                    backup = snapshots[i].getSerialNumber();
+                }
             }
             
-            // finding elevator that is going in the same direction
-            if((elevatorList.get(i).getDirection() == -1 
-                    && floor <= elevatorList.get(i).getCurrentFloor() 
-                    && direction == -1)
-                || (elevatorList.get(i).getDirection() == 1 
-                    && floor >= elevatorList.get(i).getCurrentFloor() 
-                    && direction == 1)
-              )   
-            {
-                sameDirectionElevator = elevatorList.get(i)
-                                                .getSerialNumber();
-            }
+            int chosen = (alreadyOnFloorElevator != 0 ? alreadyOnFloorElevator 
+                            : (sameDirectionElevator != 0 ? sameDirectionElevator 
+                                : backup));
             
-            // backup plan if after I iterate through loop, 
-            // I find no directional choices
-            if(elevatorList.get(i).getDirection() == 0)
-            {
-                backup = elevatorList.get(i).getSerialNumber();
+            if(chosen == 0 || attempt == Entity_ElevatorSnapshot.MAX_STALE_RETRIES
+                    || !snapshots[chosen - 1].hasGoneStale(
+                                elevatorList.get(chosen - 1), floor, direction))
+                break;
+        }
+        
+        if(alreadyOnFloorElevator != 0)
+        {
+            try {
+                elevatorList.get(alreadyOnFloorElevator - 1)
+                        .setDirection(direction);
+            } catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
             }
         }
         
         if(alreadyOnFloorElevator != 0)
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has found that elevator "
                 + elevatorList.get(alreadyOnFloorElevator - 1).getLetterName() 
                 + elevatorList.get(alreadyOnFloorElevator - 1).getSerialNumber()
                 + " is already on floor #" 
-                + elevatorList.get(alreadyOnFloorElevator - 1).getCurrentFloor()
+                + snapshots[alreadyOnFloorElevator - 1].getCurrentFloor()
                 + ". So it can satisfy\n\t\tthe request to go " 
                 + (direction == 1 ? "up" : "down") + " from floor #" + floor);
             
-            Singl_WorkingController.getInstance().disPatchElevator(
+            context.getController().disPatchElevator(
                                                         floor, 
                                                         alreadyOnFloorElevator);
         }
         else if(sameDirectionElevator != 0)
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has selected elevator "
                 + elevatorList.get(sameDirectionElevator - 1).getLetterName() 
                 + elevatorList.get(sameDirectionElevator - 1).getSerialNumber()
                 + " to satisfy the " + (direction == 1 ? "up" : "down") 
                 + " request from floor #" + floor 
                 + "\n\t\tbecause it is currently on floor " 
-                + elevatorList.get(sameDirectionElevator - 1).getCurrentFloor()
+                + snapshots[sameDirectionElevator - 1].getCurrentFloor()
                 + " and it is " 
-                + (elevatorList.get(sameDirectionElevator - 1)
+                + (snapshots[sameDirectionElevator - 1]
                         .getDirection()== 1 ? "heading up" : 
-                    (elevatorList.get(sameDirectionElevator - 1)
+                    (snapshots[sameDirectionElevator - 1]
                             .getDirection()== 0 ? "idle" : "heading down")
                    )
             );
-            System.out.println(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) 
                     + "\tSending Elevator " 
                     + elevatorList.get(sameDirectionElevator - 1).getLetterName() 
                     + elevatorList.get(sameDirectionElevator - 1).getSerialNumber() 
                     + " to Floor " + floor + "…");
             
-            Singl_WorkingController.getInstance().disPatchElevator(
+            context.getController().disPatchElevator(
                                                         floor, 
                                                         sameDirectionElevator);
         }
         else if(backup != 0)
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has selected elevator "
                 + elevatorList.get(backup - 1).getLetterName() 
                 + elevatorList.get(backup - 1).getSerialNumber()
@@ -166,17 +204,17 @@ public class IMPL_ElevatorPicker_PROVIDED implements Interface_IMPL_ElevatorPick
                 + elevatorList.get(backup - 1).getSerialNumber() + " was idle at "
                 + "the time the request was received");
             
-            System.out.println(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) 
                     + "\tSending Elevator " 
                     + elevatorList.get(backup - 1).getLetterName() 
                     + elevatorList.get(backup - 1).getSerialNumber() 
                     + " to Floor " + floor + "…");
             
-            Singl_WorkingController.getInstance().disPatchElevator(floor, backup);
+            context.getController().disPatchElevator(floor, backup);
         }
         else
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) 
                     + "The controller could not find an elevator that is heading"
                     + " in the direction of that floor \n\t\twhile also planning"
                     + " to continue in the direction of the request. It tried "
@@ -184,11 +222,11 @@ public class IMPL_ElevatorPicker_PROVIDED implements Interface_IMPL_ElevatorPick
                     + "those either.\n\t\tSo it is sending the request to a "
                     + "pending list.");
             
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\tAdding "
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\tAdding "
                     + "floor " + floor + " to the list of pending requests, "
                     + "specifically marked to go " + (direction == 1 ? "up" : "down"));
             
-            Singl_WorkingController.getInstance()
+            context.getController()
                                         .addToPendingList(floor, direction);
         }
     }
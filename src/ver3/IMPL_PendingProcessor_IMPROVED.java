@@ -41,13 +41,39 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
      * for tracking purposes.
      * @since Version 1.0
      */
-    private SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
     
     /**
-     * This is the public constructor. It takes no parameters and simply acts as a stub
+     * The simulation context this expert works for
+     * 
      * @since Version 1.0
-     */    
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+    
+    /**
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
+     * @since Version 1.0
+     * @see Entity_SimulationContext#getDefault()
+     */
     public IMPL_PendingProcessor_IMPROVED() {
+        this(Entity_SimulationContext.getDefault());
+    }
+    
+    /**
+     * This is the public constructor used by the factory. It takes the 
+     * simulation context the expert works for
+     * @since Version 1.0
+     * @param c the simulation context
+     */
+    public IMPL_PendingProcessor_IMPROVED(Entity_SimulationContext c) {
+        context = c;
     }
     
     /**
@@ -71,7 +97,7 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
             throw new IllegalElevatorException("Negative number of elevators "
                                   + "encountered: " + requestingElevatorNumber);
         
-        if(requestingElevatorNumber > Singl_WorkingSimulation.getInstance().getNumberOfElevators())
+        if(requestingElevatorNumber > context.getSimulation().getNumberOfElevators())
             throw new IllegalElevatorException("Elevator does not exist (too high): " + requestingElevatorNumber);
                     
         
@@ -79,79 +105,66 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
             throw new IllegalFloorException("Negative number of floors "
                                             + "encountered: " + requestingFloor);
         
-        if(requestingFloor > Singl_WorkingSimulation.getInstance().getNumberOfFloors()+1)
+        if(requestingFloor > context.getSimulation().getNumberOfFloors()+1)
             throw new IllegalFloorException("Floor does not exist (too high): " + requestingFloor);
         
         
                     
-        TreeMap<Integer,Integer> pList = Singl_WorkingController
-                                            .getInstance()
-                                            .getPendingList();
+        Entity_PendingCallSet pending = context
+                                            .getController()
+                                            .getPendingCalls();
         
-        List<Interface_Elevator> eList = Singl_WorkingBuilding
-                                            .getInstance()
+        List<Interface_Elevator> eList = context
+                                            .getBuilding()
                                             .getElevatorList();
         
-        TreeMap<Integer,Integer> removalList = new TreeMap<Integer,Integer>();
+        Interface_Elevator requestingElevator = eList.get(requestingElevatorNumber - 1);
         
                 
-        System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "Controller has received the pending request message from "
-                + "elevator " + eList.get(requestingElevatorNumber - 1).getLetterName() 
+                + "elevator " + requestingElevator.getLetterName() 
                 + requestingElevatorNumber + "\n\t\tand is now preparing "
                 + "destinations from the pendinglist to\n\t\tadd to the "
                 + "elevator's destination list");
         
         
         // first make sure there are actually pending requests to review
-        if(pList.size() > 0)
+        if(!pending.isEmpty())
         {
             
             // Determine closest floor away from current in all pending requests
-            int shortestLength = Singl_WorkingSimulation.getInstance().getNumberOfElevators();
-            int closestFloor = Singl_WorkingSimulation.getInstance().getNumberOfElevators();
-            int requestingElevatorDir = eList
-                    .get(requestingElevatorNumber - 1).getDirection();
-            int requestingElevatorLetter = eList
-                    .get(requestingElevatorNumber - 1).getLetterName();
+            int closestFloor = requestingFloor;
+            int requestingElevatorDir = requestingElevator.getSnapshot().getDirection();
+            int requestingElevatorLetter = requestingElevator.getLetterName();
        
-            for (Map.Entry<Integer, Integer> entry : pList.entrySet())
-            {     
-                if(requestingElevatorDir == 0) // then get any floor for closest floor
-                {
-                    if(Math.abs(entry.getKey() - requestingFloor) < shortestLength)
-                    {
-                        shortestLength = Math.abs(entry.getKey() - requestingFloor);
-                        closestFloor = entry.getKey();
-                    }
-                }
-                else // then make sure that elevator is already heading 
-                     // in the direction of closest floor
-                {   
-                    if(Math.abs(entry.getKey() - requestingFloor) < shortestLength
-                            && ((requestingElevatorDir == 1 // Heading towards
-                                        && entry.getKey() >= requestingFloor) 
-                                    || (requestingElevatorDir == -1 // Heading towards
-                                        && entry.getKey() <= requestingFloor)) 
-                      )
-                    {
-                        try {
-                            // check if there is not already a lit callbox button in a
-                            // direction different than the request we are examining
-                            if(checkCallboxConflict(
-                                    eList.get(requestingElevatorNumber - 1), 
-                                    entry.getKey()
+            // an idle elevator takes the nearest pending floor either way, 
+            // one that is moving only those it is already heading towards
+            int candidate = pending.nearestFloor(requestingFloor, requestingElevatorDir);
+            
+            while(candidate != -1)
+            {
+                try {
+                    // check if there is not already a lit callbox button in a
+                    // direction different than the request we are examining
+                    if(requestingElevatorDir == 0 
+                            || checkCallboxConflict(
+                                    requestingElevator, 
+                                    candidate
                                     )
                                         == false) // false means there is no conflict
-                            {
-                                shortestLength = Math.abs(entry.getKey() - requestingFloor);
-                                closestFloor = entry.getKey();
-                            }
-                        } catch (IllegalFloorException ex) {
-                            ex.printStackTrace();
-                        }
+                    {
+                        closestFloor = candidate;
+                        break;
                     }
+                } catch (IllegalFloorException ex) {
+                    ex.printStackTrace();
                 }
+                
+                // try the next pending floor further along the way it is heading
+                candidate = (requestingElevatorDir == 1 
+                                ? pending.nextFloor(candidate + 1, 0) 
+                                : pending.previousFloor(candidate - 1, 0));
             }
             
             // Set temporary direction attribute so we know which pending requests 
@@ -162,93 +175,58 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
             else
                 tempDirection = -1;
             
-            // determine the average amount of destinations among all elevators
-            int totalDestinations = 0;
-            int totalCountingElevators = 0;
-            for(Interface_Elevator elevator : eList)
-            {
-                // if current elevator does have destinations, count it
-                // Don't count it if it has none
-                if(elevator.getSerialNumber() == requestingElevatorNumber
-                        && elevator.getDestinationList().isEmpty())
-                {
-                    totalDestinations += elevator.getDestinationList().size();
-                    ++totalCountingElevators;
-                }
-                else if(elevator.getSerialNumber() != requestingElevatorNumber)
-                {
-                    totalDestinations += elevator.getDestinationList().size();
-                    ++totalCountingElevators;
-                }
-            }
-            double avgDestinationListSize = (totalDestinations / totalCountingElevators);
-            
+            // the average amount of destinations among all elevators, which 
+            // the load index keeps a running total for
+            int avgDestinationListSize = context.getLoadIndex()
+                            .getAverageDestinationsExcluding(requestingElevatorNumber);
+            int requestsTaken = 0;
             
             // Add the floor of all pending requests with desired-direction 
-            // matching travel-direction to the elevators list of destinations
-            for (Map.Entry<Integer, Integer> entry : pList.entrySet())
+            // matching travel-direction to the elevators list of destinations.
+            // Only the floors from the requesting floor to the closest floor
+            // can be added, so only those are looked at, lowest first
+            int lowestFloor = Math.min(requestingFloor, closestFloor);
+            int highestFloor = Math.max(requestingFloor, closestFloor);
+            
+            for (int floor = pending.nextFloor(lowestFloor, 0); 
+                    floor != -1 && floor <= highestFloor; 
+                    floor = pending.nextFloor(floor + 1, 0))
             {
+                int code = pending.getCode(floor);
+                
+                // the request may have been taken since the floor was found
+                if(code == 0)
+                    continue;
                 
                 // Do not dispatch more floors to an elevator than the calculated 
                 // average amount of destination list sizes (of other elevators)
-                if(avgDestinationListSize > 1 && removalList.size() >= avgDestinationListSize)
+                if(avgDestinationListSize > 1 && requestsTaken >= avgDestinationListSize)
                     break;
                 
+                int takeDirection = 0;
+                
                 // if the entry is the closest floor then add it to the list
-                if(entry.getKey() == closestFloor)
+                if(floor == closestFloor)
                 {
-                    int tempDir;
-                    if(entry.getValue() == 1 || entry.getValue() == 2)
-                        tempDir = 1;
+                    if(code == 1 || code == 2)
+                        takeDirection = 1;
                     else
-                        tempDir = -1;
-                    
-                    System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
-                            + "The controller sends elevator " 
-                            + eList.get(requestingElevatorNumber - 1).getLetterName()
-                            + eList.get(requestingElevatorNumber - 1).getSerialNumber()
-                            + " to closestfloor " + entry.getKey() + ". Floor " 
-                            + entry.getKey() + " has " 
-                            + (tempDir == 1 ? "an up" : "a down")
-                            + " request there.");
-                    
-                    eList.get(requestingElevatorNumber - 1)
-                            .addToDestinationList(entry.getKey());
-                    
-                    removalList.put(entry.getKey(), tempDir);
-                    
-                    continue; 
+                        takeDirection = -1;
                 }
-                
                 // means we are gathering only those pending requests above 
                 // current floor == means we're going up
-                if(closestFloor >= requestingFloor) 
+                else if(closestFloor >= requestingFloor) 
                 {
-                                        
-                    if((entry.getKey() >= requestingFloor 
-                                && entry.getKey() < closestFloor) 
-                        && (entry.getValue() == 1 || entry.getValue() == 2))
+                    if((floor >= requestingFloor 
+                                && floor < closestFloor) 
+                        && (code == 1 || code == 2))
                     {
                         try {
                             // check if there is not already a lit callbox button in a
                             // direction different than the request we are examining
-                            if(checkCallboxConflict(
-                                        eList.get(requestingElevatorNumber - 1)
-                                        , entry.getKey()
-                                    )
+                            if(checkCallboxConflict(requestingElevator, floor)
                                         == false) // false means there is no conflict
-                            {
-                                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
-                                    + "The controller sends elevator " 
-                                    + eList.get(requestingElevatorNumber - 1).getLetterName() 
-                                    + requestingElevatorNumber + " to floor " + entry.getKey() 
-                                    + ". Floor has an up request there.");
-
-                                eList.get(requestingElevatorNumber - 1)
-                                        .addToDestinationList(entry.getKey());
-
-                                removalList.put(entry.getKey(), 1);
-                            }
+                                takeDirection = 1;
                         } catch (IllegalFloorException ex) {
                             ex.printStackTrace();
                         }
@@ -256,46 +234,22 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
                 }
                 // means we are gathering only those pending requests below current 
                 // floor == means we're going down
-                else if(closestFloor <= requestingFloor)
+                else if((floor <= requestingFloor 
+                                && floor > closestFloor) 
+                        && (code == -1 || code == 2))
                 {
-                    if((entry.getKey() <= requestingFloor 
-                                && entry.getKey() > closestFloor) 
-                        && (entry.getValue() == -1 || entry.getValue() == 2))
-                    {                        
-                        System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
-                            + "The controller sends elevator " 
-                            + eList.get(requestingElevatorNumber - 1).getLetterName() 
-                            + requestingElevatorNumber + " to floor " + entry.getKey() 
-                            + ". Floor has a down request there.");
-                        
-                        eList.get(requestingElevatorNumber - 1)
-                                .addToDestinationList(entry.getKey());
-                        
-                        removalList.put(entry.getKey(), -1);
-                    }
+                    takeDirection = -1;
                 }
+                
+                if(takeDirection != 0 
+                        && takeRequest(requestingElevator, floor, takeDirection, 
+                                                        floor == closestFloor))
+                    ++requestsTaken;
             }
             
-            // clean up & remove requests you've added from pending requests list
-            if(!removalList.isEmpty())
-            {
-                for (Map.Entry<Integer, Integer> pendingRequest : removalList.entrySet())
-                {
-                    System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
-                        + "Removing pending request (" + pendingRequest.getKey() + "-" 
-                        + (pendingRequest.getValue() == 1 
-                                ? "up" 
-                                : (pendingRequest.getValue() == -1 
-                                        ? "down" : "up&down")) + ")");
-                    
-                    Singl_WorkingController.getInstance()
-                                    .removeFromPendingList(pendingRequest.getKey(),
-                                                           pendingRequest.getValue());
-                }
-            }
-            else
+            if(requestsTaken == 0)
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                     + "The controller has no pending destinations to give to "
                     + "elevator " + requestingElevatorLetter
                     + requestingElevatorNumber);
@@ -303,9 +257,9 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
         }
         else
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has no pending destinations to give to "
-                + "elevator " + Singl_WorkingBuilding.getInstance()
+                + "elevator " + context.getBuilding()
                                     .getElevatorList()
                                     .get(requestingElevatorNumber - 1)
                                     .getLetterName()
@@ -314,6 +268,57 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
         
     }
     
+    /**
+     * Takes a request off the controller's pending list and adds its floor to
+     * the elevator's destination list. The request is taken off first, so if
+     * another elevator has just taken it the elevator is not sent as well
+     * 
+     * @since Version 1.0
+     * @see Singl_WorkingController#removeFromPendingList(int, int)
+     * @param elevator the elevator to send
+     * @param floor the floor of the request
+     * @param direction the direction of the request, -1 or 1
+     * @param closest whether the floor is the closest one to the elevator
+     * @return a boolean that is true if the elevator was sent
+     */
+    private boolean takeRequest(Interface_Elevator elevator, int floor, 
+                                            int direction, boolean closest) {
+        
+        try {
+            if(!context.getController().removeFromPendingList(floor, direction))
+                return false;
+        } catch (IllegalDirectionException ex) {
+            ex.printStackTrace();
+            return false;
+        } catch (IllegalFloorException ex) {
+            ex.printStackTrace();
+            return false;
+        }
+        
+        if(closest)
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+                    + "The controller sends elevator " 
+                    + elevator.getLetterName() + elevator.getSerialNumber()
+                    + " to closestfloor " + floor + ". Floor " 
+                    + floor + " has " 
+                    + (direction == 1 ? "an up" : "a down")
+                    + " request there.");
+        else
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+                    + "The controller sends elevator " 
+                    + elevator.getLetterName() + elevator.getSerialNumber() 
+                    + " to floor " + floor + ". Floor has " 
+                    + (direction == 1 ? "an up" : "a down") + " request there.");
+        
+        elevator.addToDestinationList(floor);
+        
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
+            + "Removing pending request (" + floor + "-" 
+            + (direction == 1 ? "up" : "down") + ")");
+        
+        return true;
+    }
+    
    /**
      * The elevators are set up to service first pressed, first served relative to 
      * callboxes. So the improved delegate checks if there is not already a lit 
@@ -332,18 +337,21 @@ public class IMPL_PendingProcessor_IMPROVED implements Interface_IMPL_PendingPro
         if(floor < 0)
             throw new IllegalFloorException("Negative floors number encountered: " + floor);
         
+        // the stops and the direction are read from the one snapshot
+        Entity_ElevatorSnapshot current = elevator.getSnapshot();
+        
         // check if there is not already a lit callbox button in a
         // direction different than the request we are examining
-        if(elevator.getDestinationList().contains(floor))
+        if(current.isStoppingAt(floor))
         {
-            if(elevator.getDirection() == 1 && Singl_WorkingBuilding.getInstance()
+            if(current.getDirection() == 1 && context.getBuilding()
                                                         .getFloorList().get(floor - 1)
                                                         .getcBox().getDownButton() == false)
             {
                 // means there's no conflicting, lit callbox button on the floor
                 return false;
             }
-            else if(elevator.getDirection() == -1 && Singl_WorkingBuilding.getInstance()
+            else if(current.getDirection() == -1 && context.getBuilding()
                                                         .getFloorList().get(floor - 1)
                                                         .getcBox().getUpButton() == false)
             {
@@ -22,13 +22,39 @@ public class IMPL_PendingProcessor_PROVIDED implements Interface_IMPL_PendingPro
      * for tracking purposes.
      * @since Version 1.0
      */
-    private SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+    private final ThreadLocal<SimpleDateFormat> sdf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("HH:mm:ss");
+        }
+    };
+    
+    /**
+     * The simulation context this expert works for
+     * 
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
     
     /**
-     * This is the public constructor. It takes no parameters and simply acts as a stub
+     * This is the public constructor. It takes no parameters and works for the
+     * default simulation context
      * @since Version 1.0
-     */  
+     * @see Entity_SimulationContext#getDefault()
+     */
     public IMPL_PendingProcessor_PROVIDED() {
+        this(Entity_SimulationContext.getDefault());
+    }
+    
+    /**
+     * This is the public constructor used by the factory. It takes the 
+     * simulation context the expert works for
+     * @since Version 1.0
+     * @param c the simulation context
+     */
+    public IMPL_PendingProcessor_PROVIDED(Entity_SimulationContext c) {
+        context = c;
     }
          
     /**
@@ -57,18 +83,18 @@ public class IMPL_PendingProcessor_PROVIDED implements Interface_IMPL_PendingPro
                                             + "encountered: " + requestingFloor);
                    
         
-        TreeMap<Integer,Integer> pList = Singl_WorkingController
-                                            .getInstance()
+        TreeMap<Integer,Integer> pList = context
+                                            .getController()
                                             .getPendingList();
         
-        List<Interface_Elevator> eList = Singl_WorkingBuilding
-                                            .getInstance()
+        List<Interface_Elevator> eList = context
+                                            .getBuilding()
                                             .getElevatorList();
         
         TreeMap<Integer,Integer> removalList = new TreeMap<Integer,Integer>();
         
                 
-        System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "Controller has received the pending request message from "
                 + "elevator " + eList.get(requestingElevatorNumber - 1).getLetterName() 
                 + requestingElevatorNumber + "\n\t\tand is now preparing "
@@ -84,7 +110,7 @@ public class IMPL_PendingProcessor_PROVIDED implements Interface_IMPL_PendingPro
             int furthestLength = 0;
             int furthestFloor = 0;
             int requestingElevatorDir = eList
-                    .get(requestingElevatorNumber - 1).getDirection();
+                    .get(requestingElevatorNumber - 1).getSnapshot().getDirection();
        
             for (Map.Entry<Integer, Integer> entry : pList.entrySet())
             {     
@@ -134,7 +160,7 @@ public class IMPL_PendingProcessor_PROVIDED implements Interface_IMPL_PendingPro
                     else
                         tempDir = -1;
                     
-                    System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                    context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                             + "The controller sends elevator " 
                             + eList.get(requestingElevatorNumber - 1).getLetterName()
                             + eList.get(requestingElevatorNumber - 1).getSerialNumber()
@@ -160,7 +186,7 @@ public class IMPL_PendingProcessor_PROVIDED implements Interface_IMPL_PendingPro
                                 && entry.getKey() < furthestFloor) 
                         && (entry.getValue() == 1 || entry.getValue() == 2))
                     {
-                        System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                             + "The controller sends elevator " 
                             + eList.get(requestingElevatorNumber - 1).getLetterName() 
                             + requestingElevatorNumber + " to floor " 
@@ -180,7 +206,7 @@ public class IMPL_PendingProcessor_PROVIDED implements Interface_IMPL_PendingPro
                                 && entry.getKey() > furthestFloor) 
                         && (entry.getValue() == -1 || entry.getValue() == 2))
                     {                        
-                        System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                        context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                             + "The controller sends elevator " 
                             + eList.get(requestingElevatorNumber - 1).getLetterName() 
                             + requestingElevatorNumber + " to floor " + entry.getKey() 
@@ -199,28 +225,28 @@ public class IMPL_PendingProcessor_PROVIDED implements Interface_IMPL_PendingPro
             {
                 for (Map.Entry<Integer, Integer> pendingRequest : removalList.entrySet())
                 {
-                    System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                    context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                         + "Removing pending request (" + pendingRequest.getKey() + "-" 
                         + (pendingRequest.getValue() == 1 
                                 ? "up" 
                                 : (pendingRequest.getValue() == -1 
                                         ? "down" : "up&down")) + ")");
                     
-                    Singl_WorkingController.getInstance()
+                    context.getController()
                                     .removeFromPendingList(pendingRequest.getKey(),
                                                            pendingRequest.getValue());
                 }
             }
             else
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+                context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                     + "The controller has no pending destinations to give to "
                     + "elevator " + requestingElevatorNumber);
             }
         }
         else
         {
-            System.out.println(sdf.format(System.currentTimeMillis()) + "\t"
+            context.getConsole().println(sdf.get().format(System.currentTimeMillis()) + "\t"
                 + "The controller has no pending destinations to give to "
                 + "elevator " + requestingElevatorNumber);
         }
@@ -0,0 +1,37 @@
+package ver3;
+
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+
+/**
+ * This is an interface for an elevator picker that works from destination 
+ * kiosks instead of up and down buttons. When the controller's picker is 
+ * one of these, people key the floor they are going to into the kiosk on 
+ * their floor and are told which elevator to take, so people going to the 
+ * same part of the building can be sent together
+ * 
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Singl_WorkingController#pickDestination(Interface_Person)
+ * @see Interface_Person#getAssignedElevator()
+ */
+public interface Interface_DestinationPicker extends Interface_IMPL_ElevatorPicker {
+    
+    /**
+     * Selects the elevator a person who has keyed in their destination 
+     * should take, tells the person and sends the elevator to their floor. 
+     * If no elevator can be sent right now the person may take any elevator
+     * going their way
+     * 
+     * @since Version 1.0
+     * @param person the person at the kiosk
+     * @return the serial number of the elevator the person was told to take,
+     *         or zero if there is none yet
+     * @throws IllegalFloorException if the person's floors are not in the building
+     * @throws IllegalDirectionException if the person has no direction
+     */
+    public int pickDestination(Interface_Person person) 
+                        throws IllegalFloorException, IllegalDirectionException;
+    
+}
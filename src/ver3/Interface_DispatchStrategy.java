@@ -0,0 +1,52 @@
+package ver3;
+
+/**
+ * This is an interface for a named dispatch strategy: the pair of delegate
+ * experts, an elevator picker and a pending processor, that a simulation
+ * version gives the controller. The built in versions are registered by the
+ * strategy registry itself. Others are found with java.util.ServiceLoader, so
+ * a jar on the class path that lists its implementation in
+ * META-INF/services/ver3.Interface_DispatchStrategy adds a version without
+ * the factories being edited
+ *
+ * An implementation found by the ServiceLoader must have a public
+ * constructor that takes no parameters
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_DispatchStrategyRegistry
+ */
+public interface Interface_DispatchStrategy {
+
+    /**
+     * Returns the version name a simulation is given to use the strategy
+     *
+     * @since Version 1.0
+     * @return a String version name
+     */
+    public String getName();
+
+    /**
+     * Builds the elevator picker the controller hands callbox requests to.
+     * It is built once per simulation and may be called from several
+     * threads at once
+     *
+     * @since Version 1.0
+     * @param context the simulation context the picker works for
+     * @return the Interface_IMPL_ElevatorPicker of the strategy
+     */
+    public Interface_IMPL_ElevatorPicker buildPicker(Entity_SimulationContext context);
+
+    /**
+     * Builds the pending processor the controller hands an elevator's
+     * request for pending destinations to. It is built once per simulation
+     * and may be called from several threads at once
+     *
+     * @since Version 1.0
+     * @param context the simulation context the processor works for
+     * @return the Interface_IMPL_PendingProcessor of the strategy
+     */
+    public Interface_IMPL_PendingProcessor buildPendingProcessor(Entity_SimulationContext context);
+
+}
@@ -18,6 +18,8 @@ public interface Interface_Elevator {
      * Adds a new destination to the list and keeps the list sorted.  This list 
      * is always sorted in the order that the elevator will visit them, so index
      * 0 of the destinationList will always be the next destination for the elevator.
+     * An elevator running on a thread of its own adds the floor once that 
+     * thread gets to it
      * 
      * @since Version 1.0
      * @see #getDirection() 
@@ -28,6 +30,20 @@ public interface Interface_Elevator {
      */
     public void addToDestinationList(int dest);  
     
+    /**
+     * Takes a floor that a hall call put on the destination list off it 
+     * again, so that the call can be given to another elevator. A floor the
+     * elevator is on, or one that a passenger on board is going to, is kept.
+     * An elevator running on a thread of its own takes the floor off once 
+     * that thread gets to it, and tells the hall call reassigner
+     * 
+     * @since Version 1.0
+     * @see Entity_HallCallReassigner
+     * @param floor the floor to take off the list
+     * @return a boolean that is true if the floor was taken off
+     */
+    public boolean withdrawFromDestinationList(int floor);
+    
     /**
      * Simulates the elevator starting up from creation.  This creates a new thread
      * for the elevator to run in.  Each elevator runs in its own thread.
@@ -86,15 +102,38 @@ public interface Interface_Elevator {
     public int getSerialNumber();
 
     /**
-     * Returns the current sorted destination list.  This is represented as an
-     * ArrayList of Integers.
+     * Returns the current destination list, in the order the elevator will
+     * visit the floors.  This is a read-only view of the elevator's stops.
      * 
      * @since Version 1.0
-     * @see #destinationList
+     * @see #isStoppingAt(int)
      * @return a collection of destinations the elevator is to visit
      */
     public List <Integer> getDestinationList();
     
+    /**
+     * Returns whether the elevator is going to stop at a floor. Unlike
+     * looking the floor up in the destination list, this takes constant time
+     * 
+     * @since Version 1.0
+     * @see #getDestinationList()
+     * @param floor the floor
+     * @return a boolean that is true if the floor is one of its stops
+     */
+    public boolean isStoppingAt(int floor);
+    
+    /**
+     * Returns the snapshot the elevator last published of its floor, 
+     * direction, doors, load and stops. A new one is published after every 
+     * change, so reading it once gives a view of the elevator that fits 
+     * together even while the elevator moves
+     * 
+     * @since Version 1.0
+     * @see Entity_ElevatorSnapshot
+     * @return the Entity_ElevatorSnapshot last published
+     */
+    public Entity_ElevatorSnapshot getSnapshot();
+    
     /**
      * Returns elevator's distinguishing letter
      * 
@@ -114,7 +153,9 @@ public interface Interface_Elevator {
     public boolean getDoorsAreOpen();
 
     /**
-     * Sets the direction of the elevator.
+     * Sets the direction of the elevator. Asked from another thread, an 
+     * elevator running on a thread of its own is only turned while it is 
+     * idle with nowhere else to go
      * 
      * @since Version 1.0
      * @see #direction
@@ -133,7 +174,8 @@ public interface Interface_Elevator {
     public int getDefaultFloor();   
     
     /**
-     * Returns the elevator's passenger list
+     * Returns the elevator's passenger list. The list is a read-only view;
+     * people get on and off through the elevator itself
      * 
      * @since Version 1.0
      * @see #currentFloor
@@ -160,4 +202,42 @@ public interface Interface_Elevator {
      * @param person
      */
     public void addToPassengerList(Interface_Person person);
+    
+    /**
+     * Advances the elevator to the given tick when the simulation runs in 
+     * lockstep mode, carrying out its scheduled action if it has come due
+     * 
+     * @since Version 1.0
+     * @see Entity_LockstepEngine#advance(long)
+     * @param tick the simulated time of the tick, in milliseconds
+     */
+    public void step(long tick);
+    
+    /**
+     * Returns whether the elevator is idle and parked, waiting to be given work
+     * 
+     * @since Version 1.0
+     * @see Singl_WorkingController#addToPendingList(int, int)
+     * @return a boolean that is true if the elevator has nothing to do
+     */
+    public boolean isParked();
+    
+    /**
+     * Wakes the elevator if it is parked so that it asks the controller for
+     * the pending requests
+     * 
+     * @since Version 1.0
+     * @see Singl_WorkingController#addToPendingList(int, int)
+     */
+    public void wakeForPendingRequest();
+    
+    /**
+     * Returns the number of times the elevator has opened its doors on a 
+     * floor, so that runs can be compared on the stops made per trip
+     * 
+     * @since Version 1.0
+     * @see Singl_WorkingSimulation#buildChartC()
+     * @return a long count of stops
+     */
+    public long getStopCount();
 }
@@ -0,0 +1,74 @@
+package ver3;
+
+/**
+ * This is an interface for the backends that run the elevators' loops when the
+ * simulation runs in real time. Each elevator hands its run loop to the backend
+ * when it starts up, and reports back every time its thread wakes from a sleep
+ * or a wait, so that the backends can be compared on how many threads they
+ * started and how often those threads woke
+ * 
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Fact_IMPL_ElevatorExecutor
+ * @see Entity_WorkingElevator#startUp()
+ */
+public interface Interface_ElevatorExecutor {
+    
+    /**
+     * Starts running an elevator's loop on a thread of this backend
+     * 
+     * @since Version 1.0
+     * @param loop the elevator loop to run
+     */
+    public void execute(Runnable loop);
+    
+    /**
+     * Records that one of the threads this backend started has woken from a
+     * sleep or a wait
+     * 
+     * @since Version 1.0
+     */
+    public void recordWakeup();
+    
+    /**
+     * Records that an idle elevator's thread woke up without having been
+     * given any work and went straight back to waiting
+     * 
+     * @since Version 1.0
+     */
+    public void recordSpuriousWakeup();
+    
+    /**
+     * Returns the name of the backend, used in reports
+     * 
+     * @since Version 1.0
+     * @return a String naming the backend
+     */
+    public String getName();
+    
+    /**
+     * Returns the number of threads this backend has started
+     * 
+     * @since Version 1.0
+     * @return a long count of started threads
+     */
+    public long getThreadsStarted();
+    
+    /**
+     * Returns the number of wakeups recorded by the threads of this backend
+     * 
+     * @since Version 1.0
+     * @return a long count of wakeups
+     */
+    public long getWakeups();
+    
+    /**
+     * Returns the number of spurious wakeups recorded by the threads of this backend
+     * 
+     * @since Version 1.0
+     * @return a long count of wakeups that found no work
+     */
+    public long getSpuriousWakeups();
+    
+}
@@ -0,0 +1,29 @@
+package ver3;
+
+/**
+ * This is an interface used by anything that wants to receive events from the
+ * discrete-event kernel. Elevators use it for their floor-arrival, door-close
+ * and idle-timeout events and the simulation uses it for its passenger-arrival
+ * events. The kernel hands the event back to the handler that scheduled it
+ * once the virtual clock reaches the event's time.
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Entity_EventKernel
+ * @see Entity_SimulationEvent
+ */
+public interface Interface_EventHandler {
+
+    /**
+     * Invoked by the kernel when the virtual clock reaches the time of an event
+     * that this handler scheduled. The handler looks at the event's type to
+     * decide what to do
+     *
+     * @since Version 1.0
+     * @see Entity_SimulationEvent#getType()
+     * @param event the event that has come due
+     */
+    public void handleEvent(Entity_SimulationEvent event);
+
+}
@@ -26,13 +26,47 @@ public interface Interface_Floor {
     public Interface_Callbox getcBox();
     
     /**
-     * Returns the current list of people on the floor
+     * Returns the current list of people on the floor, in the order they 
+     * arrived. The list is a copy
      * 
      * @since Version 1.0
-     * @see #peopleOnFloor
+     * @see #getWaitingQueue(int)
      * @return floor's collection of people currently on the floor
      */
     public ArrayList<Interface_Person> getPeopleOnFloorList();
+    
+    /**
+     * Returns the queue of people waiting on the floor to go one way. The 
+     * floor must be held while the queue is read or changed
+     * 
+     * @since Version 1.0
+     * @see #getNumberOfWaitingPeople(int)
+     * @param direction 1 for up and -1 for down
+     * @return the Entity_WaitingQueue for that direction, or null for any
+     *         other direction
+     */
+    public Entity_WaitingQueue getWaitingQueue(int direction);
+    
+    /**
+     * Returns the number of people waiting on the floor to go one way
+     * 
+     * @since Version 1.0
+     * @see #getWaitingQueue(int)
+     * @param direction 1 for up and -1 for down
+     * @return an int count of people, zero for any other direction
+     */
+    public int getNumberOfWaitingPeople(int direction);
+    
+    /**
+     * Tells the console about the people an elevator has opened its doors to
+     * and left behind
+     * 
+     * @since Version 1.0
+     * @see #sendPassengersToElevator(int)
+     * @param elevator the elevator that has opened its doors on the floor
+     * @param boarding the queue that boarded, or null if nobody could
+     */
+    public void printFrustrated(Interface_Elevator elevator, Entity_WaitingQueue boarding);
 
     /**
      * Returns floor's height number
@@ -197,4 +231,35 @@ public interface Interface_Floor {
      * @return floor's collection of people who've left from that floor
      */
     public ArrayList<Double> getPersonsDeparted();
+    
+    /**
+     * Queues a newly created person to arrive on the floor at the next tick
+     * when the simulation runs in lockstep mode
+     * 
+     * @since Version 1.0
+     * @see #step(long)
+     * @param theGuy the person arriving on the floor
+     */
+    public void addArrivingPerson(Interface_Person theGuy);
+    
+    /**
+     * Advances the floor to the given tick when the simulation runs in 
+     * lockstep mode. Queued people arrive on the floor and press its callbox
+     * 
+     * @since Version 1.0
+     * @see Entity_LockstepEngine#advance(long)
+     * @see #addArrivingPerson(Interface_Person)
+     * @param tick the simulated time of the tick, in milliseconds
+     */
+    public void step(long tick);
+    
+    /**
+     * Returns the number of people queued to arrive on the floor at the next
+     * lockstep tick
+     * 
+     * @since Version 1.0
+     * @see #addArrivingPerson(Interface_Person)
+     * @return an int which is the amount of people yet to arrive
+     */
+    public int getNumberOfArrivingPeople();
 }
@@ -0,0 +1,28 @@
+package ver3;
+
+/**
+ * This is an interface for an elevator picker that also decides where idle
+ * elevators wait. When the controller's picker is one of these, an elevator
+ * that has been idle long enough goes to the floor the picker gives it
+ * instead of always going back to its default floor
+ *
+ * @author Ben McFerren
+ * @author Kevin Newhouse
+ * @since Version 1.0
+ * @see Singl_WorkingController#getParkingFloor(Interface_Elevator)
+ * @see Entity_DemandForecast
+ */
+public interface Interface_ParkingPicker extends Interface_IMPL_ElevatorPicker {
+
+    /**
+     * Selects the floor an idle elevator should wait on. It may be called
+     * from several elevator threads at once, and while the elevator holds
+     * its own locks, so it must not lock any elevator
+     *
+     * @since Version 1.0
+     * @param elevator the idle elevator
+     * @return the floor number the elevator should park on
+     */
+    public int pickParkingFloor(Interface_Elevator elevator);
+
+}
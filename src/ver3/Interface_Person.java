@@ -78,4 +78,22 @@ public interface Interface_Person {
      */
     public double getRideTime();
     
+    /*
+     * This method returns the serial number of the elevator the person was told
+     * to take when keying in their destination, or zero if any elevator will do.
+     * @return int which represents the serial number of the assigned elevator
+     * @see #setAssignedElevator
+     * @since Version 1.0
+     */
+    public int getAssignedElevator();
+    
+    /*
+     * This method sets the serial number of the elevator the person is told to
+     * take, or zero if any elevator will do.
+     * @param serial the serial number of the assigned elevator
+     * @see #getAssignedElevator
+     * @since Version 1.0
+     */
+    public void setAssignedElevator(int serial);
+    
 }
@@ -22,14 +22,12 @@ import ver3.project_exceptions.IllegalFloorException;
 public class Singl_WorkingBuilding {
     
     /**
-     * This is a private static variable used to store the instance of the 
-     * Singl_WorkingBuilding object. It is volatile because we are working with 
-     * threads and do not want to cache copies. 
+     * The simulation context this building belongs to
      * 
      * @since Version 1.0
-     * @see #Singl_WorkingBuilding()
+     * @see Entity_SimulationContext
      */
-    private volatile static Singl_WorkingBuilding instance;
+    private Entity_SimulationContext context;
     
     /**
     * The building's count of all its elevators.
@@ -68,8 +66,9 @@ public class Singl_WorkingBuilding {
     private List<Interface_Elevator> elevatorList = new ArrayList<Interface_Elevator>();
     
     /**
-     * This is a private constructor so that noone on the outside can instantiate
-     * an object from the class directly. Inside of the body of the constructor
+     * This is a package constructor used by the simulation context that owns 
+     * the building, so that noone on the outside can instantiate an object 
+     * from the class directly. Inside of the body of the constructor
      * there is a try / catch block that invokes the readXML method to populate 
      * floor and elevator quantity variables. It then invokes the setFloorList
      * and setElevatorList methods to populate the arrayLists with the specified
@@ -80,12 +79,16 @@ public class Singl_WorkingBuilding {
      * @see readXML()
      * @see setFloorList(int nF)
      * @see #setElevatorList(int nE)
+     * @see Entity_SimulationContext#getBuilding()
+     * @param c the context the building belongs to
      */
-    private Singl_WorkingBuilding() {
+    Singl_WorkingBuilding(Entity_SimulationContext c) {
+        
+        context = c;
         
         try{
-            setNumberOfFloors(Singl_WorkingSimulation.getInstance().getNumberOfFloors());
-            setNumberOfElevators(Singl_WorkingSimulation.getInstance().getNumberOfElevators());
+            setNumberOfFloors(context.getSimulation().getNumberOfFloors());
+            setNumberOfElevators(context.getSimulation().getNumberOfElevators());
             
             setFloorList(getNumberOfFloors());
             setElevatorList(getNumberOfElevators());
@@ -99,27 +102,17 @@ public class Singl_WorkingBuilding {
     }
     
     /**
-    * This is a public static method that returns an instance of the Building object.
-    * The method contains conditionals to check if the instance has already been
-    * instantiated. If so, then it returns the pre-existing object. If not, then
-    * inside a synchronized block (to protect against multiple threads potentially
-    * create two instantiations of the class)
+    * This is a public static method that returns the Building object of the
+    * default simulation context. The context creates it the first time it is 
+    * asked for, so there is only ever one default building
     * 
     * @since Version 1.0
-    * @return the instance variable which is the Building object
+    * @see Entity_SimulationContext#getDefault()
+    * @return the Building object of the default context
     */
     public static Singl_WorkingBuilding getInstance() {
         
-        if(instance == null)
-            synchronized(Singl_WorkingBuilding.class)
-            {
-                if(instance == null)
-                {
-                    instance = new Singl_WorkingBuilding();
-                }
-            }
-        
-        return instance;
+        return Entity_SimulationContext.getDefault().getBuilding();
         
     }
     
@@ -199,7 +192,7 @@ public class Singl_WorkingBuilding {
      */
     private void setNumberOfFloors(int nOF) throws IllegalFloorException {
         
-        if(nOF < 0 || nOF > Singl_WorkingSimulation.getInstance().getNumberOfFloors())
+        if(nOF < 0 || nOF > context.getSimulation().getNumberOfFloors())
             throw new IllegalFloorException("Invalid number of floors "
                                                        + "encountered: " + nOF);
         else
@@ -225,7 +218,7 @@ public class Singl_WorkingBuilding {
         else
         {
             for(int i = 0; i < nE; ++i){ 
-                elevatorList.add(Fact_ElevatorFactory.build());
+                elevatorList.add(Fact_ElevatorFactory.build(context));
             }
         }
     }
@@ -250,7 +243,7 @@ public class Singl_WorkingBuilding {
         {
             for(int i = 0; i < nF; ++i){ 
                 
-                floorList.add(Fact_FloorFactory.build());
+                floorList.add(Fact_FloorFactory.build(context));
             }
         }
     }
@@ -1,7 +1,9 @@
 package ver3;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 import ver3.project_exceptions.IllegalDirectionException;
 import ver3.project_exceptions.IllegalElevatorException;
 import ver3.project_exceptions.IllegalFloorException;
@@ -24,14 +26,13 @@ import ver3.project_exceptions.IllegalFloorException;
 public class Singl_WorkingController {
     
     /**
-     * This is a private static variable used to store the instance of the 
-     * Singl_WorkingController object. It is volatile because we are working with 
-     * threads and do not want to cache copies. 
+     * The simulation context this controller belongs to
      * 
      * @since Version 1.0
-     * @see #Singl_WorkingController()
+     * @see Entity_SimulationContext
      */
-    private volatile static Singl_WorkingController instance; 
+    private Entity_SimulationContext context;
+
     /**
      * This is a private delegate variable we'll use to 
      * select elevators when a callbox signals
@@ -51,50 +52,68 @@ public class Singl_WorkingController {
     private Interface_IMPL_PendingProcessor delegatePP;
     
     /**
-     * This is a private collection we'll use to store pending requests which are
-     * callbox requests that cannot be serviced right away
+     * The version the delegates were built for
      * 
-     * Argument order is floor, direction code
-     * Direction code: -1 for just down, 1 for just up, 2 for down & up
+     * @since Version 1.0
+     * @see #resolveDelegates()
+     */
+    private volatile String delegateVersion;
+    
+    /**
+     * This is a private collection we'll use to store pending requests which are
+     * callbox requests that cannot be serviced right away. It is created the 
+     * first time it is asked for, once the number of floors is known
      * 
      * @since Version 1.0
+     * @see #getPendingCalls()
      * @see #deliverPendingList(int requestingFloor, int requestingElevatorNumber)
      */
-    private TreeMap<Integer, Integer> pendingList = new TreeMap<Integer, Integer>(); 
+    private volatile Entity_PendingCallSet pendingCalls;
+    
+    /**
+     * A copy of the pending requests as they were after the last lockstep 
+     * tick, used to tell whether new requests have been posted since
+     * 
+     * @since Version 1.0
+     * @see #step(long)
+     */
+    private long[] pendingBitsAtLastStep = new long[0]; 
+    
+    /**
+     * The number of times a request has been added to the pending list
+     * 
+     * @since Version 1.0
+     * @see #getPendingListVersion()
+     */
+    private final AtomicLong pendingListVersion = new AtomicLong();
 
     /**
-     * This is a private constructor so that noone on the outside can instantiate
-     * an object from the class directly
+     * This is a package constructor used by the simulation context that owns 
+     * the controller, so that noone on the outside can instantiate an object
+     * from the class directly
      * 
      * @since Version 1.0
      * @see #getInstance()
+     * @see Entity_SimulationContext#getController()
+     * @param c the context the controller belongs to
      */
-    private Singl_WorkingController() {
-                
+    Singl_WorkingController(Entity_SimulationContext c) {
+        
+        context = c;
     }
     
     /**
-     * This is a static method that returns an instance of the Controller object.
-     * The method contains conditionals to check if the instance has already been
-     * instantiated. If so, then it returns the pre-existing object. If not, then
-     * inside a synchronized block (to protect against multiple threads potentially
-     * create two instantiations of the class)
+     * This is a static method that returns the Controller object of the 
+     * default simulation context. The context creates it the first time it is 
+     * asked for, so there is only ever one default controller
      * 
      * @since Version 1.0
-     * @return the instance variable which is the controller object
+     * @see Entity_SimulationContext#getDefault()
+     * @return the controller object of the default context
      */
     public static Singl_WorkingController getInstance() {
         
-        if(instance == null)
-            synchronized(Singl_WorkingController.class)
-            {
-                if(instance == null)
-                {
-                    instance = new Singl_WorkingController();
-                }
-            }
-        
-        return instance;
+        return Entity_SimulationContext.getDefault().getController();
         
     }
          
@@ -124,8 +143,7 @@ public class Singl_WorkingController {
             throw new IllegalFloorException("Negative number of floors "
                                             + "encountered: " + requestingFloor);
         
-        String version = Singl_WorkingSimulation.getInstance().getVersion();
-        setDelegatePP(Fact_IMPL_PendingProcessor.build(version));
+        resolveDelegates();
         try {
             getDelegatePP().deliverPendingList(requestingFloor, requestingElevatorNumber);
         } catch (IllegalDirectionException ex) {
@@ -158,9 +176,7 @@ public class Singl_WorkingController {
                          + " when invoking picking method: " + floor);
         }
          
-        String version = Singl_WorkingSimulation.getInstance().getVersion();
-        
-        setDelegateEP(Fact_IMPL_ElevatorPicker.build(version));
+        resolveDelegates();
         
         try {
             getDelegateEP().pick(floor, direction);
@@ -169,11 +185,76 @@ public class Singl_WorkingController {
         }
     }
     
+    /**
+     * Returns whether people key their destinations into kiosks instead of
+     * pressing up and down buttons, which they do when the simulation's 
+     * version picks elevators by destination
+     * 
+     * @since Version 1.0
+     * @see Interface_DestinationPicker
+     * @return a boolean that is true if people should call pickDestination
+     */
+    public boolean isDestinationDispatch() {
+        
+        resolveDelegates();
+        
+        return getDelegateEP() instanceof Interface_DestinationPicker;
+    }
+    
+    /**
+     * This method reaches out to the designated delegate class in order to 
+     * select the elevator a person who has keyed in their destination should
+     * take. It is only used when the simulation's version picks elevators by
+     * destination
+     * 
+     * @since Version 1.0
+     * @see #isDestinationDispatch()
+     * @param person the person at the kiosk
+     * @return the serial number of the elevator the person was told to take,
+     *         or zero if any elevator going their way will do
+     * @throws IllegalDirectionException if the person has no direction
+     * @throws IllegalFloorException if the person's floors are not in the building
+     */
+    public int pickDestination(Interface_Person person) throws IllegalDirectionException,
+                                                         IllegalFloorException {
+        
+        if(person.getStartFloor() < 1 || person.getIntendedDestination() < 1)
+        {
+            throw new IllegalFloorException("Invalid floor argument encountered"
+                         + " when invoking destination picking method: " 
+                         + person.getStartFloor() + " to " + person.getIntendedDestination());
+        }
+        
+        if(!isDestinationDispatch())
+            return 0;
+        
+        return ((Interface_DestinationPicker) getDelegateEP()).pickDestination(person);
+    }
+
+    /**
+     * Returns the floor an idle elevator should wait on. When the simulation's
+     * version parks elevators by forecast demand the delegate picks the floor,
+     * otherwise it is the elevator's default floor
+     *
+     * @since Version 1.0
+     * @see Interface_ParkingPicker
+     * @param elevator the idle elevator
+     * @return the floor number the elevator should park on
+     */
+    public int getParkingFloor(Interface_Elevator elevator) {
+
+        resolveDelegates();
+
+        if(getDelegateEP() instanceof Interface_ParkingPicker)
+            return ((Interface_ParkingPicker) getDelegateEP()).pickParkingFloor(elevator);
+
+        return elevator.getDefaultFloor();
+    }
+
     /**
      * This method is invoked when no appropriate elevator is found to respond
      * to a callbox request. It adds floor requests to the controllers pending
-     * list. It is a little tricky bc the pending list is a map that has a code
-     * for the scenario where a floor has a lit up button and a lit down button
+     * list. A floor can have an up request and a down request pending at once
      * 
      * @param int floor, int direction
      * @throws IllegalDirectionException, IllegalFloorException 
@@ -186,68 +267,94 @@ public class Singl_WorkingController {
             throw new IllegalDirectionException("Out of bounds direction encountered"
                     + " while controller is addingtopendinglist: " + direction);
         
-        if(floor < 0)
+        if(floor < 0 || floor > context.getSimulation().getNumberOfFloors()+1)
         {
             throw new IllegalFloorException("Invalid floor argument encountered"
                          + " when invoking addToPendingList method: " + floor);
         }
         
-        // if the floor is already in the pending list 
-        // but that request is of a different direction
-        if(getPendingList().containsKey(floor) && getPendingList().get(floor) != direction)
-            getPendingList().put(floor, 2); // then notate that both floor directions 
-        else if (!getPendingList().containsKey(floor)) // floor isn't in pendinglist,
-            getPendingList().put(floor, direction);    // then add
+        // if the request is already in the pending list then adding 
+        // it again changes nothing
+        getPendingCalls().add(floor, direction);
         
-        // if the request contains a floor and a directional code that is already in the pending list
-        // then just ignore it and let it fall through the conditional statement
+        pendingListVersion.incrementAndGet();
         
+        wakeParkedElevator(floor);
+    }
+    
+    /**
+     * Wakes the parked elevator closest to a floor that has just been added to
+     * the pending list, so that it asks for the request. Idle elevators wait 
+     * for this instead of checking the pending list on a timer
+     * 
+     * @since Version 1.0
+     * @see Interface_Elevator#wakeForPendingRequest()
+     * @param floor the floor of the new pending request
+     */
+    private void wakeParkedElevator(int floor) {
+        
+        Interface_Elevator closest = null;
+        
+        for(Interface_Elevator elevator : context.getBuilding().getElevatorList())
+        {
+            if(elevator.isParked() && (closest == null 
+                    || Math.abs(elevator.getCurrentFloor() - floor) 
+                            < Math.abs(closest.getCurrentFloor() - floor)))
+                closest = elevator;
+        }
+        
+        if(closest != null)
+            closest.wakeForPendingRequest();
+    }
+    
+    /**
+     * Returns the number of times a request has been added to the pending 
+     * list. A parked elevator compares it with the number it saw before it
+     * parked, so it never sleeps through a request added while it parked
+     * 
+     * @since Version 1.0
+     * @see #pendingListVersion
+     * @return a long that changes every time a request is added
+     */
+    public long getPendingListVersion() {
+        return pendingListVersion.get();
     }
     
     /**
      * This method is invoked when the contoller's IMPL decides to dispatch
      * a particular elevator to a particular floor found from the pending list.
      * It removes floor requests from the pending list after it has given them
-     * to the elevator. It is a little tricky bc the pending list is a map that 
-     * has a code for the scenario where a floor has a lit up button and a lit 
-     * down button
+     * to the elevator. Only the request in the given direction is removed, 
+     * so a floor's request in the other direction stays pending
      * 
      * @param int floor, int direction
      * @throws IllegalDirectionException, IllegalFloorException 
      * @since Version 1.0
+     * @return a boolean that is true if the request was pending and this 
+     *         call removed it
      */
-    public void removeFromPendingList(int floor, int direction) 
+    public boolean removeFromPendingList(int floor, int direction) 
                        throws IllegalDirectionException, IllegalFloorException {
         
         if(!(direction == -1 || direction  == 1))
             throw new IllegalDirectionException("Out of bounds direction encountered"
                     + " while controller is removing from pending list: " + direction);
         
-        if(floor < 0)
+        if(floor < 0 || floor > context.getSimulation().getNumberOfFloors()+1)
         {
             throw new IllegalFloorException("Invalid floor argument encountered"
                          + " when invoking removePendingList method: " + floor);
         }
 
-        try {
-            // if the remove request contains a floor and a directional that is in 
-            // the pending list and the directional code is 2, then that floor has 
-            // an up and a down request in the pending list
-            if(getPendingList().containsKey(floor) && getPendingList().get(floor) == 2)
-                // remove the request direction by multiplying it by negative one
-                getPendingList().put(floor, (direction * -1)); 
-            else if(getPendingList().containsKey(floor) && getPendingList().get(floor) != 2)
-                getPendingList().remove(floor);
-
-            // if the remove request contains a floor and a directional code that is 
-            // NOT in the pending list then just ignore it and let it fall through 
-            // the conditional statement
-
-        } catch(IndexOutOfBoundsException ex) {
-            System.out.printf("Error occurred while trying to get floor index %d"
-                    + " of  from Pending list inside removeFromPendingList"
-                    + " method: %s\n", ex.getMessage(), floor);
-        }
+        // if the request is NOT in the pending list then there is nothing to do
+        if(!getPendingCalls().remove(floor, direction))
+            return false;
+        
+        // the controller goes quiet once nothing is left pending
+        if(getPendingCalls().isEmpty())
+            context.getSimulation().getDrainBarrier().signal();
+        
+        return true;
     }
     
     /**
@@ -275,11 +382,11 @@ public class Singl_WorkingController {
         
         //check to make sure the floor argument is in range
         if(floorRequested < 1 
-                || floorRequested > Singl_WorkingBuilding.getInstance()
+                || floorRequested > context.getBuilding()
                                                             .getNumberOfFloors()
           )
         {
-            System.out.printf(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
                         + "\tInvalid Request: Requested floor %d is outside the "
                         + "range held in the building\n", floorRequested);
             throw new IllegalArgumentException();
@@ -287,11 +394,11 @@ public class Singl_WorkingController {
         
         //check to make sure the elevator argument is in range
         if(elevatorNumber < 1 
-                || elevatorNumber > Singl_WorkingBuilding.getInstance()
+                || elevatorNumber > context.getBuilding()
                                                          .getNumberOfElevators()
           )
         {
-            System.out.printf(sdf.format(System.currentTimeMillis()) 
+            context.getConsole().printf(sdf.format(System.currentTimeMillis()) 
                         + "\tInvalid Request: Requested elevator %d is outside the "
                         + "range owned by the building\n", elevatorNumber);
             throw new IllegalArgumentException();
@@ -299,12 +406,12 @@ public class Singl_WorkingController {
            
         try
         {
-            Interface_Elevator eActual = Singl_WorkingBuilding.getInstance()
+            Interface_Elevator eActual = context.getBuilding()
                                           .getElevatorList().get(elevatorNumber - 1); 
             
             eActual.addToDestinationList(floorRequested);
         } catch(IndexOutOfBoundsException ex) {
-            System.out.printf("Error occurred while trying to get "
+            context.getConsole().printf("Error occurred while trying to get "
                     + " index %d of destination list (passing msg): %s\n", 
                     ex.getMessage(), elevatorNumber);
         }
@@ -334,14 +441,119 @@ public class Singl_WorkingController {
     }
     
     /**
-     * A simple accessor method that returns the pending list
+     * Advances the controller to the given tick when the simulation runs in 
+     * lockstep mode. The hall call batcher first hands out its calls if its
+     * window has closed, and the hall call reassigner looks at the calls 
+     * given out if it is time to. Then, if the pending list has changed since the last 
+     * tick, each idle elevator in turn is offered the pending requests, the 
+     * same way an elevator asks for them when it goes idle
      * 
-     * @see #pendingList
+     * @see Entity_LockstepEngine#advance(long)
+     * @see Entity_HallCallBatcher#step(long)
+     * @see Entity_HallCallReassigner#step(long)
+     * @see #deliverPendingList(int requestingFloor, int requestingElevatorNumber)
+     * @since Version 1.0
+     * @param tick the simulated time of the tick, in milliseconds
+     */
+    public void step(long tick) {
+        
+        Entity_HallCallBatcher batcher = context.getSimulation().getHallCallBatcher();
+        if(batcher != null)
+            batcher.step(tick);
+        
+        Entity_HallCallReassigner reassigner = context.getSimulation().getHallCallReassigner();
+        if(reassigner != null)
+            reassigner.step(tick);
+        
+        if(Arrays.equals(getPendingCalls().getBits(), pendingBitsAtLastStep))
+            return;
+        
+        for(Interface_Elevator elevator : context.getBuilding()
+                                                            .getElevatorList())
+        {
+            if(getPendingCalls().isEmpty())
+                break;
+            
+            if(elevator.getDirection() == 0 && elevator.getDestinationList().isEmpty())
+            {
+                try {
+                    deliverPendingList(elevator.getCurrentFloor(), 
+                                            elevator.getSerialNumber());
+                } catch (IllegalElevatorException ex) {
+                    ex.printStackTrace();
+                } catch (IllegalFloorException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+        
+        pendingBitsAtLastStep = getPendingCalls().getBits();
+    }
+    
+    /**
+     * Returns the pending requests, creating the set the first time it is
+     * asked for
+     * 
+     * @see #pendingCalls
+     * @since Version 1.0
+     * @return the Entity_PendingCallSet of pending requests
+     */
+    public Entity_PendingCallSet getPendingCalls() {
+        
+        if(pendingCalls == null)
+            synchronized(this)
+            {
+                if(pendingCalls == null)
+                {
+                    pendingCalls = new Entity_PendingCallSet(
+                                    context.getSimulation().getNumberOfFloors());
+                }
+            }
+        
+        return pendingCalls;
+    }
+    
+    /**
+     * Returns a copy of the pending list, as a map of floor to direction code
+     * Direction code: -1 for just down, 1 for just up, 2 for down & up
+     * 
+     * Changing the copy does not change the pending requests
+     * 
+     * @see #getPendingCalls()
      * @since Version 1.0
      * @return TreeMap<Integer, Integer> representing the pending list
      */
     public TreeMap<Integer, Integer> getPendingList() {
-        return pendingList;
+        return getPendingCalls().toTreeMap();
+    }
+    
+    /**
+     * Builds the delegates for the simulation's version the first time they
+     * are needed, and again only if the version changes, so that a callbox
+     * request does not build a new expert every time
+     * 
+     * @since Version 1.0
+     * @see #delegateVersion
+     * @see Entity_DispatchStrategyRegistry
+     */
+    private void resolveDelegates() {
+        
+        String version = context.getSimulation().getVersion();
+        
+        if(version.equals(delegateVersion))
+            return;
+        
+        synchronized(this)
+        {
+            if(!version.equals(delegateVersion))
+            {
+                setDelegateEP(Fact_IMPL_ElevatorPicker.build(context, version));
+                setDelegatePP(Fact_IMPL_PendingProcessor.build(context, version));
+                
+                // written last, so a thread that sees the version sees the delegates
+                delegateVersion = version;
+            }
+        }
     }
     
     /**
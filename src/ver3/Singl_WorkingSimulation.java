@@ -1,10 +1,10 @@
 package ver3;
 
 import java.text.SimpleDateFormat;
-import java.util.Random;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -34,9 +34,56 @@ import ver3.project_exceptions.IllegalSimulationException;
  * @author Ben McFerren
  * @since Version 1.0
  */
-public class Singl_WorkingSimulation {
+public class Singl_WorkingSimulation implements Interface_EventHandler {
     
-    private volatile static Singl_WorkingSimulation instance;
+    /**
+     * The simulation context this simulation belongs to
+     * 
+     * @since Version 1.0
+     * @see Entity_SimulationContext
+     */
+    private Entity_SimulationContext context;
+    
+    /**
+     * The run mode where elevators run in their own threads and time passes by
+     * sleeping on the wall clock, scaled by the time scale factor
+     * 
+     * @since Version 1.0
+     * @see #run(String, String)
+     */
+    public static final String REAL_TIME = "RealTime";
+    
+    /**
+     * The run mode where a discrete-event kernel owns a virtual clock and the
+     * simulation runs as fast as its events can be processed
+     * 
+     * @since Version 1.0
+     * @see #run(String, String)
+     * @see Entity_EventKernel
+     */
+    public static final String EVENT_DRIVEN = "EventDriven";
+    
+    /**
+     * The run mode that drives the discrete-event kernel like EVENT_DRIVEN but
+     * also silences the running commentary, so a run is bounded only by the
+     * computation it needs. The reports from buildChartA/B/C are unchanged
+     * 
+     * @since Version 1.0
+     * @see #run(String, String)
+     * @see #isHeadless()
+     */
+    public static final String HEADLESS = "Headless";
+    
+    /**
+     * The run mode where a single thread steps the elevators, floors and the
+     * controller through fixed ticks in a fixed order, with seeded random 
+     * numbers, so that every run of the same data file gives the same results
+     * 
+     * @since Version 1.0
+     * @see #run(String, String)
+     * @see Entity_LockstepEngine
+     */
+    public static final String LOCKSTEP = "Lockstep";
     
     /**
     * The building's count of all its elevators.
@@ -171,6 +218,256 @@ public class Singl_WorkingSimulation {
     private TreeMap<Integer, Integer> elevatorDefaultFloorDetails
             = new TreeMap<Integer, Integer>();
     
+    /**
+     * The mode the current run uses to pass time, either REAL_TIME or EVENT_DRIVEN
+     * 
+     * @since Version 1.0
+     * @see #isEventDriven()
+     * @see #run(String, String)
+     */
+    private String runMode = REAL_TIME;
+    
+    /**
+     * The discrete-event kernel for the current run. It is only driven when
+     * the run mode is EVENT_DRIVEN
+     * 
+     * @since Version 1.0
+     * @see #getEventKernel()
+     * @see #pause(long)
+     */
+    private Entity_EventKernel kernel = new Entity_EventKernel();
+    
+    /**
+     * The wall clock time (in milliseconds) the current run started at, used
+     * to work out simulated time when the run mode is REAL_TIME
+     * 
+     * @since Version 1.0
+     * @see #getCurrentTime()
+     */
+    private long wallStart = System.currentTimeMillis();
+    
+    /**
+     * The engine that steps the building through ticks when the run mode is
+     * LOCKSTEP. It is built by setUp once the time constants have been read
+     * 
+     * @since Version 1.0
+     * @see #setUp(String)
+     * @see #pause(long)
+     */
+    private Entity_LockstepEngine lockstepEngine;
+    
+    /**
+     * The seed the random numbers of a run are drawn from. It is read from
+     * the randomSeed entry in programData.xml
+     * 
+     * @since Version 1.0
+     * @see #randomStreams
+     * @see #readXML()
+     */
+    private long randomSeed = 1;
+    
+    /**
+     * The replication the current run is, used with randomSeed to pick the
+     * random number streams of the run. It is zero for a single run
+     * 
+     * @since Version 1.0
+     * @see #setReplicationNumber(int)
+     */
+    private int replicationNumber = 0;
+    
+    /**
+     * The random number streams used to place people. They are built from
+     * randomSeed and replicationNumber when the run is set up
+     * 
+     * @since Version 1.0
+     * @see #generatePeople()
+     * @see #setUp(String)
+     */
+    private Entity_RandomStreams randomStreams;
+    
+    /**
+     * The completion barrier the elevators, floors and controller signal
+     * while the building drains at the end of a run
+     * 
+     * @since Version 1.0
+     * @see #getDrainBarrier()
+     * @see #shutdown()
+     */
+    private final Entity_DrainBarrier drainBarrier;
+    
+    /**
+     * How long an elevator takes between any two floors. It is built by 
+     * setUp once the number of floors and the floor travel time are known
+     * 
+     * @since Version 1.0
+     * @see #getTravelTimeTable()
+     */
+    private Entity_TravelTimeTable travelTimeTable;
+    
+    /**
+     * How long the hall call batcher collects calls for before it hands them
+     * out, in simulated milliseconds. It is read from the optional batchWindow
+     * entry in programData.xml and defaults to zero, which still collects 
+     * every call pressed at the same simulated instant, such as a whole 
+     * batch of people from generatePeople()
+     * 
+     * @since Version 1.0
+     * @see #setBatchWindow(long)
+     */
+    private long batchWindow = 0;
+    
+    /**
+     * How often the hall call reassigner looks again at the calls given to 
+     * elevators, in simulated milliseconds. It is read from the optional 
+     * reassignInterval entry in programData.xml, and zero turns it off
+     * 
+     * @since Version 1.0
+     * @see #setReassignInterval(long)
+     */
+    private long reassignInterval = 0;
+    
+    /**
+     * How much sooner another elevator must be expected at a floor before the
+     * hall call reassigner moves the call to it, in simulated milliseconds. It
+     * is read from the optional reassignThreshold entry in programData.xml
+     * 
+     * @since Version 1.0
+     * @see #setReassignThreshold(long)
+     */
+    private long reassignThreshold = 0;
+    
+    /**
+     * The half life of an arrival in the demand forecast, in simulated 
+     * milliseconds. It is read from the optional forecastHalfLife entry in 
+     * programData.xml and defaults to two minutes
+     * 
+     * @since Version 1.0
+     * @see #setForecastHalfLife(long)
+     */
+    private long forecastHalfLife = 120000;
+    
+    /**
+     * The batcher the Batch version hands its hall calls to. It is built by 
+     * setUp for every run
+     * 
+     * @since Version 1.0
+     * @see #getHallCallBatcher()
+     */
+    private Entity_HallCallBatcher hallCallBatcher;
+    
+    /**
+     * The queue the callboxes publish their calls into when the elevators 
+     * run on threads of their own. It is built by setUp for every run and 
+     * only started when the run is not single threaded
+     * 
+     * @since Version 1.0
+     * @see #getHallCallQueue()
+     */
+    private Entity_HallCallQueue hallCallQueue;
+    
+    /**
+     * The reassigner that moves the ETA and Batch versions' hall calls to an
+     * elevator expected sooner. It is built by setUp for every run
+     * 
+     * @since Version 1.0
+     * @see #getHallCallReassigner()
+     */
+    private Entity_HallCallReassigner hallCallReassigner;
+    
+    /**
+     * The forecast of arrivals on each floor that the Forecast version parks
+     * idle elevators by. It is built by setUp for every run
+     * 
+     * @since Version 1.0
+     * @see #getDemandForecast()
+     */
+    private Entity_DemandForecast demandForecast;
+    
+    /**
+     * How long the last drain took, in simulated milliseconds
+     * 
+     * @since Version 1.0
+     * @see #getDrainDuration()
+     */
+    private long drainDuration = 0;
+    
+    /**
+     * How long the last drain took on the wall clock, in milliseconds
+     * 
+     * @since Version 1.0
+     * @see #getDrainWallMillis()
+     */
+    private long drainWallMillis = 0;
+    
+    /**
+     * The running total of the starting percentages, one entry per floor, so
+     * a start floor can be picked without walking floorStatSpecStarts
+     * 
+     * @since Version 1.0
+     * @see #generatePeople()
+     */
+    private double[] startCumulative = new double[0];
+    
+    /**
+     * The running total of the ending percentages, one entry per floor
+     * 
+     * @since Version 1.0
+     * @see #generatePeople()
+     */
+    private double[] destinationCumulative = new double[0];
+    
+    /**
+     * The name of the backend that runs the elevator loops in real time, either
+     * Platform or Virtual. It is read from the optional executionBackend entry
+     * in programData.xml and defaults to Platform
+     * 
+     * @since Version 1.0
+     * @see #setExecutionBackend(String)
+     * @see Fact_IMPL_ElevatorExecutor
+     */
+    private String executionBackend = "Platform";
+    
+    /**
+     * The backend that runs the elevator loops of the current run
+     * 
+     * @since Version 1.0
+     * @see #getElevatorExecutor()
+     * @see #setUp(String)
+     */
+    private Interface_ElevatorExecutor elevatorExecutor 
+            = Fact_IMPL_ElevatorExecutor.build("Platform");
+    
+    /**
+     * A configuration that replaces the number of elevators, their default
+     * floors and their capacity read from programData.xml. It is null unless
+     * the simulation is being run as part of a parameter sweep
+     * 
+     * @since Version 1.0
+     * @see #setConfigurationOverride(Entity_SweepConfiguration)
+     * @see #setUp(String)
+     */
+    private Entity_SweepConfiguration configurationOverride;
+    
+    /**
+     * A backend that replaces the executionBackend read from programData.xml.
+     * It is null unless a test needs the elevators on a given backend
+     * 
+     * @since Version 1.0
+     * @see #setExecutionBackendOverride(String)
+     * @see #setUp(String)
+     */
+    private String executionBackendOverride;
+    
+    /**
+     * A seed that replaces the randomSeed read from programData.xml. It is
+     * null unless the simulation is being run as one of many replications
+     * 
+     * @since Version 1.0
+     * @see #setRandomSeedOverride(Long)
+     * @see #setUp(String)
+     */
+    private Long randomSeedOverride;
+    
     /**
      * This variable SimpleDateFormat simply sets the format of our date and time
      * for tracking purposes.
@@ -179,41 +476,51 @@ public class Singl_WorkingSimulation {
     private SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
     
     /**
-     * A private contstuctor bc this class is a singleton. It simply prints out
-     * acknowledgement
+     * A package contstuctor used by the simulation context that owns the 
+     * simulation. It simply prints out acknowledgement
      * 
      * @since Version 1.0
+     * @see Entity_SimulationContext#getSimulation()
+     * @param c the context the simulation belongs to
      */
-    private Singl_WorkingSimulation() {
+    Singl_WorkingSimulation(Entity_SimulationContext c) {
+        
+        context = c;
+        drainBarrier = new Entity_DrainBarrier(c);
         
-        System.out.println(sdf.format(System.currentTimeMillis()) 
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
                 + "\tStarting Elevator Simulation…");
         
     }
     
     /**
-    * This is a public static method that returns an instance of the Simulation object.
-    * The method contains conditionals to check if the instance has already been
-    * instantiated. If so, then it returns the pre-existing object. If not, then
-    * inside a synchronized block (to protect against multiple threads potentially
-    * create two instantiations of the class)
+    * This is a public static method that returns the Simulation object of the
+    * default simulation context. The context creates it the first time it is 
+    * asked for, so there is only ever one default simulation
     * 
     * @since Version 1.0
-    * @return the instance variable which is the Simulation object
+    * @see Entity_SimulationContext#getDefault()
+    * @return the Simulation object of the default context
     */
     public static Singl_WorkingSimulation getInstance() {
         
-        if(instance == null)
-            synchronized(Singl_WorkingController.class)
-            {
-                if(instance == null)
-                {
-                    instance = new Singl_WorkingSimulation();
-                }
-            }
+        return Entity_SimulationContext.getDefault().getSimulation();
         
-        return instance;
+    }
+    
+    /**
+     * Returns whether a version name is the name of a registered dispatch 
+     * strategy, either a built in version or one found on the class path
+     * 
+     * @since Version 1.0
+     * @see Entity_DispatchStrategyRegistry#getNames()
+     * @see Entity_DispatchStrategyRegistry#isRegistered(String)
+     * @param v the version name to check
+     * @return a boolean that is true if a run can be given the version
+     */
+    public static boolean isKnownVersion(String v) {
         
+        return Entity_DispatchStrategyRegistry.isRegistered(v);
     }
     
     /**
@@ -226,24 +533,104 @@ public class Singl_WorkingSimulation {
      * @see #shutdown()
      * @since Version 1.0
      * @param version used to later select the IMPL's
-     * @throws IllegalSimulationException if the String argument provided is not Original or New
+     * @throws IllegalSimulationException if the String argument provided is not a registered version
      */  
     public void run(String version) throws IllegalSimulationException {
         
-        if(!(version.equals("Original") || version.equals("New")))
+        run(version, REAL_TIME);
+       
+    }
+    
+    /**
+     * A method that setups the simulation the same way as run(String) but lets
+     * the caller choose how time passes. REAL_TIME runs the elevators in their
+     * own threads and sleeps on the wall clock. EVENT_DRIVEN hands all timing to
+     * a discrete-event kernel so the whole run happens on the calling thread as
+     * fast as the events can be processed. HEADLESS does the same as
+     * EVENT_DRIVEN without printing the running commentary. LOCKSTEP steps 
+     * the building through fixed ticks on the calling thread and gives the 
+     * same results every time
+     * 
+     * @see #run(String)
+     * @see #REAL_TIME
+     * @see #EVENT_DRIVEN
+     * @see #HEADLESS
+     * @see #LOCKSTEP
+     * @since Version 1.0
+     * @param version used to later select the IMPL's
+     * @param mode the run mode, either RealTime, EventDriven, Headless or Lockstep
+     * @throws IllegalSimulationException if the version is not a registered version
+     *         or the mode is not RealTime, EventDriven, Headless or Lockstep
+     */  
+    public void run(String version, String mode) throws IllegalSimulationException {
+        
+        if(!isKnownVersion(version))
             throw new IllegalSimulationException("Invalid version argument "
                                   + " encountered when setting up: " + version);
+        
+        if(!isKnownMode(mode))
+            throw new IllegalSimulationException("Invalid run mode argument "
+                                  + " encountered when setting up: " + mode);
+        
+        // a headless run throws its commentary away instead of printing it
+        PrintStream console = context.getConsole();
+        if(HEADLESS.equals(mode))
+            context.setConsole(Entity_SimulationContext.newDiscardingConsole());
                 
         try {
-            setUp(version);
-        } catch (IllegalSimulationException ex) {
-            ex.printStackTrace();
+            try {
+                setUp(version, mode);
+            } catch (IllegalSimulationException ex) {
+                ex.printStackTrace();
+            }
+           action();
+           shutdown();
+        } finally {
+            context.setConsole(console);
         }
-       action();
-       shutdown();
        
     }
     
+    /**
+     * Returns whether a String is one of the run modes
+     * 
+     * @since Version 1.0
+     * @see #run(String, String)
+     * @param mode the String to check
+     * @return a boolean that is true for RealTime, EventDriven, Headless or Lockstep
+     */
+    private static boolean isKnownMode(String mode) {
+        return REAL_TIME.equals(mode) || EVENT_DRIVEN.equals(mode) 
+                            || HEADLESS.equals(mode) || LOCKSTEP.equals(mode);
+    }
+    
+    /**
+     * Sets up a run the way run(String, String) does, building the building
+     * and starting the elevators, but does not start it. The unit tests use 
+     * this to put the building into the state they need before they drive 
+     * it themselves and end the run with shutdown()
+     * 
+     * @see #run(String, String)
+     * @see #shutdown()
+     * @since Version 1.0
+     * @param version used to later select the IMPL's
+     * @param mode the run mode, either RealTime, EventDriven, Headless or Lockstep
+     * @throws IllegalSimulationException if the version is not a registered version
+     *         or the mode is not RealTime, EventDriven, Headless or Lockstep
+     */  
+    void setUp(String version, String mode) throws IllegalSimulationException {
+        
+        if(!isKnownMode(mode))
+            throw new IllegalSimulationException("Invalid run mode argument "
+                                  + " encountered when setting up: " + mode);
+        
+        runMode = mode;
+        kernel = new Entity_EventKernel();
+        wallStart = System.currentTimeMillis();
+        
+        setUp(version);
+    }
+    
     /**
      * A method that builds a report based on wait time per floor and stores it
      * in a return string
@@ -269,7 +656,7 @@ public class Singl_WorkingSimulation {
         chart += "Floor    \t\tAverage Wait Time\tMin Wait Time\t\tMax Wait Time\n";
         
         // examine each floor
-        for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
         {
             chart += ("Floor " + floor.getFloorNumber()
                       + "    \t\t" + String.format("%1$,.0f", floor.getAvgWaitTime()) + " seconds"
@@ -305,7 +692,7 @@ public class Singl_WorkingSimulation {
         
         chart += "Floor   ";
                 
-        for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
         {
             chart += "\t[" + floor.getFloorNumber() + "]";
         }
@@ -319,7 +706,7 @@ public class Singl_WorkingSimulation {
         
         
         // iterate over each building floor create new treemap for each start floor
-        for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
         {
             peopleByStartFloor.put(floor.getFloorNumber()
                     , new TreeMap<Integer, ArrayList<Interface_Person>>());
@@ -334,7 +721,7 @@ public class Singl_WorkingSimulation {
             TreeMap<Integer, ArrayList<Interface_Person>> mapOfStartFloor = startFloor.getValue();
             
             // iterate over each building floor to create new Arraylist for each end floor
-            for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+            for(Interface_Floor floor : context.getBuilding().getFloorList())
             {
                 mapOfStartFloor.put(floor.getFloorNumber(), new ArrayList<Interface_Person>());
             } 
@@ -344,7 +731,7 @@ public class Singl_WorkingSimulation {
         //collect people from floor's completed list and put them into an arraylist
         ArrayList<Interface_Person> roster = new ArrayList<Interface_Person>();
         
-        for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
         {
             //take people from personCompletedList and put them into treemap
             for(Interface_Person theGuy : floor.getPersonsCompleted())
@@ -379,7 +766,7 @@ public class Singl_WorkingSimulation {
                             = new TreeMap<Integer, TreeMap<Integer, Double>>();
         
         // iterate over each building floor to create new TreeMap for each end floor
-        for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
         {
             avgsByStartFloor.put(floor.getFloorNumber(), new TreeMap<Integer, Double>());
         } 
@@ -480,7 +867,7 @@ public class Singl_WorkingSimulation {
         // examine each floor
         TreeMap<Integer, Interface_Person> roster = new TreeMap<Integer, Interface_Person>();
         
-        for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
         {
             for(Interface_Person theGuy : floor.getPersonsCompleted())
             {
@@ -505,12 +892,21 @@ public class Singl_WorkingSimulation {
         
         chart += "\nAVG WAIT TIME: " + String.format("%1$,.2f", (totalWaitTime / increment));
         
-        chart += "\nAVG RIDE TIME: " + String.format("%1$,.2f", (totalRideTime / increment)) + "\n\n";
+        chart += "\nAVG RIDE TIME: " + String.format("%1$,.2f", (totalRideTime / increment));
+        
+        // destination dispatch is meant to need fewer stops for the same people
+        long totalStops = 0;
+        for(Interface_Elevator elevator : context.getBuilding().getElevatorList())
+        {
+            totalStops += elevator.getStopCount();
+        }
+        
+        chart += "\nAVG STOPS PER PERSON: " + String.format("%1$,.2f", ((double) totalStops / increment)) + "\n\n";
         
         chart += "\n\n";
         
         // cleanout floors completed list for future runs of the simulation
-        for(Interface_Floor floor : Singl_WorkingBuilding.getInstance().getFloorList())
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
         {
             floor.getPersonsCompleted().clear();
         }
@@ -531,20 +927,20 @@ public class Singl_WorkingSimulation {
     public synchronized void printSimulationStatus(){
         
         // put conditional here based on xml configuration
-        System.out.println("");
-        for(Interface_Elevator elevator : Singl_WorkingBuilding.getInstance().getElevatorList())
+        context.getConsole().println("");
+        for(Interface_Elevator elevator : context.getBuilding().getElevatorList())
         {
-            System.out.println("ELEVATOR #" + elevator.getLetterName() 
+            context.getConsole().println("ELEVATOR #" + elevator.getLetterName() 
                 + elevator.getSerialNumber() + " IS ON FLOOR #" 
                 + elevator.getCurrentFloor() + ", its direction is "
                 + (elevator.getDirection() == 1 ? "up" : (elevator.getDirection() == -1 ? "down" : "idle")) 
                 + " , AND IT HAS " + elevator.getPassengerList().size() + " "
                 + "PASSENGERS \t   DESTINATION LIST: " + elevator.printDestinationList());
         }
-        List<Interface_Floor> fList = Singl_WorkingBuilding.getInstance().getFloorList();
+        List<Interface_Floor> fList = context.getBuilding().getFloorList();
         for(int i = fList.size() - 1; i >= 0; --i)
         {
-            System.out.println("FLOOR " + fList.get(i).getFloorNumber() + "  \tHAS " 
+            context.getConsole().println("FLOOR " + fList.get(i).getFloorNumber() + "  \tHAS " 
                 + fList.get(i).getNumberOfWaitingPeopleCurrentlyOnFloor() + " WAITING PEOPLE\t AND "
                 + fList.get(i).getNumberOfCompletedPeopleCurrentlyOnFloor() + " ALREADY COMPLETED"
                 + "\t" + fList.get(i).getFloorNumber() + "Up: " 
@@ -553,16 +949,16 @@ public class Singl_WorkingSimulation {
                 + (fList.get(i).getcBox().getDownButton() == true ? "<<TRUE>>" : "false")
                 );
         }
-        System.out.print("PRINTING CONTROLLERS PENDING LIST: [");
-        for(Map.Entry<Integer, Integer> request : Singl_WorkingController.getInstance()
+        context.getConsole().print("PRINTING CONTROLLERS PENDING LIST: [");
+        for(Map.Entry<Integer, Integer> request : context.getController()
                                                           .getPendingList().entrySet())
         {
-            System.out.print(" (" + request.getKey() + "-" 
+            context.getConsole().print(" (" + request.getKey() + "-" 
                 + (request.getValue() == 1 ? "up" : (request.getValue() == 2 ? "up&down" : "down")) 
                 + "), ");
         }
-        System.out.print("]\n");
-        System.out.println("");
+        context.getConsole().print("]\n");
+        context.getConsole().println("");
     }
     
     /**
@@ -578,7 +974,6 @@ public class Singl_WorkingSimulation {
         
         int startFloor;
         int intendedDestination; 
-        Random randomNumber;
         double randomFloor;
         
         List<Interface_Person> guysWhoGetToPressCallboxButton 
@@ -593,37 +988,19 @@ public class Singl_WorkingSimulation {
         {
             startFloor = 1;
             intendedDestination = 0; 
-            randomNumber = new Random();
-            randomFloor = randomNumber.nextDouble();
-            for (Map.Entry<Integer, Double> entry : getFloorStatSpecStarts().entrySet())
-            {
-                if(entry.getValue() >= randomFloor) 
-                {
-                    break;
-                }
-                
-                ++startFloor;
-            }
+            randomFloor = randomStreams.nextOrigin();
+            startFloor = pickFloor(startCumulative, randomFloor);
             
             intendedDestination = startFloor;
             while(intendedDestination == startFloor) // loop tries to define startFloor
             {
-                randomNumber = new Random();
-                randomFloor = randomNumber.nextDouble();
-                intendedDestination = 1;
-                for (Map.Entry<Integer, Double> entry : getFloorStatSpecDestinations().entrySet())
-                {
-                    if(entry.getValue() >= randomFloor) 
-                    {
-                        break;
-                    }
-                    ++intendedDestination;
-                }
+                randomFloor = randomStreams.nextDestination(startFloor);
+                intendedDestination = pickFloor(destinationCumulative, randomFloor);
             }
 
                  
             // create new person 
-            Interface_Person theGuy = Fact_PersonFactory.build(
+            Interface_Person theGuy = Fact_PersonFactory.build(context,
                                                             startFloor, 
                                                             intendedDestination);
             
@@ -632,8 +1009,17 @@ public class Singl_WorkingSimulation {
             allTheGuysInTheBatch.add(theGuy);
             
             
+            // in lockstep the floor lets the person on and presses its 
+            // callbox at the next tick instead
+            if(isLockstep())
+            {
+                context.getBuilding().getFloorList().get(startFloor - 1) 
+                        .addArrivingPerson(theGuy);
+                continue;
+            }
+            
             // get floor from building and put the new person in his start floor's collection
-            Singl_WorkingBuilding.getInstance().getFloorList().get(startFloor - 1) 
+            context.getBuilding().getFloorList().get(startFloor - 1) 
                     .addPersonToFloor(theGuy);
             
             
@@ -661,11 +1047,14 @@ public class Singl_WorkingSimulation {
         
         for(Interface_Person individualGuy : allTheGuysInTheBatch)
         {
-            if(guysWhoGetToPressCallboxButton.contains(individualGuy))
+            // everyone keys their own destination into a kiosk, and in 
+            // lockstep does so once the floor has let them on
+            if(guysWhoGetToPressCallboxButton.contains(individualGuy)
+                    || (context.getController().isDestinationDispatch() && !isLockstep()))
                 individualGuy.pressCallbox();
             else
             {
-                System.out.println(sdf.format(System.currentTimeMillis()) + "\tPerson #" 
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) + "\tPerson #" 
                     + individualGuy.getSerialNumber() + " wants to press callbox " 
                     + (individualGuy.getIntendedDirection() == 1 ? "up" : "down") 
                     + " button on floor #" + individualGuy.getStartFloor()
@@ -675,6 +1064,46 @@ public class Singl_WorkingSimulation {
 
     }
     
+    /**
+     * Picks the floor a random number falls on
+     * 
+     * @since Version 1.0
+     * @see #startCumulative
+     * @see #destinationCumulative
+     * @param cumulative the running total of the percentages, one per floor
+     * @param randomFloor a random number from zero to one
+     * @return the first floor whose running total reaches the number, or the
+     *         top floor if rounding leaves the totals just short of one
+     */
+    private static int pickFloor(double[] cumulative, double randomFloor) {
+        
+        for(int i = 0; i < cumulative.length; ++i)
+        {
+            if(cumulative[i] >= randomFloor)
+                return i + 1;
+        }
+        
+        return cumulative.length;
+    }
+    
+    /**
+     * Copies the values of a map of running totals into an array, in key order
+     * 
+     * @since Version 1.0
+     * @param totals the map of running totals
+     * @return a new double array
+     */
+    private static double[] toCumulativeArray(TreeMap<Integer, Double> totals) {
+        
+        double[] cumulative = new double[totals.size()];
+        int i = 0;
+        
+        for(Double total : totals.values())
+            cumulative[i++] = total;
+        
+        return cumulative;
+    }
+    
     /**
      * A simple accessor method that returns the number of elevators
      * 
@@ -781,11 +1210,11 @@ public class Singl_WorkingSimulation {
      * @since Version 1.0
      * @see #version
      * @param String v
-     * @throws IllegalSimulationException if the argument provided is not Original or New
+     * @throws IllegalSimulationException if the argument provided is not a registered version
      */
     private void setVersion(String v) throws IllegalSimulationException{
         
-        if(!(v.equals("Original") || v.equals("New")))
+        if(!isKnownVersion(v))
             throw new IllegalSimulationException("Invalid version argument "
                                   + " encountered when setting up: " + version);
         else
@@ -997,145 +1426,627 @@ public class Singl_WorkingSimulation {
     
     /**
      * This method generates people while the simulation time hasn't run out.
+     * When event driven, a passenger-arrival event is scheduled for every 
+     * simulated minute of the run and the kernel is driven to the end of it
      * 
      * @since Version 1.0
      * @see #getTimeScaleFactor()
      * @see #getSimulationDuration()
+     * @see #handleEvent(Entity_SimulationEvent)
      */
     private void action(){
         
-        long startTime = System.currentTimeMillis();
+        if(isEventDriven())
+        {
+            try {
+                for(long t = 0; t < getSimulationDuration(); t += 60000)
+                    kernel.schedule(t, Entity_SimulationEvent.PASSENGER_ARRIVAL, this);
+            } catch (IllegalSimulationException ex) {
+                ex.printStackTrace();
+            }
+            
+            pause(getSimulationDuration());
+            return;
+        }
         
         // while simulation is running, create People, assign them to 
         // a floor, let them press floor callbox
-        while((System.currentTimeMillis() - startTime) 
-                    < (getSimulationDuration() / getTimeScaleFactor())) 
+        while(getCurrentTime() < getSimulationDuration()) 
         {
             generatePeople();
             
-            try {
-                Thread.sleep(60000  / getTimeScaleFactor()); // sleep for a minute
-            } catch (InterruptedException ex) {
-                System.out.println("Interruption Occurred " + ex.getMessage());
-            }
+            pause(60000); // sleep for a minute
         }
     }
     
     /**
-     * This method shuts down all the elevators after the simulation is complete
+     * Handles the simulation's own events from the discrete-event kernel. A
+     * passenger-arrival event creates the next minute's batch of people
      * 
      * @since Version 1.0
-     * @see #getFloorList()
-     * @see #getElevatorList()
+     * @see #action()
+     * @see #generatePeople()
+     * @param event the event that has come due
      */
-    private void shutdown(){
-        
-        //shutdown up elevators
-        System.out.println("\n" + sdf.format(System.currentTimeMillis()) 
-                + "\tElevators starting shutting down mode\n");
-        
-        List<Interface_Floor> fList = Singl_WorkingBuilding.getInstance()
-                                                                .getFloorList();
+    public void handleEvent(Entity_SimulationEvent event) {
         
-        List<Interface_Elevator> eList = Singl_WorkingBuilding.getInstance()
-                                                             .getElevatorList();
-        
-        boolean elevatorsComplete = false;
-        boolean floorsComplete = false;
-        boolean pendingListComplete = false;     
-
-        while(elevatorsComplete == false
-                || floorsComplete == false
-                || pendingListComplete == false) 
+        if(event.getType() == Entity_SimulationEvent.PASSENGER_ARRIVAL)
+            generatePeople();
+    }
+    
+    /**
+     * Lets a number of simulated milliseconds pass. When event driven the
+     * kernel processes every event due in that window, in lockstep the engine
+     * steps through every tick in it, otherwise the calling thread sleeps for
+     * the scaled wall clock time
+     * 
+     * @since Version 1.0
+     * @see #getEventKernel()
+     * @see #getTimeScaleFactor()
+     * @param simMillis how many simulated milliseconds to let pass
+     */
+    private void pause(long simMillis) {
+        
+        if(isLockstep())
+        {
+            lockstepEngine.advance(simMillis);
+            return;
+        }
+        
+        if(isEventDriven())
+        {
+            kernel.runUntil(kernel.getCurrentTime() + simMillis);
+            return;
+        }
+        
+        try {
+            Thread.sleep(getScaledMillis(simMillis), getScaledNanos(simMillis));
+        } catch (InterruptedException ex) {
+            context.getConsole().println("Interruption Occurred " + ex.getMessage());
+        }
+    }
+    
+    /**
+     * Returns how far into the run the simulation is, in simulated milliseconds.
+     * When event driven this is the kernel's virtual clock, in lockstep it is
+     * the time of the engine's next tick, otherwise it is the
+     * wall clock time since the run started multiplied by the time scale factor
+     * 
+     * @since Version 1.0
+     * @see #kernel
+     * @see #wallStart
+     * @return a long representing simulated milliseconds since the run started
+     */
+    public long getCurrentTime() {
+        
+        if(isLockstep())
+            return lockstepEngine.getCurrentTime();
+        
+        if(isEventDriven())
+            return kernel.getCurrentTime();
+        
+        return (System.currentTimeMillis() - wallStart) * getTimeScaleFactor();
+    }
+    
+    /**
+     * Returns whether the current run is driven by the discrete-event kernel
+     * 
+     * @since Version 1.0
+     * @see #runMode
+     * @return a boolean that is true if the run mode is EVENT_DRIVEN or HEADLESS
+     */
+    public boolean isEventDriven() {
+        return EVENT_DRIVEN.equals(runMode) || HEADLESS.equals(runMode);
+    }
+    
+    /**
+     * Returns whether the current run is stepped by the lockstep engine
+     * 
+     * @since Version 1.0
+     * @see #runMode
+     * @return a boolean that is true if the run mode is LOCKSTEP
+     */
+    public boolean isLockstep() {
+        return LOCKSTEP.equals(runMode);
+    }
+    
+    /**
+     * Returns whether the whole run happens on the thread that called run(),
+     * in which case the elevators do not get threads of their own
+     * 
+     * @since Version 1.0
+     * @see #isEventDriven()
+     * @see #isLockstep()
+     * @return a boolean that is true if the run is event driven or in lockstep
+     */
+    public boolean isSingleThreaded() {
+        return isEventDriven() || isLockstep();
+    }
+    
+    /**
+     * Returns the backend that runs the elevator loops of the current run
+     * 
+     * @since Version 1.0
+     * @see #elevatorExecutor
+     * @return the Interface_ElevatorExecutor elevators start their loops with
+     */
+    public Interface_ElevatorExecutor getElevatorExecutor() {
+        return elevatorExecutor;
+    }
+    
+    /**
+     * Sets the executionBackend variable
+     * 
+     * @since Version 1.0
+     * @see #executionBackend
+     * @param eB the name of the backend
+     * @throws IllegalSimulationException if the argument provided is not Platform or Virtual
+     */
+    private void setExecutionBackend(String eB) throws IllegalSimulationException {
+        
+        if(!(eB.equals("Platform") || eB.equals("Virtual")))
+            throw new IllegalSimulationException("Invalid execution backend "
+                                  + " encountered when setting up: " + eB);
+        else
+            executionBackend = eB;
+    }
+    
+    /**
+     * Sets the batchWindow variable
+     * 
+     * @since Version 1.0
+     * @see #batchWindow
+     * @param bW the window in simulated milliseconds
+     * @throws IllegalSimulationException if the argument provided is negative
+     */
+    private void setBatchWindow(long bW) throws IllegalSimulationException {
+        
+        if(bW < 0)
+            throw new IllegalSimulationException("Negative batch window "
+                                  + " encountered when setting up: " + bW);
+        else
+            batchWindow = bW;
+    }
+    
+    /**
+     * Sets the reassignInterval variable
+     * 
+     * @since Version 1.0
+     * @see #reassignInterval
+     * @param rI the interval in simulated milliseconds, zero for none
+     * @throws IllegalSimulationException if the argument provided is negative
+     */
+    private void setReassignInterval(long rI) throws IllegalSimulationException {
+        
+        if(rI < 0)
+            throw new IllegalSimulationException("Negative reassign interval "
+                                  + " encountered when setting up: " + rI);
+        else
+            reassignInterval = rI;
+    }
+    
+    /**
+     * Sets the reassignThreshold variable
+     * 
+     * @since Version 1.0
+     * @see #reassignThreshold
+     * @param rT the threshold in simulated milliseconds
+     * @throws IllegalSimulationException if the argument provided is negative
+     */
+    private void setReassignThreshold(long rT) throws IllegalSimulationException {
+        
+        if(rT < 0)
+            throw new IllegalSimulationException("Negative reassign threshold "
+                                  + " encountered when setting up: " + rT);
+        else
+            reassignThreshold = rT;
+    }
+    
+    /**
+     * Sets the forecastHalfLife variable
+     * 
+     * @since Version 1.0
+     * @see #forecastHalfLife
+     * @param hL the half life in simulated milliseconds
+     * @throws IllegalSimulationException if the argument provided is not positive
+     */
+    private void setForecastHalfLife(long hL) throws IllegalSimulationException {
+        
+        if(hL <= 0)
+            throw new IllegalSimulationException("Non positive forecast half life "
+                                  + " encountered when setting up: " + hL);
+        else
+            forecastHalfLife = hL;
+    }
+    
+    /**
+     * Replaces the number of elevators, their default floors and their
+     * capacity read from programData.xml for the next run. It must be called
+     * before the building is built
+     * 
+     * @since Version 1.0
+     * @see #configurationOverride
+     * @param c the configuration to run, or null to use programData.xml
+     */
+    public void setConfigurationOverride(Entity_SweepConfiguration c) {
+        configurationOverride = c;
+    }
+    
+    /**
+     * Replaces the executionBackend read from programData.xml for the next run
+     * 
+     * @since Version 1.0
+     * @see #executionBackendOverride
+     * @param b the backend to run with, either Platform or Virtual, or null
+     *          to use programData.xml
+     * @throws IllegalSimulationException if the argument is not null, Platform or Virtual
+     */
+    public void setExecutionBackendOverride(String b) throws IllegalSimulationException {
+        
+        if(!(b == null || b.equals("Platform") || b.equals("Virtual")))
+            throw new IllegalSimulationException("Invalid execution backend "
+                                  + " encountered when setting up: " + b);
+        
+        executionBackendOverride = b;
+    }
+    
+    /**
+     * Replaces the randomSeed read from programData.xml for the next run
+     * 
+     * @since Version 1.0
+     * @see #randomSeedOverride
+     * @param s the seed to run with, or null to use programData.xml
+     */
+    public void setRandomSeedOverride(Long s) {
+        randomSeedOverride = s;
+    }
+    
+    /**
+     * Sets the replication the next run is, so it draws the random number
+     * streams of that replication
+     * 
+     * @since Version 1.0
+     * @see #replicationNumber
+     * @param r the replication number, zero for a single run
+     * @throws IllegalSimulationException if the argument is less than zero
+     */
+    public void setReplicationNumber(int r) throws IllegalSimulationException {
+        
+        if(r < 0)
+            throw new IllegalSimulationException("Negative replication number "
+                                                        + "encountered: " + r);
+        
+        replicationNumber = r;
+    }
+    
+    /**
+     * Returns the wait time of every person picked up so far, across all floors
+     * 
+     * @since Version 1.0
+     * @see Interface_Floor#getPersonsDeparted()
+     * @return a new List of wait times in seconds
+     */
+    public List<Double> getWaitTimes() {
+        
+        List<Double> waits = new ArrayList<Double>();
+        
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
+            waits.addAll(floor.getPersonsDeparted());
+        
+        return waits;
+    }
+    
+    /**
+     * Returns whether the current run is headless
+     * 
+     * @since Version 1.0
+     * @see #runMode
+     * @return a boolean that is true if the run mode is HEADLESS
+     */
+    public boolean isHeadless() {
+        return HEADLESS.equals(runMode);
+    }
+    
+    /**
+     * Returns the whole milliseconds of wall clock time that a number of 
+     * simulated milliseconds scales down to. Use it with getScaledNanos so 
+     * that a large time scale factor does not truncate a sleep to nothing
+     * 
+     * @since Version 1.0
+     * @see #getScaledNanos(long)
+     * @see #getTimeScaleFactor()
+     * @param simMillis a number of simulated milliseconds
+     * @return a long of wall clock milliseconds
+     */
+    public long getScaledMillis(long simMillis) {
+        return simMillis / getTimeScaleFactor();
+    }
+    
+    /**
+     * Returns the nanoseconds left over after getScaledMillis divides a number
+     * of simulated milliseconds by the time scale factor
+     * 
+     * @since Version 1.0
+     * @see #getScaledMillis(long)
+     * @see #getTimeScaleFactor()
+     * @param simMillis a number of simulated milliseconds
+     * @return an int of wall clock nanoseconds between 0 and 999999
+     */
+    public int getScaledNanos(long simMillis) {
+        return (int) ((simMillis % getTimeScaleFactor()) * 1000000L / getTimeScaleFactor());
+    }
+    
+    /**
+     * Returns the discrete-event kernel of the current run
+     * 
+     * @since Version 1.0
+     * @see #kernel
+     * @return the Entity_EventKernel that owns the virtual clock
+     */
+    public Entity_EventKernel getEventKernel() {
+        return kernel;
+    }
+    
+    /**
+     * Returns the table of travel times between floors of the current run
+     * 
+     * @since Version 1.0
+     * @see #travelTimeTable
+     * @return the Entity_TravelTimeTable built when the run was set up
+     */
+    public Entity_TravelTimeTable getTravelTimeTable() {
+        return travelTimeTable;
+    }
+    
+    /**
+     * Returns the hall call batcher of the current run
+     * 
+     * @since Version 1.0
+     * @see #hallCallBatcher
+     * @return the Entity_HallCallBatcher built when the run was set up, or 
+     *         null before the first run
+     */
+    public Entity_HallCallBatcher getHallCallBatcher() {
+        return hallCallBatcher;
+    }
+    
+    /**
+     * Returns the hall call queue of the current run
+     * 
+     * @since Version 1.0
+     * @see #hallCallQueue
+     * @return the Entity_HallCallQueue built when the run was set up, or 
+     *         null before the first run
+     */
+    public Entity_HallCallQueue getHallCallQueue() {
+        return hallCallQueue;
+    }
+    
+    /**
+     * Returns the hall call reassigner of the current run
+     * 
+     * @since Version 1.0
+     * @see #hallCallReassigner
+     * @return the Entity_HallCallReassigner built when the run was set up, or 
+     *         null before the first run
+     */
+    public Entity_HallCallReassigner getHallCallReassigner() {
+        return hallCallReassigner;
+    }
+    
+    /**
+     * Returns the demand forecast of the current run
+     * 
+     * @since Version 1.0
+     * @see #demandForecast
+     * @return the Entity_DemandForecast built when the run was set up, or 
+     *         null before the first run
+     */
+    public Entity_DemandForecast getDemandForecast() {
+        return demandForecast;
+    }
+    
+    /**
+     * Returns the completion barrier the participants of this simulation 
+     * signal while the building drains
+     * 
+     * @since Version 1.0
+     * @see #drainBarrier
+     * @return the Entity_DrainBarrier of this simulation
+     */
+    public Entity_DrainBarrier getDrainBarrier() {
+        return drainBarrier;
+    }
+    
+    /**
+     * Returns how long the last run took to drain the building once people 
+     * stopped arriving
+     * 
+     * @since Version 1.0
+     * @see #drainDuration
+     * @return a long representing simulated milliseconds
+     */
+    public long getDrainDuration() {
+        return drainDuration;
+    }
+    
+    /**
+     * Returns how long the last drain took on the wall clock
+     * 
+     * @since Version 1.0
+     * @see #drainWallMillis
+     * @return a long representing real milliseconds
+     */
+    public long getDrainWallMillis() {
+        return drainWallMillis;
+    }
+    
+    /**
+     * This method drains the building once the simulation is complete and 
+     * then shuts down all the elevators. Rather than checking the building on 
+     * a fixed sleep, it waits on the drain barrier, which the elevators, floors
+     * and controller signal whenever they go quiescent, and checks the building
+     * after each signal. Calls that are stranded once every elevator is idle 
+     * are dispatched again. A safety timeout still wakes it so that a stranded
+     * call that no signal reports is dispatched again too
+     * 
+     * @since Version 1.0
+     * @see #drainBarrier
+     * @see #redispatchStrandedCalls()
+     * @see #awaitDrainSignal(long, long)
+     */
+    void shutdown(){
+        
+        //shutdown up elevators
+        context.getConsole().println("\n" + sdf.format(System.currentTimeMillis()) 
+                + "\tElevators starting shutting down mode\n");
+        
+        long drainStart = getCurrentTime();
+        long drainWallStart = System.currentTimeMillis();
+        
+        drainBarrier.open();
+        
+        try {
+            while(true)
+            {
+                // read the generation before looking at the building so that
+                // a signal sent while it is being checked is not missed
+                long seen = drainBarrier.getGeneration();
+
+                if(drainBarrier.isBuildingEmpty())
+                    break;
+
+                // nobody will pick up a stranded call while any elevator 
+                // is still busy, so only dispatch them again once all are idle
+                if(drainBarrier.areElevatorsIdle())
+                    redispatchStrandedCalls();
+
+                awaitDrainSignal(seen, 15000);
+            }
+        } finally {
+            drainBarrier.close();
+        }
+        
+        drainDuration = getCurrentTime() - drainStart;
+        drainWallMillis = System.currentTimeMillis() - drainWallStart;
+        
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\tBuilding drained in " + (drainDuration / 1000.0) 
+                + " simulated seconds (" + drainWallMillis + " ms) after "
+                + drainBarrier.getGeneration() + " quiescence signals");
+        
+        // everything is now complete and its ok to 
+        // invoke the shutdown method for each elevator
+        for(int i = 0; i < context.getBuilding()
+                                                   .getNumberOfElevators(); ++i)
         {
-            // check that each elevator considers itself complete
-            while(elevatorsComplete == false)
+            try
             {
-                elevatorsComplete = true;
+                context.getBuilding()
+                        .getElevatorList().get(i).shutDown();
 
-                for(Interface_Elevator elevator : eList)
-                {
-                    if(!elevator.getDestinationList().isEmpty() // no more destinations
-                        || elevator.getCurrentFloor() != elevator.getDefaultFloor() // at defaultFloor
-                        || elevator.getDirection() != 0) // idle
-                    {
-                        elevatorsComplete = false;
-                        System.out.println(sdf.format(System.currentTimeMillis()) 
-                               + "\tElevator " + elevator.getLetterName() 
-                               + elevator.getSerialNumber() + " is not complete yet");
-                    }
-                }
-                
-                try {
-                    Thread.sleep(10000 / getTimeScaleFactor());
-                } catch (InterruptedException ex) {
-                    ex.printStackTrace();
-                }
+            } catch(IndexOutOfBoundsException ex) {
+                context.getConsole().println("Error occurred while trying to get "
+                        + "illegal index #" + i + " of elevator list while "
+                        + "shutting down: " + ex.getMessage());
             }
+        }
+        
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\tAll elevators have now been shutdown");
+        
+        if(!isSingleThreaded())
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\tExecution backend " + getElevatorExecutor().getName() 
+                + " started " + getElevatorExecutor().getThreadsStarted() 
+                + " elevator threads with " + getElevatorExecutor().getWakeups() 
+                + " wakeups and " + getElevatorExecutor().getSpuriousWakeups()
+                + " spurious wakeups");
+        
+        // the building is empty, so the dispatcher threads have nothing 
+        // left to hand out and stop with the elevators
+        if(hallCallQueue != null && hallCallQueue.isAccepting())
+        {
+            hallCallQueue.shutDown();
             
-            
-            // now test that noone is stranded on a floor -- loop is separate because
-            // the program must first wait until the elevators first think theyre complete
-            // before it can send the elevators to any lingering floors
-            
-            // check for items still in the pending list
-            pendingListComplete = true;
-            TreeMap<Integer,Integer> pList = Singl_WorkingController
-                                                .getInstance()
-                                                .getPendingList();
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\t" + hallCallQueue.buildReport());
+        }
+        
+        if(hallCallBatcher != null)
+            hallCallBatcher.shutDown();
+        
+        if(hallCallBatcher != null && hallCallBatcher.getBatches() > 0)
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\tHall call batcher handed out " + hallCallBatcher.getCallsSubmitted() 
+                + " calls in " + hallCallBatcher.getBatches() + " windows of "
+                + hallCallBatcher.getWindow() + " ms, " 
+                + hallCallBatcher.getCallsAssigned() + " of them by assignment");
+        
+        if(hallCallReassigner != null)
+            hallCallReassigner.shutDown();
+        
+        if(hallCallReassigner != null && hallCallReassigner.isEnabled())
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\t" + hallCallReassigner.buildReport());
+        
+        if(demandForecast != null && demandForecast.getParkings() > 0)
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\t" + demandForecast.buildReport());
+        
+        printSimulationStatus();
+        
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\tProgram Completed\n\n\n\n");
+    }
 
-            if(!pList.isEmpty())
-            {
-                pendingListComplete = false;
+    /**
+     * Dispatches the calls that are still outstanding once every elevator is
+     * idle: the requests left on the pending list are picked again, callbox
+     * buttons lit on floors nobody is waiting on are cleared, and the people
+     * still waiting are given a last call
+     * 
+     * @since Version 1.0
+     * @see #shutdown()
+     * @see Interface_Floor#lastCall()
+     */
+    private void redispatchStrandedCalls() {
+        
+        // picking may change the pending list, so work from a copy of it
+        TreeMap<Integer,Integer> pList = context.getController().getPendingList();
 
-                System.out.println(sdf.format(System.currentTimeMillis()) 
-                               + "\tPending list is not yet complete");
+        if(!pList.isEmpty())
+            context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                           + "\tPending list is not yet complete");
 
-                // if so, distribute the remaining pending 
-                // requests equally amongst elevators
-                for (Map.Entry<Integer, Integer> entry : pList.entrySet())
-                {   
-                    if(entry.getKey() == 2)
-                    {
-                        try {
-                            Singl_WorkingController.getInstance().pick(entry.getKey(), -1);
-                            Singl_WorkingController.getInstance().pick(entry.getKey(), 1);
-                        }  catch (IllegalDirectionException ex) {
-                            ex.printStackTrace();
-                        } catch (IllegalFloorException ex) {
-                            ex.printStackTrace();
-                        }
-                    }
-                    else // it already has a 1 or -1
-                    {
-                        try {
-                           Singl_WorkingController.getInstance().pick(
-                                                                   entry.getKey(), 
-                                                                   entry.getValue());
-                        }  catch (IllegalDirectionException ex) {
-                            ex.printStackTrace();
-                        } catch (IllegalFloorException ex) {
-                            ex.printStackTrace();
-                        }
-                    }
+        // distribute the remaining pending requests amongst the elevators
+        for (Map.Entry<Integer, Integer> entry : pList.entrySet())
+        {   
+            try {
+                if(entry.getValue() == 2)
+                {
+                    context.getController().pick(entry.getKey(), -1);
+                    context.getController().pick(entry.getKey(), 1);
                 }
-                
-                continue;
+                else // it already has a 1 or -1
+                    context.getController().pick(entry.getKey(), entry.getValue());
+            }  catch (IllegalDirectionException ex) {
+                ex.printStackTrace();
+            } catch (IllegalFloorException ex) {
+                ex.printStackTrace();
             }
-            
-            
-            // now clear out all callboxes that are lit but are on floors that 
-            // don't currently have people
-            for(Interface_Floor floor : fList)
+        }
+        
+        for(Interface_Floor floor : context.getBuilding().getFloorList())
+        {
+            // now check if the callbox buttons are 
+            // still lit when noone is on the floor
+            if(floor.getNumberOfWaitingPeopleCurrentlyOnFloor() == 0)
             {
-                // now check if the clabox buttons are 
-                // still lit when noone is on the floor
-                if(floor.getNumberOfWaitingPeopleCurrentlyOnFloor() == 0
-                     && (floor.getcBox().getDownButton() == true 
-                        || floor.getcBox().getUpButton() == true))
+                if(floor.getcBox().getDownButton() == true 
+                        || floor.getcBox().getUpButton() == true)
                 {
-                    
-                    System.out.println("FLOOR #" + floor.getFloorNumber() 
+                    context.getConsole().println("FLOOR #" + floor.getFloorNumber() 
                             + " STILL HAS CALLBOX BUTTONS LIT WHEN THERE'S "
                             + "NOONE ON THE FLOOR");
                     try {
@@ -1144,75 +2055,64 @@ public class Singl_WorkingSimulation {
                     } catch (IllegalDirectionException ex) {
                         ex.printStackTrace();
                     }
-                    
                 }
             }
-            
-            
-            // now service all people that are somehow still one a floor
-            floorsComplete = true;
-            
-            for(Interface_Floor floor : fList)
+            else
             {
-                if(floor.getNumberOfWaitingPeopleCurrentlyOnFloor() != 0)
-                {
-                    floorsComplete = false;
-                    
-                    System.out.println(sdf.format(System.currentTimeMillis()) 
-                            + "\tFloor #" + floor.getFloorNumber() + " is"
-                            + " not done yet -- still people present there");
-                    
-                    // this method iterates through each floor and checks
-                    // whether there are any people still waiting on the floor
-                    // It checks the scenarios where there are people and their
-                    // callbox request is still lit and other scenarios where
-                    // there are people on the floor and their callbox is no 
-                    // longer lit. 
-                    
-                    // The method returns a validation boolean for the 
-                    // elevatorsComplete variable. So it starts with the variable
-                    // as true and if it doesn't pass the conditional tests
-                    // then it marks that variable false. Finnally, it returns
-                    // that variable
-                    elevatorsComplete = floor.lastCall();
-                    continue;
-                }
-                
+                // now service all people that are somehow still on a floor
+                context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                        + "\tFloor #" + floor.getFloorNumber() + " is"
+                        + " not done yet -- still people present there");
+
+                floor.lastCall();
             }
+        }
+    }
+    
+    /**
+     * Waits for the drain barrier to be signalled after the given generation,
+     * for no longer than the given number of simulated milliseconds. With the
+     * elevators on threads of their own this is a wait on the barrier. When 
+     * event driven the kernel is run one event at a time and in lockstep the
+     * engine one tick at a time, each stopping as soon as a signal arrives
+     * 
+     * @since Version 1.0
+     * @see Entity_DrainBarrier#awaitSignal(long, long)
+     * @see Entity_EventKernel#runNext(long)
+     * @param seen the generation read before the building was last checked
+     * @param simMillis the longest time to wait, in simulated milliseconds
+     */
+    private void awaitDrainSignal(long seen, long simMillis) {
+        
+        if(isEventDriven())
+        {
+            long limit = kernel.getCurrentTime() + simMillis;
             
+            while(drainBarrier.getGeneration() == seen && kernel.runNext(limit));
             
-            try {
-                Thread.sleep(15000 / getTimeScaleFactor());
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
-            }
+            // nothing due reported back, so let the time run out as before
+            if(drainBarrier.getGeneration() == seen)
+                kernel.runUntil(limit);
             
+            return;
         }
         
-        // everything is now complete and its ok to 
-        // invoke the shutdown method for each elevator
-        for(int i = 0; i < Singl_WorkingBuilding.getInstance()
-                                                   .getNumberOfElevators(); ++i)
+        if(isLockstep())
         {
-            try
-            {
-                Singl_WorkingBuilding.getInstance()
-                        .getElevatorList().get(i).shutDown();
-
-            } catch(IndexOutOfBoundsException ex) {
-                System.out.println("Error occurred while trying to get "
-                        + "illegal index #" + i + " of elevator list while "
-                        + "shutting down: " + ex.getMessage());
-            }
+            long limit = lockstepEngine.getCurrentTime() + simMillis;
+            
+            while(drainBarrier.getGeneration() == seen 
+                                    && lockstepEngine.getCurrentTime() < limit)
+                lockstepEngine.advance(lockstepEngine.getTick());
+            
+            return;
         }
         
-        System.out.println(sdf.format(System.currentTimeMillis()) 
-                + "\tAll elevators have now been shutdown");
-        
-        printSimulationStatus();
-        
-        System.out.println(sdf.format(System.currentTimeMillis()) 
-                + "\tProgram Completed\n\n\n\n");
+        try {
+            drainBarrier.awaitSignal(seen, drainBarrier.toRealNanos(simMillis));
+        } catch (InterruptedException ex) {
+            context.getConsole().println("Interruption Occurred " + ex.getMessage());
+        }
     }
 
     /**
@@ -1285,6 +2185,47 @@ public class Singl_WorkingSimulation {
                                 eElement.getElementsByTagName("numOfFloors")
                                 .item(0).getTextContent())); 
                                 
+                                // the random seed is optional
+                                if(eElement.getElementsByTagName("randomSeed")
+                                        .getLength() > 0)
+                                    randomSeed = Long.parseLong(eElement
+                                        .getElementsByTagName("randomSeed")
+                                        .item(0).getTextContent().trim());
+                                
+                                // the batch window is optional
+                                if(eElement.getElementsByTagName("batchWindow")
+                                        .getLength() > 0)
+                                    setBatchWindow(Long.parseLong(eElement
+                                        .getElementsByTagName("batchWindow")
+                                        .item(0).getTextContent().trim()));
+                                
+                                // the reassign interval and threshold are optional
+                                if(eElement.getElementsByTagName("reassignInterval")
+                                        .getLength() > 0)
+                                    setReassignInterval(Long.parseLong(eElement
+                                        .getElementsByTagName("reassignInterval")
+                                        .item(0).getTextContent().trim()));
+                                
+                                if(eElement.getElementsByTagName("reassignThreshold")
+                                        .getLength() > 0)
+                                    setReassignThreshold(Long.parseLong(eElement
+                                        .getElementsByTagName("reassignThreshold")
+                                        .item(0).getTextContent().trim()));
+                                
+                                // the forecast half life is optional
+                                if(eElement.getElementsByTagName("forecastHalfLife")
+                                        .getLength() > 0)
+                                    setForecastHalfLife(Long.parseLong(eElement
+                                        .getElementsByTagName("forecastHalfLife")
+                                        .item(0).getTextContent().trim()));
+                                
+                                // the execution backend is optional
+                                if(eElement.getElementsByTagName("executionBackend")
+                                        .getLength() > 0)
+                                    setExecutionBackend(eElement
+                                        .getElementsByTagName("executionBackend")
+                                        .item(0).getTextContent().trim());
+                                
                         } catch (IllegalFloorException ex) {
                             ex.printStackTrace();
                         } catch (IllegalSimulationException ex) {
@@ -1371,11 +2312,11 @@ public class Singl_WorkingSimulation {
      */
     private void setUp(String version) throws IllegalSimulationException {
         
-        if(!(version.equals("Original") || version.equals("New")))
+        if(!isKnownVersion(version))
             throw new IllegalSimulationException("Invalid version argument "
                                   + " encountered when setting up: " + version);
                 
-        System.out.println(sdf.format(System.currentTimeMillis()) 
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
                 + "\tGetting Input Data…");
         
         
@@ -1387,6 +2328,19 @@ public class Singl_WorkingSimulation {
             //Information on floor quantity and elevator 
             // quantity is found in programData.xml
             
+            if(configurationOverride != null)
+            {
+                setNumberOfElevators(configurationOverride.getNumberOfElevators());
+                elevatorDefaultFloorDetails.clear();
+                elevatorDefaultFloorDetails.putAll(
+                        configurationOverride.getElevatorDefaultFloorDetails());
+                setMaxPersonsPerElevator(
+                        configurationOverride.getMaxPersonsPerElevator());
+            }
+            
+            if(randomSeedOverride != null)
+                randomSeed = randomSeedOverride;
+            
         } catch (SAXException ex) {
             ex.printStackTrace();
         } catch (ParserConfigurationException ex) {
@@ -1398,18 +2352,57 @@ public class Singl_WorkingSimulation {
         }
                           
                         
-        System.out.println(sdf.format(System.currentTimeMillis()) 
+        // every run counts its threads and wakeups from zero
+        elevatorExecutor = Fact_IMPL_ElevatorExecutor.build(
+                executionBackendOverride != null ? executionBackendOverride : executionBackend);
+        
+        // a lockstep run ticks at the largest step that every time 
+        // constant is a multiple of
+        if(isLockstep())
+        {
+            lockstepEngine = new Entity_LockstepEngine(context, Entity_LockstepEngine.gcd(
+                    Entity_LockstepEngine.gcd(getFloorTravelTime(), getDoorOpenTime()),
+                    Entity_LockstepEngine.gcd(10000, 60000)));
+        }
+        
+        travelTimeTable = new Entity_TravelTimeTable(getNumberOfFloors(), 
+                                                        getFloorTravelTime());
+        
+        hallCallBatcher = new Entity_HallCallBatcher(context, batchWindow);
+        
+        hallCallReassigner = new Entity_HallCallReassigner(context, 
+                getNumberOfFloors(), reassignInterval, reassignThreshold);
+        
+        demandForecast = new Entity_DemandForecast(context, getNumberOfFloors(), 
+                                                        forecastHalfLife);
+        
+        // with the elevators on threads of their own a button press only
+        // queues the call, and a dispatcher thread hands it to the controller
+        hallCallQueue = new Entity_HallCallQueue(context, getNumberOfFloors());
+        if(!isSingleThreaded())
+            hallCallQueue.start();
+        
+        // every run draws its people from its seed, so any run can be replayed
+        randomStreams = new Entity_RandomStreams(randomSeed, replicationNumber, 
+                                                        getNumberOfFloors());
+        startCumulative = toCumulativeArray(getFloorStatSpecStarts());
+        destinationCumulative = toCumulativeArray(getFloorStatSpecDestinations());
+        
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
+                + "\tRandom seed " + randomSeed + ", replication " + replicationNumber);
+        
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
                 + "\tCreating Building…");
         
         //instatiate building, populate floors and elevators into building
-        Singl_WorkingBuilding bInfo = Singl_WorkingBuilding.getInstance();
+        Singl_WorkingBuilding bInfo = context.getBuilding();
         
-        System.out.println(sdf.format(System.currentTimeMillis()) 
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
                 + "\tBuilding created, " + getNumberOfFloors() + " Floors, " 
                 + getNumberOfElevators() + " Elevators.…");
         
         //starting up elevators
-        System.out.println(sdf.format(System.currentTimeMillis()) 
+        context.getConsole().println(sdf.format(System.currentTimeMillis()) 
                 + "\tElevators starting up");
         
         for(int i = 0; i < bInfo.getNumberOfElevators(); ++i)
@@ -1419,7 +2412,7 @@ public class Singl_WorkingSimulation {
                 bInfo.getElevatorList().get(i).startUp();
 
             } catch(IndexOutOfBoundsException ex) {
-                    System.out.println("Error occurred while trying to get "
+                    context.getConsole().println("Error occurred while trying to get "
                         + "illegal index #" + i + " of elevator list while starting "
                         + "up: " + ex.getMessage());
             }
@@ -0,0 +1,123 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_AssignmentSolverTest extends TestCase {
+
+    public Entity_AssignmentSolverTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of solve method, of class Entity_AssignmentSolver.
+     * The cheapest total wins over the cheapest first pick.
+     */
+    public void testSolveSquare() {
+        System.out.println("solve square");
+        long[][] cost = new long[][] {
+            {4, 1, 3},
+            {2, 0, 5},
+            {3, 2, 2}
+        };
+
+        assertTrue(Arrays.equals(new int[] {1, 0, 2}, Entity_AssignmentSolver.solve(cost)));
+    }
+
+    /**
+     * Test of solve method, of class Entity_AssignmentSolver.
+     * With more jobs than workers the dearest job is left without one.
+     */
+    public void testSolveMoreJobsThanWorkers() {
+        System.out.println("solve more jobs than workers");
+        long[][] cost = new long[][] {
+            {5, 9},
+            {1, 8},
+            {7, 2}
+        };
+
+        assertTrue(Arrays.equals(new int[] {-1, 0, 1}, Entity_AssignmentSolver.solve(cost)));
+    }
+
+    /**
+     * Test of solve method, of class Entity_AssignmentSolver.
+     * A job is never given to a worker that cannot take it.
+     */
+    public void testSolveInfeasible() {
+        System.out.println("solve infeasible");
+        long[][] cost = new long[][] {
+            {Long.MAX_VALUE, 3},
+            {Long.MAX_VALUE, 1}
+        };
+
+        int[] assignment = Entity_AssignmentSolver.solve(cost);
+        assertEquals(1, Math.max(assignment[0], assignment[1]));
+        assertEquals(-1, Math.min(assignment[0], assignment[1]));
+        assertEquals(0, Entity_AssignmentSolver.solve(new long[0][0]).length);
+    }
+
+    /**
+     * Test of solve method, of class Entity_AssignmentSolver.
+     * The total matches trying every assignment on small random problems.
+     */
+    public void testSolveMatchesBruteForce() {
+        System.out.println("solve matches brute force");
+        Random random = new Random(7);
+
+        for(int round = 0; round < 200; ++round)
+        {
+            int jobs = 1 + random.nextInt(5);
+            int workers = jobs + random.nextInt(3);
+            long[][] cost = new long[jobs][workers];
+            for(long[] row : cost)
+                for(int j = 0; j < workers; ++j)
+                    row[j] = random.nextInt(50);
+
+            int[] assignment = Entity_AssignmentSolver.solve(cost);
+            long total = 0;
+            boolean[] taken = new boolean[workers];
+            for(int i = 0; i < jobs; ++i)
+            {
+                assertFalse(taken[assignment[i]]);
+                taken[assignment[i]] = true;
+                total += cost[i][assignment[i]];
+            }
+
+            assertEquals(cheapest(cost, 0, new boolean[workers]), total);
+        }
+    }
+
+    private long cheapest(long[][] cost, int job, boolean[] taken) {
+        if(job == cost.length)
+            return 0;
+        long best = Long.MAX_VALUE;
+        for(int j = 0; j < taken.length; ++j)
+        {
+            if(taken[j])
+                continue;
+            taken[j] = true;
+            best = Math.min(best, cost[job][j] + cheapest(cost, job + 1, taken));
+            taken[j] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalFloorException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_DemandForecastTest extends TestCase {
+
+    public Entity_DemandForecastTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of the constructor, of class Entity_DemandForecast.
+     * A half life that is not positive is refused.
+     */
+    public void testNonPositiveHalfLife() {
+        System.out.println("non positive half life");
+        Entity_SimulationContext context = new Entity_SimulationContext();
+
+        try {
+            new Entity_DemandForecast(context, 16, 0);
+            fail("A zero half life should be refused");
+        } catch (IllegalSimulationException ex) {
+        }
+
+        try {
+            new Entity_DemandForecast(context, 16, -1);
+            fail("A negative half life should be refused");
+        } catch (IllegalSimulationException ex) {
+        }
+    }
+
+    /**
+     * Test of recordArrival method, of class Entity_DemandForecast.
+     * Floors outside the building are refused.
+     */
+    public void testRecordArrivalOutOfRange() throws IllegalSimulationException {
+        System.out.println("recordArrival out of range");
+        Entity_DemandForecast instance
+                = new Entity_DemandForecast(new Entity_SimulationContext(), 16, 120000);
+
+        try {
+            instance.recordArrival(0);
+            fail("Floor 0 should be refused");
+        } catch (IllegalFloorException ex) {
+        }
+
+        try {
+            instance.recordArrival(17);
+            fail("Floor 17 should be refused");
+        } catch (IllegalFloorException ex) {
+        }
+
+        assertFalse(instance.hasDemand());
+        assertEquals(0, instance.getArrivals());
+    }
+
+    /**
+     * Test of getRate and hasDemand methods, of class Entity_DemandForecast.
+     * Arrivals at about the same time count about the same, so a floor
+     * with twice the arrivals has about twice the rate.
+     */
+    public void testRatesFollowArrivals() throws IllegalSimulationException,
+                                                    IllegalFloorException {
+        System.out.println("rates follow arrivals");
+        Entity_DemandForecast instance
+                = new Entity_DemandForecast(new Entity_SimulationContext(), 16, 120000);
+
+        assertFalse(instance.hasDemand());
+
+        instance.recordArrival(3);
+        instance.recordArrival(3);
+        instance.recordArrival(5);
+
+        assertTrue(instance.hasDemand());
+        assertEquals(3, instance.getArrivals());
+        assertEquals(0.0, instance.getRate(1), 0.0);
+        assertTrue(instance.getRate(5) > 0);
+        assertEquals(2.0, instance.getRate(3) / instance.getRate(5), 0.1);
+        assertEquals(0, instance.getParkings());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_DispatchStrategyRegistryTest extends TestCase {
+
+    public Entity_DispatchStrategyRegistryTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of getNames method, of class Entity_DispatchStrategyRegistry.
+     * The built in versions come first, in order.
+     */
+    public void testGetNames() {
+        System.out.println("getNames");
+        String[] names = Entity_DispatchStrategyRegistry.getNames();
+
+        String[] builtIn = {"Original", "New", "ETA", "Batch", "Destination", "Forecast"};
+
+        assertTrue(names.length >= builtIn.length);
+        for(int i = 0; i < builtIn.length; ++i)
+        {
+            assertEquals(builtIn[i], names[i]);
+            assertTrue(Singl_WorkingSimulation.isKnownVersion(names[i]));
+        }
+    }
+
+    /**
+     * Test of getIgnoredStrategies method, of class Entity_DispatchStrategyRegistry.
+     * No strategy on the test class path takes the name of a built in one.
+     */
+    public void testGetIgnoredStrategies() {
+        System.out.println("getIgnoredStrategies");
+
+        assertEquals(0, Entity_DispatchStrategyRegistry.getIgnoredStrategies().length);
+    }
+
+    /**
+     * Test of get method, of class Entity_DispatchStrategyRegistry.
+     * A built in version builds its own delegates.
+     */
+    public void testGet() {
+        System.out.println("get");
+        Entity_SimulationContext context = new Entity_SimulationContext();
+        Interface_DispatchStrategy strategy = Entity_DispatchStrategyRegistry.get("Original");
+
+        assertEquals("Original", strategy.getName());
+        assertTrue(strategy.buildPicker(context) instanceof IMPL_ElevatorPicker_PROVIDED);
+        assertTrue(strategy.buildPendingProcessor(context) instanceof IMPL_PendingProcessor_PROVIDED);
+    }
+
+    /**
+     * Test of get and isRegistered methods, of class Entity_DispatchStrategyRegistry.
+     * An unknown name has no strategy, and the factories fall back to the
+     * improved delegates for it.
+     */
+    public void testUnknownName() {
+        System.out.println("unknown name");
+        Entity_SimulationContext context = new Entity_SimulationContext();
+
+        assertNull(Entity_DispatchStrategyRegistry.get("Nonexistent"));
+        assertFalse(Entity_DispatchStrategyRegistry.isRegistered("Nonexistent"));
+        assertTrue(Fact_IMPL_ElevatorPicker.build(context, "Nonexistent")
+                        instanceof IMPL_ElevatorPicker_IMPROVED);
+        assertTrue(Fact_IMPL_PendingProcessor.build(context, "Nonexistent")
+                        instanceof IMPL_PendingProcessor_IMPROVED);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.io.PrintStream;
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_DrainBarrierTest extends TestCase {
+
+    public Entity_DrainBarrierTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of signal method, of class Entity_DrainBarrier.
+     * Signals sent while the barrier is closed are not counted.
+     */
+    public void testClosedBarrierIgnoresSignals() throws Exception {
+        System.out.println("closed barrier ignores signals");
+        Entity_DrainBarrier barrier = new Entity_DrainBarrier(new Entity_SimulationContext(
+                                    Entity_SimulationContext.newDiscardingConsole()));
+        barrier.signal();
+        assertFalse(barrier.isDraining());
+        assertEquals(0, barrier.getGeneration());
+        assertFalse(barrier.awaitSignal(0, 1000000L));
+    }
+
+    /**
+     * Test of awaitSignal method, of class Entity_DrainBarrier.
+     * A signal from another thread wakes the waiter, and a signal sent before
+     * the wait starts is not missed.
+     */
+    public void testSignalWakesWaiter() throws Exception {
+        System.out.println("signal wakes waiter");
+        final Entity_DrainBarrier barrier = new Entity_DrainBarrier(new Entity_SimulationContext(
+                                    Entity_SimulationContext.newDiscardingConsole()));
+        barrier.open();
+
+        long seen = barrier.getGeneration();
+        Thread signaller = new Thread(new Runnable() {
+            public void run() {
+                barrier.signal();
+            }
+        });
+        signaller.start();
+
+        assertTrue(barrier.awaitSignal(seen, 5000000000L));
+        signaller.join();
+
+        barrier.signal();
+        assertTrue(barrier.awaitSignal(seen + 1, 0));
+        assertEquals(2, barrier.getGeneration());
+
+        barrier.close();
+        assertFalse(barrier.isDraining());
+    }
+
+    /**
+     * Test of the drain in the shutdown method, of class Singl_WorkingSimulation.
+     * A request left on the pending list and a person left waiting without
+     * pressing the callbox are dispatched again by the drain, the barrier is
+     * signalled as they are served, and the building is empty before any
+     * elevator is shut down.
+     */
+    public void testShutdownDrainsStrandedCalls() throws IllegalSimulationException,
+        IllegalDirectionException, IllegalFloorException, InterruptedException {
+        System.out.println("shutdown drains stranded calls");
+        String[] modes = {Singl_WorkingSimulation.EVENT_DRIVEN,
+                          Singl_WorkingSimulation.REAL_TIME};
+
+        for(String mode : modes)
+        {
+            DrainConsole console = new DrainConsole();
+            Entity_SimulationContext context = new Entity_SimulationContext(console);
+            console.context = context;
+
+            Singl_WorkingSimulation simulation = context.getSimulation();
+            simulation.setUp("New", mode);
+
+            // an elevator still settling on its default floor would look at
+            // the pending list when it gets there
+            awaitParked(context);
+
+            // nobody will press the callbox for this person, and the pending
+            // request is left without waking an elevator for it
+            Interface_Person stranded = Fact_PersonFactory.build(context, 5, 12);
+            context.getBuilding().getFloorList().get(4).addPersonToFloor(stranded);
+            context.getController().getPendingCalls().add(9, -1);
+
+            assertFalse(simulation.getDrainBarrier().isBuildingEmpty());
+
+            simulation.shutdown();
+
+            assertTrue(mode, console.drained);
+            assertTrue(mode, console.emptyWhenDrained);
+            assertTrue(mode, console.runningWhenDrained);
+            assertTrue(mode, console.signalsWhenDrained > 0);
+            assertTrue(mode, console.pendingRedispatched);
+            assertTrue(mode, console.waitingRedispatched);
+
+            assertTrue(mode, context.getController().getPendingCalls().isEmpty());
+            assertEquals(mode, 0, context.getBuilding().getFloorList().get(4)
+                                        .getNumberOfWaitingPeopleCurrentlyOnFloor());
+            assertTrue(mode, context.getBuilding().getFloorList().get(11)
+                                        .getPersonsCompleted().contains(stranded));
+        }
+    }
+
+    /**
+     * Waits for every elevator to be parked, failing after five seconds
+     *
+     * @param context the simulation context of the elevators
+     * @throws InterruptedException
+     */
+    private static void awaitParked(Entity_SimulationContext context)
+                                                throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        for(Interface_Elevator elevator : context.getBuilding().getElevatorList())
+        {
+            while(!elevator.isParked())
+            {
+                assertTrue("Elevator never parked",
+                                    System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    /**
+     * A console that throws the commentary away but looks at the building
+     * when the drain reports it has finished, before the elevators are shut
+     * down
+     */
+    private static class DrainConsole extends PrintStream {
+
+        Entity_SimulationContext context;
+        boolean pendingRedispatched = false;
+        boolean waitingRedispatched = false;
+        boolean drained = false;
+        boolean emptyWhenDrained = false;
+        boolean runningWhenDrained = true;
+        long signalsWhenDrained = 0;
+
+        DrainConsole() {
+            super(Entity_SimulationContext.newDiscardingConsole());
+        }
+
+        @Override
+        public void println(String x) {
+
+            if(x.contains("Pending list is not yet complete"))
+                pendingRedispatched = true;
+
+            if(x.contains("Floor #5 is not done yet"))
+                waitingRedispatched = true;
+
+            if(!x.contains("Building drained"))
+                return;
+
+            Entity_DrainBarrier barrier = context.getSimulation().getDrainBarrier();
+
+            drained = true;
+            emptyWhenDrained = barrier.isBuildingEmpty();
+            signalsWhenDrained = barrier.getGeneration();
+
+            for(Interface_Elevator elevator : context.getBuilding().getElevatorList())
+                runningWhenDrained &= ((Entity_WorkingElevator) elevator).getIsRunning();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.util.SplittableRandom;
+
+/**
+ * A microbenchmark comparing the candidate search IMPL_ElevatorPicker_IMPROVED
+ * used to do, which walked every elevator and for each one added up the
+ * destinations of every elevator again, with the single pass it makes over a
+ * small building and with a lookup in the Entity_ElevatorLoadIndex it makes
+ * over a larger one. Each request also moves one elevator, so the cost of 
+ * keeping the index up to date is counted too. Run its main method with the
+ * test classpath; it prints the time per request from 4 to 1024 elevators
+ *
+ * @author Kevin
+ */
+public class Entity_ElevatorLoadIndexBenchmark {
+
+    private static final int FLOORS = 64;
+
+    private static final int REQUESTS = 2000;
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+
+        int[] sizes = new int[] {4, 8, 16, 32, 64, 1024};
+
+        // warm the JIT up on every size before anything is timed
+        for(int round = 0; round < ROUNDS; ++round)
+            for(int elevators : sizes)
+            {
+                runIndex(elevators, round);
+                runLinear(elevators, round);
+                if(elevators < 1024)
+                    runScan(elevators, round);
+            }
+
+        System.out.println(" ELEVATORS   SCAN ns/req  LINEAR ns/req  INDEX ns/req   SPEEDUP");
+
+        for(int elevators : sizes)
+        {
+            long scan = Long.MAX_VALUE;
+            long linear = Long.MAX_VALUE;
+            long index = Long.MAX_VALUE;
+
+            // the best round is reported
+            for(int round = 0; round < ROUNDS; ++round)
+            {
+                scan = Math.min(scan, runScan(elevators, round));
+                linear = Math.min(linear, runLinear(elevators, round));
+                index = Math.min(index, runIndex(elevators, round));
+            }
+
+            System.out.printf("%10d  %12.1f  %13.1f  %12.1f  %8.1fx\n", elevators,
+                    (double) scan / REQUESTS, (double) linear / REQUESTS,
+                    (double) index / REQUESTS, (double) scan / index);
+        }
+    }
+
+    /**
+     * Runs the requests against the old search over plain arrays
+     */
+    private static long runScan(int elevators, long seed) {
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] floor = new int[elevators];
+        int[] direction = new int[elevators];
+        int[] destinations = new int[elevators];
+
+        for(int i = 0; i < elevators; ++i)
+            move(random, floor, direction, destinations, i);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+
+        for(int r = 0; r < REQUESTS; ++r)
+        {
+            move(random, floor, direction, destinations, random.nextInt(elevators));
+
+            int requestFloor = 1 + random.nextInt(FLOORS);
+            int requestDirection = (random.nextBoolean() ? 1 : -1);
+            int lessThanAvg = 0;
+            int sameDirection = 0;
+            int backup = 0;
+
+            for(int i = 0; i < elevators; ++i)
+            {
+                int total = 0;
+                int counting = 0;
+                for(int j = 0; j < elevators; ++j)
+                {
+                    if(j != i || destinations[j] == 0)
+                    {
+                        total += destinations[j];
+                        ++counting;
+                    }
+                }
+                int avg = (counting == 0 ? 0 : total / counting);
+
+                boolean approaching = (direction[i] == requestDirection
+                        && (requestDirection == 1 ? requestFloor >= floor[i]
+                                                  : requestFloor <= floor[i]));
+
+                if(approaching && destinations[i] <= avg && avg >= 1)
+                    lessThanAvg = i + 1;
+                if(approaching)
+                    sameDirection = i + 1;
+                if(direction[i] == 0)
+                    backup = i + 1;
+            }
+
+            checksum += lessThanAvg + sameDirection + backup;
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        if(checksum == 42)
+            System.out.print("");
+
+        return elapsed;
+    }
+
+    /**
+     * Runs the requests against the single pass IMPL_ElevatorPicker_IMPROVED
+     * makes over a small building, which adds the destinations up once and
+     * keeps the nearest candidate of each kind as it goes
+     */
+    private static long runLinear(int elevators, long seed) {
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] floor = new int[elevators];
+        int[] direction = new int[elevators];
+        int[] destinations = new int[elevators];
+
+        for(int i = 0; i < elevators; ++i)
+            move(random, floor, direction, destinations, i);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+
+        for(int r = 0; r < REQUESTS; ++r)
+        {
+            move(random, floor, direction, destinations, random.nextInt(elevators));
+
+            int requestFloor = 1 + random.nextInt(FLOORS);
+            int requestDirection = (random.nextBoolean() ? 1 : -1);
+            int total = 0;
+
+            for(int i = 0; i < elevators; ++i)
+                total += destinations[i];
+
+            int lessThanAvg = 0;
+            int lessThanAvgDistance = Integer.MAX_VALUE;
+            int sameDirection = 0;
+            int sameDirectionDistance = Integer.MAX_VALUE;
+            int backup = 0;
+            int backupDistance = Integer.MAX_VALUE;
+
+            for(int i = elevators - 1; i >= 0; --i)
+            {
+                int distance = Math.abs(requestFloor - floor[i]);
+
+                if(direction[i] == requestDirection
+                        && requestDirection * (requestFloor - floor[i]) >= 0)
+                {
+                    int avg = (destinations[i] == 0 ? total / elevators
+                            : (elevators < 2 ? 0
+                                : (total - destinations[i]) / (elevators - 1)));
+
+                    if(distance < sameDirectionDistance)
+                    {
+                        sameDirection = i + 1;
+                        sameDirectionDistance = distance;
+                    }
+
+                    if(destinations[i] <= avg && avg >= 1
+                            && distance < lessThanAvgDistance)
+                    {
+                        lessThanAvg = i + 1;
+                        lessThanAvgDistance = distance;
+                    }
+                }
+                else if(direction[i] == 0 && distance < backupDistance)
+                {
+                    backup = i + 1;
+                    backupDistance = distance;
+                }
+            }
+
+            checksum += lessThanAvg + sameDirection + backup;
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        if(checksum == 42)
+            System.out.print("");
+
+        return elapsed;
+    }
+
+    /**
+     * Runs the same requests against the load index
+     */
+    private static long runIndex(int elevators, long seed) {
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] floor = new int[elevators];
+        int[] direction = new int[elevators];
+        int[] destinations = new int[elevators];
+        Entity_ElevatorLoadIndex loadIndex = new Entity_ElevatorLoadIndex();
+
+        for(int i = 0; i < elevators; ++i)
+        {
+            move(random, floor, direction, destinations, i);
+            loadIndex.update(i + 1, floor[i], direction[i], destinations[i]);
+        }
+
+        long checksum = 0;
+        long start = System.nanoTime();
+
+        for(int r = 0; r < REQUESTS; ++r)
+        {
+            int moved = random.nextInt(elevators);
+            move(random, floor, direction, destinations, moved);
+            loadIndex.update(moved + 1, floor[moved], direction[moved],
+                                                        destinations[moved]);
+
+            int requestFloor = 1 + random.nextInt(FLOORS);
+            int requestDirection = (random.nextBoolean() ? 1 : -1);
+            int lessThanAvg = 0;
+            int sameDirection = 0;
+            int backup = 0;
+
+            synchronized(loadIndex)
+            {
+                for(int serial : loadIndex.getApproachingElevators(
+                                                requestFloor, requestDirection))
+                {
+                    if(sameDirection == 0)
+                        sameDirection = serial;
+
+                    int avg = loadIndex.getAverageDestinationsExcluding(serial);
+                    if(loadIndex.getDestinations(serial) <= avg && avg >= 1)
+                    {
+                        lessThanAvg = serial;
+                        break;
+                    }
+                }
+
+                if(sameDirection == 0)
+                    for(int serial : loadIndex.getIdleElevators(requestFloor))
+                    {
+                        backup = serial;
+                        break;
+                    }
+            }
+
+            checksum += lessThanAvg + sameDirection + backup;
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        if(checksum == 42)
+            System.out.print("");
+
+        return elapsed;
+    }
+
+    /**
+     * Gives an elevator a new random floor, direction and load
+     */
+    private static void move(SplittableRandom random, int[] floor,
+                            int[] direction, int[] destinations, int i) {
+        floor[i] = 1 + random.nextInt(FLOORS);
+        direction[i] = random.nextInt(3) - 1;
+        destinations[i] = (direction[i] == 0 ? 0 : 1 + random.nextInt(6));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_ElevatorLoadIndexTest extends TestCase {
+
+    public Entity_ElevatorLoadIndexTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of getApproachingElevators method, of class Entity_ElevatorLoadIndex.
+     * Elevators going up below the floor and going down above it are
+     * returned nearest first.
+     */
+    public void testApproachingNearestFirst() {
+        System.out.println("approaching nearest first");
+        Entity_ElevatorLoadIndex index = new Entity_ElevatorLoadIndex();
+        index.update(1, 2, 1, 1);
+        index.update(2, 7, 1, 1);
+        index.update(3, 9, 1, 1);
+        index.update(4, 12, -1, 1);
+        index.update(5, 10, -1, 1);
+
+        assertEquals(Arrays.asList(2, 1), toList(index.getApproachingElevators(8, 1)));
+        assertEquals(Arrays.asList(5, 4), toList(index.getApproachingElevators(8, -1)));
+    }
+
+    /**
+     * Test of update method, of class Entity_ElevatorLoadIndex.
+     * Moving an elevator moves it in the index and keeps the destination total.
+     */
+    public void testUpdateMovesElevator() {
+        System.out.println("update moves elevator");
+        Entity_ElevatorLoadIndex index = new Entity_ElevatorLoadIndex();
+        index.update(1, 3, 0, 0);
+        index.update(2, 5, 1, 2);
+        assertEquals(2, index.getTotalDestinations());
+
+        index.update(2, 6, 1, 1);
+        index.update(1, 3, 1, 3);
+        assertEquals(4, index.getTotalDestinations());
+        assertEquals(Arrays.asList(2, 1), toList(index.getApproachingElevators(8, 1)));
+        assertTrue(toList(index.getIdleElevators(3)).isEmpty());
+        assertEquals(Arrays.asList(2), toList(index.getElevatorsOnFloor(6, 1)));
+    }
+
+    /**
+     * Test of getIdleElevators method, of class Entity_ElevatorLoadIndex.
+     * Idle elevators come nearest first on either side of the floor.
+     */
+    public void testIdleByDistance() {
+        System.out.println("idle by distance");
+        Entity_ElevatorLoadIndex index = new Entity_ElevatorLoadIndex();
+        index.update(1, 1, 0, 0);
+        index.update(2, 9, 0, 0);
+        index.update(3, 6, 0, 0);
+        index.update(4, 4, 0, 0);
+
+        assertEquals(Arrays.asList(3, 4, 2, 1), toList(index.getIdleElevators(6)));
+    }
+
+    /**
+     * Test of getAverageDestinationsExcluding method, of class Entity_ElevatorLoadIndex.
+     * A busy elevator is left out of the average, an empty one is counted.
+     */
+    public void testAverageDestinations() {
+        System.out.println("average destinations");
+        Entity_ElevatorLoadIndex index = new Entity_ElevatorLoadIndex();
+        index.update(1, 1, 0, 0);
+        index.update(2, 1, 1, 3);
+        index.update(3, 1, 1, 5);
+
+        assertEquals(2, index.getAverageDestinationsExcluding(1));
+        assertEquals(2, index.getAverageDestinationsExcluding(2));
+        assertEquals(1, index.getAverageDestinationsExcluding(3));
+    }
+
+    private List<Integer> toList(Iterable<Integer> serials) {
+        List<Integer> list = new ArrayList<Integer>();
+        for(int serial : serials)
+            list.add(serial);
+        return list;
+    }
+}
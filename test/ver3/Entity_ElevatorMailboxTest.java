@@ -0,0 +1,176 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_ElevatorMailboxTest extends TestCase {
+
+    public Entity_ElevatorMailboxTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of post, poll and isEmpty methods, of class Entity_ElevatorMailbox.
+     * Commands come out in the order they were posted.
+     */
+    public void testPostAndPoll() {
+        System.out.println("post and poll");
+        Entity_ElevatorMailbox instance = new Entity_ElevatorMailbox();
+
+        assertTrue(instance.isEmpty());
+        assertNull(instance.poll());
+
+        instance.post(Entity_ElevatorMailbox.SET_DIRECTION, 1, null);
+        instance.post(Entity_ElevatorMailbox.ADD_STOP, 7, null);
+
+        assertFalse(instance.isEmpty());
+        assertEquals(2, instance.getCommandsPosted());
+
+        Entity_ElevatorMailbox.Command first = instance.poll();
+        assertEquals(Entity_ElevatorMailbox.SET_DIRECTION, first.getType());
+        assertEquals(1, first.getValue());
+
+        Entity_ElevatorMailbox.Command second = instance.poll();
+        assertEquals(Entity_ElevatorMailbox.ADD_STOP, second.getType());
+        assertEquals(7, second.getValue());
+
+        assertNull(instance.poll());
+        assertTrue(instance.isEmpty());
+    }
+
+    /**
+     * Test of markTaken and isTaken methods, of class Entity_ElevatorMailbox.
+     */
+    public void testTaken() {
+        System.out.println("taken");
+        Entity_ElevatorMailbox instance = new Entity_ElevatorMailbox();
+
+        Entity_ElevatorMailbox.Command posted
+                = instance.post(Entity_ElevatorMailbox.ADD_STOP, 3, null);
+        assertFalse(posted.isTaken());
+
+        Entity_ElevatorMailbox.Command polled = instance.poll();
+        assertSame(posted, polled);
+
+        assertTrue(polled.markTaken());
+        assertTrue(posted.isTaken());
+        assertFalse(posted.claimWakeup());
+    }
+
+    /**
+     * Test of claimWakeup, markTaken and markWoken methods, of class 
+     * Entity_ElevatorMailbox. A command a poster has undertaken to wake the
+     * elevator for reports it when taken, only one poster gets to wake the
+     * elevator for it, and the command shows when that wake up has been sent.
+     */
+    public void testClaimWakeup() {
+        System.out.println("claim wakeup");
+        Entity_ElevatorMailbox instance = new Entity_ElevatorMailbox();
+
+        Entity_ElevatorMailbox.Command posted
+                = instance.post(Entity_ElevatorMailbox.ADD_STOP, 3, null);
+
+        assertTrue(posted.claimWakeup());
+        assertFalse(posted.claimWakeup());
+        assertFalse(posted.isTaken());
+
+        assertFalse(instance.poll().markTaken());
+        assertTrue(posted.isTaken());
+
+        assertFalse(posted.isWoken());
+        posted.markWoken();
+        assertTrue(posted.isWoken());
+    }
+
+    /**
+     * Test of clear method, of class Entity_ElevatorMailbox.
+     */
+    public void testClear() {
+        System.out.println("clear");
+        Entity_ElevatorMailbox instance = new Entity_ElevatorMailbox();
+
+        instance.post(Entity_ElevatorMailbox.ADD_STOP, 3, null);
+        instance.post(Entity_ElevatorMailbox.DRAIN, 0, null);
+        instance.clear();
+
+        assertTrue(instance.isEmpty());
+
+        instance.post(Entity_ElevatorMailbox.ADD_STOP, 5, null);
+        assertEquals(5, instance.poll().getValue());
+    }
+
+    /**
+     * Test of post method, of class Entity_ElevatorMailbox. Commands posted
+     * from many threads at once all come out, each poster's in the order it
+     * posted them.
+     */
+    public void testManyPosters() throws InterruptedException {
+        System.out.println("many posters");
+        final Entity_ElevatorMailbox instance = new Entity_ElevatorMailbox();
+        final int posters = 4;
+        final int each = 10000;
+        Thread[] threads = new Thread[posters];
+
+        for(int t = 0; t < posters; ++t)
+        {
+            final int poster = t;
+
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for(int i = 0; i < each; ++i)
+                        instance.post(Entity_ElevatorMailbox.ADD_STOP,
+                                                    poster * each + i, null);
+                }
+            });
+            threads[t].start();
+        }
+
+        int[] last = new int[posters];
+        int taken = 0;
+
+        for(int t = 0; t < posters; ++t)
+            last[t] = -1;
+
+        while(taken < posters * each)
+        {
+            Entity_ElevatorMailbox.Command command = instance.poll();
+
+            if(command == null)
+            {
+                Thread.yield();
+                continue;
+            }
+
+            int poster = command.getValue() / each;
+            int index = command.getValue() % each;
+
+            assertEquals(last[poster] + 1, index);
+            last[poster] = index;
+            ++taken;
+        }
+
+        for(Thread thread : threads)
+            thread.join();
+
+        assertTrue(instance.isEmpty());
+        assertEquals(posters * each, instance.getCommandsPosted());
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_ElevatorSnapshotTest extends TestCase {
+
+    public Entity_ElevatorSnapshotTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Returns the words of a stop set holding the given floors
+     */
+    private static long[] stopsAt(int... floors) {
+        Entity_StopSet stops = new Entity_StopSet(100);
+
+        for(int floor : floors)
+            stops.add(floor, 1);
+
+        return stops.toWords();
+    }
+
+    /**
+     * Test of isStoppingAt, getDestinationCount and nextDestination methods,
+     * of class Entity_ElevatorSnapshot. Stops in the second word are found
+     * as well as those in the first.
+     */
+    public void testStops() {
+        System.out.println("stops");
+        Entity_ElevatorSnapshot instance = new Entity_ElevatorSnapshot(
+                                1, 3, 1, false, 2, stopsAt(5, 63, 64, 90), 1);
+
+        assertEquals(4, instance.getDestinationCount());
+        assertTrue(instance.isStoppingAt(64));
+        assertFalse(instance.isStoppingAt(6));
+        assertFalse(instance.isStoppingAt(500));
+
+        assertEquals(5, instance.nextDestination(0));
+        assertEquals(63, instance.nextDestination(6));
+        assertEquals(64, instance.nextDestination(64));
+        assertEquals(90, instance.nextDestination(65));
+        assertEquals(-1, instance.nextDestination(91));
+    }
+
+    /**
+     * Test of the constructor, of class Entity_ElevatorSnapshot. Changing
+     * the words it was made from does not change the snapshot.
+     */
+    public void testImmutable() {
+        System.out.println("immutable");
+        long[] words = stopsAt(4);
+        Entity_ElevatorSnapshot instance
+                = new Entity_ElevatorSnapshot(1, 1, 0, true, 0, words, 7);
+
+        words[0] = 0;
+
+        assertTrue(instance.isStoppingAt(4));
+        assertEquals(7, instance.getVersion());
+    }
+
+    /**
+     * Test of isOpenOn, isApproaching and canServe methods, of class
+     * Entity_ElevatorSnapshot.
+     */
+    public void testCanServe() {
+        System.out.println("can serve");
+        Entity_ElevatorSnapshot goingUp = new Entity_ElevatorSnapshot(
+                                        1, 4, 1, false, 0, stopsAt(9), 1);
+        Entity_ElevatorSnapshot openOnSix = new Entity_ElevatorSnapshot(
+                                        2, 6, -1, true, 0, stopsAt(2), 1);
+
+        assertTrue(goingUp.isApproaching(7, 1));
+        assertFalse(goingUp.isApproaching(3, 1));
+        assertFalse(goingUp.canServe(7, -1));
+
+        assertTrue(openOnSix.isOpenOn(6, -1));
+        assertFalse(openOnSix.isOpenOn(6, 1));
+        assertTrue(openOnSix.canServe(6, -1));
+        assertFalse(openOnSix.canServe(8, -1));
+    }
+
+    /**
+     * Test of withPostedStop and withPostedDirection methods, of class
+     * Entity_ElevatorSnapshot. An idle elevator posted a stop heads toward
+     * it, and only an idle one is turned.
+     */
+    public void testPosted() {
+        System.out.println("posted");
+        Entity_ElevatorSnapshot idle = new Entity_ElevatorSnapshot(
+                                        1, 5, 0, false, 0, stopsAt(), 3);
+
+        Entity_ElevatorSnapshot sent = idle.withPostedStop(2, 4);
+        assertTrue(sent.isStoppingAt(2));
+        assertEquals(1, sent.getDestinationCount());
+        assertEquals(-1, sent.getDirection());
+        assertEquals(4, sent.getVersion());
+        assertFalse(idle.isStoppingAt(2));
+
+        assertEquals(0, idle.withPostedStop(5, 4).getDirection());
+        assertEquals(1, idle.withPostedDirection(1, 4).getDirection());
+        assertEquals(-1, sent.withPostedDirection(1, 5).getDirection());
+    }
+
+}
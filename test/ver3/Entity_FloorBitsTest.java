@@ -0,0 +1,94 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_FloorBitsTest extends TestCase {
+
+    public Entity_FloorBitsTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of set, clear and isEmpty methods, of class Entity_FloorBits.
+     */
+    public void testSetAndClear() {
+        System.out.println("set and clear");
+        AtomicLongArray words = new AtomicLongArray(2);
+
+        assertTrue(Entity_FloorBits.isEmpty(words, null));
+        assertTrue(Entity_FloorBits.set(words, 70));
+        assertFalse(Entity_FloorBits.set(words, 70));
+        assertFalse(Entity_FloorBits.isEmpty(words, null));
+        assertEquals(1L << 6, words.get(1));
+        assertTrue(Entity_FloorBits.contains(words, 70));
+        assertFalse(Entity_FloorBits.contains(words, 71));
+        assertFalse(Entity_FloorBits.contains(words, 500));
+
+        assertTrue(Entity_FloorBits.clear(words, 70));
+        assertFalse(Entity_FloorBits.clear(words, 70));
+        assertTrue(Entity_FloorBits.isEmpty(words, null));
+    }
+
+    /**
+     * Test of set and clear methods, of class Entity_FloorBits. A floor
+     * below zero or past the last word has no bit to set or clear.
+     */
+    public void testSetAndClearOutOfRange() {
+        System.out.println("set and clear out of range");
+        AtomicLongArray words = new AtomicLongArray(2);
+
+        assertFalse(Entity_FloorBits.set(words, -1));
+        assertFalse(Entity_FloorBits.set(words, 128));
+        assertTrue(Entity_FloorBits.isEmpty(words, null));
+
+        assertTrue(Entity_FloorBits.set(words, 127));
+        assertFalse(Entity_FloorBits.clear(words, -1));
+        assertFalse(Entity_FloorBits.clear(words, 128));
+        assertTrue(Entity_FloorBits.contains(words, 127));
+    }
+
+    /**
+     * Test of next and previous methods, of class Entity_FloorBits. The
+     * scans cross words, stay within the capacity and look in both arrays
+     * when given two.
+     */
+    public void testNextAndPrevious() {
+        System.out.println("next and previous");
+        AtomicLongArray up = new AtomicLongArray(2);
+        AtomicLongArray down = new AtomicLongArray(2);
+
+        Entity_FloorBits.set(up, 3);
+        Entity_FloorBits.set(up, 100);
+        Entity_FloorBits.set(down, 64);
+
+        assertEquals(3, Entity_FloorBits.next(up, null, -5, 102));
+        assertEquals(100, Entity_FloorBits.next(up, null, 4, 102));
+        assertEquals(64, Entity_FloorBits.next(up, down, 4, 102));
+        assertEquals(-1, Entity_FloorBits.next(up, null, 102, 102));
+
+        assertEquals(100, Entity_FloorBits.previous(up, null, 500, 102));
+        assertEquals(3, Entity_FloorBits.previous(up, null, 99, 102));
+        assertEquals(64, Entity_FloorBits.previous(up, down, 99, 102));
+        assertEquals(-1, Entity_FloorBits.previous(up, down, 2, 102));
+        assertEquals(-1, Entity_FloorBits.previous(up, null, -1, 102));
+    }
+}
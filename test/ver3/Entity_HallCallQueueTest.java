@@ -0,0 +1,94 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_HallCallQueueTest extends TestCase {
+
+    public Entity_HallCallQueueTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of publish method, of class Entity_HallCallQueue.
+     * A closed queue turns calls away so the callbox signals directly.
+     */
+    public void testPublishWhenClosed() throws IllegalSimulationException {
+        System.out.println("publish when closed");
+        Entity_HallCallQueue queue = new Entity_HallCallQueue(new Entity_SimulationContext(), 16);
+
+        assertFalse(queue.publish(3, 1));
+        assertEquals(0, queue.getDepth());
+        assertEquals(0, queue.getCallsPublished());
+    }
+
+    /**
+     * Test of publish method, of class Entity_HallCallQueue.
+     * The same floor and direction waits in the queue only once.
+     */
+    public void testPublishCoalesces() throws IllegalSimulationException {
+        System.out.println("publish coalesces");
+        Entity_HallCallQueue queue = new Entity_HallCallQueue(new Entity_SimulationContext(), 16);
+        queue.open();
+
+        assertTrue(queue.publish(3, 1));
+        assertTrue(queue.publish(3, 1));
+        assertTrue(queue.publish(3, -1));
+        assertTrue(queue.publish(16, 1));
+
+        assertEquals(3, queue.getDepth());
+        assertEquals(3, queue.getMaxDepth());
+        assertEquals(4, queue.getCallsPublished());
+        assertEquals(1, queue.getCallsCoalesced());
+    }
+
+    /**
+     * Test of publish method, of class Entity_HallCallQueue.
+     * A call that does not belong to the building is turned away so the
+     * callbox signals directly.
+     */
+    public void testPublishOutOfRange() throws IllegalSimulationException {
+        System.out.println("publish out of range");
+        Entity_HallCallQueue queue = new Entity_HallCallQueue(new Entity_SimulationContext(), 16);
+        queue.open();
+
+        assertFalse(queue.publish(0, 1));
+        assertFalse(queue.publish(17, -1));
+        assertFalse(queue.publish(99, 1));
+        assertFalse(queue.publish(3, 0));
+
+        assertEquals(0, queue.getDepth());
+        assertEquals(0, queue.getCallsPublished());
+    }
+
+    /**
+     * Test of the constructor, of class Entity_HallCallQueue.
+     * A building without floors cannot have a queue.
+     */
+    public void testNoFloors() {
+        System.out.println("no floors");
+        try {
+            new Entity_HallCallQueue(new Entity_SimulationContext(), 0);
+            fail("a queue without floors was built");
+        } catch (IllegalSimulationException ex) {
+        }
+    }
+}
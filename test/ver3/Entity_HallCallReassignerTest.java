@@ -0,0 +1,69 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_HallCallReassignerTest extends TestCase {
+
+    public Entity_HallCallReassignerTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of the constructor, of class Entity_HallCallReassigner.
+     * A negative interval or threshold is refused.
+     */
+    public void testNegativeSettings() {
+        System.out.println("negative settings");
+        Entity_SimulationContext context = new Entity_SimulationContext();
+
+        try {
+            new Entity_HallCallReassigner(context, 16, -1, 5000);
+            fail("A negative interval should be refused");
+        } catch (IllegalSimulationException ex) {
+        }
+
+        try {
+            new Entity_HallCallReassigner(context, 16, 1000, -1);
+            fail("A negative threshold should be refused");
+        } catch (IllegalSimulationException ex) {
+        }
+    }
+
+    /**
+     * Test of getInterval, getThreshold and buildReport methods, of class
+     * Entity_HallCallReassigner. A new reassigner has moved nothing.
+     */
+    public void testNewReassigner() throws IllegalSimulationException {
+        System.out.println("new reassigner");
+        Entity_SimulationContext context = new Entity_SimulationContext();
+        Entity_HallCallReassigner instance
+                = new Entity_HallCallReassigner(context, 16, 1000, 5000);
+
+        assertEquals(1000, instance.getInterval());
+        assertEquals(5000, instance.getThreshold());
+        assertEquals(0, instance.getReassignments());
+        assertEquals(0, instance.getWaitSaved());
+        assertEquals("Hall call reassigner moved 0 calls to an elevator expected "
+                + "sooner, saving an estimated 0.0 seconds of waiting",
+                instance.buildReport());
+    }
+}
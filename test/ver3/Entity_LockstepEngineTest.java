@@ -0,0 +1,70 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import static junit.framework.Assert.fail;
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_LockstepEngineTest extends TestCase {
+    
+    public Entity_LockstepEngineTest(String testName) {
+        super(testName);
+    }
+    
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+    
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of constructor, of class Entity_LockstepEngine.
+     * Passes a tick of 0, which should cause an Illegal Simulation Exception.
+     */
+    public void testZeroTick() {
+        System.out.println("zero tick");
+        try {
+            new Entity_LockstepEngine(0);
+            fail("Should have caused an Illegal Simulation Exception");
+        } catch (IllegalSimulationException e) {
+            
+        }
+    }
+    
+    /**
+     * Test of gcd method, of class Entity_LockstepEngine.
+     * The tick for the data file's travel and door times should be a second.
+     */
+    public void testGcd() {
+        System.out.println("gcd");
+        assertEquals(1000, Entity_LockstepEngine.gcd(
+                Entity_LockstepEngine.gcd(1000, 3000), 
+                Entity_LockstepEngine.gcd(10000, 60000)));
+        assertEquals(250, Entity_LockstepEngine.gcd(750, 1000));
+    }
+    
+    /**
+     * Test of getTick and getCurrentTime methods, of class Entity_LockstepEngine.
+     * A new engine starts at time zero with the tick it was given.
+     * @throws IllegalSimulationException
+     */
+    public void testNewEngine() throws IllegalSimulationException {
+        System.out.println("new engine");
+        Entity_LockstepEngine instance = new Entity_LockstepEngine(500);
+        assertEquals(500, instance.getTick());
+        assertEquals(0, instance.getCurrentTime());
+        assertEquals(0, instance.getTicksRun());
+    }
+    
+}
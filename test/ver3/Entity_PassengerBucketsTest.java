@@ -0,0 +1,139 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.util.List;
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalFloorException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_PassengerBucketsTest extends TestCase {
+
+    public Entity_PassengerBucketsTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * A person who only knows where they are going
+     */
+    private static class Rider implements Interface_Person {
+
+        private final int serial;
+        private final int destination;
+
+        Rider(int serial, int destination) {
+            this.serial = serial;
+            this.destination = destination;
+        }
+
+        public int getIntendedDestination() { return destination; }
+        public int getSerialNumber() { return serial; }
+        public void pressCallbox() { }
+        public int getIntendedDirection() { return 1; }
+        public int getStartFloor() { return 1; }
+        public void markEnterElevatorTime() { }
+        public void markArrivalTime() { }
+        public double getWaitTime() { return 0; }
+        public double getRideTime() { return 0; }
+        public int getAssignedElevator() { return -1; }
+        public void setAssignedElevator(int serial) { }
+    }
+
+    /**
+     * Test of add, count and size methods, of class Entity_PassengerBuckets.
+     */
+    public void testAddAndCount() throws IllegalFloorException {
+        System.out.println("add and count");
+        Entity_PassengerBuckets instance = new Entity_PassengerBuckets(16);
+
+        assertTrue(instance.isEmpty());
+
+        instance.add(new Rider(1, 7));
+        instance.add(new Rider(2, 3));
+        instance.add(new Rider(3, 7));
+
+        assertFalse(instance.isEmpty());
+        assertEquals(3, instance.size());
+        assertEquals(2, instance.count(7));
+        assertEquals(1, instance.count(3));
+        assertEquals(0, instance.count(5));
+        assertEquals(0, instance.count(40));
+    }
+
+    /**
+     * Test of removeAll method, of class Entity_PassengerBuckets.
+     * Only the people going to the floor get off, in the order they got on.
+     */
+    public void testRemoveAll() throws IllegalFloorException {
+        System.out.println("removeAll");
+        Entity_PassengerBuckets instance = new Entity_PassengerBuckets(16);
+
+        instance.add(new Rider(1, 7));
+        instance.add(new Rider(2, 3));
+        instance.add(new Rider(3, 7));
+
+        List<Interface_Person> leaving = instance.removeAll(7);
+
+        assertEquals(2, leaving.size());
+        assertEquals(1, leaving.get(0).getSerialNumber());
+        assertEquals(3, leaving.get(1).getSerialNumber());
+        assertEquals(0, instance.count(7));
+        assertEquals(1, instance.size());
+
+        assertTrue(instance.removeAll(7).isEmpty());
+        assertTrue(instance.removeAll(0).isEmpty());
+        assertEquals(1, instance.size());
+    }
+
+    /**
+     * Test of toList method, of class Entity_PassengerBuckets.
+     * A person going to a floor outside the building cannot get on.
+     */
+    public void testToListAndBadDestination() throws IllegalFloorException {
+        System.out.println("toList and bad destination");
+        Entity_PassengerBuckets instance = new Entity_PassengerBuckets(16);
+
+        instance.add(new Rider(1, 9));
+        instance.add(new Rider(3, 2));
+
+        try
+        {
+            instance.add(new Rider(2, 40));
+            fail("Expected an IllegalFloorException");
+        }
+        catch(IllegalFloorException e)
+        {
+        }
+
+        try
+        {
+            instance.add(new Rider(4, 0));
+            fail("Expected an IllegalFloorException");
+        }
+        catch(IllegalFloorException e)
+        {
+        }
+
+        List<Interface_Person> riding = instance.toList();
+
+        assertEquals(2, riding.size());
+        assertEquals(3, riding.get(0).getSerialNumber());
+        assertEquals(1, riding.get(1).getSerialNumber());
+        assertEquals(2, instance.size());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.util.TreeMap;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_PendingCallSetTest extends TestCase {
+
+    public Entity_PendingCallSetTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of add and remove methods, of class Entity_PendingCallSet.
+     * The two directions of a floor are pending separately.
+     */
+    public void testAddAndRemove() {
+        System.out.println("add and remove");
+        Entity_PendingCallSet instance = new Entity_PendingCallSet(16);
+
+        assertTrue(instance.isEmpty());
+        assertTrue(instance.add(7, 1));
+        assertFalse(instance.add(7, 1));
+        assertTrue(instance.add(7, -1));
+        assertEquals(2, instance.getCode(7));
+
+        assertTrue(instance.remove(7, 1));
+        assertFalse(instance.remove(7, 1));
+        assertEquals(-1, instance.getCode(7));
+        assertFalse(instance.isEmpty());
+
+        assertTrue(instance.remove(7, -1));
+        assertEquals(0, instance.getCode(7));
+        assertTrue(instance.isEmpty());
+    }
+
+    /**
+     * Test of add and remove methods, of class Entity_PendingCallSet.
+     * A floor below zero or past the capacity, which for 16 floors is 18,
+     * or a direction other than -1 or 1 is never pending.
+     */
+    public void testAddAndRemoveOutOfRange() {
+        System.out.println("add and remove out of range");
+        Entity_PendingCallSet instance = new Entity_PendingCallSet(16);
+
+        assertFalse(instance.add(-1, 1));
+        assertFalse(instance.add(18, 1));
+        assertFalse(instance.add(18, -1));
+        assertFalse(instance.add(7, 0));
+        assertFalse(instance.add(7, 2));
+        assertTrue(instance.isEmpty());
+
+        assertTrue(instance.add(17, -1));
+        assertFalse(instance.remove(-1, -1));
+        assertFalse(instance.remove(18, -1));
+        assertFalse(instance.remove(17, 0));
+        assertEquals(-1, instance.getCode(17));
+    }
+
+    /**
+     * Test of nextFloor and previousFloor methods, of class Entity_PendingCallSet.
+     * The searches cross from one word of bits into the next.
+     */
+    public void testNextAndPreviousFloor() {
+        System.out.println("nextFloor and previousFloor");
+        Entity_PendingCallSet instance = new Entity_PendingCallSet(200);
+        instance.add(3, -1);
+        instance.add(70, 1);
+        instance.add(150, -1);
+
+        assertEquals(3, instance.nextFloor(0, 0));
+        assertEquals(70, instance.nextFloor(4, 0));
+        assertEquals(150, instance.nextFloor(4, -1));
+        assertEquals(-1, instance.nextFloor(151, 0));
+        assertEquals(70, instance.previousFloor(149, 0));
+        assertEquals(3, instance.previousFloor(149, -1));
+        assertEquals(150, instance.previousFloor(500, 0));
+        assertEquals(-1, instance.previousFloor(2, 0));
+    }
+
+    /**
+     * Test of nearestFloor method, of class Entity_PendingCallSet.
+     * An idle elevator looks both ways and takes the lower floor on a tie.
+     */
+    public void testNearestFloor() {
+        System.out.println("nearestFloor");
+        Entity_PendingCallSet instance = new Entity_PendingCallSet(16);
+        instance.add(4, 1);
+        instance.add(10, -1);
+
+        assertEquals(4, instance.nearestFloor(7, 0));
+        assertEquals(10, instance.nearestFloor(8, 0));
+        assertEquals(10, instance.nearestFloor(5, 1));
+        assertEquals(4, instance.nearestFloor(9, -1));
+        assertEquals(-1, instance.nearestFloor(11, 1));
+    }
+
+    /**
+     * Test of toTreeMap method, of class Entity_PendingCallSet.
+     * The copy uses the pending list's direction codes.
+     */
+    public void testToTreeMap() {
+        System.out.println("toTreeMap");
+        Entity_PendingCallSet instance = new Entity_PendingCallSet(16);
+        instance.add(2, 1);
+        instance.add(5, -1);
+        instance.add(5, 1);
+
+        TreeMap<Integer, Integer> expResult = new TreeMap<Integer, Integer>();
+        expResult.put(2, 1);
+        expResult.put(5, 2);
+
+        assertEquals(expResult, instance.toTreeMap());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_RandomStreamsTest extends TestCase {
+    
+    public Entity_RandomStreamsTest(String testName) {
+        super(testName);
+    }
+    
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+    
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of nextOrigin and nextDestination methods, of class Entity_RandomStreams.
+     * The same seed and replication should replay the same numbers.
+     */
+    public void testReplay() {
+        System.out.println("replay");
+        Entity_RandomStreams first = new Entity_RandomStreams(42, 3, 16);
+        Entity_RandomStreams second = new Entity_RandomStreams(42, 3, 16);
+        
+        for(int i = 0; i < 10; ++i)
+        {
+            assertEquals(first.nextOrigin(), second.nextOrigin(), 0.0);
+            assertEquals(first.nextDestination(7), second.nextDestination(7), 0.0);
+        }
+    }
+    
+    /**
+     * Test of nextDestination method, of class Entity_RandomStreams.
+     * Drawing for one floor should not change what another floor draws.
+     */
+    public void testFloorsAreIndependent() {
+        System.out.println("floors are independent");
+        Entity_RandomStreams first = new Entity_RandomStreams(42, 0, 16);
+        Entity_RandomStreams second = new Entity_RandomStreams(42, 0, 16);
+        
+        first.nextDestination(1);
+        first.nextOrigin();
+        
+        assertEquals(first.nextDestination(2), second.nextDestination(2), 0.0);
+    }
+    
+    /**
+     * Test of constructor, of class Entity_RandomStreams.
+     * Two replications of the same seed should draw different numbers.
+     */
+    public void testReplicationsDiffer() {
+        System.out.println("replications differ");
+        Entity_RandomStreams first = new Entity_RandomStreams(42, 0, 16);
+        Entity_RandomStreams second = new Entity_RandomStreams(42, 1, 16);
+        
+        assertFalse(first.nextOrigin() == second.nextOrigin());
+        assertEquals(1, second.getReplication());
+        assertEquals(42, second.getSeed());
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_ReplicationStatisticTest extends TestCase {
+    
+    public Entity_ReplicationStatisticTest(String testName) {
+        super(testName);
+    }
+    
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+    
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of getHalfWidth method, of class Entity_ReplicationStatistic.
+     * One value has no interval.
+     */
+    public void testSingleValue() {
+        System.out.println("single value");
+        Entity_ReplicationStatistic statistic = new Entity_ReplicationStatistic("wait");
+        statistic.add(12.0);
+        assertEquals(12.0, statistic.getMean(), 0.0);
+        assertEquals(0.0, statistic.getStandardDeviation(), 0.0);
+        assertTrue(Double.isInfinite(statistic.getHalfWidth()));
+    }
+    
+    /**
+     * Test of getMean, getStandardDeviation and getHalfWidth methods, of class 
+     * Entity_ReplicationStatistic.
+     * 2, 4, 4, 4, 5, 5, 7, 9 has a mean of 5 and a sample variance of 32/7.
+     */
+    public void testInterval() {
+        System.out.println("interval");
+        Entity_ReplicationStatistic statistic = new Entity_ReplicationStatistic("wait");
+        for(double value : new double[] {2, 4, 4, 4, 5, 5, 7, 9})
+            statistic.add(value);
+        
+        assertEquals(8, statistic.getCount());
+        assertEquals(5.0, statistic.getMean(), 1e-9);
+        assertEquals(Math.sqrt(32.0 / 7), statistic.getStandardDeviation(), 1e-9);
+        assertEquals(2.365 * Math.sqrt(32.0 / 7) / Math.sqrt(8), 
+                                            statistic.getHalfWidth(), 1e-9);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_SimulationContextTest extends TestCase {
+    
+    public Entity_SimulationContextTest(String testName) {
+        super(testName);
+    }
+    
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+    
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of getDefault method, of class Entity_SimulationContext.
+     * The singletons' getInstance methods should hand back the default context's objects.
+     */
+    public void testGetDefault() {
+        System.out.println("getDefault");
+        Entity_SimulationContext instance = Entity_SimulationContext.getDefault();
+        assertSame(instance, Entity_SimulationContext.getDefault());
+        assertSame(instance.getSimulation(), Singl_WorkingSimulation.getInstance());
+        assertSame(instance.getController(), Singl_WorkingController.getInstance());
+    }
+    
+    /**
+     * Test of getSimulation and getController methods, of class Entity_SimulationContext.
+     * Two contexts should never share a simulation or a controller.
+     */
+    public void testContextsAreIndependent() {
+        System.out.println("independent contexts");
+        Entity_SimulationContext first = new Entity_SimulationContext();
+        Entity_SimulationContext second = new Entity_SimulationContext();
+        assertNotSame(first.getSimulation(), second.getSimulation());
+        assertNotSame(first.getController(), second.getController());
+        assertSame(first.getController(), first.getController());
+    }
+    
+    /**
+     * Test of nextPersonSerialNumber method, of class Entity_SimulationContext.
+     * Each context should count its people from one.
+     */
+    public void testSerialNumbersArePerContext() {
+        System.out.println("serial numbers");
+        Entity_SimulationContext first = new Entity_SimulationContext();
+        Entity_SimulationContext second = new Entity_SimulationContext();
+        assertEquals(1, first.nextPersonSerialNumber());
+        assertEquals(2, first.nextPersonSerialNumber());
+        assertEquals(1, second.nextPersonSerialNumber());
+        assertEquals('A', second.nextElevatorLetterName());
+    }
+    
+}
@@ -0,0 +1,116 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_StopSetTest extends TestCase {
+
+    public Entity_StopSetTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of add, remove, contains and size methods, of class Entity_StopSet.
+     * A floor is only ever one kind of stop.
+     */
+    public void testAddAndRemove() {
+        System.out.println("add and remove");
+        Entity_StopSet instance = new Entity_StopSet(16);
+
+        assertTrue(instance.isEmpty());
+        assertTrue(instance.add(7, 1));
+        assertFalse(instance.add(7, 1));
+        assertFalse(instance.add(7, -1));
+        assertTrue(instance.contains(7));
+        assertEquals(1, instance.size());
+
+        assertFalse(instance.add(40, 1));
+        assertFalse(instance.contains(40));
+
+        assertTrue(instance.remove(7));
+        assertFalse(instance.remove(7));
+        assertFalse(instance.contains(7));
+        assertTrue(instance.isEmpty());
+        assertEquals(0, instance.size());
+    }
+
+    /**
+     * Test of nextStop and toArray methods, of class Entity_StopSet.
+     * Heading up, the up stops above come first from the bottom up, then
+     * the down stops from the top down, then the up stops below.
+     */
+    public void testVisitOrderHeadingUp() {
+        System.out.println("visit order heading up");
+        Entity_StopSet instance = new Entity_StopSet(16);
+
+        instance.add(12, 1);
+        instance.add(9, 1);
+        instance.add(2, 1);
+        instance.add(3, -1);
+        instance.add(14, -1);
+
+        assertEquals(9, instance.nextStop(5, 1));
+        assertTrue(Arrays.equals(new int[] {9, 12, 14, 3, 2},
+                                    instance.toArray(5, 1)));
+
+        // an idle elevator is treated as heading up
+        assertTrue(Arrays.equals(instance.toArray(5, 1), instance.toArray(5, 0)));
+    }
+
+    /**
+     * Test of nextStop and toArray methods, of class Entity_StopSet.
+     * Heading down the order is the other way round.
+     */
+    public void testVisitOrderHeadingDown() {
+        System.out.println("visit order heading down");
+        Entity_StopSet instance = new Entity_StopSet(16);
+
+        instance.add(12, 1);
+        instance.add(2, 1);
+        instance.add(3, -1);
+        instance.add(1, -1);
+        instance.add(14, -1);
+
+        assertEquals(3, instance.nextStop(5, -1));
+        assertTrue(Arrays.equals(new int[] {3, 1, 2, 12, 14},
+                                    instance.toArray(5, -1)));
+    }
+
+    /**
+     * Test of nextStop method, of class Entity_StopSet.
+     * The search crosses from one word of bits into the next, and an
+     * empty set has no next stop.
+     */
+    public void testNextStopAcrossWords() {
+        System.out.println("nextStop across words");
+        Entity_StopSet instance = new Entity_StopSet(200);
+
+        assertEquals(-1, instance.nextStop(1, 1));
+
+        instance.add(150, 1);
+        instance.add(70, -1);
+
+        assertEquals(150, instance.nextStop(10, 1));
+        assertEquals(70, instance.nextStop(199, -1));
+        assertEquals(70, instance.nextStop(160, 1));
+        assertEquals(150, instance.nextStop(60, -1));
+    }
+}
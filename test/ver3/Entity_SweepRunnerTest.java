@@ -0,0 +1,145 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import static junit.framework.Assert.fail;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_SweepRunnerTest extends TestCase {
+    
+    public Entity_SweepRunnerTest(String testName) {
+        super(testName);
+    }
+    
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+    
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of parseRange method, of class Entity_SweepRunner.
+     * Single values and spans can be mixed.
+     * @throws IllegalSimulationException
+     */
+    public void testParseRange() throws IllegalSimulationException {
+        System.out.println("parseRange");
+        assertEquals(Arrays.asList(2, 3, 4), Entity_SweepRunner.parseRange("2-4"));
+        assertEquals(Arrays.asList(1, 7, 16), Entity_SweepRunner.parseRange("1, 7,16"));
+        assertEquals(Arrays.asList(1, 4, 5), Entity_SweepRunner.parseRange("1,4-5"));
+    }
+    
+    /**
+     * Test of parseRange method, of class Entity_SweepRunner.
+     * A span that runs backwards should cause an Illegal Simulation Exception.
+     */
+    public void testBackwardsRange() {
+        System.out.println("backwards range");
+        try {
+            Entity_SweepRunner.parseRange("6-2");
+            fail("Should have caused an Illegal Simulation Exception");
+        } catch (IllegalSimulationException e) {
+            
+        }
+    }
+    
+    /**
+     * Test of buildConfigurations method, of class Entity_SweepRunner.
+     * Each set of default floors is built once: three floors for two 
+     * elevators is six layouts, not nine.
+     * @throws IllegalSimulationException
+     */
+    public void testBuildConfigurations() throws IllegalSimulationException {
+        System.out.println("buildConfigurations");
+        Entity_SweepRunner runner = new Entity_SweepRunner();
+        runner.setElevatorCounts(Arrays.asList(2));
+        runner.setDefaultFloors(Arrays.asList(16, 1, 7));
+        runner.setMaxPersons(Arrays.asList(8, 12));
+        runner.setVersions(Arrays.asList("Original", "New"));
+        
+        List<Entity_SweepConfiguration> configurations = runner.buildConfigurations();
+        assertEquals(2 * 2 * 6, configurations.size());
+        assertEquals("Original, 2 elevators @ 1/1, max 8", 
+                                        configurations.get(0).toString());
+        
+        runner.setSampleSize(5);
+        assertEquals(5, runner.buildConfigurations().size());
+    }
+    
+    /**
+     * Test of constructor, of class Entity_SweepConfiguration.
+     * An unknown version should cause an Illegal Simulation Exception.
+     */
+    public void testIllegalVersion() {
+        System.out.println("illegal version");
+        try {
+            new Entity_SweepConfiguration("Newest", new int[] {1}, 8);
+            fail("Should have caused an Illegal Simulation Exception");
+        } catch (IllegalSimulationException e) {
+            
+        }
+    }
+    
+    /**
+     * Test of setVersions method, of class Entity_SweepRunner.
+     * A version with no registered strategy should cause an Illegal 
+     * Simulation Exception when the sweep is set up, not when it runs.
+     */
+    public void testIllegalSweepVersion() {
+        System.out.println("illegal sweep version");
+        Entity_SweepRunner runner = new Entity_SweepRunner();
+        try {
+            runner.setVersions(Arrays.asList("New", "Newest"));
+            fail("Should have caused an Illegal Simulation Exception");
+        } catch (IllegalSimulationException e) {
+            
+        }
+    }
+    
+    /**
+     * Test of buildTable method, of class Entity_SweepRunner.
+     * A configuration whose run failed is listed under the table.
+     * @throws IllegalSimulationException
+     */
+    public void testBuildTableListsFailures() throws IllegalSimulationException {
+        System.out.println("buildTable lists failures");
+        Entity_SweepConfiguration failed 
+                    = new Entity_SweepConfiguration("New", new int[] {1, 7}, 8);
+        
+        String table = Entity_SweepRunner.buildTable(
+                    new ArrayList<Entity_SweepResult>(), Arrays.asList(failed));
+        assertTrue(table.contains("1 configurations failed to run"));
+        assertTrue(table.contains("FAIL  " + failed));
+        
+        assertFalse(Entity_SweepRunner.buildTable(
+                    new ArrayList<Entity_SweepResult>()).contains("FAIL"));
+    }
+    
+    /**
+     * Test of percentile method, of class Entity_SweepResult.
+     * The p95 of twenty values is the nineteenth.
+     */
+    public void testPercentile() {
+        System.out.println("percentile");
+        Double[] values = new Double[20];
+        for(int i = 0; i < values.length; ++i)
+            values[i] = (double) (i + 1);
+        
+        assertEquals(19.0, Entity_SweepResult.percentile(Arrays.asList(values), 95), 0.0);
+        assertEquals(1.0, Entity_SweepResult.percentile(Arrays.asList(1.0), 95), 0.0);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_TravelTimeTableTest extends TestCase {
+
+    public Entity_TravelTimeTableTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of getTravelTime method, of class Entity_TravelTimeTable.
+     * A trip takes the floor travel time for every floor passed, either way.
+     */
+    public void testGetTravelTime() throws IllegalSimulationException {
+        System.out.println("getTravelTime");
+        Entity_TravelTimeTable table = new Entity_TravelTimeTable(16, 1000);
+
+        assertEquals(0L, table.getTravelTime(7, 7));
+        assertEquals(15000L, table.getTravelTime(1, 16));
+        assertEquals(15000L, table.getTravelTime(16, 1));
+        assertEquals(3000L, table.getTravelTime(9, 6));
+        assertEquals(16, table.getNumberOfFloors());
+    }
+
+    /**
+     * Test of the constructor, of class Entity_TravelTimeTable.
+     * A building without floors cannot have a table.
+     */
+    public void testNoFloors() {
+        System.out.println("no floors");
+        try {
+            new Entity_TravelTimeTable(0, 1000);
+            fail("a table without floors was built");
+        } catch (IllegalSimulationException ex) {
+        }
+    }
+
+    /**
+     * Test of the constructor, of class Entity_TravelTimeTable.
+     * A negative floor travel time is not accepted.
+     */
+    public void testNegativeTravelTime() {
+        System.out.println("negative travel time");
+        try {
+            new Entity_TravelTimeTable(16, -1);
+            fail("a table with a negative travel time was built");
+        } catch (IllegalSimulationException ex) {
+        }
+    }
+}
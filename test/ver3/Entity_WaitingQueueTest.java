@@ -0,0 +1,198 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_WaitingQueueTest extends TestCase {
+
+    public Entity_WaitingQueueTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * A person who is only ever told apart by their serial number
+     */
+    private static class Rider implements Interface_Person {
+
+        private final int serial;
+
+        Rider(int serial) {
+            this.serial = serial;
+        }
+
+        public int getIntendedDestination() { return 7; }
+        public int getSerialNumber() { return serial; }
+        public void pressCallbox() { }
+        public int getIntendedDirection() { return 1; }
+        public int getStartFloor() { return 1; }
+        public void markEnterElevatorTime() { }
+        public void markArrivalTime() { }
+        public double getWaitTime() { return 0; }
+        public double getRideTime() { return 0; }
+        public int getAssignedElevator() { return -1; }
+        public void setAssignedElevator(int serial) { }
+    }
+
+    /**
+     * Test of offer, poll and size methods, of class Entity_WaitingQueue.
+     * People leave in the order they joined, past the point the slots
+     * have to grow.
+     */
+    public void testFirstComeFirstServed() {
+        System.out.println("first come first served");
+        Entity_WaitingQueue instance = new Entity_WaitingQueue();
+        Interface_Person[] people = new Interface_Person[40];
+
+        assertTrue(instance.isEmpty());
+        assertNull(instance.poll());
+
+        for(int i = 0; i < people.length; ++i)
+        {
+            people[i] = new Rider(i);
+            instance.offer(people[i], i + 1);
+        }
+
+        assertEquals(40, instance.size());
+        assertEquals(1, instance.getArrival(0));
+        assertEquals(40, instance.getArrival(39));
+
+        for(int i = 0; i < people.length; ++i)
+            assertSame(people[i], instance.poll());
+
+        assertTrue(instance.isEmpty());
+    }
+
+    /**
+     * Test of offer and poll methods, of class Entity_WaitingQueue. The
+     * queue keeps its order when the front has wrapped round the slots.
+     */
+    public void testWrapAround() {
+        System.out.println("wrap around");
+        Entity_WaitingQueue instance = new Entity_WaitingQueue();
+        Interface_Person[] people = new Interface_Person[30];
+
+        for(int i = 0; i < people.length; ++i)
+            people[i] = new Rider(i);
+
+        for(int i = 0; i < 10; ++i)
+            instance.offer(people[i], i);
+
+        for(int i = 0; i < 8; ++i)
+            assertSame(people[i], instance.poll());
+
+        for(int i = 10; i < people.length; ++i)
+            instance.offer(people[i], i);
+
+        assertEquals(22, instance.size());
+
+        for(int i = 8; i < people.length; ++i)
+        {
+            assertEquals(i, instance.getArrival(0));
+            assertSame(people[i], instance.poll());
+        }
+    }
+
+    /**
+     * Test of remove method, of class Entity_WaitingQueue. Someone taken
+     * from the middle leaves the others in order.
+     */
+    public void testRemove() {
+        System.out.println("remove");
+        Entity_WaitingQueue instance = new Entity_WaitingQueue();
+        Interface_Person first = new Rider(1);
+        Interface_Person second = new Rider(2);
+        Interface_Person third = new Rider(3);
+
+        instance.offer(first, 1);
+        instance.offer(second, 2);
+        instance.offer(third, 3);
+
+        assertSame(second, instance.remove(1));
+        assertEquals(2, instance.size());
+        assertSame(first, instance.get(0));
+        assertSame(third, instance.get(1));
+        assertEquals(3, instance.getArrival(1));
+
+        assertSame(first, instance.remove(0));
+        assertSame(third, instance.get(0));
+
+        try
+        {
+            instance.get(1);
+            fail("Expected an IndexOutOfBoundsException");
+        }
+        catch(IndexOutOfBoundsException e)
+        {
+        }
+    }
+
+    /**
+     * Test of removeAll method, of class Entity_WaitingQueue. People taken
+     * from round those left waiting leave them in order, with the front
+     * wrapped round the slots and the people behind the last taken alone.
+     */
+    public void testRemoveAll() {
+        System.out.println("remove all");
+        Entity_WaitingQueue instance = new Entity_WaitingQueue();
+        Interface_Person[] people = new Interface_Person[24];
+
+        for(int i = 0; i < people.length; ++i)
+            people[i] = new Rider(i);
+
+        for(int i = 0; i < 12; ++i)
+            instance.offer(people[i], i);
+
+        for(int i = 0; i < 10; ++i)
+            instance.poll();
+
+        for(int i = 12; i < people.length; ++i)
+            instance.offer(people[i], i);
+
+        // 10 to 23 are waiting, and 10, 12, 13 and 16 board
+        instance.removeAll(new int[] {0, 2, 3, 6, 0}, 4);
+
+        int[] left = {11, 14, 15, 17, 18, 19, 20, 21, 22, 23};
+        assertEquals(left.length, instance.size());
+
+        for(int i = 0; i < left.length; ++i)
+        {
+            assertSame(people[left[i]], instance.get(i));
+            assertEquals(left[i], instance.getArrival(i));
+        }
+
+        instance.removeAll(new int[0], 0);
+        assertEquals(left.length, instance.size());
+
+        try
+        {
+            instance.removeAll(new int[] {left.length}, 1);
+            fail("Expected an IndexOutOfBoundsException");
+        }
+        catch(IndexOutOfBoundsException e)
+        {
+        }
+
+        for(int i = 0; i < left.length; ++i)
+            assertSame(people[left[i]], instance.poll());
+
+        assertTrue(instance.isEmpty());
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalSimulationException;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Entity_WorkingElevatorTest extends TestCase {
+
+    public Entity_WorkingElevatorTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of run method, of class Entity_WorkingElevator.
+     * An idle elevator parks, and the stops, turns and pending requests
+     * posted to it from another thread wake it without a spurious wakeup.
+     * The Virtual backend runs the elevators on virtual threads wherever
+     * Thread.startVirtualThread exists, and on platform threads otherwise.
+     */
+    public void testIdleElevatorHasNoSpuriousWakeups()
+                    throws IllegalSimulationException, IllegalDirectionException,
+                                                        InterruptedException {
+        System.out.println("idle elevator has no spurious wakeups");
+        String[] backends = {"Platform", "Virtual"};
+
+        for(String backend : backends)
+        {
+            Entity_SimulationContext context = new Entity_SimulationContext(
+                                    Entity_SimulationContext.newDiscardingConsole());
+            Singl_WorkingSimulation simulation = context.getSimulation();
+            simulation.setExecutionBackendOverride(backend);
+            simulation.setUp("New", Singl_WorkingSimulation.REAL_TIME);
+
+            Interface_ElevatorExecutor executor = simulation.getElevatorExecutor();
+            Entity_WorkingElevator elevator = (Entity_WorkingElevator)
+                                    context.getBuilding().getElevatorList().get(1);
+
+            try {
+                awaitParked(elevator, elevator.getDefaultFloor());
+
+                for(int i = 0; i < 10; ++i)
+                {
+                    int floor = 2 + i % 5;
+
+                    // a picker turns an idle elevator and then sends it on
+                    elevator.setDirection(1);
+                    elevator.addToDestinationList(floor);
+                    awaitParked(elevator, floor);
+
+                    elevator.wakeForPendingRequest();
+                    awaitParked(elevator, elevator.getDefaultFloor());
+                }
+            } finally {
+                // a drain would wait for an elevator that never parked
+                for(Interface_Elevator e : context.getBuilding().getElevatorList())
+                    e.shutDown();
+                simulation.getHallCallQueue().shutDown();
+            }
+
+            assertTrue(executor.getWakeups() > 0);
+            assertEquals(0, executor.getSpuriousWakeups());
+        }
+    }
+
+    /**
+     * Waits for an elevator to be parked on a floor, failing after five
+     * seconds
+     *
+     * @param elevator the elevator to wait for
+     * @param floor the floor it should park on
+     * @throws InterruptedException
+     */
+    private static void awaitParked(Interface_Elevator elevator, int floor)
+                                                throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while(!(elevator.isParked() && elevator.getCurrentFloor() == floor))
+        {
+            assertTrue("Elevator never parked on floor #" + floor,
+                                    System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
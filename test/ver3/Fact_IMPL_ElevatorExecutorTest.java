@@ -0,0 +1,97 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class Fact_IMPL_ElevatorExecutorTest extends TestCase {
+    
+    public Fact_IMPL_ElevatorExecutorTest(String testName) {
+        super(testName);
+    }
+    
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+    
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of build method, of class Fact_IMPL_ElevatorExecutor.
+     * Passes Platform and Virtual and checks the matching IMPL is created.
+     */
+    public void testBuild() {
+        System.out.println("build");
+        assertTrue(Fact_IMPL_ElevatorExecutor.build("Platform") 
+                            instanceof IMPL_ElevatorExecutor_PLATFORM);
+        assertTrue(Fact_IMPL_ElevatorExecutor.build("Virtual") 
+                            instanceof IMPL_ElevatorExecutor_VIRTUAL);
+    }
+    
+    /**
+     * Test of execute method, of both executor IMPLs.
+     * Runs a loop that records one wakeup on each backend and verifies 
+     * that the thread and wakeup counts each come to one.
+     * @throws InterruptedException
+     */
+    public void testExecuteCountsThreadsAndWakeups() throws InterruptedException {
+        System.out.println("execute");
+        String[] backends = {"Platform", "Virtual"};
+        
+        for(String backend : backends)
+        {
+            final Interface_ElevatorExecutor instance 
+                            = Fact_IMPL_ElevatorExecutor.build(backend);
+            final Object done = new Object();
+            
+            synchronized(done) {
+                instance.execute(new Runnable() {
+                    public void run() {
+                        instance.recordWakeup();
+                        synchronized(done) {
+                            done.notifyAll();
+                        }
+                    }
+                });
+                done.wait(5000);
+            }
+            
+            assertEquals(1, instance.getThreadsStarted());
+            assertEquals(1, instance.getWakeups());
+        }
+    }
+    
+    /**
+     * Test of recordSpuriousWakeup method, of both executor IMPLs.
+     * Spurious wakeups are counted apart from the wakeups that found work.
+     */
+    public void testSpuriousWakeupsCountedSeparately() {
+        System.out.println("recordSpuriousWakeup");
+        String[] backends = {"Platform", "Virtual"};
+        
+        for(String backend : backends)
+        {
+            Interface_ElevatorExecutor instance 
+                            = Fact_IMPL_ElevatorExecutor.build(backend);
+            assertEquals(0, instance.getSpuriousWakeups());
+            
+            instance.recordWakeup();
+            instance.recordSpuriousWakeup();
+            instance.recordSpuriousWakeup();
+            
+            assertEquals(1, instance.getWakeups());
+            assertEquals(2, instance.getSpuriousWakeups());
+        }
+    }
+    
+}
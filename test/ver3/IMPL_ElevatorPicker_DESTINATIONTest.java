@@ -0,0 +1,76 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ver3;
+
+import ver3.project_exceptions.IllegalDirectionException;
+import ver3.project_exceptions.IllegalFloorException;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Kevin
+ */
+public class IMPL_ElevatorPicker_DESTINATIONTest extends TestCase {
+
+    public IMPL_ElevatorPicker_DESTINATIONTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /**
+     * Test of pick method, of class IMPL_ElevatorPicker_DESTINATION.
+     * Passes a value of MAX_VALUE for floor, which should cause an Illegal Floor Exception.
+     * @throws IllegalFloorException, IllegalDirectionException
+     */
+    public void testPickFloorTooHigh() throws IllegalFloorException, IllegalDirectionException {
+        System.out.println("pick floor max value");
+        IMPL_ElevatorPicker_DESTINATION instance = new IMPL_ElevatorPicker_DESTINATION();
+        try {
+            instance.pick(Integer.MAX_VALUE, 1);
+            fail("Should have caused an Illegal Floor Exception");
+        } catch (IllegalFloorException e) {
+            
+        }
+    }
+
+    /**
+     * Test of pick method, of class IMPL_ElevatorPicker_DESTINATION.
+     * Passes a value of 0 for direction, which should cause an Illegal Direction Exception.
+     * @throws IllegalFloorException, IllegalDirectionException
+     */
+    public void testPickNoDirection() throws IllegalFloorException, IllegalDirectionException {
+        System.out.println("pick direction 0");
+        IMPL_ElevatorPicker_DESTINATION instance = new IMPL_ElevatorPicker_DESTINATION();
+        try {
+            instance.pick(3, 0);
+            fail("Should have caused an Illegal Direction Exception");
+        } catch (IllegalDirectionException e) {
+            
+        }
+    }
+
+    /**
+     * Test of the Destination version, of class Entity_DispatchStrategyRegistry.
+     * Its picker takes destinations, so people use kiosks with it.
+     */
+    public void testDestinationVersion() {
+        System.out.println("destination version");
+        Entity_SimulationContext context = new Entity_SimulationContext();
+        Interface_DispatchStrategy strategy = Entity_DispatchStrategyRegistry.get("Destination");
+
+        assertNotNull(strategy);
+        assertTrue(strategy.buildPicker(context) instanceof Interface_DestinationPicker);
+        assertTrue(strategy.buildPendingProcessor(context) instanceof IMPL_PendingProcessor_IMPROVED);
+    }
+}